@@ -0,0 +1,137 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.apimanagement.ApiManagementConfiguration;
+import com.predic8.membrane.core.interceptor.apimanagement.quota.AMQuota;
+import com.predic8.membrane.core.interceptor.apimanagement.rateLimiter.AMRateLimiter;
+import com.predic8.membrane.core.rules.ServiceProxy;
+
+/**
+ * Rate limiting and quota accounting of the API management with many API keys, each having two of
+ * many policies, accessed concurrently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ApiManagementBenchmark {
+
+	private static final int SERVICES = 10;
+
+	@Param("100000")
+	public int keys;
+
+	@Param("50")
+	public int policies;
+
+	private AMRateLimiter rateLimiter;
+	private AMQuota quota;
+
+	@State(Scope.Thread)
+	public static class ThreadState {
+		Exchange[] exchanges = new Exchange[SERVICES];
+
+		@Setup
+		public void setup() throws Exception {
+			for (int i = 0; i < SERVICES; i++) {
+				exchanges[i] = new Request.Builder().get("/service" + i).header("User-Agent", "benchmark").buildExchange();
+				exchanges[i].setRule(new ServiceProxy());
+				exchanges[i].getRule().setName("service" + i);
+			}
+		}
+
+		Exchange next(int keys) {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			Exchange exc = exchanges[random.nextInt(SERVICES)];
+			exc.setProperty(Exchange.API_KEY, "key" + random.nextInt(keys));
+			return exc;
+		}
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		File dir = Files.createTempDirectory("membrane-benchmark").toFile();
+		File config = new File(dir, "api.yaml");
+		try (Writer w = new OutputStreamWriter(new FileOutputStream(config), "UTF-8")) {
+			w.write("policies:\n");
+			for (int p = 0; p < policies; p++) {
+				w.write("  - policy:\n");
+				w.write("      id: \"policy" + p + "\"\n");
+				w.write("      rateLimit:\n");
+				w.write("        requests: 1000000000\n");
+				w.write("        interval: 60\n");
+				w.write("      quota:\n");
+				w.write("        size: 100G\n");
+				w.write("        interval: 60\n");
+				w.write("      serviceProxy:\n");
+				w.write("        - \"service" + (p % SERVICES) + "\"\n");
+				w.write("        - \"service" + ((p + 1) % SERVICES) + "\"\n");
+			}
+			w.write("keys:\n");
+			for (int k = 0; k < keys; k++) {
+				w.write("  - key: \"key" + k + "\"\n");
+				w.write("    policies:\n");
+				w.write("      - \"policy" + (k % policies) + "\"\n");
+				w.write("      - \"policy" + ((k * 7 + 1) % policies) + "\"\n");
+			}
+		}
+		dir.deleteOnExit();
+		config.deleteOnExit();
+		ApiManagementConfiguration amc = new ApiManagementConfiguration(dir.getAbsolutePath(), "api.yaml");
+
+		rateLimiter = new AMRateLimiter();
+		rateLimiter.setAmc(amc);
+		quota = new AMQuota();
+		quota.setAmc(amc);
+	}
+
+	@Benchmark
+	public Outcome rateLimit(ThreadState state) throws Exception {
+		return rateLimiter.handleRequest(state.next(keys));
+	}
+
+	@Benchmark
+	public Outcome quota(ThreadState state) throws Exception {
+		return quota.handleRequest(state.next(keys));
+	}
+
+}
@@ -0,0 +1,119 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.http.AbstractBody;
+import com.predic8.membrane.core.http.Body;
+import com.predic8.membrane.core.http.ChunkedBody;
+import com.predic8.membrane.core.http.PlainBodyTransferrer;
+
+/**
+ * Reading bodies with a Content-Length and chunked bodies into memory and copying their content, streaming a
+ * body through without keeping it, and taking a snapshot of a body which has been read.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BodyBenchmark {
+
+	@Param({ "1024", "65536", "1048576" })
+	public int bodySize;
+
+	private byte[] content;
+	private byte[] chunked;
+	private Body read;
+
+	private static final OutputStream NULL = new OutputStream() {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	};
+
+	@Setup
+	public void setup() throws IOException {
+		content = new byte[bodySize];
+		for (int i = 0; i < bodySize; i++)
+			content[i] = (byte) ('a' + i % 26);
+
+		// chunks of 8 KB, as sent by many servers
+		ByteArrayOutputStream c = new ByteArrayOutputStream();
+		for (int offset = 0; offset < bodySize; offset += 8192) {
+			int length = Math.min(8192, bodySize - offset);
+			c.write((Integer.toHexString(length) + "\r\n").getBytes("US-ASCII"));
+			c.write(content, offset, length);
+			c.write("\r\n".getBytes("US-ASCII"));
+		}
+		c.write("0\r\n\r\n".getBytes("US-ASCII"));
+		chunked = c.toByteArray();
+
+		read = new Body(content);
+	}
+
+	private static byte[] readAndRelease(AbstractBody body) throws IOException {
+		try {
+			body.read();
+			return body.getContent();
+		} finally {
+			body.release();
+		}
+	}
+
+	@Benchmark
+	public byte[] readAndCopy() throws IOException {
+		return readAndRelease(new Body(new ByteArrayInputStream(content), content.length));
+	}
+
+	@Benchmark
+	public byte[] readChunkedAndCopy() throws IOException {
+		return readAndRelease(new ChunkedBody(new ByteArrayInputStream(chunked)));
+	}
+
+	@Benchmark
+	public Body streamThrough() throws IOException {
+		Body body = new Body(new ByteArrayInputStream(content), content.length);
+		body.write(new PlainBodyTransferrer(NULL));
+		return body;
+	}
+
+	@Benchmark
+	public AbstractBody snapshot() {
+		return read.createSnapshot();
+	}
+
+}
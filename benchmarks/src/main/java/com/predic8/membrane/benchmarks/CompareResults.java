@@ -0,0 +1,92 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH result files written with "-rf json" (see the "jmh-json" profile).
+ *
+ * Prints the change of every benchmark present in both files and exits with status 1 if a benchmark became
+ * slower by more than the threshold (in percent, default 10): for throughput, a lower score is slower, for
+ * all other modes a higher one.
+ *
+ * Usage: CompareResults baseline.json current.json [threshold]
+ */
+public class CompareResults {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: CompareResults baseline.json current.json [threshold]");
+			System.exit(2);
+		}
+		double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+		Map<String, JsonNode> baseline = read(new File(args[0]));
+		Map<String, JsonNode> current = read(new File(args[1]));
+
+		int regressions = 0;
+		for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+			JsonNode old = baseline.get(e.getKey());
+			if (old == null) {
+				System.out.println(String.format("%-100s %s", e.getKey(), "new"));
+				continue;
+			}
+			double before = old.path("primaryMetric").path("score").asDouble();
+			double after = e.getValue().path("primaryMetric").path("score").asDouble();
+			if (before == 0)
+				continue;
+			double change = (after - before) / before * 100;
+			boolean higherIsBetter = "thrpt".equals(e.getValue().path("mode").asText());
+			double slowdown = higherIsBetter ? -change : change;
+			boolean regression = slowdown > threshold;
+			if (regression)
+				regressions++;
+			System.out.println(String.format("%-100s %12.3f -> %12.3f %s %+7.1f%%%s", e.getKey(), before, after,
+					e.getValue().path("primaryMetric").path("scoreUnit").asText(), change, regression ? "  REGRESSION" : ""));
+		}
+		if (regressions > 0) {
+			System.out.println(regressions + " benchmark(s) slower by more than " + threshold + "%.");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @return the results by benchmark, mode and parameters
+	 */
+	private static Map<String, JsonNode> read(File file) throws IOException {
+		Map<String, JsonNode> results = new LinkedHashMap<String, JsonNode>();
+		for (JsonNode result : new ObjectMapper().readTree(file)) {
+			StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+			key.append(" ").append(result.path("mode").asText());
+			Map<String, String> params = new TreeMap<String, String>();
+			for (Iterator<Map.Entry<String, JsonNode>> it = result.path("params").fields(); it.hasNext(); ) {
+				Map.Entry<String, JsonNode> param = it.next();
+				params.put(param.getKey(), param.getValue().asText());
+			}
+			if (!params.isEmpty())
+				key.append(" ").append(params);
+			results.put(key.toString(), result);
+		}
+		return results;
+	}
+
+}
@@ -0,0 +1,105 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.transport.http.Connection;
+import com.predic8.membrane.core.transport.http.ConnectionManager;
+
+/**
+ * Borrowing a pooled keep-alive connection to a local server socket and returning it, from one and from
+ * several threads (which contend for the pool's lock).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionManagerBenchmark {
+
+	private ServerSocket server;
+	private final List<Socket> accepted = new ArrayList<Socket>();
+	private ConnectionManager connectionManager;
+	private int port;
+
+	@Setup
+	public void setup() throws Exception {
+		server = new ServerSocket(0, 100, InetAddress.getLoopbackAddress());
+		port = server.getLocalPort();
+		Thread acceptor = new Thread("Acceptor") {
+			@Override
+			public void run() {
+				try {
+					while (true) {
+						Socket s = server.accept();
+						synchronized (accepted) {
+							accepted.add(s);
+						}
+					}
+				} catch (IOException e) {
+					// closed
+				}
+			}
+		};
+		acceptor.setDaemon(true);
+		acceptor.start();
+		connectionManager = new ConnectionManager(60000);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		server.close();
+		synchronized (accepted) {
+			for (Socket s : accepted)
+				s.close();
+		}
+	}
+
+	@Benchmark
+	public Connection borrowAndRelease() throws Exception {
+		Connection c = connectionManager.getConnection("localhost", port, null, null, 10000);
+		c.release();
+		return c;
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Connection borrowAndReleaseContended() throws Exception {
+		Connection c = connectionManager.getConnection("localhost", port, null, null, 10000);
+		c.release();
+		return c;
+	}
+
+}
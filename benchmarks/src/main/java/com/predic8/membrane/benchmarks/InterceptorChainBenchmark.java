@@ -0,0 +1,98 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.interceptor.AbstractInterceptor;
+import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
+import com.predic8.membrane.core.interceptor.InterceptorFlowController;
+import com.predic8.membrane.core.interceptor.Outcome;
+
+/**
+ * Running an exchange through a compiled chain of interceptors which do (almost) nothing, measuring the
+ * overhead of the flow controller itself: the request handlers, the last one returning a response, and then
+ * the response handlers in reverse order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterceptorChainBenchmark {
+
+	@Param({ "5", "20" })
+	public int interceptors;
+
+	private final InterceptorFlowController flowController = new InterceptorFlowController();
+	private InterceptorChain chain;
+
+	private static class CountingInterceptor extends AbstractInterceptor {
+		long requests, responses;
+
+		@Override
+		public Outcome handleRequest(Exchange exc) throws Exception {
+			requests++;
+			return Outcome.CONTINUE;
+		}
+
+		@Override
+		public Outcome handleResponse(Exchange exc) throws Exception {
+			responses++;
+			return Outcome.CONTINUE;
+		}
+	}
+
+	@Setup
+	public void setup() {
+		List<Interceptor> list = new ArrayList<Interceptor>();
+		for (int i = 0; i < interceptors; i++)
+			list.add(new CountingInterceptor());
+		list.add(new AbstractInterceptor() {
+			@Override
+			public Outcome handleRequest(Exchange exc) throws Exception {
+				exc.setResponse(Response.ok().build());
+				return Outcome.RETURN;
+			}
+		});
+		chain = InterceptorChain.compile(list);
+	}
+
+	@Benchmark
+	public Exchange invokeHandlers() throws Exception {
+		Exchange exc = new Request.Builder().get("/orders/4711").buildExchange();
+		flowController.invokeHandlers(exc, chain);
+		return exc;
+	}
+
+}
@@ -0,0 +1,95 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.schemavalidation.JSONValidator;
+import com.predic8.membrane.core.resolver.ResolverMap;
+
+/**
+ * Validating a bulk request (an array of objects) against a JSON Schema, using the tree-based and the
+ * streaming validator.
+ *
+ * Run with "-prof gc" to compare the heap allocation per request ("gc.alloc.rate.norm").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JSONValidatorBenchmark {
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	@Param({ "TREE", "STREAMING" })
+	public JSONValidator.Mode mode;
+
+	@Param({ "100", "100000" })
+	public int items;
+
+	private JSONValidator validator;
+	private byte[] body;
+
+	@Setup
+	public void setup() throws Exception {
+		File schema = File.createTempFile("membrane-benchmark", ".json");
+		schema.deleteOnExit();
+		try (Writer w = new OutputStreamWriter(new FileOutputStream(schema), UTF8)) {
+			w.write("{\"type\":\"array\",\"items\":{\"type\":\"object\",\"required\":[\"id\",\"name\"],"
+					+ "\"properties\":{"
+					+ "\"id\":{\"type\":\"integer\",\"minimum\":0},"
+					+ "\"name\":{\"type\":\"string\",\"maxLength\":40},"
+					+ "\"price\":{\"type\":\"number\",\"minimum\":0},"
+					+ "\"tags\":{\"type\":\"array\",\"items\":{\"type\":\"string\"}}}}}");
+		}
+		validator = new JSONValidator(new ResolverMap(), schema.getAbsolutePath(), null, mode);
+
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < items; i++) {
+			if (i > 0)
+				sb.append(',');
+			sb.append("{\"id\":").append(i).append(",\"name\":\"article ").append(i)
+					.append("\",\"price\":").append(i % 100).append(".99,\"tags\":[\"a\",\"b\"]}");
+		}
+		body = sb.append(']').toString().getBytes(UTF8);
+	}
+
+	@Benchmark
+	public Outcome validate() throws Exception {
+		return validator.validateMessage(new Exchange(null), new ByteArrayInputStream(body), UTF8, "request");
+	}
+
+}
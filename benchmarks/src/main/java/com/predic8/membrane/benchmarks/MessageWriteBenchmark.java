@@ -0,0 +1,134 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.http.Body;
+import com.predic8.membrane.core.http.Header;
+import com.predic8.membrane.core.http.Response;
+
+/**
+ * Writing 1 KB and 64 KB responses to a socket-like stream, buffered like the streams of a connection.
+ *
+ * Every write reaching the stream below the buffer stands for a send() system call. "write" reports the
+ * latency distribution (including p99), "writeCountingSyscalls" the number of writes and flushes: divide
+ * "writes" by "messages" to get the system calls per response.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageWriteBenchmark {
+
+	@Param({ "1024", "65536" })
+	public int bodySize;
+
+	@Param({ "2048", "8192" })
+	public int bufferSize;
+
+	/** whether the body is streamed from its source or has already been read */
+	@Param({ "false", "true" })
+	public boolean streamed;
+
+	private byte[] content;
+	private Response response;
+	private SocketStream socket;
+	private OutputStream out;
+
+	/**
+	 * Discards the data, counting the calls.
+	 */
+	private static class SocketStream extends OutputStream {
+		long writes, flushes;
+
+		@Override
+		public void write(int b) {
+			writes++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			writes++;
+		}
+
+		@Override
+		public void flush() {
+			flushes++;
+		}
+	}
+
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Syscalls {
+		public long writes, flushes, messages;
+	}
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		content = new byte[bodySize];
+		for (int i = 0; i < bodySize; i++)
+			content[i] = (byte) ('a' + i % 26);
+		socket = new SocketStream();
+		out = new BufferedOutputStream(socket, bufferSize);
+	}
+
+	@Setup(Level.Invocation)
+	public void createResponse() throws Exception {
+		response = Response.ok()
+				.header(Header.CONTENT_TYPE, "text/plain")
+				.header(Header.SERVER, "Membrane")
+				.header("X-Request-Id", "3f1e2d4c-8b7a-4e6f-9d0c-1a2b3c4d5e6f")
+				.body(content)
+				.build();
+		if (streamed)
+			response.setBody(new Body(new ByteArrayInputStream(content), content.length));
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	public void write() throws IOException {
+		response.write(out);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public void writeCountingSyscalls(Syscalls syscalls) throws IOException {
+		long writes = socket.writes, flushes = socket.flushes;
+		response.write(out);
+		syscalls.writes += socket.writes - writes;
+		syscalls.flushes += socket.flushes - flushes;
+		syscalls.messages++;
+	}
+
+}
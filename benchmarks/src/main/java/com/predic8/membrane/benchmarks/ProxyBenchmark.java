@@ -0,0 +1,124 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.HttpRouter;
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Header;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.interceptor.AbstractInterceptor;
+import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.rules.ServiceProxy;
+import com.predic8.membrane.core.rules.ServiceProxyKey;
+import com.predic8.membrane.core.transport.http.HttpClient;
+
+/**
+ * Sending requests through an in-process router to a stub backend (a second router answering every request
+ * with a fixed response), over keep-alive connections on the loopback interface. This covers the whole path
+ * of an exchange: reading the request, finding the proxy, running the interceptors, forwarding the request,
+ * and reading and writing the response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProxyBenchmark {
+
+	private static final int PROXY_PORT = 3091, BACKEND_PORT = 3092;
+
+	@Param({ "128", "16384" })
+	public int responseSize;
+
+	private HttpRouter backend, proxy;
+	private byte[] requestBody;
+
+	@State(Scope.Thread)
+	public static class Client {
+		final HttpClient client = new HttpClient();
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		final byte[] responseBody = new byte[responseSize];
+		for (int i = 0; i < responseSize; i++)
+			responseBody[i] = (byte) ('a' + i % 26);
+		requestBody = "{\"id\":4711,\"items\":[1,2,3]}".getBytes("UTF-8");
+
+		backend = new HttpRouter();
+		ServiceProxy stub = new ServiceProxy(new ServiceProxyKey("*", "*", ".*", BACKEND_PORT), null, 0);
+		stub.getInterceptors().add(new AbstractInterceptor() {
+			@Override
+			public Outcome handleRequest(Exchange exc) throws Exception {
+				exc.getRequest().getBody().read();
+				exc.setResponse(Response.ok().contentType("application/json").body(responseBody).build());
+				return Outcome.RETURN;
+			}
+		});
+		backend.getRuleManager().addProxyAndOpenPortIfNew(stub);
+		backend.init();
+
+		proxy = new HttpRouter();
+		proxy.getRuleManager().addProxyAndOpenPortIfNew(
+				new ServiceProxy(new ServiceProxyKey("*", "*", ".*", PROXY_PORT), "localhost", BACKEND_PORT));
+		proxy.init();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		proxy.shutdown();
+		backend.shutdown();
+	}
+
+	private byte[] call(HttpClient client) throws Exception {
+		Exchange exc = new Request.Builder()
+				.post("http://localhost:" + PROXY_PORT + "/api/orders")
+				.header(Header.CONTENT_TYPE, "application/json")
+				.body(requestBody)
+				.buildExchange();
+		client.call(exc);
+		return exc.getResponse().getBody().getContent();
+	}
+
+	@Benchmark
+	public byte[] proxy(Client client) throws Exception {
+		return call(client.client);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public byte[] proxyConcurrent(Client client) throws Exception {
+		return call(client.client);
+	}
+
+}
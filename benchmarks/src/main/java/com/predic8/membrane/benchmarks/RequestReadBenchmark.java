@@ -0,0 +1,97 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.Constants;
+import com.predic8.membrane.core.http.Header;
+import com.predic8.membrane.core.http.Request;
+
+/**
+ * Parsing a typical browser request (start line and 12 header fields) from a stream, with and without reading
+ * its body, and parsing the header alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestReadBenchmark {
+
+	@Param({ "0", "1024" })
+	public int bodySize;
+
+	private byte[] request;
+	private byte[] header;
+
+	@Setup
+	public void setup() throws Exception {
+		ByteArrayOutputStream h = new ByteArrayOutputStream();
+		String fields = "Host: api.example.com\r\n" +
+				"User-Agent: Mozilla/5.0 (X11; Linux x86_64; rv:128.0) Gecko/20100101 Firefox/128.0\r\n" +
+				"Accept: application/json, text/plain, */*\r\n" +
+				"Accept-Language: en-US,en;q=0.5\r\n" +
+				"Accept-Encoding: gzip, deflate, br\r\n" +
+				"Content-Type: application/json\r\n" +
+				"Content-Length: " + bodySize + "\r\n" +
+				"Origin: https://www.example.com\r\n" +
+				"Connection: keep-alive\r\n" +
+				"Referer: https://www.example.com/orders\r\n" +
+				"Cookie: session=3f1e2d4c8b7a4e6f9d0c1a2b3c4d5e6f; theme=dark\r\n" +
+				"X-Request-Id: 3f1e2d4c-8b7a-4e6f-9d0c-1a2b3c4d5e6f\r\n" +
+				"\r\n";
+		header = fields.getBytes(Constants.UTF_8_CHARSET);
+		h.write(("POST /api/v1/orders/4711/items?expand=true HTTP/1.1\r\n" + fields).getBytes(Constants.UTF_8_CHARSET));
+		for (int i = 0; i < bodySize; i++)
+			h.write('a' + i % 26);
+		request = h.toByteArray();
+	}
+
+	@Benchmark
+	public Request read() throws Exception {
+		Request r = new Request();
+		r.read(new ByteArrayInputStream(request), true);
+		r.getBody().read();
+		return r;
+	}
+
+	@Benchmark
+	public Request readHeaderOnly() throws Exception {
+		Request r = new Request();
+		r.read(new ByteArrayInputStream(request), false);
+		return r;
+	}
+
+	@Benchmark
+	public Header parseHeader() throws Exception {
+		return new Header(new ByteArrayInputStream(header));
+	}
+
+}
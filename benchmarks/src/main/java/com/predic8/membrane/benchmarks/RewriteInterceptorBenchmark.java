@@ -0,0 +1,85 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.HttpRouter;
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.rewrite.RewriteInterceptor;
+import com.predic8.membrane.core.interceptor.rewrite.RewriteInterceptor.Mapping;
+
+/**
+ * Rewriting request URIs with many mappings: half of them anchored ("^/serviceN/(.*)"), the other
+ * half floating ("/legacyN/(.*)"). The URIs hit the last mappings or none at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RewriteInterceptorBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int mappings;
+
+	private RewriteInterceptor rewriter;
+	private String[] uris;
+	private int next;
+
+	@Setup
+	public void setup() throws Exception {
+		List<Mapping> list = new ArrayList<Mapping>();
+		for (int i = 0; i < mappings / 2; i++) {
+			list.add(new Mapping("^/service" + i + "/(.*)", "/backend/service" + i + "/$1", null));
+			list.add(new Mapping("/legacy" + i + "/(.*)", "/backend/legacy" + i + "/$1", null));
+		}
+		rewriter = new RewriteInterceptor();
+		rewriter.setMappings(list);
+		rewriter.init(new HttpRouter());
+
+		uris = new String[] {
+				"/service" + (mappings / 2 - 1) + "/orders/4711",
+				"/api/legacy" + (mappings / 2 - 1) + "/orders?id=4711",
+				"/unknown/orders/4711",
+				"/service0/orders",
+		};
+	}
+
+	@Benchmark
+	public Outcome rewrite() throws Exception {
+		String uri = uris[next++ & 3];
+		Exchange exc = new Request.Builder().get(uri).buildExchange();
+		exc.getDestinations().add("http://localhost:8080" + uri);
+		return rewriter.handleRequest(exc);
+	}
+
+}
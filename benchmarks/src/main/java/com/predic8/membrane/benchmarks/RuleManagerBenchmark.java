@@ -0,0 +1,82 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.HttpRouter;
+import com.predic8.membrane.core.RuleManager;
+import com.predic8.membrane.core.RuleManager.RuleDefinitionSource;
+import com.predic8.membrane.core.rules.Rule;
+import com.predic8.membrane.core.rules.ServiceProxy;
+import com.predic8.membrane.core.rules.ServiceProxyKey;
+
+/**
+ * Finding the service proxy for a request among many proxies on the same port, each matching a path prefix
+ * (as a regular expression). The URIs hit the first, the middle and the last proxy, or none at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleManagerBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int rules;
+
+	private RuleManager ruleManager;
+	private String[] uris;
+	private int next;
+
+	@Setup
+	public void setup() throws Exception {
+		HttpRouter router = new HttpRouter();
+		ruleManager = router.getRuleManager();
+		for (int i = 0; i < rules; i++) {
+			ServiceProxyKey key = new ServiceProxyKey("*", "*", "/service" + i + "/.*", 8080);
+			key.setUsePathPattern(true);
+			key.setPathRegExp(true);
+			ServiceProxy proxy = new ServiceProxy(key, "localhost", 9000 + i);
+			proxy.init(router);
+			ruleManager.addProxy(proxy, RuleDefinitionSource.MANUAL);
+		}
+		uris = new String[] {
+				"/service0/orders/4711",
+				"/service" + (rules / 2) + "/orders/4711",
+				"/service" + (rules - 1) + "/orders/4711",
+				"/unknown/orders/4711",
+		};
+	}
+
+	@Benchmark
+	public Rule getMatchingRule() {
+		String uri = uris[next++ & 3];
+		return ruleManager.getMatchingRule("api.example.com", "GET", uri, "1.1", 8080, "127.0.0.1");
+	}
+
+}
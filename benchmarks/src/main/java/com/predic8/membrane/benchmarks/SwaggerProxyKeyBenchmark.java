@@ -0,0 +1,81 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.rules.SwaggerProxyKey;
+
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
+
+/**
+ * Matching requests against a large Swagger specification (10 operations on 4 paths per
+ * resource, so 600 operations in the default setting).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SwaggerProxyKeyBenchmark {
+
+	@Param("60")
+	public int resources;
+
+	private SwaggerProxyKey key;
+	private String[] uris;
+	private int next;
+
+	@Setup
+	public void setup() {
+		Swagger swagger = new Swagger().basePath("/api/v1");
+		for (int i = 0; i < resources; i++) {
+			swagger.path("/resource" + i, new Path().get(new Operation()).post(new Operation()));
+			swagger.path("/resource" + i + "/{id}", new Path().get(new Operation()).put(new Operation()).delete(new Operation()));
+			swagger.path("/resource" + i + "/{id}/items", new Path().get(new Operation()).post(new Operation()));
+			swagger.path("/resource" + i + "/{id}/items/{itemId}", new Path().get(new Operation()).put(new Operation()).delete(new Operation()));
+		}
+		key = new SwaggerProxyKey(3000);
+		key.setSwagger(swagger);
+
+		uris = new String[] {
+				"/api/v1/resource" + (resources - 1) + "/4711/items/42",
+				"/api/v1/resource" + (resources / 2) + "/4711",
+				"/api/v1/resource0?page=2",
+				"/api/v1/unknown/4711",
+		};
+	}
+
+	@Benchmark
+	public boolean complexMatch() {
+		String uri = uris[next++ & 3];
+		return key.complexMatch("localhost", "GET", uri, "1.1", 3000, "127.0.0.1");
+	}
+
+}
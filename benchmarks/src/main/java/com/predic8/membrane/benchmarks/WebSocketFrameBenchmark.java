@@ -0,0 +1,77 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.predic8.membrane.core.transport.ws.WebSocketFrame;
+
+/**
+ * Encoding and decoding masked binary WebSocket frames (as sent by clients) with a short, a 16 bit and a
+ * 64 bit payload length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebSocketFrameBenchmark {
+
+	@Param({ "100", "4096", "131072" })
+	public int payloadSize;
+
+	private WebSocketFrame frame;
+	private byte[] encoded;
+	private final WebSocketFrame decoded = new WebSocketFrame();
+	private ByteArrayOutputStream out;
+
+	@Setup
+	public void setup() throws IOException {
+		byte[] payload = new byte[payloadSize];
+		for (int i = 0; i < payloadSize; i++)
+			payload[i] = (byte) i;
+		frame = new WebSocketFrame(true, false, false, false, 2, true, new byte[] { 1, 2, 3, 4 }, payload);
+		out = new ByteArrayOutputStream(payloadSize + 14);
+		frame.write(out);
+		encoded = out.toByteArray();
+	}
+
+	@Benchmark
+	public int encode() throws IOException {
+		out.reset();
+		frame.write(out);
+		return out.size();
+	}
+
+	@Benchmark
+	public int decode() {
+		return decoded.tryRead(encoded, 0, encoded.length);
+	}
+
+}
@@ -0,0 +1,84 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks.loadtest;
+
+import java.io.IOException;
+
+import com.predic8.membrane.core.Constants;
+import com.predic8.membrane.core.HttpRouter;
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.interceptor.AbstractInterceptor;
+import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.rules.ServiceProxy;
+import com.predic8.membrane.core.rules.ServiceProxyKey;
+
+/**
+ * The backend the proxy under test forwards to: a router in the same JVM, answering every request on each of
+ * its ports with the same XML document of about the configured size, optionally after a delay.
+ */
+public class Backend {
+
+	private final HttpRouter router = new HttpRouter();
+	private final byte[] response;
+	private final long delay;
+
+	/**
+	 * @param responseSize the approximate size of the response body in bytes
+	 * @param delay the time in milliseconds to wait before answering, simulating the processing of the request
+	 */
+	public Backend(int responseSize, long delay) {
+		this.response = createResponse(responseSize);
+		this.delay = delay;
+	}
+
+	/**
+	 * @return a list of items, which is transformed by the "xslt" scenario
+	 */
+	static byte[] createResponse(int size) {
+		StringBuilder sb = new StringBuilder(size + 64);
+		sb.append("<items>");
+		for (int i = 1; sb.length() < size - 8; i++)
+			sb.append("<item id=\"").append(i).append("\">abcdefghijklmnopqrstuvwxyz</item>");
+		sb.append("</items>");
+		return sb.toString().getBytes(Constants.UTF_8_CHARSET);
+	}
+
+	public void start(int... ports) throws Exception {
+		for (int port : ports) {
+			ServiceProxy stub = new ServiceProxy(new ServiceProxyKey("*", "*", ".*", port), null, 0);
+			stub.getInterceptors().add(new AbstractInterceptor() {
+				@Override
+				public Outcome handleRequest(Exchange exc) throws Exception {
+					exc.getRequest().getBody().read();
+					if (delay > 0)
+						Thread.sleep(delay);
+					exc.setResponse(Response.ok().contentType("application/xml").body(response).build());
+					return Outcome.RETURN;
+				}
+			});
+			router.getRuleManager().addProxyAndOpenPortIfNew(stub);
+		}
+		router.init();
+	}
+
+	public void stop() throws IOException {
+		router.shutdown();
+	}
+
+	public int getResponseSize() {
+		return response.length;
+	}
+
+}
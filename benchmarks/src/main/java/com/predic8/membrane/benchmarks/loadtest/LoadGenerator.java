@@ -0,0 +1,150 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Header;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.transport.http.HttpClient;
+import com.predic8.membrane.core.transport.ssl.SSLProvider;
+import com.predic8.membrane.core.util.LatencyHistogram;
+
+/**
+ * Sends requests at a fixed rate, no matter how fast they are answered (an "open" model, like many independent
+ * users), over a fixed number of keep-alive connections.
+ *
+ * The i-th request is due at start + i / rate. The latency of a request is measured from the time it was due,
+ * not from the time it was actually sent: if the proxy stalls, the requests which could not be sent on time
+ * because all connections were busy are counted with the time they waited. Measuring from the time of sending
+ * instead would hide the stall behind the few requests in flight ("coordinated omission").
+ */
+public class LoadGenerator {
+
+	private final String url;
+	private final byte[] body;
+	private final String contentType;
+	private final SSLProvider sslProvider;
+	private final int connections;
+	private final double rate;
+
+	private final HttpClient client = new HttpClient();
+
+	/**
+	 * @param sslProvider the TLS configuration for an "https" URL, or null
+	 * @param rate the number of requests to send per second
+	 */
+	public LoadGenerator(String url, byte[] body, String contentType, SSLProvider sslProvider, int connections, double rate) {
+		this.url = url;
+		this.body = body;
+		this.contentType = contentType;
+		this.sslProvider = sslProvider;
+		this.connections = connections;
+		this.rate = rate;
+	}
+
+	public static class Result {
+		private final LatencyHistogram latencies = new LatencyHistogram();
+		private final LongAdder errors = new LongAdder();
+		private long elapsed;
+
+		/**
+		 * @return the latencies of the successful requests in microseconds
+		 */
+		public LatencyHistogram getLatencies() {
+			return latencies;
+		}
+
+		public long getRequests() {
+			return latencies.getCount();
+		}
+
+		/**
+		 * @return the number of requests which failed or were not answered with status 200
+		 */
+		public long getErrors() {
+			return errors.sum();
+		}
+
+		/**
+		 * @return the time from the first request being due to the last response, in nanoseconds
+		 */
+		public long getElapsed() {
+			return elapsed;
+		}
+
+		/**
+		 * @return the number of successful requests per second
+		 */
+		public double getThroughput() {
+			return elapsed == 0 ? 0 : getRequests() * 1e9 / elapsed;
+		}
+	}
+
+	/**
+	 * Sends requests for the given time and waits for the outstanding responses.
+	 */
+	public Result run(long duration, TimeUnit unit) throws InterruptedException {
+		final Result result = new Result();
+		final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+		final long end = start + unit.toNanos(duration);
+		Thread[] workers = new Thread[connections];
+		for (int i = 0; i < connections; i++) {
+			final int first = i;
+			workers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (long n = first; ; n += connections) {
+						long due = start + (long) (n * 1e9 / rate);
+						if (due >= end)
+							return;
+						long now;
+						while ((now = System.nanoTime()) < due)
+							LockSupport.parkNanos(due - now);
+						if (call())
+							result.latencies.record((System.nanoTime() - due) / 1000);
+						else
+							result.errors.increment();
+					}
+				}
+			}, "Load Generator " + i);
+			workers[i].start();
+		}
+		for (Thread worker : workers)
+			worker.join();
+		result.elapsed = System.nanoTime() - start;
+		return result;
+	}
+
+	private boolean call() {
+		try {
+			Exchange exc = new Request.Builder()
+					.post(url)
+					.header(Header.CONTENT_TYPE, contentType)
+					.body(body)
+					.buildExchange();
+			if (sslProvider != null)
+				exc.setProperty(Exchange.SSL_CONTEXT, sslProvider);
+			client.call(exc);
+			exc.getResponse().getBody().read();
+			return exc.getResponse().getStatusCode() == 200;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+}
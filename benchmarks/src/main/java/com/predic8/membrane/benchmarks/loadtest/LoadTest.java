@@ -0,0 +1,239 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.benchmarks.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.predic8.membrane.core.Constants;
+import com.predic8.membrane.core.Router;
+import com.predic8.membrane.core.config.security.SSLParser;
+import com.predic8.membrane.core.config.security.TrustStore;
+import com.predic8.membrane.core.resolver.ResolverMap;
+import com.predic8.membrane.core.transport.ssl.StaticSSLContext;
+import com.predic8.membrane.core.util.LatencyHistogram;
+
+/**
+ * A load test of the whole proxy: starts a router with the proxy configuration of a scenario on port 3090 in
+ * front of an embedded {@link Backend} on the ports 3092 and 3093, drives it with a {@link LoadGenerator}, and
+ * reports throughput, latency percentiles and the memory allocated per request.
+ *
+ * The scenarios are in the "loadtest" resource folder: "forward" (plain forwarding), "ssl" (TLS termination),
+ * "balancer" (round robin over both backend ports), "validation" (XML schema validation of the request) and
+ * "xslt" (transformation of the response). Instead of a scenario, any proxies.xml forwarding to the backend
+ * ports can be given with "-config".
+ *
+ * Allocations are measured per thread and cover all threads of the JVM except the load generator, so they
+ * include the backend. Threads which end during the measurement are not counted.
+ *
+ * To compare runs, write the results with "-result" and compare two result files with
+ * {@link com.predic8.membrane.benchmarks.CompareResults}. The "loadtest" profile of this module runs the test
+ * after packaging.
+ *
+ * Usage: LoadTest [-scenario forward|ssl|balancer|validation|xslt] [-config proxies.xml] [-rate requests/s]
+ * [-connections n] [-warmup s] [-duration s] [-responseSize bytes] [-backendDelay ms] [-jfr file.jfr]
+ * [-result file.json]
+ */
+public class LoadTest {
+
+	private static final int PROXY_PORT = 3090;
+	private static final int[] BACKEND_PORTS = { 3092, 3093 };
+
+	private static final byte[] REQUEST = ("<order id=\"4711\"><customer>Jane Doe</customer>"
+			+ "<item sku=\"A-1001\" quantity=\"2\"/><item sku=\"B-2002\" quantity=\"1\"/>"
+			+ "<item sku=\"C-3003\" quantity=\"5\"/></order>").getBytes(Constants.UTF_8_CHARSET);
+
+	private final Map<String, String> options = new LinkedHashMap<String, String>();
+
+	public LoadTest() {
+		options.put("scenario", "forward");
+		options.put("config", null);
+		options.put("rate", "1000");
+		options.put("connections", "16");
+		options.put("warmup", "10");
+		options.put("duration", "30");
+		options.put("responseSize", "1024");
+		options.put("backendDelay", "0");
+		options.put("jfr", null);
+		options.put("result", null);
+	}
+
+	public static void main(String[] args) throws Exception {
+		LoadTest test = new LoadTest();
+		for (int i = 0; i < args.length; i++) {
+			String name = args[i].startsWith("-") ? args[i].substring(1) : null;
+			if (name == null || !test.options.containsKey(name) || i + 1 == args.length) {
+				System.err.println("Usage: LoadTest [-scenario forward|ssl|balancer|validation|xslt] [-config proxies.xml]"
+						+ " [-rate requests/s] [-connections n] [-warmup s] [-duration s] [-responseSize bytes]"
+						+ " [-backendDelay ms] [-jfr file.jfr] [-result file.json]");
+				System.exit(2);
+			}
+			test.options.put(name, args[++i]);
+		}
+		test.run();
+		System.exit(0);
+	}
+
+	private String getScenario() {
+		String config = options.get("config");
+		return config == null ? options.get("scenario") : new File(config).getName().replaceFirst("\\.xml$", "");
+	}
+
+	private int getInt(String name) {
+		return Integer.parseInt(options.get(name));
+	}
+
+	public void run() throws Exception {
+		Backend backend = new Backend(getInt("responseSize"), getInt("backendDelay"));
+		backend.start(BACKEND_PORTS);
+		String config = options.get("config");
+		Router router = Router.init(config != null ? new File(config).toURI().toString()
+				: "classpath:/loadtest/" + options.get("scenario") + ".xml", LoadTest.class.getClassLoader());
+		try {
+			boolean ssl = "ssl".equals(getScenario());
+			LoadGenerator generator = new LoadGenerator(
+					(ssl ? "https" : "http") + "://localhost:" + PROXY_PORT + "/orders", REQUEST, "application/xml",
+					ssl ? createClientSSLContext() : null, getInt("connections"), Double.parseDouble(options.get("rate")));
+
+			System.out.println("Warming up for " + options.get("warmup") + " s ...");
+			generator.run(getInt("warmup"), TimeUnit.SECONDS);
+			System.gc();
+
+			System.out.println("Measuring for " + options.get("duration") + " s ...");
+			FlightRecording recording = options.get("jfr") != null ? new FlightRecording(new File(options.get("jfr"))) : null;
+			Map<Long, Long> allocatedBefore = getAllocatedBytes();
+			LoadGenerator.Result result = generator.run(getInt("duration"), TimeUnit.SECONDS);
+			long allocated = getAllocatedBytesSince(allocatedBefore);
+			if (recording != null)
+				recording.stop();
+
+			report(result, result.getRequests() + result.getErrors() == 0 ? 0
+					: allocated / (result.getRequests() + result.getErrors()), backend.getResponseSize());
+		} finally {
+			router.shutdown();
+			backend.stop();
+		}
+	}
+
+	private static StaticSSLContext createClientSSLContext() {
+		SSLParser ssl = new SSLParser();
+		ssl.setTrustStore(new TrustStore());
+		ssl.getTrustStore().setLocation("classpath:/loadtest/membrane.jks");
+		ssl.getTrustStore().setPassword("secret");
+		ssl.setIgnoreTimestampCheckFailure(true);
+		ssl.setEndpointIdentificationAlgorithm(""); // the certificate was not issued for 'localhost'
+		return new StaticSSLContext(ssl, new ResolverMap(), null);
+	}
+
+	/**
+	 * @return the bytes allocated so far by each live thread, by thread ID
+	 */
+	private static Map<Long, Long> getAllocatedBytes() {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long[] ids = threads.getAllThreadIds();
+		long[] bytes = threads.getThreadAllocatedBytes(ids);
+		Map<Long, Long> result = new HashMap<Long, Long>();
+		for (int i = 0; i < ids.length; i++)
+			if (bytes[i] != -1)
+				result.put(ids[i], bytes[i]);
+		return result;
+	}
+
+	private static long getAllocatedBytesSince(Map<Long, Long> before) {
+		long sum = 0;
+		for (Map.Entry<Long, Long> e : getAllocatedBytes().entrySet()) {
+			Long b = before.get(e.getKey());
+			sum += e.getValue() - (b == null ? 0 : b);
+		}
+		return sum;
+	}
+
+	private void report(LoadGenerator.Result result, long allocatedPerRequest, int responseSize) throws IOException {
+		LatencyHistogram latencies = result.getLatencies();
+		System.out.println();
+		System.out.println(String.format("scenario      %s, %d byte responses, %s ms backend delay", getScenario(),
+				responseSize, options.get("backendDelay")));
+		System.out.println(String.format("load          %s requests/s over %s connections for %s s", options.get("rate"),
+				options.get("connections"), options.get("duration")));
+		System.out.println(String.format("throughput    %.1f requests/s (%d requests, %d errors)", result.getThroughput(),
+				result.getRequests(), result.getErrors()));
+		System.out.println(String.format("latency       p50 %d us, p99 %d us, p99.9 %d us, max %d us",
+				latencies.getPercentile(50), latencies.getPercentile(99), latencies.getPercentile(99.9), latencies.getMax()));
+		System.out.println(String.format("allocations   %d bytes/request (proxy and backend)", allocatedPerRequest));
+		if (result.getThroughput() < 0.95 * Double.parseDouble(options.get("rate")))
+			System.out.println("The target rate was not reached: the latencies include the time requests waited to be sent.");
+		if (options.get("jfr") != null)
+			System.out.println("flight record " + options.get("jfr"));
+
+		if (options.get("result") != null)
+			writeResult(new File(options.get("result")), result, allocatedPerRequest);
+	}
+
+	/**
+	 * Writes the results in the format of JMH's "-rf json", so that {@link com.predic8.membrane.benchmarks.CompareResults}
+	 * can compare them: the throughput in mode "thrpt", for which a higher score is better, and the latencies and
+	 * allocations in other modes, for which a lower score is better.
+	 */
+	private void writeResult(File file, LoadGenerator.Result result, long allocatedPerRequest) throws IOException {
+		ObjectMapper om = new ObjectMapper();
+		ArrayNode results = om.createArrayNode();
+		String name = "loadtest." + getScenario();
+		addResult(results, name, "thrpt", result.getThroughput(), "ops/s");
+		addResult(results, name + ".p50", "sample", result.getLatencies().getPercentile(50), "us");
+		addResult(results, name + ".p99", "sample", result.getLatencies().getPercentile(99), "us");
+		addResult(results, name + ".p999", "sample", result.getLatencies().getPercentile(99.9), "us");
+		addResult(results, name + ".allocations", "avgt", allocatedPerRequest, "B/op");
+		om.writerWithDefaultPrettyPrinter().writeValue(file, results);
+	}
+
+	private void addResult(ArrayNode results, String benchmark, String mode, double score, String unit) {
+		ObjectNode result = results.addObject();
+		result.put("benchmark", benchmark);
+		result.put("mode", mode);
+		ObjectNode params = result.putObject("params");
+		for (String param : new String[] { "rate", "connections", "responseSize", "backendDelay" })
+			params.put(param, options.get(param));
+		ObjectNode metric = result.putObject("primaryMetric");
+		metric.put("score", score);
+		metric.put("scoreUnit", unit);
+	}
+
+	/**
+	 * A Java Flight Recorder recording with the "profile" settings, written to the file when stopped. Kept in a
+	 * class of its own, so that the test runs on JVMs without JFR as long as no recording is requested.
+	 */
+	private static class FlightRecording {
+		private final jdk.jfr.Recording recording;
+
+		FlightRecording(File file) throws Exception {
+			recording = new jdk.jfr.Recording(jdk.jfr.Configuration.getConfiguration("profile"));
+			recording.setDestination(file.toPath());
+			recording.start();
+		}
+
+		void stop() {
+			recording.stop();
+			recording.close();
+		}
+	}
+
+}
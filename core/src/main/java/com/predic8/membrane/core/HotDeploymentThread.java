@@ -14,17 +14,39 @@
 
 package com.predic8.membrane.core;
 
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.support.AbstractRefreshableApplicationContext;
 
 import com.predic8.membrane.core.config.spring.CheckableBeanFactory;
 import com.predic8.membrane.core.config.spring.CheckableBeanFactory.InvalidConfigurationException;
-
+import com.predic8.membrane.core.config.spring.TrackingApplicationContext;
+
+/**
+ * Watches the configuration files and applies changes.
+ *
+ * If only rules changed, only these rules are replaced (see {@link IncrementalHotDeployer}). Otherwise,
+ * the whole application context is restarted.
+ *
+ * The files' directories are watched using a {@link WatchService}. If this is not possible, the
+ * files are polled every second.
+ */
 public class HotDeploymentThread extends Thread {
 
 	private static Logger log = LoggerFactory.getLogger(HotDeploymentThread.class.getName());
@@ -32,6 +54,13 @@ public class HotDeploymentThread extends Thread {
 	private List<HotDeploymentThread.FileInfo> files = new ArrayList<HotDeploymentThread.FileInfo>();
 	protected AbstractRefreshableApplicationContext applicationContext;
 	private boolean reloading;
+	private WatchService watchService;
+	/**
+	 * the bean definitions the running beans were created from, parsed separately: the application
+	 * context's own definitions are modified while the beans are created
+	 */
+	private ConfigurableListableBeanFactory deployedDefinitions;
+	private IncrementalHotDeployer incrementalHotDeployer;
 
 	private static class FileInfo {
 		public String file;
@@ -52,6 +81,21 @@ public class HotDeploymentThread extends Thread {
 			this.files.add(fi);
 		}
 		updateLastModified();
+		watchFiles();
+	}
+
+	/**
+	 * Like {@link #setFiles(List)}, but keeps the modification times known for files already watched.
+	 */
+	private void updateFiles(List<File> files) {
+		Set<String> known = new HashSet<String>();
+		for (HotDeploymentThread.FileInfo fi : this.files)
+			known.add(fi.file);
+		Set<String> current = new HashSet<String>();
+		for (File file : files)
+			current.add(file.getAbsolutePath());
+		if (!known.equals(current))
+			setFiles(files);
 	}
 
 	private void updateLastModified() {
@@ -61,45 +105,118 @@ public class HotDeploymentThread extends Thread {
 
 	private boolean configurationChanged() {
 		for (HotDeploymentThread.FileInfo fi : files)
-			if (new File(fi.file).lastModified() > fi.lastModified)
+			if (new File(fi.file).lastModified() != fi.lastModified)
 				return true;
 		return false;
 	}
 
+	private void watchFiles() {
+		closeWatchService();
+		try {
+			watchService = FileSystems.getDefault().newWatchService();
+			Set<Path> directories = new HashSet<Path>();
+			for (HotDeploymentThread.FileInfo fi : files) {
+				Path directory = new File(fi.file).toPath().getParent();
+				if (directory != null && directories.add(directory))
+					directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+			}
+		} catch (IOException | UnsupportedOperationException e) {
+			log.info("Could not watch configuration files, polling them instead: " + e.getMessage());
+			closeWatchService();
+		}
+	}
+
+	private void closeWatchService() {
+		if (watchService == null)
+			return;
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			log.debug("", e);
+		}
+		watchService = null;
+	}
+
+	private void waitForChange() throws InterruptedException {
+		while (!configurationChanged()) {
+			if (watchService == null) {
+				sleep(1000);
+				continue;
+			}
+			WatchKey key = watchService.take();
+			key.pollEvents();
+			if (!key.reset()) {
+				log.info("A directory containing configuration files is not accessible anymore, polling the files instead.");
+				closeWatchService();
+			}
+			// editors often write files in several steps
+			sleep(100);
+		}
+	}
+
 	@Override
 	public void run() {
 		log.debug("Spring Hot Deployment Thread started.");
-		while (!isInterrupted()) {
-			try {
-				while (!configurationChanged()) {
-					sleep(1000);
+		try {
+			if (applicationContext instanceof CheckableBeanFactory) {
+				try {
+					deployedDefinitions = ((CheckableBeanFactory)applicationContext).parseBeanDefinitions();
+				} catch (InvalidConfigurationException e) {
+					log.debug("Could not parse the deployed configuration, changes will restart the application context.", e);
+				}
+			}
+			while (!isInterrupted()) {
+				try {
+					waitForChange();
+					updateLastModified();
+
+					log.debug("spring configuration changed.");
+
+					if (applicationContext instanceof CheckableBeanFactory) {
+						DefaultListableBeanFactory changed = ((CheckableBeanFactory)applicationContext).parseBeanDefinitions();
+						if (deployIncrementally(changed))
+							continue;
+					}
+
+					reload();
+
+					break;
+				} catch (InvalidConfigurationException e) {
+					log.error(e.getMessage());
+					log.error("Application context was NOT restarted. Please fix the error in the configuration file.");
+					updateLastModified();
+				} catch (InterruptedException e) {
+					// #162 HotDeploymentThread don't stop on Interrupt.
+					// InterruptedException clears interrupt flag. see javadoc Thread.interrupt();
+					// So reset it.
+					interrupt();
+				} catch (Exception e) {
+					log.error("Could not redeploy.", e);
+					updateLastModified();
 				}
-
-				log.debug("spring configuration changed.");
-
-				if (applicationContext instanceof CheckableBeanFactory)
-					((CheckableBeanFactory)applicationContext).checkForInvalidBeanDefinitions();
-
-				reload();
-
-				break;
-			} catch (InvalidConfigurationException e) {
-				log.error(e.getMessage());
-				log.error("Application context was NOT restarted. Please fix the error in the configuration file.");
-				updateLastModified();
-			} catch (InterruptedException e) {
-				// #162 HotDeploymentThread don't stop on Interrupt.
-				// InterruptedException clears interrupt flag. see javadoc Thread.interrupt();
-				// So reset it.
-				interrupt();
-			} catch (Exception e) {
-				log.error("Could not redeploy.", e);
-				updateLastModified();
 			}
+		} finally {
+			closeWatchService();
 		}
 		log.debug("Spring Hot Deployment Thread interrupted.");
 	}
 
+	/**
+	 * @return whether the change could be applied without restarting the application context
+	 */
+	private boolean deployIncrementally(DefaultListableBeanFactory changed) throws Exception {
+		if (deployedDefinitions == null)
+			return false;
+		if (incrementalHotDeployer == null)
+			incrementalHotDeployer = new IncrementalHotDeployer(applicationContext);
+		if (!incrementalHotDeployer.deploy(deployedDefinitions, changed))
+			return false;
+		deployedDefinitions = changed;
+		if (applicationContext instanceof TrackingApplicationContext)
+			updateFiles(((TrackingApplicationContext) applicationContext).getFiles());
+		return true;
+	}
+
 	protected void reload() throws Exception {
 		synchronized(this) {
 			reloading = true;
@@ -116,4 +233,4 @@ public class HotDeploymentThread extends Thread {
 		}
 		interrupt();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,360 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.support.AbstractRefreshableApplicationContext;
+
+import com.predic8.membrane.core.RuleManager.RuleDefinitionSource;
+import com.predic8.membrane.core.config.spring.BeanDefinitionComparator;
+import com.predic8.membrane.core.exchangestore.ExchangeStore;
+import com.predic8.membrane.core.interceptor.ExchangeStoreInterceptor;
+import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.flow.AbstractFlowInterceptor;
+import com.predic8.membrane.core.rules.AbstractProxy;
+import com.predic8.membrane.core.rules.Rule;
+import com.predic8.membrane.core.transport.http.HttpTransport;
+import com.predic8.membrane.core.transport.http.IpPort;
+
+/**
+ * Applies a changed configuration to the running {@link Router}s by swapping only the rules whose
+ * definitions have changed.
+ *
+ * This is only possible if nothing but the rules of the routers changed. Unchanged rules are kept
+ * (including their caches, statistics and connection pools), listening ports stay open. Exchanges
+ * already running on a replaced rule complete using the old rule.
+ *
+ * Once its running exchanges have completed, the beans of a removed rule (its interceptors and their exchange
+ * stores, but no beans shared by name) are destroyed. Rules created by the deployer are destroyed as well, when
+ * the application context is closed. A deployer is therefore used for all changes until the context is
+ * refreshed.
+ */
+class IncrementalHotDeployer {
+
+	private static Logger log = LoggerFactory.getLogger(IncrementalHotDeployer.class.getName());
+
+	private static final String RULES = "rules";
+	private static final AtomicInteger counter = new AtomicInteger();
+
+	private final AbstractRefreshableApplicationContext applicationContext;
+
+	/**
+	 * the rules created by this deployer and the names of their {@link DisposableBean}s in the bean factory
+	 */
+	private final Map<Rule, String> createdRules = new IdentityHashMap<Rule, String>();
+
+	IncrementalHotDeployer(AbstractRefreshableApplicationContext applicationContext) {
+		this.applicationContext = applicationContext;
+	}
+
+	/**
+	 * @param deployed the bean definitions the running beans were created from, parsed separately: the
+	 *        definitions of the application context are modified while the beans are created
+	 * @param changed the bean definitions parsed from the changed configuration
+	 * @return false, if the change could not be applied incrementally. Nothing has been changed in this case.
+	 */
+	public boolean deploy(ConfigurableListableBeanFactory deployed, ConfigurableListableBeanFactory changed) throws Exception {
+		Set<String> names = new HashSet<String>(Arrays.asList(deployed.getBeanDefinitionNames()));
+		if (!names.equals(new HashSet<String>(Arrays.asList(changed.getBeanDefinitionNames())))) {
+			log.info("Beans were added or removed: Restarting.");
+			return false;
+		}
+
+		List<Plan> plans = new ArrayList<Plan>();
+		try {
+			for (String name : names) {
+				BeanDefinition oldDefinition = deployed.getBeanDefinition(name);
+				BeanDefinition newDefinition = changed.getBeanDefinition(name);
+				if (isRouter(oldDefinition) && isRouter(newDefinition)) {
+					if (!BeanDefinitionComparator.equal(oldDefinition, newDefinition, RULES)) {
+						log.info("Configuration of router '" + name + "' changed: Restarting.");
+						return false;
+					}
+					Plan plan = new Plan(applicationContext.getBean(name, Router.class));
+					plans.add(plan);
+					if (!plan(plan, oldDefinition, newDefinition))
+						return false;
+				} else if (!BeanDefinitionComparator.equal(oldDefinition, newDefinition)) {
+					log.info("Configuration of bean '" + name + "' changed: Restarting.");
+					return false;
+				}
+			}
+
+			for (Plan plan : plans)
+				plan.apply();
+		} finally {
+			// the rules created for plans which have not been applied are not used
+			for (Plan plan : plans)
+				if (!plan.applied)
+					for (Rule rule : plan.added)
+						destroy(rule);
+		}
+
+		for (Plan plan : plans)
+			destroyWhenCompleted(plan);
+		return true;
+	}
+
+	private boolean isRouter(BeanDefinition bd) {
+		try {
+			return bd.getBeanClassName() != null && Router.class.isAssignableFrom(
+					Class.forName(bd.getBeanClassName(), false, applicationContext.getClassLoader()));
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * @return the values of the list property "rules", as set by the generated parser using "rules[0]", "rules[1]", ...
+	 */
+	private static List<Object> getRuleValues(BeanDefinition bd) {
+		TreeMap<Integer, Object> values = new TreeMap<Integer, Object>();
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValues())
+			if (pv.getName().startsWith(RULES + "[") && pv.getName().endsWith("]"))
+				values.put(Integer.parseInt(pv.getName().substring(RULES.length() + 1, pv.getName().length() - 1)), pv.getValue());
+		return new ArrayList<Object>(values.values());
+	}
+
+	/**
+	 * Creates and initializes the new rules, but does not activate them yet.
+	 *
+	 * @return false, if the change cannot be applied incrementally.
+	 */
+	private boolean plan(Plan plan, BeanDefinition oldDefinition, BeanDefinition newDefinition) throws Exception {
+		Router router = plan.router;
+		List<Object> oldValues = getRuleValues(oldDefinition);
+		List<Object> newValues = getRuleValues(newDefinition);
+		List<Rule> oldRules = router.getRuleManager().getRulesBySource(RuleDefinitionSource.SPRING);
+		if (oldRules.size() != oldValues.size()) {
+			log.info("Rules of router '" + router.getId() + "' do not correspond to their definitions: Restarting.");
+			return false;
+		}
+
+		boolean[] kept = new boolean[oldValues.size()];
+		for (Object value : newValues) {
+			Rule rule = null;
+			for (int i = 0; i < oldValues.size(); i++) {
+				if (!kept[i] && BeanDefinitionComparator.equalValues(oldValues.get(i), value)) {
+					kept[i] = true;
+					rule = oldRules.get(i);
+					break;
+				}
+			}
+			if (rule == null) {
+				if (!(value instanceof BeanDefinitionHolder)) {
+					log.info("A changed rule of router '" + router.getId() + "' is not an inline bean definition: Restarting.");
+					return false;
+				}
+				rule = createRule(((BeanDefinitionHolder) value).getBeanDefinition());
+				plan.added.add(rule);
+				rule.init(router);
+			}
+			plan.newRules.add(rule);
+		}
+		for (int i = 0; i < oldValues.size(); i++)
+			if (!kept[i])
+				plan.removed.add(oldRules.get(i));
+
+		return plan.isSSLCompatible();
+	}
+
+	/**
+	 * Creates the rule within the running application context, so that references to other beans are
+	 * resolved to the running instances.
+	 *
+	 * As the rule is created as a prototype, Spring does not destroy its beans: This is done by a
+	 * {@link DisposableBean} registered for the rule, when the rule is removed or the context is closed.
+	 */
+	private Rule createRule(BeanDefinition definition) {
+		DefaultListableBeanFactory beanFactory = getBeanFactory();
+		AbstractBeanDefinition bd = ((AbstractBeanDefinition) definition).cloneBeanDefinition();
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		String name = "hotDeployedRule#" + counter.incrementAndGet();
+		beanFactory.registerBeanDefinition(name, bd);
+		final Rule rule;
+		try {
+			rule = beanFactory.getBean(name, Rule.class);
+		} finally {
+			// also destroys a DisposableBean registered under the name
+			beanFactory.removeBeanDefinition(name);
+		}
+		beanFactory.registerDisposableBean(name, new DisposableBean() {
+			@Override
+			public void destroy() {
+				destroyBeans(applicationContext.getBeanFactory(), rule);
+			}
+		});
+		createdRules.put(rule, name);
+		return rule;
+	}
+
+	private DefaultListableBeanFactory getBeanFactory() {
+		return (DefaultListableBeanFactory) applicationContext.getBeanFactory();
+	}
+
+	/**
+	 * Waits until the exchanges running on the removed rules have completed, but at most as long as
+	 * {@link HttpTransport#getForceSocketCloseOnHotDeployAfter()}, and destroys the rules.
+	 */
+	private void destroyWhenCompleted(Plan plan) throws InterruptedException {
+		long timeout = plan.router.getTransport() instanceof HttpTransport
+				? ((HttpTransport) plan.router.getTransport()).getForceSocketCloseOnHotDeployAfter() : 30000;
+		long deadline = System.currentTimeMillis() + timeout;
+		for (Rule rule : plan.removed) {
+			while (getRunningExchanges(rule) > 0 && System.currentTimeMillis() < deadline)
+				Thread.sleep(100);
+			if (getRunningExchanges(rule) > 0)
+				log.warn("Exchanges are still running on the removed rule '" + rule.getName() + "', destroying it anyway.");
+			destroy(rule);
+		}
+	}
+
+	private static int getRunningExchanges(Rule rule) {
+		return rule instanceof AbstractProxy ? ((AbstractProxy) rule).getRunningExchanges() : 0;
+	}
+
+	private void destroy(Rule rule) {
+		String name = createdRules.remove(rule);
+		if (name != null)
+			getBeanFactory().destroySingleton(name); // calls the DisposableBean registered in createRule()
+		else
+			destroyBeans(applicationContext.getBeanFactory(), rule);
+	}
+
+	/**
+	 * Destroys the interceptors of the rule and their exchange stores, if they implement {@link DisposableBean}.
+	 * Beans registered under a name in the bean factory are skipped, as they might be shared with other rules.
+	 *
+	 * The beans of a rule created with the application context are destroyed again when the context is closed:
+	 * {@link DisposableBean#destroy()} of the interceptors and stores may be called twice.
+	 */
+	private static void destroyBeans(ConfigurableListableBeanFactory beanFactory, Rule rule) {
+		Set<Object> shared = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		for (String name : beanFactory.getSingletonNames())
+			shared.add(beanFactory.getSingleton(name));
+		Set<Object> beans = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		collectBeans(rule.getInterceptors(), beans);
+		for (Object bean : beans) {
+			if (!(bean instanceof DisposableBean) || shared.contains(bean))
+				continue;
+			try {
+				((DisposableBean) bean).destroy();
+			} catch (Exception e) {
+				log.warn("Could not destroy " + bean + " of rule '" + rule.getName() + "'.", e);
+			}
+		}
+	}
+
+	private static void collectBeans(List<Interceptor> interceptors, Set<Object> beans) {
+		if (interceptors == null)
+			return;
+		for (Interceptor interceptor : interceptors) {
+			if (!beans.add(interceptor))
+				continue;
+			if (interceptor instanceof AbstractFlowInterceptor)
+				collectBeans(((AbstractFlowInterceptor) interceptor).getInterceptors(), beans);
+			if (interceptor instanceof ExchangeStoreInterceptor) {
+				ExchangeStore store = ((ExchangeStoreInterceptor) interceptor).getExchangeStore();
+				if (store != null)
+					beans.add(store);
+			}
+		}
+	}
+
+	private static IpPort getIpPort(Rule rule) {
+		return new IpPort(rule.getKey().getIp(), rule.getKey().getPort());
+	}
+
+	private static class Plan {
+		final Router router;
+		final List<Rule> newRules = new ArrayList<Rule>();
+		final List<Rule> added = new ArrayList<Rule>();
+		final List<Rule> removed = new ArrayList<Rule>();
+		boolean applied;
+
+		Plan(Router router) {
+			this.router = router;
+		}
+
+		private Set<IpPort> getPortsAfterwards() {
+			Set<Rule> removedRules = Collections.newSetFromMap(new IdentityHashMap<Rule, Boolean>());
+			removedRules.addAll(removed);
+			Set<IpPort> ports = new HashSet<IpPort>();
+			for (Rule rule : router.getRuleManager().getRules())
+				if (!removedRules.contains(rule))
+					ports.add(getIpPort(rule));
+			for (Rule rule : added)
+				ports.add(getIpPort(rule));
+			return ports;
+		}
+
+		/**
+		 * The SSL configuration of a port is fixed while the port is open. So rules with inbound SSL
+		 * may only be added to or removed from ports which are opened or closed.
+		 */
+		boolean isSSLCompatible() {
+			Set<IpPort> before = new HashSet<IpPort>();
+			for (Rule rule : router.getRuleManager().getRules())
+				before.add(getIpPort(rule));
+			Set<IpPort> after = getPortsAfterwards();
+			List<Rule> changed = new ArrayList<Rule>(added);
+			changed.addAll(removed);
+			for (Rule rule : changed) {
+				IpPort p = getIpPort(rule);
+				if (rule.getSslInboundContext() != null && before.contains(p) && after.contains(p)) {
+					log.info("The SSL configuration of " + p + " changed: Restarting.");
+					return false;
+				}
+			}
+			return true;
+		}
+
+		void apply() throws Exception {
+			applied = true;
+			if (added.isEmpty() && removed.isEmpty() && newRules.equals(router.getRuleManager().getRulesBySource(RuleDefinitionSource.SPRING)))
+				return;
+
+			Set<IpPort> after = getPortsAfterwards();
+			RuleManager ruleManager = router.getRuleManager();
+			ruleManager.replaceRulesFromSource(RuleDefinitionSource.SPRING, newRules);
+			ruleManager.openPorts();
+			for (Rule rule : removed) {
+				IpPort p = getIpPort(rule);
+				if (!after.contains(p))
+					router.getTransport().closePort(p.ip, p.port);
+			}
+			log.info("Hot deployment of router '" + router.getId() + "': " + added.size() + " rule(s) added or changed, "
+					+ removed.size() + " rule(s) removed or changed, " + (newRules.size() - added.size()) + " rule(s) kept.");
+		}
+	}
+}
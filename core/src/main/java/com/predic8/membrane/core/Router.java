@@ -422,6 +422,10 @@ public class Router implements Lifecycle, ApplicationContextAware, BeanNameAware
 	 * <p>Whether changes to the router's configuration file should automatically trigger a restart.
 	 * </p>
 	 * <p>
+	 * If only proxies were added, removed or changed, only these proxies are replaced: The router
+	 * keeps running and its ports stay open.
+	 * </p>
+	 * <p>
 	 * Monitoring the router's configuration file <i>proxies.xml</i> is only possible, if the router
 	 * is created by a Spring Application Context which supports monitoring.
 	 * </p>
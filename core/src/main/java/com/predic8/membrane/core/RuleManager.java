@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -44,7 +45,7 @@ public class RuleManager {
 
 	private Router router;
 
-	private List<Rule> rules = new Vector<Rule>();
+	private volatile List<Rule> rules = new Vector<Rule>();
 	private List<RuleDefinitionSource> ruleSources = new ArrayList<RuleManager.RuleDefinitionSource>();
 	private Set<IRuleChangeListener> listeners = new HashSet<IRuleChangeListener>();
 
@@ -283,6 +284,55 @@ public class RuleManager {
 		}
 	}
 
+	/**
+	 * Replaces all rules of the given source at once: Any request is matched either against the old
+	 * or against the new rules, never against a mixture of both. Rules contained in both lists
+	 * (by identity) are kept as they are.
+	 *
+	 * The new rules are put at the position of the first old rule of the source.
+	 */
+	public synchronized void replaceRulesFromSource(RuleDefinitionSource source, List<Rule> newRules) {
+		Set<Rule> oldRules = Collections.newSetFromMap(new IdentityHashMap<Rule, Boolean>());
+		oldRules.addAll(getRulesBySource(source));
+		Set<Rule> keptRules = Collections.newSetFromMap(new IdentityHashMap<Rule, Boolean>());
+		keptRules.addAll(newRules);
+		keptRules.retainAll(oldRules);
+
+		List<Rule> rules2 = new Vector<Rule>();
+		List<RuleDefinitionSource> ruleSources2 = new ArrayList<RuleDefinitionSource>();
+		boolean inserted = false;
+		for (int i = 0; i < rules.size(); i++) {
+			if (ruleSources.get(i) != source) {
+				rules2.add(rules.get(i));
+				ruleSources2.add(ruleSources.get(i));
+			} else if (!inserted) {
+				inserted = true;
+				rules2.addAll(newRules);
+				ruleSources2.addAll(Collections.nCopies(newRules.size(), source));
+			}
+		}
+		if (!inserted) {
+			rules2.addAll(newRules);
+			ruleSources2.addAll(Collections.nCopies(newRules.size(), source));
+		}
+		ruleSources = ruleSources2;
+		rules = rules2;
+
+		for (Rule rule : oldRules) {
+			if (keptRules.contains(rule))
+				continue;
+			getExchangeStore().removeAllExchanges(rule);
+			for (IRuleChangeListener listener : listeners)
+				listener.ruleRemoved(rule, rules.size());
+		}
+		for (Rule rule : newRules) {
+			if (keptRules.contains(rule))
+				continue;
+			for (IRuleChangeListener listener : listeners)
+				listener.ruleAdded(rule);
+		}
+	}
+
 	public synchronized void removeRulesFromSource(RuleDefinitionSource source) {
 		for (int i = 0; i < rules.size(); i++)
 			if (ruleSources.get(i) == source)
@@ -14,9 +14,11 @@
 
 package com.predic8.membrane.core.cloud.etcd;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.predic8.membrane.annot.MCChildElement;
@@ -35,17 +37,33 @@ import org.springframework.context.Lifecycle;
 import com.predic8.membrane.annot.MCAttribute;
 import com.predic8.membrane.annot.MCElement;
 import com.predic8.membrane.core.Router;
-import com.predic8.membrane.core.interceptor.balancer.Balancer;
 import com.predic8.membrane.core.interceptor.balancer.LoadBalancingInterceptor;
 import com.predic8.membrane.core.interceptor.balancer.Node;
 import com.predic8.membrane.core.rules.ServiceProxy;
 import com.predic8.membrane.core.rules.ServiceProxyKey;
 
+/**
+ * @description Creates a service proxy for each module registered in etcd below the base key and
+ *              balances its requests to the nodes registered for the module.
+ * @explanation The configurator reads the tree below the base key once and then watches it for
+ *              changes using etcd's recursive long poll, tracking the modification index. Each change
+ *              is applied incrementally to the service proxies and clusters. If the watch fails, the
+ *              configurator reconnects (with exponential backoff) and reads the tree again.
+ */
 @MCElement(name = "etcdBasedConfigurator")
 public class EtcdBasedConfigurator implements ApplicationContextAware, Lifecycle, DisposableBean {
 
 	private static final Logger log = LoggerFactory.getLogger(EtcdBasedConfigurator.class.getName());
 
+	/**
+	 * etcd error code "The event in requested index is outdated and cleared".
+	 */
+	private static final int EVENT_INDEX_CLEARED = 401;
+	/**
+	 * etcd error code "Key not found".
+	 */
+	private static final int KEY_NOT_FOUND = 100;
+
 	private ApplicationContext context;
 	private int port = 8080;
 	private String baseUrl;
@@ -53,27 +71,62 @@ public class EtcdBasedConfigurator implements ApplicationContextAware, Lifecycle
 	private Router router;
 	private HashMap<String, ServiceProxy> runningServiceProxyForModule = new HashMap<String, ServiceProxy>();
 	private HashMap<String, HashSet<EtcdNodeInformation>> runningNodesForModule = new HashMap<String, HashSet<EtcdNodeInformation>>();
-	private int waitTimeUntilPollAgain = 1000;
+	/**
+	 * The values below {@link #baseKey}, keyed by their path relative to it ("/module/uuid/name").
+	 */
+	private Map<String, String> values = new HashMap<String, String>();
+	private int minRetryDelay = 1000;
+	private int maxRetryDelay = 30000;
 	private SSLParser ssl = null;
 	private SSLContext sslCtx = null;
 	private AtomicBoolean updateThreadRunning = new AtomicBoolean(false);
+	private volatile Thread nodeRefreshThread;
+
+	private class Watcher implements Runnable {
+		/**
+		 * @return false, if the configurator was stopped (or stopped and restarted using a new thread).
+		 */
+		private boolean isCurrent() {
+			return updateThreadRunning.get() && nodeRefreshThread == Thread.currentThread();
+		}
 
-	private Thread nodeRefreshThread = new Thread(new Runnable() {
 		@Override
 		public void run() {
-			updateThreadRunning.compareAndSet(false,true);
-			while (updateThreadRunning.get()) {
+			long waitIndex = -1;
+			int retryDelay = 0;
+			while (isCurrent()) {
 				try {
-					setUpServiceProxies(getConfigFromEtcd());
-					Thread.sleep(waitTimeUntilPollAgain);
-				}catch (Exception ignored) {
+					if (waitIndex == -1)
+						waitIndex = synchronize() + 1;
+					EtcdResponse resp = createRequest("").longPollRecursive(waitIndex).sendRequest();
+					if (resp == null || !isCurrent())
+						return;
+					if (!resp.is2XX()) {
+						if (resp.getErrorCode() == EVENT_INDEX_CLEARED) {
+							log.info("etcd history does not reach back to index " + waitIndex + ", reading all nodes again.");
+							waitIndex = -1;
+							continue;
+						}
+						throw new RuntimeException("etcd returned status code " + resp.getStatusCode() + ".");
+					}
+					if (!resp.isEmpty())
+						waitIndex = applyChange(resp) + 1;
+					retryDelay = 0;
+				} catch (Exception e) {
+					retryDelay = retryDelay == 0 ? minRetryDelay : Math.min(retryDelay * 2, maxRetryDelay);
+					log.warn("Error watching etcd at " + baseUrl + ", retrying in " + retryDelay + " ms: " + e.getMessage());
+					waitIndex = -1;
+					try {
+						Thread.sleep(retryDelay);
+					} catch (InterruptedException e1) {
+						return;
+					}
 				}
-				if(Thread.interrupted()){
+				if (Thread.interrupted())
 					return;
-				}
 			}
 		}
-	});
+	}
 
 	public int getPort() {
 		return port;
@@ -114,9 +167,36 @@ public class EtcdBasedConfigurator implements ApplicationContextAware, Lifecycle
 		this.baseKey = baseKey;
 	}
 
+	public int getMinRetryDelay() {
+		return minRetryDelay;
+	}
+
+	/**
+	 * @description Milliseconds to wait before reconnecting to etcd after the first failure. The delay
+	 *              doubles with every further failure.
+	 * @default 1000
+	 */
+	@MCAttribute
+	public void setMinRetryDelay(int minRetryDelay) {
+		this.minRetryDelay = minRetryDelay;
+	}
+
+	public int getMaxRetryDelay() {
+		return maxRetryDelay;
+	}
+
+	/**
+	 * @description Maximum number of milliseconds to wait before reconnecting to etcd.
+	 * @default 30000
+	 */
+	@MCAttribute
+	public void setMaxRetryDelay(int maxRetryDelay) {
+		this.maxRetryDelay = maxRetryDelay;
+	}
+
 	@Override
 	public boolean isRunning() {
-		return false;
+		return updateThreadRunning.get();
 	}
 
 	@Override
@@ -127,33 +207,155 @@ public class EtcdBasedConfigurator implements ApplicationContextAware, Lifecycle
 						"EtcdBasedConfigurator requires a Router. Option 1 is to call setRouter(). Option 2 is setApplicationContext() and the EBC will try to use the only Router available.");
 			router = context.getBean(Router.class);
 		}
-		try {
-		} catch (Exception ignored) {
-		}
 		if (ssl != null)
 			sslCtx = new StaticSSLContext(ssl, new ResolverMap(), null);
 
-		if (!nodeRefreshThread.isAlive()) {
+		if (updateThreadRunning.compareAndSet(false, true)) {
+			nodeRefreshThread = new Thread(new Watcher(), "etcd watcher " + baseUrl + baseKey);
+			nodeRefreshThread.setDaemon(true);
 			nodeRefreshThread.start();
 		}
 	}
 
-	private void setUpServiceProxies(ArrayList<EtcdNodeInformation> nodes) throws Exception {
-		HashSet<EtcdNodeInformation> newRunningNodes = new HashSet<EtcdNodeInformation>();
-		if (nodes.size() > 0) {
-			for (EtcdNodeInformation node : nodes) {
-				String currentModule = node.getModule();
-				if (!runningServiceProxyForModule.containsKey(currentModule)) {
-					setUpModuleServiceProxy(currentModule + " cluster", port, currentModule);
-					runningNodesForModule.put(currentModule, new HashSet<EtcdNodeInformation>());
+	/**
+	 * Reads all nodes below the base key and applies the differences to the running state.
+	 *
+	 * @return the etcd index the state corresponds to.
+	 */
+	private long synchronize() {
+		EtcdResponse resp = createRequest("").recursive().sendRequest();
+		if (resp == null)
+			throw new RuntimeException("Interrupted.");
+		if (!resp.is2XX() && resp.getErrorCode() != KEY_NOT_FOUND)
+			throw new RuntimeException("etcd returned status code " + resp.getStatusCode() + ".");
+		if (resp.getEtcdIndex() == -1)
+			throw new RuntimeException("etcd did not return an index.");
+
+		Set<String> modules = new HashSet<String>(runningNodesForModule.keySet());
+		values.clear();
+		if (resp.is2XX()) {
+			for (Map.Entry<String, String> e : resp.getLeaves().entrySet()) {
+				String key = getRelativeKey(e.getKey());
+				if (key != null) {
+					values.put(key, e.getValue());
+					modules.add(getModule(key));
 				}
-				if (!runningNodesForModule.get(currentModule).contains(node)) {
-					setUpClusterNode(node);
+			}
+		}
+		for (String module : modules)
+			updateModule(module);
+		return resp.getEtcdIndex();
+	}
+
+	/**
+	 * Applies a change reported by a long poll.
+	 *
+	 * @return the index of the change.
+	 */
+	private long applyChange(EtcdResponse resp) {
+		String action = resp.getAction();
+		String key = getRelativeKey(resp.getKey());
+		if (key != null && action != null) {
+			if (action.equals("delete") || action.equals("expire") || action.equals("compareAndDelete")) {
+				for (String k : new HashSet<String>(values.keySet()))
+					if (key.equals("/") || k.equals(key) || k.startsWith(key + "/"))
+						values.remove(k);
+			} else {
+				for (Map.Entry<String, String> e : resp.getLeaves().entrySet()) {
+					String k = getRelativeKey(e.getKey());
+					if (k != null)
+						values.put(k, e.getValue());
 				}
-				newRunningNodes.add(node);
 			}
+			if (key.length() > 1)
+				updateModule(getModule(key));
+			else
+				for (String module : new HashSet<String>(runningNodesForModule.keySet()))
+					updateModule(module);
+		}
+		long index = resp.getModifiedIndex();
+		if (index == -1)
+			throw new RuntimeException("etcd did not return the modification index.");
+		return index;
+	}
+
+	/**
+	 * @return the key relative to the base key (starting with "/", "/" for the base key itself) or null,
+	 *         if the key is not below the base key.
+	 */
+	private String getRelativeKey(String key) {
+		if (key == null)
+			return null;
+		if (key.equals(baseKey))
+			return "/";
+		if (!key.startsWith(baseKey + "/"))
+			return null;
+		return key.substring(baseKey.length());
+	}
+
+	/**
+	 * @return the module ("/module") the relative key ("/module/...") belongs to.
+	 */
+	private static String getModule(String relativeKey) {
+		int end = relativeKey.indexOf('/', 1);
+		return end == -1 ? relativeKey : relativeKey.substring(0, end);
+	}
+
+	/**
+	 * Brings the service proxy and cluster of the module in line with the nodes stored in {@link #values}.
+	 */
+	private void updateModule(String module) {
+		HashSet<EtcdNodeInformation> nodes = getNodes(module);
+		HashSet<EtcdNodeInformation> running = runningNodesForModule.get(module);
+		if (running != null)
+			for (EtcdNodeInformation node : new HashSet<EtcdNodeInformation>(running))
+				if (!nodes.contains(node))
+					shutdownRunningClusterNode(node);
+		if (nodes.isEmpty()) {
+			if (running != null) {
+				runningNodesForModule.remove(module);
+				shutDownRunningModuleServiceProxy(module);
+			}
+			return;
+		}
+		if (running == null) {
+			if (setUpModuleServiceProxy(module + " cluster", port, module) == null)
+				return;
+			runningNodesForModule.put(module, new HashSet<EtcdNodeInformation>());
+		}
+		for (EtcdNodeInformation node : nodes)
+			if (!runningNodesForModule.get(module).contains(node))
+				setUpClusterNode(node);
+	}
+
+	private HashSet<EtcdNodeInformation> getNodes(String module) {
+		Set<String> uuids = new TreeSet<String>();
+		for (String key : values.keySet()) {
+			if (!key.startsWith(module + "/"))
+				continue;
+			String rest = key.substring(module.length());
+			int end = rest.indexOf('/', 1);
+			if (end != -1)
+				uuids.add(rest.substring(0, end));
+		}
+		HashSet<EtcdNodeInformation> nodes = new HashSet<EtcdNodeInformation>();
+		for (String uuid : uuids) {
+			String prefix = module + uuid + "/";
+			EtcdNodeInformation node = new EtcdNodeInformation(module, uuid, values.get(prefix + "host"),
+					values.get(prefix + "port"), values.get(prefix + "name"));
+			if (node.isValid() && isPort(node.getTargetPort()))
+				nodes.add(node);
+		}
+		return nodes;
+	}
+
+	private static boolean isPort(String port) {
+		try {
+			Integer.parseInt(port);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
 		}
-		cleanUpNotRunningNodes(newRunningNodes);
 	}
 
 	private void setUpClusterNode(EtcdNodeInformation node) {
@@ -178,35 +380,13 @@ public class EtcdBasedConfigurator implements ApplicationContextAware, Lifecycle
 			sp.init(router);
 			router.add(sp);
 			runningServiceProxyForModule.put(path, sp);
-		} catch (Exception ignored) {
+		} catch (Exception e) {
+			log.error("Could not create serviceProxy for module " + path + ".", e);
+			return null;
 		}
 		return sp;
 	}
 
-	private void cleanUpNotRunningNodes(HashSet<EtcdNodeInformation> newRunningNodes) {
-		HashSet<EtcdNodeInformation> currentlyRunningNodes = new HashSet<EtcdNodeInformation>();
-		for (String module : runningNodesForModule.keySet()) {
-			currentlyRunningNodes.addAll(runningNodesForModule.get(module));
-		}
-		for (EtcdNodeInformation node : newRunningNodes) {
-			currentlyRunningNodes.remove(node);
-		}
-		for (EtcdNodeInformation node : currentlyRunningNodes) {
-			shutdownRunningClusterNode(node);
-		}
-
-		HashSet<String> modules = new HashSet<String>();
-		for (String module : runningNodesForModule.keySet()) {
-			modules.add(module);
-		}
-		for (String module : modules) {
-			if (runningNodesForModule.get(module).size() == 0) {
-				runningNodesForModule.remove(module);
-				shutDownRunningModuleServiceProxy(module);
-			}
-		}
-	}
-
 	private void shutDownRunningModuleServiceProxy(String module) {
 		log.info("Destroying serviceProxy for module: " + module);
 		ServiceProxy sp = runningServiceProxyForModule.get(module);
@@ -218,7 +398,8 @@ public class EtcdBasedConfigurator implements ApplicationContextAware, Lifecycle
 		log.info("Destroying " + node);
 		ServiceProxy sp = runningServiceProxyForModule.get(node.getModule());
 		LoadBalancingInterceptor lbi = (LoadBalancingInterceptor) sp.getInterceptors().get(0);
-		lbi.getClusterManager().removeNode(Balancer.DEFAULT_NAME, baseUrl, port);
+		lbi.getClusterManager().getClusters().get(0)
+				.removeNode(new Node(node.getTargetHost(), Integer.parseInt(node.getTargetPort())));
 		runningNodesForModule.get(node.getModule()).remove(node);
 	}
 
@@ -229,67 +410,13 @@ public class EtcdBasedConfigurator implements ApplicationContextAware, Lifecycle
 			return EtcdRequest.create(baseUrl, baseKey, module);
 	}
 
-	private ArrayList<EtcdNodeInformation> getConfigFromEtcd() {
-		ArrayList<EtcdNodeInformation> nodes = new ArrayList<EtcdNodeInformation>();
-		try {
-			EtcdResponse respAvailableModules = createRequest("").sendRequest();
-			if (!respAvailableModules.is2XX()) {
-				return nodes;
-			}
-			ArrayList<String> availableModules = respAvailableModules.getDirectories();
-			for (String module : availableModules) {
-				EtcdResponse respAvailableServicesForModule = createRequest(module).sendRequest();
-				if (!respAvailableServicesForModule.is2XX()) {
-					return nodes;
-				}
-				ArrayList<String> availableUUIDs = respAvailableServicesForModule.getDirectories();
-				for (String uuid : availableUUIDs) {
-
-					EtcdResponse respName = createRequest(module).uuid(uuid)
-							.getValue("name").sendRequest();
-					if (!respName.is2XX()) {
-						return nodes;
-
-					}
-					String targetName = respName.getValue();
-
-					EtcdResponse respPort = createRequest(module).uuid(uuid)
-							.getValue("port").sendRequest();
-					if (!respPort.is2XX()) {
-						return nodes;
-					}
-					String targetPort = respPort.getValue();
-
-					EtcdResponse respHost = createRequest(module).uuid(uuid)
-							.getValue("host").sendRequest();
-					if (!respHost.is2XX()) {
-						return nodes;
-					}
-					String targetHost = respHost.getValue();
-
-					EtcdNodeInformation node = new EtcdNodeInformation(module, uuid, targetHost, targetPort,
-							targetName);
-					if (node.isValid()) {
-						nodes.add(node);
-					}
-				}
-			}
-		} catch (Exception e) {
-			log.warn("Error retrieving base info from etcd.");
-		}
-
-		return nodes;
-	}
-
+	/**
+	 * Stops watching etcd. A long poll currently in progress is abandoned: Its result will not be applied.
+	 */
 	@Override
 	public void stop() {
-		updateThreadRunning.compareAndSet(true,false);
-		nodeRefreshThread.interrupt();
-		try {
-			nodeRefreshThread.join();
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-		}
+		if (updateThreadRunning.compareAndSet(true, false) && nodeRefreshThread != null)
+			nodeRefreshThread.interrupt();
 	}
 
 	@Override
@@ -317,15 +444,9 @@ public class EtcdBasedConfigurator implements ApplicationContextAware, Lifecycle
 	@Override
 	public void destroy() throws Exception {
 		log.info("Destroying nodes");
+		stop();
 		sslCtx = null;
 		ssl = null;
-		updateThreadRunning.compareAndSet(true,false);
-		nodeRefreshThread.interrupt();
-		try {
-			nodeRefreshThread.join();
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-		}
 		nodeRefreshThread = null;
 	}
-}
\ No newline at end of file
+}
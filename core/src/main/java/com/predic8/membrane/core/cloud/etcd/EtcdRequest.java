@@ -195,6 +195,11 @@ public class EtcdRequest {
 		return ttl(seconds);
 	}
 
+	public EtcdRequest recursive() {
+		this.recursiveLongPoll = "recursive=true";
+		return this;
+	}
+
 	public EtcdRequest longPoll() {
 		this.method = MethodType.GET;
 		this.longPoll = "wait=true";
@@ -287,16 +292,13 @@ public class EtcdRequest {
 	}
 
 	private void addQueries(StringBuilder builder, String... queries) {
-		if (queries.length == 0) {
-			return;
-		}
-		if (!queries[0].equals("")) {
-			builder.append("?" + queries[0]);
-		}
-		for (int i = 1; i < queries.length; i++) {
-			if (!queries[i].equals("")) {
-				builder.append("&" + queries[i]);
+		boolean first = true;
+		for (String query : queries) {
+			if (query.equals("")) {
+				continue;
 			}
+			builder.append(first ? "?" : "&").append(query);
+			first = false;
 		}
 	}
 
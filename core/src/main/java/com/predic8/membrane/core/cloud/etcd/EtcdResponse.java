@@ -16,23 +16,24 @@ package com.predic8.membrane.core.cloud.etcd;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.predic8.membrane.core.http.Response;
 
 public class EtcdResponse {
 
-	private static JsonFactory jsonFac = new JsonFactory();
+	private static final ObjectMapper mapper = new ObjectMapper();
 
 	private EtcdRequest originalRequest;
 	private int statusCode = 0;
 	private String body;
+	private long etcdIndex = -1;
+	/** the parsed body, or null if it has not been parsed yet */
+	private Map<String, Object> json;
 
 	public EtcdRequest getOriginalRequest() {
 		return originalRequest;
@@ -46,38 +47,17 @@ public class EtcdResponse {
 		this.originalRequest = originalRequest;
 		statusCode = resp.getStatusCode();
 		body = resp.getBodyAsStringDecoded();
-	}
-
-	private JsonParser getParser(String json) {
-		JsonParser result = null;
-		try {
-			synchronized (jsonFac) {
-				result = jsonFac.createParser(json);
-			}
-		} catch (JsonParseException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		return result;
+		String index = resp.getHeader().getFirstValue("X-Etcd-Index");
+		if (index != null)
+			etcdIndex = Long.parseLong(index.trim());
 	}
 
 	@SuppressWarnings("unchecked")
 	public ArrayList<String> getDirectories() {
-		JsonParser par = getParser(body);
-
 		String baseKey = originalRequest.baseKey;
 		String module = originalRequest.module;
 		ArrayList<String> directories = new ArrayList<String>();
-		Map<String, Object> respData = null;
-		try {
-			respData = new ObjectMapper().readValue(par, Map.class);
-		} catch (JsonParseException e) {
-		} catch (JsonMappingException e) {
-		} catch (IOException e) {
-		}
+		Map<String, Object> respData = getJson();
 		if (respData.containsKey("node")) {
 			LinkedHashMap<String, Object> nodeJson = (LinkedHashMap<String, Object>) respData.get("node");
 			if (nodeJson.containsKey("nodes")) {
@@ -101,17 +81,9 @@ public class EtcdResponse {
 
 	@SuppressWarnings("unchecked")
 	public String get(String name) {
-		JsonParser par = getParser(body);
-
 		String result = null;
 
-		Map<String, Object> respData = null;
-		try {
-			respData = new ObjectMapper().readValue(par, Map.class);
-		} catch (JsonParseException e) {
-		} catch (JsonMappingException e) {
-		} catch (IOException e) {
-		}
+		Map<String, Object> respData = getJson();
 		if (respData.containsKey("node")) {
 			LinkedHashMap<String, Object> nodeJson = (LinkedHashMap<String, Object>) respData.get("node");
 			if (nodeJson.containsKey(name)) {
@@ -126,6 +98,95 @@ public class EtcdResponse {
 		return result;
 	}
 
+	/**
+	 * @return the body as map, parsed on the first call.
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> getJson() {
+		if (json == null) {
+			if (body == null || body.trim().isEmpty())
+				json = new HashMap<String, Object>();
+			else
+				try {
+					json = mapper.readValue(body, Map.class);
+				} catch (IOException e) {
+					throw new RuntimeException(e);
+				}
+		}
+		return json;
+	}
+
+	/**
+	 * @return the etcd index when the response was created (header "X-Etcd-Index"), or -1.
+	 */
+	public long getEtcdIndex() {
+		return etcdIndex;
+	}
+
+	/**
+	 * @return true, if the body is empty (as returned by a long poll which ended without an event).
+	 */
+	public boolean isEmpty() {
+		return body == null || body.trim().isEmpty();
+	}
+
+	/**
+	 * @return the action ("get", "set", "delete", "expire", ...) or null.
+	 */
+	public String getAction() {
+		Object action = getJson().get("action");
+		return action == null ? null : action.toString();
+	}
+
+	/**
+	 * @return the etcd error code, or 0 if the response is not an error.
+	 */
+	public int getErrorCode() {
+		Object errorCode = getJson().get("errorCode");
+		return errorCode instanceof Number ? ((Number) errorCode).intValue() : 0;
+	}
+
+	/**
+	 * @return the key of the node the response refers to, or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public String getKey() {
+		Map<String, Object> node = (Map<String, Object>) getJson().get("node");
+		return node == null || node.get("key") == null ? null : node.get("key").toString();
+	}
+
+	/**
+	 * @return the index the node was last modified at, or -1.
+	 */
+	@SuppressWarnings("unchecked")
+	public long getModifiedIndex() {
+		Map<String, Object> node = (Map<String, Object>) getJson().get("node");
+		if (node == null || !(node.get("modifiedIndex") instanceof Number))
+			return -1;
+		return ((Number) node.get("modifiedIndex")).longValue();
+	}
+
+	/**
+	 * @return all keys having a value in the (possibly recursively retrieved) node, mapped to their values.
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, String> getLeaves() {
+		Map<String, String> leaves = new HashMap<String, String>();
+		Map<String, Object> node = (Map<String, Object>) getJson().get("node");
+		if (node != null)
+			addLeaves(node, leaves);
+		return leaves;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addLeaves(Map<String, Object> node, Map<String, String> leaves) {
+		if (node.get("key") != null && node.get("value") != null)
+			leaves.put(node.get("key").toString(), node.get("value").toString());
+		if (node.get("nodes") instanceof List)
+			for (Object child : (List<Object>) node.get("nodes"))
+				addLeaves((Map<String, Object>) child, leaves);
+	}
+
 	public int getStatusCode() {
 		return statusCode;
 	}
@@ -140,6 +201,7 @@ public class EtcdResponse {
 
 	public void setBody(String body) {
 		this.body = body;
+		json = null;
 	}
 
 	public boolean is2XX() {
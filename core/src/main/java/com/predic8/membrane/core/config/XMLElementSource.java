@@ -0,0 +1,149 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.config;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.sax.SAXSource;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXNotRecognizedException;
+import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
+
+import com.predic8.membrane.core.util.ContentHandlerXMLStreamWriter;
+
+/**
+ * A {@link javax.xml.transform.Source} producing the XML representation of an {@link XMLElement} as SAX
+ * events, while the consumer (e.g. an XSLT transformation) reads it. In contrast to
+ * {@link AbstractXmlElement#toXml()}, the document is never serialized.
+ */
+public class XMLElementSource extends SAXSource {
+
+	private static final String NAMESPACES = "http://xml.org/sax/features/namespaces";
+	private static final String NAMESPACE_PREFIXES = "http://xml.org/sax/features/namespace-prefixes";
+	private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+
+	public XMLElementSource(XMLElement element) {
+		super(new ElementReader(element), new InputSource());
+	}
+
+	private static class ElementReader implements XMLReader {
+		private final XMLElement element;
+		private ContentHandler contentHandler;
+		private LexicalHandler lexicalHandler;
+		private DTDHandler dtdHandler;
+		private EntityResolver entityResolver;
+		private ErrorHandler errorHandler;
+
+		ElementReader(XMLElement element) {
+			this.element = element;
+		}
+
+		@Override
+		public void parse(InputSource input) throws SAXException {
+			contentHandler.startDocument();
+			try {
+				ContentHandlerXMLStreamWriter writer = new ContentHandlerXMLStreamWriter(contentHandler, lexicalHandler);
+				element.write(writer);
+				writer.writeEndDocument();
+			} catch (XMLStreamException e) {
+				if (e.getNestedException() instanceof SAXException)
+					throw (SAXException) e.getNestedException();
+				throw new SAXException(e);
+			}
+			contentHandler.endDocument();
+		}
+
+		@Override
+		public void parse(String systemId) throws SAXException {
+			parse(new InputSource(systemId));
+		}
+
+		@Override
+		public boolean getFeature(String name) throws SAXNotRecognizedException, SAXNotSupportedException {
+			if (NAMESPACES.equals(name))
+				return true;
+			if (NAMESPACE_PREFIXES.equals(name))
+				return false;
+			throw new SAXNotRecognizedException(name);
+		}
+
+		@Override
+		public void setFeature(String name, boolean value) throws SAXNotRecognizedException, SAXNotSupportedException {
+			if (getFeature(name) != value)
+				throw new SAXNotSupportedException(name);
+		}
+
+		@Override
+		public Object getProperty(String name) throws SAXNotRecognizedException, SAXNotSupportedException {
+			if (LEXICAL_HANDLER.equals(name))
+				return lexicalHandler;
+			throw new SAXNotRecognizedException(name);
+		}
+
+		@Override
+		public void setProperty(String name, Object value) throws SAXNotRecognizedException, SAXNotSupportedException {
+			if (!LEXICAL_HANDLER.equals(name))
+				throw new SAXNotRecognizedException(name);
+			lexicalHandler = (LexicalHandler) value;
+		}
+
+		@Override
+		public void setEntityResolver(EntityResolver resolver) {
+			entityResolver = resolver;
+		}
+
+		@Override
+		public EntityResolver getEntityResolver() {
+			return entityResolver;
+		}
+
+		@Override
+		public void setDTDHandler(DTDHandler handler) {
+			dtdHandler = handler;
+		}
+
+		@Override
+		public DTDHandler getDTDHandler() {
+			return dtdHandler;
+		}
+
+		@Override
+		public void setContentHandler(ContentHandler handler) {
+			contentHandler = handler;
+		}
+
+		@Override
+		public ContentHandler getContentHandler() {
+			return contentHandler;
+		}
+
+		@Override
+		public void setErrorHandler(ErrorHandler handler) {
+			errorHandler = handler;
+		}
+
+		@Override
+		public ErrorHandler getErrorHandler() {
+			return errorHandler;
+		}
+	}
+
+}
@@ -39,6 +39,8 @@ public class SSLParser {
 	private String endpointIdentificationAlgorithm = "HTTPS";
 	private String serverName;
 	private boolean showSSLExceptions = true;
+	private int sessionCacheSize = 20480;
+	private int sessionTimeout = 86400;
 
 	@Override
 	public boolean equals(Object obj) {
@@ -56,7 +58,9 @@ public class SSLParser {
 				&& Objects.equal(ignoreTimestampCheckFailure, other.ignoreTimestampCheckFailure)
 				&& Objects.equal(endpointIdentificationAlgorithm, other.endpointIdentificationAlgorithm)
 				&& Objects.equal(serverName, other.serverName)
-				&& Objects.equal(showSSLExceptions, other.showSSLExceptions);
+				&& Objects.equal(showSSLExceptions, other.showSSLExceptions)
+				&& Objects.equal(sessionCacheSize, other.sessionCacheSize)
+				&& Objects.equal(sessionTimeout, other.sessionTimeout);
 	}
 
 
@@ -230,4 +234,32 @@ public class SSLParser {
 	public void setShowSSLExceptions(boolean showSSLExceptions) {
 		this.showSSLExceptions = showSSLExceptions;
 	}
+
+	public int getSessionCacheSize() {
+		return sessionCacheSize;
+	}
+
+	/**
+	 * @description The maximum number of TLS sessions kept for resumption (server and client side each).
+	 *              0 means no limit.
+	 * @default 20480
+	 */
+	@MCAttribute
+	public void setSessionCacheSize(int sessionCacheSize) {
+		this.sessionCacheSize = sessionCacheSize;
+	}
+
+	public int getSessionTimeout() {
+		return sessionTimeout;
+	}
+
+	/**
+	 * @description The time in seconds after which a cached TLS session may no longer be resumed.
+	 *              0 means no limit.
+	 * @default 86400
+	 */
+	@MCAttribute
+	public void setSessionTimeout(int sessionTimeout) {
+		this.sessionTimeout = sessionTimeout;
+	}
 }
@@ -0,0 +1,168 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.config.spring;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.ConstructorArgumentValues.ValueHolder;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+
+import com.google.common.base.Objects;
+
+/**
+ * Compares bean definitions structurally, as parsed from two versions of a configuration file.
+ *
+ * Spring generates the names of inner beans from their identity hash codes, so two parses of the
+ * same XML never produce equal {@link BeanDefinitionHolder}s. This comparator ignores the names of
+ * inner beans and compares everything else (classes, property values, constructor arguments and
+ * nested beans) recursively.
+ */
+public class BeanDefinitionComparator {
+
+	/**
+	 * @param ignoredListProperty the name of a list property (as set by the generated parsers using
+	 *                            "name[0]", "name[1]", ...) to ignore, or null
+	 */
+	public static boolean equal(BeanDefinition a, BeanDefinition b, String ignoredListProperty) {
+		if (a == null || b == null)
+			return a == b;
+		if (!Objects.equal(a.getBeanClassName(), b.getBeanClassName())
+				|| !Objects.equal(a.getParentName(), b.getParentName())
+				|| !Objects.equal(a.getScope(), b.getScope())
+				|| !Objects.equal(a.getFactoryBeanName(), b.getFactoryBeanName())
+				|| !Objects.equal(a.getFactoryMethodName(), b.getFactoryMethodName())
+				|| a.isAbstract() != b.isAbstract()
+				|| a.isLazyInit() != b.isLazyInit())
+			return false;
+		if (a instanceof AbstractBeanDefinition && b instanceof AbstractBeanDefinition) {
+			AbstractBeanDefinition aa = (AbstractBeanDefinition) a, ab = (AbstractBeanDefinition) b;
+			if (!Objects.equal(aa.getInitMethodName(), ab.getInitMethodName())
+					|| !Objects.equal(aa.getDestroyMethodName(), ab.getDestroyMethodName()))
+				return false;
+		}
+		if (!equalAttributes(a, b, ignoredListProperty))
+			return false;
+		if (!equalConstructorArguments(a.getConstructorArgumentValues(), b.getConstructorArgumentValues()))
+			return false;
+		return equalProperties(getPropertyValues(a, ignoredListProperty), getPropertyValues(b, ignoredListProperty));
+	}
+
+	public static boolean equal(BeanDefinition a, BeanDefinition b) {
+		return equal(a, b, null);
+	}
+
+	/**
+	 * Compares property values, constructor arguments and the like.
+	 */
+	public static boolean equalValues(Object a, Object b) {
+		if (a == b)
+			return true;
+		if (a == null || b == null)
+			return false;
+		if (a instanceof BeanDefinitionHolder)
+			a = ((BeanDefinitionHolder) a).getBeanDefinition();
+		if (b instanceof BeanDefinitionHolder)
+			b = ((BeanDefinitionHolder) b).getBeanDefinition();
+		if (a instanceof BeanDefinition && b instanceof BeanDefinition)
+			return equal((BeanDefinition) a, (BeanDefinition) b);
+		if (a instanceof List && b instanceof List)
+			return equalElements((List<?>) a, (List<?>) b);
+		if (a instanceof Collection && b instanceof Collection)
+			return equalElements((Collection<?>) a, (Collection<?>) b);
+		if (a instanceof Map && b instanceof Map)
+			return equalElements(((Map<?, ?>) a).entrySet(), ((Map<?, ?>) b).entrySet());
+		if (a instanceof Map.Entry && b instanceof Map.Entry)
+			return equalValues(((Map.Entry<?, ?>) a).getKey(), ((Map.Entry<?, ?>) b).getKey())
+					&& equalValues(((Map.Entry<?, ?>) a).getValue(), ((Map.Entry<?, ?>) b).getValue());
+		return a.equals(b);
+	}
+
+	private static boolean equalElements(Collection<?> a, Collection<?> b) {
+		if (a.size() != b.size())
+			return false;
+		Iterator<?> ia = a.iterator(), ib = b.iterator();
+		while (ia.hasNext())
+			if (!equalValues(ia.next(), ib.next()))
+				return false;
+		return true;
+	}
+
+	private static boolean equalAttributes(BeanDefinition a, BeanDefinition b, String ignored) {
+		List<String> na = getAttributeNames(a, ignored), nb = getAttributeNames(b, ignored);
+		if (!na.equals(nb))
+			return false;
+		for (String name : na)
+			if (!equalValues(a.getAttribute(name), b.getAttribute(name)))
+				return false;
+		return true;
+	}
+
+	private static List<String> getAttributeNames(BeanDefinition bd, String ignored) {
+		List<String> names = new ArrayList<String>();
+		for (String name : bd.attributeNames())
+			if (!name.equals(ignored))
+				names.add(name);
+		Collections.sort(names);
+		return names;
+	}
+
+	private static List<PropertyValue> getPropertyValues(BeanDefinition bd, String ignoredListProperty) {
+		List<PropertyValue> result = new ArrayList<PropertyValue>();
+		for (PropertyValue pv : bd.getPropertyValues().getPropertyValues())
+			if (ignoredListProperty == null || !pv.getName().startsWith(ignoredListProperty + "["))
+				result.add(pv);
+		return result;
+	}
+
+	private static boolean equalProperties(List<PropertyValue> a, List<PropertyValue> b) {
+		if (a.size() != b.size())
+			return false;
+		for (int i = 0; i < a.size(); i++)
+			if (!a.get(i).getName().equals(b.get(i).getName())
+					|| !equalValues(a.get(i).getValue(), b.get(i).getValue()))
+				return false;
+		return true;
+	}
+
+	private static boolean equalConstructorArguments(ConstructorArgumentValues a, ConstructorArgumentValues b) {
+		Map<Integer, ValueHolder> ia = a.getIndexedArgumentValues(), ib = b.getIndexedArgumentValues();
+		if (!ia.keySet().equals(ib.keySet()))
+			return false;
+		for (Map.Entry<Integer, ValueHolder> e : ia.entrySet())
+			if (!equal(e.getValue(), ib.get(e.getKey())))
+				return false;
+		List<ValueHolder> ga = a.getGenericArgumentValues(), gb = b.getGenericArgumentValues();
+		if (ga.size() != gb.size())
+			return false;
+		for (int i = 0; i < ga.size(); i++)
+			if (!equal(ga.get(i), gb.get(i)))
+				return false;
+		return true;
+	}
+
+	private static boolean equal(ValueHolder a, ValueHolder b) {
+		return Objects.equal(a.getName(), b.getName())
+				&& Objects.equal(a.getType(), b.getType())
+				&& equalValues(a.getValue(), b.getValue());
+	}
+}
@@ -13,6 +13,8 @@
    limitations under the License. */
 package com.predic8.membrane.core.config.spring;
 
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
 public interface CheckableBeanFactory {
 
 	/**
@@ -21,6 +23,13 @@ public interface CheckableBeanFactory {
 	 */
 	public void checkForInvalidBeanDefinitions() throws InvalidConfigurationException;
 
+	/**
+	 * Parses this application context's configuration file(s) into a new bean factory. No bean is
+	 * instantiated.
+	 * @throws InvalidConfigurationException if the configuration is not valid
+	 */
+	public DefaultListableBeanFactory parseBeanDefinitions() throws InvalidConfigurationException;
+
 	public static class InvalidConfigurationException extends Exception {
 
 		private static final long serialVersionUID = 1L;
@@ -137,13 +137,20 @@ TrackingApplicationContext, BaseLocationApplicationContext, CheckableBeanFactory
 
 	@Override
 	public void checkForInvalidBeanDefinitions() throws InvalidConfigurationException {
+		parseBeanDefinitions();
+	}
+
+	@Override
+	public DefaultListableBeanFactory parseBeanDefinitions() throws InvalidConfigurationException {
 		try {
 			DefaultListableBeanFactory beanFactory = createBeanFactory();
 			beanFactory.setSerializationId(null);
 			customizeBeanFactory(beanFactory);
 			loadBeanDefinitions(beanFactory);
+			return beanFactory;
 		} catch (XmlBeanDefinitionStoreException e) {
 			handleXmlBeanDefinitionStoreException(e);
+			return null; // not reached
 		} catch (IOException ex) {
 			throw new ApplicationContextException("I/O error parsing bean definition source for " + getDisplayName(), ex);
 		}
@@ -15,10 +15,12 @@
 package com.predic8.membrane.core.exchange;
 
 import com.predic8.membrane.core.exchangestore.ExchangeStore;
+import com.predic8.membrane.core.http.AbstractBody;
 import com.predic8.membrane.core.http.Header;
 import com.predic8.membrane.core.http.Request;
 import com.predic8.membrane.core.http.Response;
 import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorStack;
 import com.predic8.membrane.core.model.IExchangeViewerListener;
 import com.predic8.membrane.core.model.IExchangesStoreListener;
 import com.predic8.membrane.core.rules.AbstractServiceProxy;
@@ -70,7 +72,7 @@ public abstract class AbstractExchange {
 	private String remoteAddr;
 	private String remoteAddrIp;
 
-	private ArrayList<Interceptor> interceptorStack = new ArrayList<Interceptor>(10);
+	private InterceptorStack interceptorStack = new InterceptorStack();
 
 	private int estimatedHeapSize = -1;
 
@@ -400,12 +402,11 @@ public abstract class AbstractExchange {
 	}
 
 	public void pushInterceptorToStack(Interceptor i) {
-		interceptorStack.add(i);
+		interceptorStack.push(i);
 	}
 
 	public Interceptor popInterceptorFromStack() {
-		int s = interceptorStack.size();
-		return s == 0 ? null : interceptorStack.remove(s-1);
+		return interceptorStack.pop();
 	}
 
 	public int getHeapSizeEstimation() {
@@ -414,6 +415,14 @@ public abstract class AbstractExchange {
 		return estimatedHeapSize;
 	}
 
+	/**
+	 * Estimates the heap size again on the next call of {@link #getHeapSizeEstimation()}, for example after a body
+	 * has been added.
+	 */
+	public void invalidateHeapSizeEstimation() {
+		estimatedHeapSize = -1;
+	}
+
 	protected int resetHeapSizeEstimation() {
 		int estimatedHeapSize2 = estimatedHeapSize;
 		estimatedHeapSize = 0;
@@ -433,11 +442,22 @@ public abstract class AbstractExchange {
 		if(source.getResponse() != null)
 			copy.setResponse(source.getResponse().createSnapshot());
 
+		updateState(source, copy);
+		copy.setProperties(new HashMap<>(source.getProperties()));
+		copy.setInterceptorStack(source.getInterceptorStack().copy());
+
+		return copy;
+	}
+
+	/**
+	 * Copies the state of the exchange (like times, status and routing), but neither the messages, nor the
+	 * properties or the interceptor stack.
+	 */
+	public static void updateState(AbstractExchange source, AbstractExchange copy) {
 		copy.setOriginalRequestUri(source.getOriginalRequestUri());
 		copy.setTime(source.getTime());
 		copy.setErrorMessage(source.getErrorMessage());
 		copy.setRule(source.getRule());
-		copy.setProperties(new HashMap<>(source.getProperties()));
 		copy.setStatus(source.getStatus());
 		copy.setForceToStop(source.isForcedToStop());
 		copy.setTimeReqSent(source.getTimeReqSent());
@@ -447,9 +467,6 @@ public abstract class AbstractExchange {
 		copy.setDestinations(source.getDestinations().stream().collect(Collectors.toList()));
 		copy.setRemoteAddr(source.getRemoteAddr());
 		copy.setRemoteAddrIp(source.getRemoteAddrIp());
-		copy.setInterceptorStack(source.getInterceptorStack().stream().collect(Collectors.toCollection(ArrayList::new)));
-
-		return copy;
 	}
 
 	public String getPublicUrl(){
@@ -465,9 +482,16 @@ public abstract class AbstractExchange {
 
 	/**
 	 * Prepares for long-term storage (for example, in-memory {@link ExchangeStore}s).
+	 *
+	 * Bodies spooled to disk are released (see {@link AbstractBody#release()}): their content is only kept, while
+	 * an exchange store or log holds it (see {@link AbstractBody#retain()} and {@link AbstractBody#createSnapshot()}).
 	 */
 	public void detach() {
 		properties.clear();
+		if (request != null)
+			request.getBody().release();
+		if (response != null)
+			response.getBody().release();
 	}
 
 	public abstract long getId();
@@ -482,11 +506,11 @@ public abstract class AbstractExchange {
 
 	public abstract <T extends AbstractExchange> T createSnapshot() throws Exception;
 
-	public ArrayList<Interceptor> getInterceptorStack() {
+	public InterceptorStack getInterceptorStack() {
 		return interceptorStack;
 	}
 
-	public void setInterceptorStack(ArrayList<Interceptor> interceptorStack){
+	public void setInterceptorStack(InterceptorStack interceptorStack){
 		this.interceptorStack = interceptorStack;
 	}
 
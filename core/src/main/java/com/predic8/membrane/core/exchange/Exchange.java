@@ -21,6 +21,7 @@ import com.predic8.membrane.core.http.Request;
 import com.predic8.membrane.core.http.Response;
 import com.predic8.membrane.core.http.Response.ResponseBuilder;
 import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.rules.AbstractProxy;
 import com.predic8.membrane.core.transport.http.AbstractHttpHandler;
 import com.predic8.membrane.core.transport.http.Connection;
 import com.predic8.membrane.core.util.HttpUtil;
@@ -47,6 +48,8 @@ public class Exchange extends AbstractExchange {
 
 	public static final String /*PROPERTY_*/SSL_CONTEXT = "SSL_CONTEXT";
 
+	public static final String /*PROPERTY_*/CIRCUIT_BREAKERS = "CIRCUIT_BREAKERS";
+
 	public static final String API_KEY = "API_KEY";
 
 	public static final String OAUTH2 = "oauth2";
@@ -69,6 +72,8 @@ public class Exchange extends AbstractExchange {
 
 	private long id;
 
+	private AbstractProxy runningOn;
+
 	public Exchange(AbstractHttpHandler handler) {
 		this.handler = handler;
 		this.id = hashCode();
@@ -212,10 +217,25 @@ public class Exchange extends AbstractExchange {
 		nodeExceptions[tryCounter % getDestinations().size()] = e;
 	}
 
+	/**
+	 * Counts the exchange as running on the rule (see {@link AbstractProxy#getRunningExchanges()}) until it is
+	 * detached.
+	 */
+	public void setRunningOn(AbstractProxy rule) {
+		if (runningOn != null)
+			runningOn.exchangeCompleted();
+		runningOn = rule;
+		rule.exchangeStarted();
+	}
+
 	@Override
 	public void detach() {
 		super.detach();
 		handler = null;
+		if (runningOn != null) {
+			runningOn.exchangeCompleted();
+			runningOn = null;
+		}
 	}
 
 	public boolean canKeepConnectionAlive() {
@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.predic8.membrane.core.Router;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
 import com.predic8.membrane.core.rules.Rule;
 import com.predic8.membrane.core.rules.RuleKey;
 import com.predic8.membrane.core.rules.StatisticCollector;
@@ -81,6 +82,11 @@ public class FakeRule implements Rule {
 
     }
 
+    @Override
+    public InterceptorChain getInterceptorChain() {
+        return InterceptorChain.EMPTY;
+    }
+
     @Override
     public boolean isBlockRequest() {
         return false;
@@ -66,6 +66,10 @@ public abstract class AbstractExchangeStore implements ExchangeStore {
 	public void init() {
 	}
 
+	public synchronized ExchangeQueryResult query(ExchangeQuery query) {
+		return query.execute(getAllExchangesAsList());
+	}
+
 	public synchronized void collect(ExchangeCollector collector) {
 		for (AbstractExchange exc: getAllExchangesAsList()) {
 			collector.collect(exc);
@@ -0,0 +1,110 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.exchangestore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.predic8.membrane.core.Constants;
+import com.predic8.membrane.core.http.AbstractBody;
+import com.predic8.membrane.core.http.Message;
+
+/**
+ * A message of an exchange as stored in a {@link SegmentedExchangeLog}: the start line and header as
+ * transferred, and the body.
+ */
+public final class ExchangeLogRecord {
+
+	private final long id;
+	private final long time;
+	private final boolean request;
+	private final byte[] head;
+	private final AbstractBody body;
+	private final boolean truncated;
+
+	/**
+	 * @param head the start line and the header, terminated by an empty line
+	 * @param body the body, which must have been read, or null
+	 */
+	public ExchangeLogRecord(long id, long time, boolean request, byte[] head, AbstractBody body) {
+		this(id, time, request, head, body, false);
+	}
+
+	/**
+	 * @param truncated whether the body could not be written completely
+	 */
+	public ExchangeLogRecord(long id, long time, boolean request, byte[] head, AbstractBody body, boolean truncated) {
+		this.id = id;
+		this.time = time;
+		this.request = request;
+		this.head = head;
+		this.body = body;
+		this.truncated = truncated;
+	}
+
+	/**
+	 * Creates the record of a message whose body is complete. The header is serialized at once, while the data
+	 * of the body is shared (see {@link AbstractBody#createSnapshot()}) and only copied when the record is written.
+	 * Data the body has spooled to disk is kept until {@link #release()} is called.
+	 */
+	public static ExchangeLogRecord create(long id, long time, boolean request, Message msg) throws IOException {
+		ByteArrayOutputStream head = new ByteArrayOutputStream(512);
+		msg.writeStartLine(head);
+		msg.getHeader().write(head);
+		head.write(Constants.CRLF_BYTES);
+		AbstractBody body = msg.getBody();
+		return new ExchangeLogRecord(id, time, request, head.toByteArray(),
+				body != null && body.isRead() ? body.createSnapshot() : null);
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * @return the time the exchange started, in milliseconds since the epoch
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	public boolean isRequest() {
+		return request;
+	}
+
+	public byte[] getHead() {
+		return head;
+	}
+
+	public AbstractBody getBody() {
+		return body;
+	}
+
+	/**
+	 * @return whether the body of the message is missing or incomplete, because it could not be read when the
+	 *         record was written
+	 */
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * Releases the data the body has spooled to disk, once the record has been written or dropped.
+	 */
+	public void release() {
+		if (body != null)
+			body.release();
+	}
+
+}
@@ -0,0 +1,258 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.exchangestore;
+
+import java.util.Collection;
+import java.util.Comparator;
+
+import com.predic8.membrane.core.exchange.AbstractExchange;
+import com.predic8.membrane.core.util.ComparatorFactory;
+import com.predic8.membrane.core.util.TopKSelector;
+
+/**
+ * Selects a page of the exchanges of an {@link ExchangeStore}: the exchanges matching all filters which are set,
+ * ordered by a property.
+ *
+ * A page starts either at an offset or, when ordered by time, at a cursor: the
+ * {@link ExchangeQueryResult#getNextCursor()} of the previous page. Unlike an offset, a cursor stays valid while
+ * new exchanges are added to the store.
+ *
+ * The page is selected using top-k selection, so only offset+max exchanges are sorted.
+ */
+public class ExchangeQuery {
+
+	public static final String SORT_TIME = "time";
+
+	private String proxy;
+	private Integer statusCode;
+	private String client;
+	private String server;
+	private String method;
+	private String reqContentType;
+	private String respContentType;
+
+	private String sort = SORT_TIME;
+	private String order = "desc";
+	private int offset;
+	private int max = Integer.MAX_VALUE;
+	private String cursor;
+
+	public boolean matches(AbstractExchange e) {
+		return (proxy == null || (e.getRule() != null && proxy.equals(e.getRule().toString()))) &&
+				(statusCode == null || (e.getResponse() != null && e.getResponse().getStatusCode() == statusCode)) &&
+				(client == null || client.equals(e.getRemoteAddr())) &&
+				(server == null || server.equals(e.getServer() == null ? "" : e.getServer())) &&
+				(method == null || (e.getRequest() != null && method.equals(e.getRequest().getMethod()))) &&
+				(reqContentType == null || reqContentType.equals(e.getRequestContentType())) &&
+				(respContentType == null || respContentType.equals(e.getResponseContentType()));
+	}
+
+	/**
+	 * Selects the page from the candidates. Candidates not matching the filters are skipped, so the
+	 * collections may hold more exchanges than those matching.
+	 */
+	@SafeVarargs
+	public final ExchangeQueryResult execute(Collection<? extends AbstractExchange>... candidates) {
+		Comparator<AbstractExchange> comparator = getComparator();
+		long[] position = cursor == null ? null : parseCursor(cursor);
+		int k = (int) Math.min(Integer.MAX_VALUE, (long) offset + max);
+		TopKSelector<AbstractExchange> selector = new TopKSelector<AbstractExchange>(comparator, k);
+		int total = 0, selectable = 0;
+		for (Collection<? extends AbstractExchange> c : candidates) {
+			if (c == null)
+				continue;
+			for (AbstractExchange e : c) {
+				if (!matches(e))
+					continue;
+				total++;
+				if (position != null && compareTime(getTime(e), e.getId(), position[0], position[1]) <= 0)
+					continue;
+				selectable++;
+				selector.offer(e);
+			}
+		}
+		return new ExchangeQueryResult(selector.getSorted(offset), total, selectable > k);
+	}
+
+	/**
+	 * @return the order of the exchanges. Exchanges with equal values are ordered by id, so that the order is
+	 * stable across pages.
+	 */
+	public Comparator<AbstractExchange> getComparator() {
+		if (SORT_TIME.equals(sort))
+			return new Comparator<AbstractExchange>() {
+				@Override
+				public int compare(AbstractExchange e1, AbstractExchange e2) {
+					return compareTime(getTime(e1), e1.getId(), getTime(e2), e2.getId());
+				}
+			};
+		final Comparator<AbstractExchange> comparator = ComparatorFactory.getAbstractExchangeComparator(sort, order);
+		return new Comparator<AbstractExchange>() {
+			@Override
+			public int compare(AbstractExchange e1, AbstractExchange e2) {
+				int result = comparator.compare(e1, e2);
+				return result != 0 ? result : Long.compare(e1.getId(), e2.getId());
+			}
+		};
+	}
+
+	private int compareTime(long time1, long id1, long time2, long id2) {
+		int result = time1 != time2 ? Long.compare(time1, time2) : Long.compare(id1, id2);
+		return "desc".equals(order) ? -result : result;
+	}
+
+	private static long getTime(AbstractExchange e) {
+		return e.getTime() == null ? 0 : e.getTime().getTimeInMillis();
+	}
+
+	static String createCursor(AbstractExchange e) {
+		return getTime(e) + "_" + e.getId();
+	}
+
+	private static long[] parseCursor(String cursor) {
+		int i = cursor.indexOf('_');
+		if (i == -1)
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		try {
+			return new long[] { Long.parseLong(cursor.substring(0, i)), Long.parseLong(cursor.substring(i + 1)) };
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor);
+		}
+	}
+
+	public String getProxy() {
+		return proxy;
+	}
+
+	/**
+	 * Only exchanges handled by the proxy with this name.
+	 */
+	public void setProxy(String proxy) {
+		this.proxy = proxy;
+	}
+
+	public Integer getStatusCode() {
+		return statusCode;
+	}
+
+	public void setStatusCode(Integer statusCode) {
+		this.statusCode = statusCode;
+	}
+
+	public String getClient() {
+		return client;
+	}
+
+	/**
+	 * Only exchanges with this remote address.
+	 */
+	public void setClient(String client) {
+		this.client = client;
+	}
+
+	public String getServer() {
+		return server;
+	}
+
+	public void setServer(String server) {
+		this.server = server;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public void setMethod(String method) {
+		this.method = method;
+	}
+
+	public String getReqContentType() {
+		return reqContentType;
+	}
+
+	public void setReqContentType(String reqContentType) {
+		this.reqContentType = reqContentType;
+	}
+
+	public String getRespContentType() {
+		return respContentType;
+	}
+
+	public void setRespContentType(String respContentType) {
+		this.respContentType = respContentType;
+	}
+
+	public String getSort() {
+		return sort;
+	}
+
+	/**
+	 * The property to order by, see {@link ComparatorFactory#getAbstractExchangeComparator(String, String)}.
+	 */
+	public void setSort(String sort) {
+		this.sort = sort;
+		checkCursor();
+	}
+
+	public String getOrder() {
+		return order;
+	}
+
+	/**
+	 * "asc" or "desc"
+	 */
+	public void setOrder(String order) {
+		this.order = order;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public void setOffset(int offset) {
+		if (offset < 0)
+			throw new IllegalArgumentException("offset must not be negative: " + offset);
+		this.offset = offset;
+	}
+
+	public int getMax() {
+		return max;
+	}
+
+	public void setMax(int max) {
+		if (max < 0)
+			throw new IllegalArgumentException("max must not be negative: " + max);
+		this.max = max;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	/**
+	 * Only exchanges after the last one of the previous page. Requires ordering by time.
+	 */
+	public void setCursor(String cursor) {
+		if (cursor != null)
+			parseCursor(cursor);
+		this.cursor = cursor;
+		checkCursor();
+	}
+
+	private void checkCursor() {
+		if (cursor != null && !SORT_TIME.equals(sort))
+			throw new IllegalArgumentException("A cursor can only be used when ordering by time.");
+	}
+
+}
@@ -0,0 +1,61 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.exchangestore;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.predic8.membrane.core.exchange.AbstractExchange;
+
+/**
+ * A page of exchanges selected by an {@link ExchangeQuery}.
+ */
+public class ExchangeQueryResult {
+
+	public static final ExchangeQueryResult EMPTY = new ExchangeQueryResult(Collections.<AbstractExchange>emptyList(), 0, false);
+
+	private final List<AbstractExchange> exchanges;
+	private final int total;
+	private final String nextCursor;
+
+	/**
+	 * @param more whether there are matching exchanges following this page
+	 */
+	ExchangeQueryResult(List<AbstractExchange> exchanges, int total, boolean more) {
+		this.exchanges = Collections.unmodifiableList(exchanges);
+		this.total = total;
+		this.nextCursor = !more || exchanges.isEmpty() ? null
+				: ExchangeQuery.createCursor(exchanges.get(exchanges.size() - 1));
+	}
+
+	public List<AbstractExchange> getExchanges() {
+		return exchanges;
+	}
+
+	/**
+	 * @return the number of exchanges matching the filters
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return the cursor to pass to {@link ExchangeQuery#setCursor(String)} to get the following page
+	 * (meaningful only if ordered by time), or null if this is the last page.
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+}
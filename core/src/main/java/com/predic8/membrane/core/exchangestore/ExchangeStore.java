@@ -70,6 +70,11 @@ public interface ExchangeStore {
 
 	public List<? extends ClientStatistics> getClientStatistics();
 
+	/**
+	 * Returns the page of exchanges selected by the query, without copying all exchanges of the store.
+	 */
+	public ExchangeQueryResult query(ExchangeQuery query);
+
 	public void collect(ExchangeCollector col);
 
 	long getLastModified();
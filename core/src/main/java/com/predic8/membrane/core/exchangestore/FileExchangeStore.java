@@ -14,6 +14,7 @@
 
 package com.predic8.membrane.core.exchangestore;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -30,26 +31,40 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Required;
 
 import com.predic8.membrane.annot.MCAttribute;
 import com.predic8.membrane.annot.MCElement;
 import com.predic8.membrane.core.Constants;
 import com.predic8.membrane.core.exchange.AbstractExchange;
+import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.AbstractBody;
 import com.predic8.membrane.core.http.Message;
 import com.predic8.membrane.core.http.MessageObserver;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.http.Response;
 import com.predic8.membrane.core.interceptor.Interceptor.Flow;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter;
 import com.predic8.membrane.core.rules.Rule;
 import com.predic8.membrane.core.rules.RuleKey;
 import com.predic8.membrane.core.rules.StatisticCollector;
 import com.predic8.membrane.core.util.TextUtil;
 
 /**
- * The output file is UTF-8 encoded.
+ * @description Stores exchanges on disk. By default, every message is written to a file of its own (UTF-8 encoded)
+ *              in a directory per day. Using format="LOG", messages are instead appended to a segmented log by a
+ *              background thread, see {@link SegmentedExchangeLog}.
  */
 @MCElement(name="fileExchangeStore")
-public class FileExchangeStore extends AbstractExchangeStore {
+public class FileExchangeStore extends AbstractExchangeStore implements DisposableBean {
+
+	public enum Format {
+		/** one file per message */
+		FILES,
+		/** an append-only log of segments */
+		LOG
+	}
 
 	private static Logger log = LoggerFactory.getLogger(FileExchangeStore.class
 			.getName());
@@ -73,11 +88,26 @@ public class FileExchangeStore extends AbstractExchangeStore {
 	private boolean saveBodyOnly = false;
 	private int maxDays = -1;
 
+	private Format format = Format.FILES;
+	private long segmentSize = 64 * 1024 * 1024;
+	private boolean compress = false;
+	private long maxSize = -1;
+	private int queueSize = 10000;
+
 	private Timer oldFilesCleanupTimer;
 
+	private SegmentedExchangeLog exchangeLog;
+	private AsyncBatchWriter<ExchangeLogRecord> logWriter;
+
+	@Override
+	public void init() {
+		if (format == Format.LOG)
+			getLogWriter();
+	}
+
 	public void snap(final AbstractExchange exc, final Flow flow) {
 		try {
-			Message m = flow == Flow.REQUEST ? exc.getRequest() : exc.getResponse();
+			final Message m = flow == Flow.REQUEST ? exc.getRequest() : exc.getResponse();
 			// TODO: [fix me] support multi-snap
 			// TODO: [fix me] snap message headers *here*, not in observer
 			if (m != null)
@@ -85,7 +115,10 @@ public class FileExchangeStore extends AbstractExchangeStore {
 					public void bodyRequested(AbstractBody body) {
 					}
 					public void bodyComplete(AbstractBody body) {
-						snapInternal(exc, flow);
+						if (format == Format.LOG)
+							append(exc, flow, m);
+						else
+							snapInternal(exc, flow);
 					}
 				});
 		} catch (Exception e) {
@@ -93,6 +126,91 @@ public class FileExchangeStore extends AbstractExchangeStore {
 		}
 	}
 
+	private void append(AbstractExchange exc, Flow flow, Message msg) {
+		try {
+			ExchangeLogRecord record = ExchangeLogRecord.create(exc.getId(), exc.getTime().getTimeInMillis(),
+					flow == Flow.REQUEST, msg);
+			if (!getLogWriter().offer(record))
+				record.release();
+		} catch (Exception e) {
+			log.error("Could not log exchange " + exc.getId() + ".", e);
+		}
+	}
+
+	private synchronized AsyncBatchWriter<ExchangeLogRecord> getLogWriter() {
+		if (logWriter == null) {
+			SegmentedExchangeLog exchangeLog = new SegmentedExchangeLog(new File(dir), segmentSize, compress,
+					Math.max(0, maxSize), maxDays < 0 ? 0 : maxDays * 24L * 60 * 60 * 1000);
+			try {
+				exchangeLog.open();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			this.exchangeLog = exchangeLog;
+			logWriter = new AsyncBatchWriter<ExchangeLogRecord>("Exchange Log Writer " + dir, exchangeLog,
+					queueSize, 256, 200, AsyncBatchWriter.OverflowPolicy.BLOCK, null, null);
+		}
+		return logWriter;
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		AsyncBatchWriter<ExchangeLogRecord> writer;
+		synchronized (this) {
+			writer = logWriter;
+			logWriter = null;
+		}
+		if (writer != null) {
+			writer.close(10000);
+			exchangeLog.close();
+		}
+		if (oldFilesCleanupTimer != null)
+			oldFilesCleanupTimer.cancel();
+	}
+
+	/**
+	 * Only supported with format="LOG": reads the exchange's messages from the log. The body of a message which
+	 * could not be logged completely is empty (see {@link ExchangeLogRecord#isTruncated()}).
+	 */
+	@Override
+	public AbstractExchange getExchangeById(int id) {
+		if (format != Format.LOG)
+			return super.getExchangeById(id);
+		List<ExchangeLogRecord> records = getExchangeLog().read(id);
+		if (records.isEmpty())
+			return null;
+		Exchange exc = new Exchange(null);
+		exc.setId(id);
+		try {
+			for (ExchangeLogRecord record : records) {
+				Calendar time = Calendar.getInstance();
+				time.setTimeInMillis(record.getTime());
+				exc.setTime(time);
+				Message msg = record.isRequest() ? new Request() : new Response();
+				msg.read(new ByteArrayInputStream(record.getHead()), false);
+				msg.setBody(record.getBody());
+				if (record.isRequest())
+					exc.setRequest((Request) msg);
+				else
+					exc.setResponse((Response) msg);
+			}
+		} catch (Exception e) {
+			log.warn("Could not parse exchange " + id + " from the log.", e);
+			return null;
+		}
+		return exc;
+	}
+
+	/**
+	 * @return the log, if format="LOG", otherwise null
+	 */
+	public SegmentedExchangeLog getExchangeLog() {
+		if (format != Format.LOG)
+			return null;
+		getLogWriter();
+		return exchangeLog;
+	}
+
 	private void snapInternal(AbstractExchange exc, Flow flow) {
 		int fileNumber = counter.incrementAndGet();
 
@@ -182,7 +300,7 @@ public class FileExchangeStore extends AbstractExchangeStore {
 	}
 
 	public void initializeTimer() {
-		if (this.maxDays < 0) {
+		if (this.maxDays < 0 || format == Format.LOG) {
 			return; // don't do anything if this feature is deactivated
 		}
 
@@ -332,7 +450,8 @@ public class FileExchangeStore extends AbstractExchangeStore {
 	 * @default -1
 	 * @description Number of days for which exchange logs are preserved. A
 	 *              value smaller than zero deactivates the deletion of old
-	 *              logs.
+	 *              logs. With format="LOG", whole segments are deleted once
+	 *              their newest exchange is older.
 	 * @example 60
 	 */
 	@MCAttribute
@@ -340,4 +459,69 @@ public class FileExchangeStore extends AbstractExchangeStore {
 		this.maxDays = maxDays;
 	}
 
+	public Format getFormat() {
+		return format;
+	}
+	/**
+	 * @default FILES
+	 * @description FILES writes every message to a file of its own. LOG appends messages to a segmented log
+	 *              on a background thread, avoiding millions of small files. With LOG, raw and saveBodyOnly are
+	 *              ignored: messages are stored as received, bodies without transfer encoding.
+	 * @example LOG
+	 */
+	@MCAttribute
+	public void setFormat(Format format) {
+		this.format = format;
+	}
+
+	public long getSegmentSize() {
+		return segmentSize;
+	}
+	/**
+	 * @default 67108864
+	 * @description (format="LOG" only) Size in bytes after which a new segment is started.
+	 */
+	@MCAttribute
+	public void setSegmentSize(long segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	public boolean isCompress() {
+		return compress;
+	}
+	/**
+	 * @default false
+	 * @description (format="LOG" only) Whether full segments are gzipped.
+	 */
+	@MCAttribute
+	public void setCompress(boolean compress) {
+		this.compress = compress;
+	}
+
+	public long getMaxSize() {
+		return maxSize;
+	}
+	/**
+	 * @default -1
+	 * @description (format="LOG" only) Maximum size of all segments in bytes. The oldest segments are deleted
+	 *              when it is exceeded. A value smaller than zero deactivates the limit.
+	 */
+	@MCAttribute
+	public void setMaxSize(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+	/**
+	 * @default 10000
+	 * @description (format="LOG" only) Number of messages which may wait to be written. When the queue is full,
+	 *              the threads handling exchanges wait.
+	 */
+	@MCAttribute
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
 }
@@ -114,6 +114,10 @@ public class ForgetfulExchangeStore implements ExchangeStore {
 		return null;
 	}
 
+	public ExchangeQueryResult query(ExchangeQuery query) {
+		return ExchangeQueryResult.EMPTY;
+	}
+
 	public void collect(ExchangeCollector collector) {}
 
 	public long getLastModified() {
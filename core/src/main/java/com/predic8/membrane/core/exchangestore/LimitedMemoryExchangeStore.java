@@ -49,6 +49,15 @@ public class LimitedMemoryExchangeStore extends AbstractExchangeStore {
 	private final Queue<AbstractExchange> exchanges = new LinkedList<AbstractExchange>();
 	private Map<AbstractExchange, Request> inflight = new ConcurrentHashMap<AbstractExchange, Request>();
 
+	/**
+	 * Indexes of {@link #exchanges} by properties of the request, which do not change once an exchange is stored.
+	 * Guarded by this, like {@link #exchanges}.
+	 */
+	private final Map<String, Set<AbstractExchange>> byProxy = new HashMap<String, Set<AbstractExchange>>();
+	private final Map<String, Set<AbstractExchange>> byClient = new HashMap<String, Set<AbstractExchange>>();
+	private final Map<String, Set<AbstractExchange>> byMethod = new HashMap<String, Set<AbstractExchange>>();
+	private final Map<Long, AbstractExchange> byId = new HashMap<Long, AbstractExchange>();
+
 	private long lastModification = System.currentTimeMillis();
 
 	public void snap(final AbstractExchange exc, final Flow flow) {
@@ -58,67 +67,87 @@ public class LimitedMemoryExchangeStore extends AbstractExchangeStore {
 			oldSnap(exc, flow);
 	}
 
+	/**
+	 * Stores a record of the exchange, which is written once at each point of its lifecycle: The headers of a
+	 * message are copied when it is snapped, its body is added (sharing the chunks, see
+	 * {@link AbstractBody#createSnapshot()}) when it is complete, and the times and status are updated when the
+	 * exchange has finished.
+	 */
 	private void newSnap(AbstractExchange exc, Flow flow) {
-		AbstractExchange excCopy = null;
 		try {
-            if (flow == Flow.REQUEST) {
-				excCopy = cleanSnapshot(exc.createSnapshot());
-				snapInternal(excCopy, flow);
+			AbstractExchange record = flow == Flow.REQUEST ? null : getRecord(exc.getId());
+			if (record == null) {
+				record = new Exchange(null);
+				((Exchange) record).setId(exc.getId());
+				AbstractExchange.updateState(exc, record);
+				if (exc.getRequest() != null) {
+					record.setRequest(cleanSnapshot(exc.getRequest().<Request>createSnapshot()));
+					observeBody(exc.getRequest(), record, Flow.REQUEST);
+				}
+				observeState(exc, record);
+			}
+			if (flow == Flow.RESPONSE && exc.getResponse() != null) {
+				record.setResponse(cleanSnapshot(exc.getResponse().<Response>createSnapshot()));
+				observeBody(exc.getResponse(), record, Flow.RESPONSE);
 			}
-            else
-                excCopy = cleanSnapshot(Exchange.updateCopy(exc, getExchangeById((int) exc.getId())));
-			addObservers(exc, excCopy, flow);
+			record.invalidateHeapSizeEstimation();
+			if (getRecord(exc.getId()) != record)
+				snapInternal(record, flow);
 			modify();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-
-	}
-
-	private void addObservers(AbstractExchange exc, AbstractExchange excCopy, Flow flow) throws Exception {
-		Message msg = null;
-		if(flow == Flow.REQUEST) {
-			msg = exc.getRequest();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
 		}
-		else
-			msg = exc.getResponse();
+	}
 
+	private void observeBody(Message msg, final AbstractExchange record, final Flow flow) {
 		msg.addObserver(new MessageObserver() {
 			@Override
 			public void bodyRequested(AbstractBody body) {
-
 			}
 
 			@Override
 			public void bodyComplete(AbstractBody body) {
-				try {
-                    cleanSnapshot(Exchange.updateCopy(exc,excCopy));
-				} catch (Exception e) {
-					throw new RuntimeException(e);
-				}
+				Message snapshot = flow == Flow.REQUEST ? record.getRequest() : record.getResponse();
+				if (snapshot != null && !snapshot.getHeader().isBinaryContentType())
+					snapshot.setBody(body.createSnapshot());
+				record.invalidateHeapSizeEstimation();
+				modify();
 			}
 		});
+	}
+
+	private void observeState(final AbstractExchange exc, final AbstractExchange record) {
 		exc.addExchangeViewerListener(new AbstractExchangeViewerListener() {
 			@Override
 			public void setExchangeFinished() {
 				try {
-                    cleanSnapshot(Exchange.updateCopy(exc,excCopy));
-
+					AbstractExchange.updateState(exc, record);
+					if (record.getResponse() == null && exc.getResponse() != null)
+						record.setResponse(cleanSnapshot(exc.getResponse().<Response>createSnapshot()));
+					record.invalidateHeapSizeEstimation();
+					modify();
 				} catch (Exception e) {
-					e.printStackTrace();
+					log.error("Could not update the record of exchange " + exc.getId(), e);
 				}
 			}
 		});
-        cleanSnapshot(Exchange.updateCopy(exc,excCopy));
+	}
+
+	private synchronized AbstractExchange getRecord(long id) {
+		return byId.get(id);
+	}
+
+	public <T extends Message> T cleanSnapshot(T snapshot) {
+		if (snapshot.getHeader().isBinaryContentType())
+			snapshot.setBody(new EmptyBody());
+		return snapshot;
 	}
 
 	public <T extends AbstractExchange> T cleanSnapshot(T snapshot){
 	    if(snapshot.getRequest() != null)
-	        if(snapshot.getRequest().getHeader().isBinaryContentType())
-	            snapshot.getRequest().setBody(new EmptyBody());
+	        cleanSnapshot(snapshot.getRequest());
         if(snapshot.getResponse() != null)
-            if(snapshot.getResponse().getHeader().isBinaryContentType())
-                snapshot.getResponse().setBody(new EmptyBody());
+            cleanSnapshot(snapshot.getResponse());
 
         return snapshot;
     }
@@ -185,21 +214,116 @@ public class LimitedMemoryExchangeStore extends AbstractExchangeStore {
 
 		makeSpaceIfNeeded(exc);
 
+		if (!newAlgorithm) {
+			// the exchange itself is stored: keep its spooled bodies after it has been detached
+			if (exc.getRequest() != null)
+				exc.getRequest().getBody().retain();
+			if (exc.getResponse() != null)
+				exc.getResponse().getBody().retain();
+		}
 		exchanges.offer(exc);
+		index(exc);
 		modify();
 		currentSize += exc.getHeapSizeEstimation();
 	}
 
 	public synchronized void remove(AbstractExchange exc) {
-		exchanges.remove(exc);
+		if (exchanges.remove(exc))
+			unindex(exc);
 		modify();
 	}
 
 	public synchronized void removeAllExchanges(Rule rule) {
-		exchanges.removeAll(getExchangeList(rule.getKey()));
+		List<AbstractExchange> removed = getExchangeList(rule.getKey());
+		exchanges.removeAll(removed);
+		for (AbstractExchange exc : removed)
+			unindex(exc);
 		modify();
 	}
 
+	private void index(AbstractExchange exc) {
+		byId.put(exc.getId(), exc);
+		index(byProxy, getProxy(exc), exc);
+		index(byClient, exc.getRemoteAddr(), exc);
+		index(byMethod, getMethod(exc), exc);
+	}
+
+	/**
+	 * Removes the exchange from the indexes and releases its bodies: the snapshots owned by the record of the
+	 * new algorithm, or the bodies retained by {@link #snapInternal(AbstractExchange, Flow)}.
+	 */
+	private void unindex(AbstractExchange exc) {
+		byId.remove(exc.getId(), exc);
+		unindex(byProxy, getProxy(exc), exc);
+		unindex(byClient, exc.getRemoteAddr(), exc);
+		unindex(byMethod, getMethod(exc), exc);
+		if (exc.getRequest() != null)
+			exc.getRequest().getBody().release();
+		if (exc.getResponse() != null)
+			exc.getResponse().getBody().release();
+	}
+
+	private static void index(Map<String, Set<AbstractExchange>> index, String key, AbstractExchange exc) {
+		Set<AbstractExchange> set = index.get(key);
+		if (set == null) {
+			set = new LinkedHashSet<AbstractExchange>();
+			index.put(key, set);
+		}
+		set.add(exc);
+	}
+
+	private static void unindex(Map<String, Set<AbstractExchange>> index, String key, AbstractExchange exc) {
+		Set<AbstractExchange> set = index.get(key);
+		if (set == null || !set.remove(exc)) {
+			// the key has changed since the exchange was indexed (for example, the proxy has been renamed)
+			for (Iterator<Set<AbstractExchange>> it = index.values().iterator(); it.hasNext(); ) {
+				Set<AbstractExchange> s = it.next();
+				if (s.remove(exc)) {
+					if (s.isEmpty())
+						it.remove();
+					return;
+				}
+			}
+			return;
+		}
+		if (set.isEmpty())
+			index.remove(key);
+	}
+
+	private static String getProxy(AbstractExchange exc) {
+		return exc.getRule() == null ? null : exc.getRule().toString();
+	}
+
+	private static String getMethod(AbstractExchange exc) {
+		return exc.getRequest() == null ? null : exc.getRequest().getMethod();
+	}
+
+	/**
+	 * Uses the indexes to select the candidates, which are then filtered and ordered by the query. Exchanges
+	 * still in flight are not indexed, as there are usually only a few of them.
+	 */
+	@Override
+	public ExchangeQueryResult query(ExchangeQuery query) {
+		List<AbstractExchange> inflight = getInflightExchanges();
+		synchronized (this) {
+			Collection<AbstractExchange> candidates = exchanges;
+			candidates = narrow(candidates, byProxy, query.getProxy());
+			candidates = narrow(candidates, byClient, query.getClient());
+			candidates = narrow(candidates, byMethod, query.getMethod());
+			return query.execute(inflight, candidates);
+		}
+	}
+
+	private static Collection<AbstractExchange> narrow(Collection<AbstractExchange> candidates,
+			Map<String, Set<AbstractExchange>> index, String key) {
+		if (key == null)
+			return candidates;
+		Set<AbstractExchange> indexed = index.get(key);
+		if (indexed == null)
+			return Collections.emptySet();
+		return indexed.size() < candidates.size() ? indexed : candidates;
+	}
+
 	private synchronized List<AbstractExchange> getExchangeList(RuleKey key) {
 		List<AbstractExchange> c = new ArrayList<AbstractExchange>();
 		for(AbstractExchange exc : exchanges) {
@@ -235,51 +359,62 @@ public class LimitedMemoryExchangeStore extends AbstractExchangeStore {
 	}
 
 	public synchronized List<AbstractExchange> getAllExchangesAsList() {
-		List<AbstractExchange> ret = new LinkedList<AbstractExchange>();
-
-		for (Map.Entry<AbstractExchange, Request> entry : inflight.entrySet()) {
-			AbstractExchange ex = entry.getKey();
-			Request req = entry.getValue();
-			Exchange newEx = new Exchange(null);
-			newEx.setId(ex.getId());
-			newEx.setRequest(req);
-			newEx.setRule(ex.getRule());
-			newEx.setRemoteAddr(ex.getRemoteAddr());
-			newEx.setTime(ex.getTime());
-			newEx.setTimeReqSent(ex.getTimeReqSent() != 0 ? ex.getTimeReqSent() : ex.getTimeReqReceived());
-			newEx.setTimeResReceived(System.currentTimeMillis());
-			ret.add(newEx);
-		}
+		List<AbstractExchange> ret = getInflightExchanges();
 		ret.addAll(exchanges);
 
 		return ret;
 	}
 
+	/**
+	 * @return copies of the exchanges in flight, holding the state of their requests
+	 */
+	private List<AbstractExchange> getInflightExchanges() {
+		List<AbstractExchange> ret = new ArrayList<AbstractExchange>();
+
+		for (Map.Entry<AbstractExchange, Request> entry : inflight.entrySet())
+			ret.add(createInflightCopy(entry.getKey(), entry.getValue()));
+		return ret;
+	}
+
+	private AbstractExchange createInflightCopy(AbstractExchange ex, Request req) {
+		Exchange newEx = new Exchange(null);
+		newEx.setId(ex.getId());
+		newEx.setRequest(req);
+		newEx.setRule(ex.getRule());
+		newEx.setRemoteAddr(ex.getRemoteAddr());
+		newEx.setTime(ex.getTime());
+		newEx.setTimeReqSent(ex.getTimeReqSent() != 0 ? ex.getTimeReqSent() : ex.getTimeReqReceived());
+		newEx.setTimeResReceived(System.currentTimeMillis());
+		return newEx;
+	}
+
 	public synchronized void removeAllExchanges(AbstractExchange[] candidates) {
-		exchanges.removeAll(Arrays.asList(candidates));
+		for (AbstractExchange exc : candidates)
+			if (exchanges.remove(exc))
+				unindex(exc);
 		modify();
 	}
 
 
 	@Override
 	public synchronized AbstractExchange getExchangeById(int id) {
-		for (AbstractExchange exc : getAllExchangesAsList()) {
-			if (exc.getId() == id) {
-				return exc;
-			}
-		}
-		for (AbstractExchange exc : inflight.keySet())
-			if (exc.getId() == id) {
-				return exc;
-			}
-		return null;
+		for (Map.Entry<AbstractExchange, Request> entry : inflight.entrySet())
+			if (entry.getKey().getId() == id)
+				return createInflightCopy(entry.getKey(), entry.getValue());
+		return byId.get((long) id);
 	}
 
 	@Override
 	public synchronized List<? extends ClientStatistics> getClientStatistics() {
 		Map<String, ClientStatisticsCollector> clients = new HashMap<String, ClientStatisticsCollector>();
 
-		for (AbstractExchange exc : getAllExchangesAsList()) {
+		for (Map.Entry<String, Set<AbstractExchange>> entry : byClient.entrySet()) {
+			ClientStatisticsCollector collector = new ClientStatisticsCollector(entry.getKey());
+			for (AbstractExchange exc : entry.getValue())
+				collector.collect(exc);
+			clients.put(entry.getKey(), collector);
+		}
+		for (AbstractExchange exc : getInflightExchanges()) {
 			if (!clients.containsKey(exc.getRemoteAddr())) {
 				clients.put(exc.getRemoteAddr(), new ClientStatisticsCollector(exc.getRemoteAddr()));
 			}
@@ -299,7 +434,9 @@ public class LimitedMemoryExchangeStore extends AbstractExchangeStore {
 
 	private void makeSpaceIfNeeded(AbstractExchange exc) {
 		while (!hasEnoughSpace(exc)) {
-			currentSize -= exchanges.poll().getHeapSizeEstimation();
+			AbstractExchange removed = exchanges.poll();
+			unindex(removed);
+			currentSize -= removed.getHeapSizeEstimation();
 		}
 	}
 
@@ -122,6 +122,13 @@ public class MemoryExchangeStore extends AbstractExchangeStore {
 		return totals;
 	}
 
+	@Override
+	public ExchangeQueryResult query(ExchangeQuery query) {
+		synchronized (totals) {
+			return query.execute(totals);
+		}
+	}
+
 
 	public void removeAllExchanges(AbstractExchange[] exchanges) {
 		for (AbstractExchange exc : exchanges) {
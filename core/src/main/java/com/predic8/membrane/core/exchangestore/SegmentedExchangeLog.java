@@ -0,0 +1,556 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.exchangestore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.io.CountingInputStream;
+
+import com.predic8.membrane.core.http.AbstractBody;
+import com.predic8.membrane.core.http.Body;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter;
+
+/**
+ * An append-only log of {@link ExchangeLogRecord}s, split into segment files.
+ *
+ * The log is written by a single thread (usually the one of an {@link AsyncBatchWriter}), while it may be read
+ * concurrently. Each segment "exchanges-&lt;number&gt;.log" has an index "exchanges-&lt;number&gt;.idx" holding
+ * id, time and offset of every record, which is used for lookups by id and time.
+ *
+ * When the active segment has reached the segment size, a new one is started, and the old one is optionally
+ * gzipped on a background thread. Retention deletes whole segments: the oldest ones, while the log is larger
+ * than the maximum size or their newest record is older than the maximum age.
+ *
+ * Segment format: per record, the int {@link #MAGIC}, the long id, the long time, a byte of flags
+ * ({@link #FLAG_REQUEST}, {@link #FLAG_TRUNCATED}), the int length of the head, the head, the int length of the
+ * body and the body.
+ *
+ * {@link #write(List)} releases the records (see {@link ExchangeLogRecord#release()}) after they have been written.
+ */
+public class SegmentedExchangeLog implements AsyncBatchWriter.Sink<ExchangeLogRecord> {
+
+	private static final Logger log = LoggerFactory.getLogger(SegmentedExchangeLog.class.getName());
+
+	static final int MAGIC = 0x4d455831; // "MEX1"
+	static final int FLAG_REQUEST = 1;
+	static final int FLAG_TRUNCATED = 2;
+	private static final int INDEX_ENTRY_SIZE = 24;
+	private static final Pattern SEGMENT_NAME = Pattern.compile("exchanges-(\\d{20})\\.log(\\.gz)?");
+
+	private final File dir;
+	private final long segmentSize;
+	private final boolean compress;
+	private final long maxSize;
+	private final long maxAgeMillis;
+
+	/**
+	 * oldest first, the last one is the active segment
+	 */
+	private final CopyOnWriteArrayList<Segment> segments = new CopyOnWriteArrayList<Segment>();
+	private ExecutorService compressor;
+
+	// only used by the writing thread
+	private Segment active;
+	private DataOutputStream out;
+	private OutputStream indexOut;
+	private final ByteArrayOutputStream pendingIndex = new ByteArrayOutputStream(8192);
+	private final DataOutputStream pendingIndexOut = new DataOutputStream(pendingIndex);
+	// the size of the active segment up to the last record which has been written completely
+	private long flushedSize;
+	private volatile long appended;
+
+	private static class Segment {
+		final long number;
+		final File file, compressedFile, index;
+		volatile boolean compressed, deleted;
+		volatile long size;
+		volatile long minTime = Long.MAX_VALUE, maxTime = Long.MIN_VALUE;
+		volatile long minId = Long.MAX_VALUE, maxId = Long.MIN_VALUE;
+		volatile int count;
+
+		Segment(File dir, long number) {
+			this.number = number;
+			String name = String.format("exchanges-%020d", number);
+			file = new File(dir, name + ".log");
+			compressedFile = new File(dir, name + ".log.gz");
+			index = new File(dir, name + ".idx");
+		}
+
+		void add(long id, long time) {
+			if (id < minId)
+				minId = id;
+			if (id > maxId)
+				maxId = id;
+			if (time < minTime)
+				minTime = time;
+			if (time > maxTime)
+				maxTime = time;
+			count++;
+		}
+
+		long getDiskSize() {
+			return compressed ? compressedFile.length() : size;
+		}
+
+		InputStream open(long offset) throws IOException {
+			for (int attempt = 0; ; attempt++) {
+				boolean c = compressed;
+				try {
+					InputStream in = c ? new GZIPInputStream(new FileInputStream(compressedFile), 65536)
+							: new FileInputStream(file);
+					skipFully(in, offset);
+					return in;
+				} catch (FileNotFoundException e) {
+					// the segment might just have been compressed
+					if (attempt > 0 || c == compressed)
+						throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param segmentSize the size in bytes after which a new segment is started
+	 * @param maxSize the maximum size of all segments in bytes, 0 for no limit
+	 * @param maxAgeMillis the maximum age of records, 0 for no limit
+	 */
+	public SegmentedExchangeLog(File dir, long segmentSize, boolean compress, long maxSize, long maxAgeMillis) {
+		this.dir = dir;
+		this.segmentSize = segmentSize;
+		this.compress = compress;
+		this.maxSize = maxSize;
+		this.maxAgeMillis = maxAgeMillis;
+	}
+
+	/**
+	 * Loads the existing segments. New records are always appended to a new segment.
+	 */
+	public void open() throws IOException {
+		dir.mkdirs();
+		if (!dir.isDirectory())
+			throw new IOException("Could not create directory " + dir + ".");
+		List<Segment> existing = new ArrayList<Segment>();
+		String[] names = dir.list();
+		for (String name : names == null ? new String[0] : names) {
+			Matcher m = SEGMENT_NAME.matcher(name);
+			if (!m.matches())
+				continue;
+			Segment segment = new Segment(dir, Long.parseLong(m.group(1)));
+			if (m.group(2) == null && segment.compressedFile.exists())
+				continue; // compression was interrupted, the compressed file is incomplete
+			segment.compressed = m.group(2) != null;
+			segment.size = segment.compressed ? segment.compressedFile.length() : segment.file.length();
+			for (long[] entry : readIndex(segment))
+				segment.add(entry[0], entry[1]);
+			existing.add(segment);
+		}
+		Collections.sort(existing, (s1, s2) -> Long.compare(s1.number, s2.number));
+		segments.addAll(existing);
+		if (compress)
+			for (Segment segment : existing)
+				if (!segment.compressed)
+					compressLater(segment);
+	}
+
+	@Override
+	public void write(List<ExchangeLogRecord> batch) throws IOException {
+		try {
+			for (ExchangeLogRecord record : batch) {
+				if (active == null || active.size >= segmentSize)
+					roll();
+				byte[] content = getContent(record);
+				boolean truncated = content == null;
+				if (truncated)
+					content = new byte[0];
+				long offset = active.size;
+				out.writeInt(MAGIC);
+				out.writeLong(record.getId());
+				out.writeLong(record.getTime());
+				out.writeByte((record.isRequest() ? FLAG_REQUEST : 0) | (truncated ? FLAG_TRUNCATED : 0));
+				out.writeInt(record.getHead().length);
+				out.write(record.getHead());
+				out.writeInt(content.length);
+				out.write(content);
+				pendingIndexOut.writeLong(record.getId());
+				pendingIndexOut.writeLong(record.getTime());
+				pendingIndexOut.writeLong(offset);
+				active.size += 29 + record.getHead().length + content.length;
+				active.add(record.getId(), record.getTime());
+				appended++;
+			}
+			flush();
+		} catch (IOException | RuntimeException e) {
+			discardUnflushed();
+			throw e;
+		} finally {
+			for (ExchangeLogRecord record : batch)
+				record.release();
+		}
+		enforceRetention();
+	}
+
+	/**
+	 * Writes the index entries after the data, so that readers never find entries of unwritten records.
+	 */
+	private void flush() throws IOException {
+		if (out == null)
+			return;
+		out.flush();
+		flushedSize = active.size;
+		pendingIndex.writeTo(indexOut);
+		pendingIndex.reset();
+		indexOut.flush();
+	}
+
+	/**
+	 * @return the content of the body, or null, if it could not be read
+	 */
+	private static byte[] getContent(ExchangeLogRecord record) {
+		AbstractBody body = record.getBody();
+		if (body == null)
+			return new byte[0];
+		try {
+			return body.getContent();
+		} catch (Exception e) {
+			// for example, a body spooled to disk which has been released before the record was created
+			log.warn("Could not read the body of exchange " + record.getId() + ", logging it as truncated.", e);
+			return null;
+		}
+	}
+
+	/**
+	 * Called after a failed write: Truncates the active segment to the records which have been written
+	 * completely, so that no index entry points to a partial record, and starts a new segment with the next
+	 * write.
+	 */
+	private void discardUnflushed() {
+		pendingIndex.reset();
+		if (active == null)
+			return;
+		Segment failed = active;
+		active = null;
+		try {
+			out.close();
+		} catch (IOException e) {
+			// the data is truncated anyway
+		}
+		try {
+			indexOut.close();
+		} catch (IOException e) {
+			log.warn("Could not close " + failed.index + ".", e);
+		}
+		out = null;
+		indexOut = null;
+		try (RandomAccessFile f = new RandomAccessFile(failed.file, "rw")) {
+			f.setLength(flushedSize);
+		} catch (IOException e) {
+			log.warn("Could not truncate " + failed.file + ".", e);
+		}
+		failed.size = flushedSize;
+		if (compress)
+			compressLater(failed);
+	}
+
+	private void roll() throws IOException {
+		Segment previous = active;
+		closeActive();
+		active = new Segment(dir, segments.isEmpty() ? 1 : segments.get(segments.size() - 1).number + 1);
+		out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(active.file), 65536));
+		indexOut = new FileOutputStream(active.index);
+		flushedSize = 0;
+		segments.add(active);
+		if (previous != null && compress)
+			compressLater(previous);
+	}
+
+	private void closeActive() throws IOException {
+		if (out == null)
+			return;
+		try {
+			flush();
+			out.close();
+		} finally {
+			out = null;
+			indexOut.close();
+			indexOut = null;
+		}
+	}
+
+	private synchronized void compressLater(final Segment segment) {
+		if (compressor == null)
+			compressor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "Exchange Log Compressor " + dir.getName());
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		compressor.execute(new Runnable() {
+			@Override
+			public void run() {
+				compress(segment);
+			}
+		});
+	}
+
+	private static void compress(Segment segment) {
+		if (segment.deleted)
+			return;
+		File tmp = new File(segment.compressedFile.getPath() + ".tmp");
+		try (InputStream in = new FileInputStream(segment.file);
+				OutputStream out = new GZIPOutputStream(new FileOutputStream(tmp), 65536)) {
+			byte[] buf = new byte[65536];
+			int n;
+			while ((n = in.read(buf)) != -1)
+				out.write(buf, 0, n);
+		} catch (IOException e) {
+			log.warn("Could not compress " + segment.file + ".", e);
+			tmp.delete();
+			return;
+		}
+		if (!tmp.renameTo(segment.compressedFile)) {
+			log.warn("Could not rename " + tmp + ".");
+			tmp.delete();
+			return;
+		}
+		segment.compressed = true;
+		if (!segment.file.delete())
+			log.warn("Could not delete " + segment.file + ".");
+		if (segment.deleted)
+			segment.compressedFile.delete();
+	}
+
+	private void enforceRetention() {
+		long total = 0;
+		for (Segment segment : segments)
+			total += segment.getDiskSize();
+		long minTime = maxAgeMillis > 0 ? System.currentTimeMillis() - maxAgeMillis : Long.MIN_VALUE;
+		while (segments.size() > 1) {
+			Segment oldest = segments.get(0);
+			if (!(maxSize > 0 && total > maxSize) && !(oldest.maxTime < minTime))
+				break;
+			total -= oldest.getDiskSize();
+			delete(oldest);
+		}
+	}
+
+	private void delete(Segment segment) {
+		segments.remove(segment);
+		segment.deleted = true;
+		segment.file.delete();
+		segment.compressedFile.delete();
+		segment.index.delete();
+	}
+
+	/**
+	 * @return the records of the exchange: its request and its response, if they have been logged
+	 */
+	public List<ExchangeLogRecord> read(long id) {
+		List<ExchangeLogRecord> result = new ArrayList<ExchangeLogRecord>();
+		// the request is written before the response: searching backwards, it is found last
+		for (int i = segments.size() - 1; i >= 0; i--) {
+			Segment segment = segments.get(i);
+			if (segment.count == 0 || id < segment.minId || id > segment.maxId)
+				continue;
+			List<long[]> entries = new ArrayList<long[]>();
+			for (long[] entry : readIndex(segment))
+				if (entry[0] == id)
+					entries.add(entry);
+			result.addAll(readRecords(segment, entries));
+			for (ExchangeLogRecord record : result)
+				if (record.isRequest())
+					return result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return at most max records of exchanges which started between from and to (inclusive), newest segments first
+	 */
+	public List<ExchangeLogRecord> read(long from, long to, int max) {
+		List<ExchangeLogRecord> result = new ArrayList<ExchangeLogRecord>();
+		for (int i = segments.size() - 1; i >= 0 && result.size() < max; i--) {
+			Segment segment = segments.get(i);
+			if (segment.count == 0 || segment.maxTime < from || segment.minTime > to)
+				continue;
+			List<long[]> entries = readIndex(segment);
+			List<long[]> matching = new ArrayList<long[]>();
+			for (int j = entries.size() - 1; j >= 0 && result.size() + matching.size() < max; j--) {
+				long[] entry = entries.get(j);
+				if (entry[1] >= from && entry[1] <= to)
+					matching.add(entry);
+			}
+			result.addAll(readRecords(segment, matching));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the entries of the index: id, time and offset
+	 */
+	private static List<long[]> readIndex(Segment segment) {
+		List<long[]> entries = new ArrayList<long[]>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment.index), 65536))) {
+			// a partially written entry at the end is ignored
+			long complete = segment.index.length() / INDEX_ENTRY_SIZE;
+			for (long i = 0; i < complete; i++)
+				entries.add(new long[] { in.readLong(), in.readLong(), in.readLong() });
+		} catch (EOFException | FileNotFoundException e) {
+			// the segment has been deleted or is being written
+		} catch (IOException e) {
+			log.warn("Could not read " + segment.index + ".", e);
+		}
+		return entries;
+	}
+
+	/**
+	 * Reads the records of the index entries in a single pass over the segment, as a compressed segment can
+	 * only be read from its start.
+	 *
+	 * @return the records in the order of the entries, without those which could not be read
+	 */
+	private static List<ExchangeLogRecord> readRecords(Segment segment, List<long[]> entries) {
+		if (entries.isEmpty())
+			return Collections.emptyList();
+		List<Long> offsets = new ArrayList<Long>();
+		for (long[] entry : entries)
+			offsets.add(entry[2]);
+		Collections.sort(offsets);
+		Map<Long, ExchangeLogRecord> records = new HashMap<Long, ExchangeLogRecord>();
+		long start = offsets.get(0), offset = start;
+		try {
+			CountingInputStream counting = new CountingInputStream(new BufferedInputStream(segment.open(start), 8192));
+			try (DataInputStream in = new DataInputStream(counting)) {
+				for (long next : offsets) {
+					offset = next;
+					skipFully(in, offset - (start + counting.getCount()));
+					records.put(offset, readRecord(in, offset));
+				}
+			}
+		} catch (IOException e) {
+			if (!segment.deleted)
+				log.warn("Could not read record at offset " + offset + " of " + segment.file + ".", e);
+		}
+		List<ExchangeLogRecord> result = new ArrayList<ExchangeLogRecord>();
+		for (long[] entry : entries) {
+			ExchangeLogRecord record = records.get(entry[2]);
+			if (record != null)
+				result.add(record);
+		}
+		return result;
+	}
+
+	private static ExchangeLogRecord readRecord(DataInputStream in, long offset) throws IOException {
+		if (in.readInt() != MAGIC)
+			throw new IOException("No record at offset " + offset + ".");
+		long id = in.readLong();
+		long time = in.readLong();
+		int flags = in.readByte();
+		byte[] head = new byte[in.readInt()];
+		in.readFully(head);
+		byte[] content = new byte[in.readInt()];
+		in.readFully(content);
+		return new ExchangeLogRecord(id, time, (flags & FLAG_REQUEST) != 0, head, new Body(content),
+				(flags & FLAG_TRUNCATED) != 0);
+	}
+
+	private static void skipFully(InputStream in, long n) throws IOException {
+		while (n > 0) {
+			long skipped = in.skip(n);
+			if (skipped <= 0) {
+				if (in.read() == -1)
+					throw new EOFException();
+				skipped = 1;
+			}
+			n -= skipped;
+		}
+	}
+
+	/**
+	 * Closes the active segment. Segments still being compressed are finished in the background.
+	 */
+	public void close() throws IOException {
+		closeActive();
+		active = null;
+		synchronized (this) {
+			if (compressor != null)
+				compressor.shutdown();
+		}
+	}
+
+	/**
+	 * Waits until all pending compressions are finished. Must only be called after {@link #close()}.
+	 */
+	public void awaitCompression(long timeoutMillis) throws InterruptedException {
+		ExecutorService c;
+		synchronized (this) {
+			c = compressor;
+		}
+		if (c != null)
+			c.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public int getSegmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * @return the number of bytes of all segments on disk
+	 */
+	public long getDiskSize() {
+		long total = 0;
+		for (Segment segment : segments)
+			total += segment.getDiskSize();
+		return total;
+	}
+
+	/**
+	 * @return the number of records appended since the log has been opened
+	 */
+	public long getAppended() {
+		return appended;
+	}
+
+}
@@ -16,6 +16,7 @@ package com.predic8.membrane.core.http;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -50,6 +51,11 @@ public abstract class AbstractBody {
 	protected List<MessageObserver> observers = new ArrayList<MessageObserver>(1);
 	private boolean wasStreamed = false;
 
+	private long bufferedLength;
+	private BodySpool spool;
+	private BodySpool.SpoolReference spoolReference;
+	private int references = 1;
+
 	public void read() throws IOException {
 		if (read)
 			return;
@@ -77,6 +83,75 @@ public abstract class AbstractBody {
 
 	protected abstract void readLocal() throws IOException;
 
+	/**
+	 * Appends data read from the input to {@link #chunks}, see {@link #spool(Chunk)}.
+	 */
+	protected void addChunk(Chunk chunk) throws IOException {
+		chunks.add(spool(chunk));
+	}
+
+	/**
+	 * Decides whether the next chunk of data read from the input is kept in the heap. Once the body exceeds
+	 * the threshold of the {@link BodySpool}, the data is written to a temporary file instead.
+	 *
+	 * @return the chunk itself or a chunk reading its data from the file
+	 */
+	protected Chunk spool(Chunk chunk) throws IOException {
+		notifyData(chunk.getContent(), 0, chunk.getLength());
+		if (spool == null) {
+			if (!BodySpool.isEnabled() || (bufferedLength += chunk.getLength()) <= BodySpool.UNACCOUNTED)
+				return chunk;
+			spool = new BodySpool(bufferedLength - chunk.getLength());
+			spoolReference = spool.reference(this);
+		}
+		return spool.spool(chunk);
+	}
+
+	/**
+	 * Passes data read from the input to the {@link BodyDataObserver}s.
+	 */
+	protected void notifyData(byte[] buffer, int offset, int length) {
+		for (int i = 0; i < observers.size(); i++) {
+			MessageObserver observer = observers.get(i);
+			if (observer instanceof BodyDataObserver)
+				((BodyDataObserver) observer).bodyData(buffer, offset, length);
+		}
+	}
+
+	/**
+	 * Keeps the data the body has spooled to disk until {@link #release()} has been called once more, for
+	 * example while an exchange store holds the message.
+	 */
+	public synchronized void retain() {
+		if (references > 0)
+			references++;
+	}
+
+	/**
+	 * Releases the data the body has spooled to disk, unless it has been retained (see {@link #retain()}).
+	 * Afterwards, the content of a spooled body is no longer available. The data is deleted, once the snapshots
+	 * of the body (see {@link #createSnapshot()}) have been released, too. Bodies which have not been spooled are
+	 * not affected.
+	 */
+	public void release() {
+		synchronized (this) {
+			if (references == 0 || --references > 0)
+				return;
+		}
+		if (spoolReference != null)
+			spoolReference.release();
+	}
+
+	/**
+	 * @return whether a part of the body is kept on disk
+	 */
+	public boolean isSpooled() {
+		for (Chunk chunk : chunks)
+			if (chunk instanceof SpooledChunk)
+				return true;
+		return false;
+	}
+
 	/**
 	 * Returns the body's content as a byte[] represenatation.
 	 *
@@ -100,8 +175,13 @@ public abstract class AbstractBody {
 		read();
 		byte[] content = new byte[getLength()];
 		int destPos = 0;
-		for (Chunk chunk : chunks) {
-			destPos = chunk.copyChunk(content, destPos);
+		try {
+			for (Chunk chunk : chunks) {
+				destPos = chunk.copyChunk(content, destPos);
+			}
+		} catch (UncheckedIOException e) {
+			// a spooled chunk could not be read
+			throw e.getCause();
 		}
 		return content;
 	}
@@ -111,6 +191,24 @@ public abstract class AbstractBody {
 		return new BodyInputStream(chunks);
 	}
 
+	/**
+	 * Returns a body with the content of this body, which must have been read. The chunks are shared, their
+	 * data is not copied: This is possible, as the chunks of a read body do not change any more.
+	 *
+	 * The snapshot of a spooled body keeps the data on disk until it is released itself, independently of this
+	 * body. If this body has already been released, the content of the snapshot is not available.
+	 */
+	public AbstractBody createSnapshot() {
+		if (!isRead())
+			throw new IllegalStateException("The body has not been read yet.");
+		AbstractBody snapshot = new Body(chunks);
+		if (spool != null) {
+			snapshot.spool = spool;
+			snapshot.spoolReference = spool.reference(snapshot);
+		}
+		return snapshot;
+	}
+
 	public void write(AbstractBodyTransferrer out) throws IOException {
 		if (!read) {
 			boolean relevantObservers = false;
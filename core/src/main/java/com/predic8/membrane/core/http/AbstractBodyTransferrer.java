@@ -27,4 +27,12 @@ public abstract class AbstractBodyTransferrer {
 
 	public abstract void finish() throws IOException;
 
+	/**
+	 * Passes on the data written so far. Called by bodies being streamed, when the next part of the body
+	 * has not arrived yet. (Otherwise, the data is sent once the stream's buffer is full or the message
+	 * is complete.)
+	 */
+	public void flush() throws IOException {
+	}
+
 }
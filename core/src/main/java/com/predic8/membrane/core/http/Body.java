@@ -17,6 +17,9 @@ package com.predic8.membrane.core.http;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -67,16 +70,53 @@ public class Body extends AbstractBody {
 		markAsRead(); // because we do not have something to read
 	}
 
+	/**
+	 * Creates a body sharing the given chunks (not their data), see {@link AbstractBody#createSnapshot()}.
+	 */
+	Body(List<Chunk> chunks) {
+		this.inputStream = null;
+		long length = 0;
+		for (Chunk chunk : chunks)
+			length += chunk.getLength();
+		this.length = length;
+		this.chunks.addAll(chunks);
+		markAsRead();
+	}
+
 	@Override
 	protected void readLocal() throws IOException {
+		// large bodies are read in segments, so that they can be spooled to disk
+		boolean segmented = BodySpool.isEnabled() && (length == -1 || length > BodySpool.getThreshold());
+		if (segmented && length == -1) {
+			byte[] segment;
+			while ((segment = readSegment()) != null)
+				addChunk(new Chunk(segment));
+			return;
+		}
+		int maxChunkLength = segmented ? BodySpool.SEGMENT_SIZE : MAX_CHUNK_LENGTH;
 		long l = length;
 		while (l > 0 || l == -1) {
-			int chunkLength = l > MAX_CHUNK_LENGTH ? MAX_CHUNK_LENGTH : (int)l;
-			chunks.add(new Chunk(ByteUtil.readByteArray(inputStream, chunkLength)));
+			int chunkLength = l > maxChunkLength ? maxChunkLength : (int)l;
+			addChunk(new Chunk(ByteUtil.readByteArray(inputStream, chunkLength)));
 			l -= chunkLength;
 		}
 	}
 
+	/**
+	 * @return the next {@link BodySpool#SEGMENT_SIZE} bytes (or less at the end of the stream), or null at the
+	 *         end of the stream
+	 */
+	private byte[] readSegment() throws IOException {
+		byte[] segment = new byte[BodySpool.SEGMENT_SIZE];
+		int offset = 0;
+		int count;
+		while (offset < segment.length && (count = inputStream.read(segment, offset, segment.length - offset)) >= 0)
+			offset += count;
+		if (offset == 0)
+			return null;
+		return offset == segment.length ? segment : Arrays.copyOf(segment, offset);
+	}
+
 	public void discard() throws IOException {
 		if (read)
 			return;
@@ -97,7 +137,13 @@ public class Body extends AbstractBody {
 		if (getLength() == 0)
 			return;
 
-		out.write(getContent(), 0, getLength());
+		try {
+			for (Chunk chunk : chunks)
+				out.write(chunk.getContent(), 0, chunk.getLength());
+		} catch (UncheckedIOException e) {
+			// a spooled chunk could not be read
+			throw e.getCause();
+		}
 		out.finish();
 	}
 
@@ -113,7 +159,9 @@ public class Body extends AbstractBody {
 			out.write(buffer, 0, length);
 			byte[] chunk = new byte[length];
 			System.arraycopy(buffer, 0, chunk, 0, length);
-			chunks.add(new Chunk(chunk));
+			addChunk(new Chunk(chunk));
+			if (inputStream.available() == 0)
+				out.flush();
 		}
 
 		out.finish();
@@ -130,6 +178,9 @@ public class Body extends AbstractBody {
 		while ((this.length > totalLength || this.length == -1) && (length = inputStream.read(buffer)) > 0) {
 			totalLength += length;
 			out.write(buffer, 0, length);
+			notifyData(buffer, 0, length);
+			if (inputStream.available() == 0)
+				out.flush();
 		}
 		out.finish();
 		markAsRead();
@@ -0,0 +1,30 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.http;
+
+/**
+ * A {@link MessageObserver} which is passed the data of the body as it is read or streamed through Membrane.
+ *
+ * As a {@link NonRelevantBodyObserver}, it does not prevent the body from being streamed. If the body has
+ * already been read when the observer is registered, {@link #bodyComplete(AbstractBody)} is called at once and
+ * {@link #bodyData(byte[], int, int)} is not called at all.
+ */
+public interface BodyDataObserver extends MessageObserver, NonRelevantBodyObserver {
+
+	/**
+	 * Called on the thread reading the body. The data must not be modified or retained.
+	 */
+	void bodyData(byte[] buffer, int offset, int length);
+
+}
@@ -0,0 +1,91 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.http;
+
+import java.util.Arrays;
+
+/**
+ * Captures the first bytes of a body while it passes, without causing it to be read or buffered.
+ *
+ * Register it using {@link Message#addObserver(MessageObserver)}.
+ */
+public class BodyExcerpt implements BodyDataObserver {
+
+	private final int maxLength;
+	private byte[] data;
+	private int length;
+	private long totalLength;
+	private volatile boolean complete;
+
+	public BodyExcerpt(int maxLength) {
+		this.maxLength = maxLength;
+	}
+
+	@Override
+	public void bodyData(byte[] buffer, int offset, int length) {
+		totalLength += length;
+		int n = Math.min(length, maxLength - this.length);
+		if (n <= 0)
+			return;
+		if (data == null)
+			data = new byte[Math.min(maxLength, Math.max(n, 256))];
+		if (this.length + n > data.length)
+			data = Arrays.copyOf(data, Math.min(maxLength, Math.max(this.length + n, data.length * 2)));
+		System.arraycopy(buffer, offset, data, this.length, n);
+		this.length += n;
+	}
+
+	@Override
+	public void bodyRequested(AbstractBody body) {
+	}
+
+	@Override
+	public void bodyComplete(AbstractBody body) {
+		if (totalLength == 0)
+			// the body had already been read when the observer was registered
+			for (Chunk chunk : body.chunks) {
+				if (length < maxLength)
+					bodyData(chunk.getContent(), 0, chunk.getLength());
+				else
+					totalLength += chunk.getLength();
+			}
+		complete = true;
+	}
+
+	/**
+	 * @return a copy of the captured bytes
+	 */
+	public byte[] getData() {
+		return data == null ? new byte[0] : Arrays.copyOf(data, length);
+	}
+
+	/**
+	 * @return the number of bytes of the body seen so far (the whole length, once complete)
+	 */
+	public long getTotalLength() {
+		return totalLength;
+	}
+
+	public boolean isTruncated() {
+		return totalLength > length;
+	}
+
+	/**
+	 * @return whether the body has passed completely
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+
+}
@@ -15,6 +15,7 @@ package com.predic8.membrane.core.http;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -38,12 +39,12 @@ public class BodyInputStream extends InputStream {
 	private byte[] currentChunkData;
 	private int currentChunkLength;
 
-	public BodyInputStream(List<Chunk> chunks) {
+	public BodyInputStream(List<Chunk> chunks) throws IOException {
 		this.chunks = chunks;
 		currentChunk = chunks.isEmpty() ? null : chunks.get(0);
 		if (currentChunk != null) {
 			currentChunkLength = currentChunk.getLength();
-			currentChunkData = currentChunk.getContent();
+			currentChunkData = getContent(currentChunk);
 		} else {
 			currentChunkIndex = -1;
 		}
@@ -61,7 +62,7 @@ public class BodyInputStream extends InputStream {
 			chunks.add(currentChunk);
 			currentChunkIndex = chunks.size() - 1;
 			currentChunkLength = currentChunk.getLength();
-			currentChunkData = currentChunk.getContent();
+			currentChunkData = getContent(currentChunk);
 		}
 
 		positionWithinChunk++;
@@ -78,12 +79,23 @@ public class BodyInputStream extends InputStream {
 			}
 			currentChunk = chunks.get(currentChunkIndex);
 			currentChunkLength = currentChunk.getLength();
-			currentChunkData = currentChunk.getContent();
+			currentChunkData = getContent(currentChunk);
 			positionWithinChunk = 0;
 		}
 		return true;
 	}
 
+	/**
+	 * Reads the data of a chunk, which might have been spooled to disk.
+	 */
+	private static byte[] getContent(Chunk chunk) throws IOException {
+		try {
+			return chunk.getContent();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
 	/**
 	 * @return the next chunk or null, if there is no next chunk
 	 */
@@ -0,0 +1,286 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the data of a large body on disk instead of in the heap.
+ *
+ * A body keeps its first {@link #getThreshold()} bytes in the heap (as long as the global memory budget
+ * allows it); everything beyond is appended to a temporary file and represented by {@link SpooledChunk}s.
+ * Bodies of up to 64 KB are always kept in the heap and are not counted against the memory budget.
+ *
+ * The body and each of its snapshots (see {@link AbstractBody#createSnapshot()}) hold a reference to the
+ * spool. The file is deleted when all of them have been released (see {@link AbstractBody#release()}, which is
+ * called when an exchange is detached) or, at the latest, after they have been garbage collected.
+ *
+ * Configured using system properties:
+ * <ul>
+ * <li>membrane.core.http.body.spool.threshold: the number of bytes of a body kept in the heap, default 1 MB.
+ * A negative value disables spooling.</li>
+ * <li>membrane.core.http.body.spool.memoryBudget: the number of bytes all bodies larger than 64 KB may keep
+ * in the heap together, default 1/8 of the maximum heap size.</li>
+ * <li>membrane.core.http.body.spool.diskBudget: the number of bytes all spool files may have together,
+ * default 10 GB. Reading a body fails, if it would be exceeded.</li>
+ * <li>membrane.core.http.body.spool.dir: the directory of the spool files, default java.io.tmpdir.</li>
+ * </ul>
+ */
+public final class BodySpool {
+
+	private static final Logger log = LoggerFactory.getLogger(BodySpool.class.getName());
+
+	/**
+	 * The maximum length of the chunks large bodies are read in.
+	 */
+	static final int SEGMENT_SIZE = 64 * 1024;
+
+	private static final long THRESHOLD = Long.getLong("membrane.core.http.body.spool.threshold", 1024 * 1024);
+	private static final long MEMORY_BUDGET = Long.getLong("membrane.core.http.body.spool.memoryBudget", Runtime.getRuntime().maxMemory() / 8);
+	private static final long DISK_BUDGET = Long.getLong("membrane.core.http.body.spool.diskBudget", 10L * 1024 * 1024 * 1024);
+	private static final String DIRECTORY = System.getProperty("membrane.core.http.body.spool.dir", System.getProperty("java.io.tmpdir"));
+
+	/**
+	 * The number of bytes a body may have before it is accounted.
+	 */
+	static final long UNACCOUNTED = Math.min(THRESHOLD, SEGMENT_SIZE);
+
+	private static final AtomicLong memoryUsed = new AtomicLong(), diskUsed = new AtomicLong();
+	private static final AtomicLong spooledBodies = new AtomicLong(), spooledBytes = new AtomicLong(),
+			memoryBudgetExceeded = new AtomicLong(), diskBudgetExceeded = new AtomicLong(), reaped = new AtomicLong();
+
+	private static final ReferenceQueue<AbstractBody> collected = new ReferenceQueue<AbstractBody>();
+	private static final Set<SpoolReference> open = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The reference of a body to the spool. It is also released when the body has been garbage collected
+	 * without having been released, so it must not reference the body itself.
+	 */
+	static class SpoolReference extends PhantomReference<AbstractBody> {
+		final BodySpool spool;
+		private boolean released;
+
+		SpoolReference(AbstractBody body, BodySpool spool) {
+			super(body, collected);
+			this.spool = spool;
+		}
+
+		void release() {
+			spool.release(this);
+		}
+	}
+
+	private int references;
+	private long heapLength;
+	private long diskLength;
+	private FileChannel file;
+	private boolean released;
+
+	/**
+	 * @param heapLength the number of bytes the body already keeps in the heap
+	 */
+	BodySpool(long heapLength) {
+		releaseCollected();
+		this.heapLength = heapLength;
+		memoryUsed.addAndGet(heapLength);
+	}
+
+	static boolean isEnabled() {
+		return THRESHOLD >= 0;
+	}
+
+	/**
+	 * @return the chunk itself, if it may be kept in the heap, or a {@link SpooledChunk} holding its data
+	 */
+	synchronized Chunk spool(Chunk chunk) throws IOException {
+		int length = chunk.getLength();
+		if (file == null && heapLength + length <= THRESHOLD) {
+			if (memoryUsed.addAndGet(length) <= MEMORY_BUDGET) {
+				heapLength += length;
+				return chunk;
+			}
+			memoryUsed.addAndGet(-length);
+			memoryBudgetExceeded.incrementAndGet();
+		}
+		return append(chunk.getContent(), length);
+	}
+
+	private Chunk append(byte[] data, int length) throws IOException {
+		if (released)
+			throw new IOException("The body has already been released.");
+		if (diskUsed.addAndGet(length) > DISK_BUDGET) {
+			diskUsed.addAndGet(-length);
+			diskBudgetExceeded.incrementAndGet();
+			throw new IOException("The disk budget of " + DISK_BUDGET + " bytes for spooled bodies is exhausted.");
+		}
+		if (file == null)
+			open();
+		long position = diskLength;
+		ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+		while (buffer.hasRemaining())
+			file.write(buffer, position + buffer.position());
+		diskLength += length;
+		spooledBytes.addAndGet(length);
+		return new SpooledChunk(this, position, length);
+	}
+
+	private void open() throws IOException {
+		Path path = Files.createTempFile(new File(DIRECTORY).toPath(), "membrane-body-", ".spool");
+		try {
+			file = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+					StandardOpenOption.DELETE_ON_CLOSE);
+		} catch (IOException e) {
+			Files.deleteIfExists(path);
+			throw e;
+		}
+		spooledBodies.incrementAndGet();
+	}
+
+	byte[] read(long position, int length) throws IOException {
+		FileChannel file;
+		synchronized (this) {
+			if (released)
+				throw new IOException("The body has already been released.");
+			file = this.file;
+		}
+		byte[] data = new byte[length];
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		while (buffer.hasRemaining())
+			if (file.read(buffer, position + buffer.position()) < 0)
+				throw new IOException("Unexpected end of spool file.");
+		return data;
+	}
+
+	/**
+	 * @return a new reference of the body to the spool, or null if the spool has already been released
+	 */
+	synchronized SpoolReference reference(AbstractBody body) {
+		if (released)
+			return null;
+		references++;
+		SpoolReference reference = new SpoolReference(body, this);
+		open.add(reference);
+		return reference;
+	}
+
+	/**
+	 * Releases the reference. When the last reference has been released, deletes the file and returns the memory
+	 * and disk space to the budgets.
+	 */
+	private synchronized void release(SpoolReference reference) {
+		if (reference.released)
+			return;
+		reference.released = true;
+		open.remove(reference);
+		if (--references > 0)
+			return;
+		released = true;
+		memoryUsed.addAndGet(-heapLength);
+		diskUsed.addAndGet(-diskLength);
+		if (file != null) {
+			spooledBodies.decrementAndGet();
+			try {
+				file.close();
+			} catch (IOException e) {
+				log.warn("Could not close spool file.", e);
+			}
+		}
+	}
+
+	private static void releaseCollected() {
+		Reference<? extends AbstractBody> ref;
+		while ((ref = collected.poll()) != null) {
+			((SpoolReference) ref).release();
+			reaped.incrementAndGet();
+		}
+	}
+
+	public static long getThreshold() {
+		return THRESHOLD;
+	}
+
+	public static long getMemoryBudget() {
+		return MEMORY_BUDGET;
+	}
+
+	public static long getDiskBudget() {
+		return DISK_BUDGET;
+	}
+
+	/**
+	 * @return the number of bytes bodies larger than 64 KB currently keep in the heap
+	 */
+	public static long getMemoryUsed() {
+		return memoryUsed.get();
+	}
+
+	/**
+	 * @return the number of bytes currently spooled to disk
+	 */
+	public static long getDiskUsed() {
+		return diskUsed.get();
+	}
+
+	/**
+	 * @return the number of bodies currently having a spool file
+	 */
+	public static long getSpooledBodies() {
+		return spooledBodies.get();
+	}
+
+	/**
+	 * @return the number of bytes spooled to disk since startup
+	 */
+	public static long getSpooledBytes() {
+		return spooledBytes.get();
+	}
+
+	/**
+	 * @return how often data was spooled to disk, because the memory budget was exhausted
+	 */
+	public static long getMemoryBudgetExceeded() {
+		return memoryBudgetExceeded.get();
+	}
+
+	/**
+	 * @return how often reading a body failed, because the disk budget was exhausted
+	 */
+	public static long getDiskBudgetExceeded() {
+		return diskBudgetExceeded.get();
+	}
+
+	/**
+	 * @return the number of references to spools released only after their body had been garbage collected
+	 */
+	public static long getReleasedAfterCollection() {
+		releaseCollected();
+		return reaped.get();
+	}
+
+}
@@ -48,14 +48,14 @@ public class Chunk {
 	}
 
 	public void write(OutputStream out) throws IOException {
+		byte[] content = getContent();
 		if (content == null || out == null)
 			return;
 
 		out.write(getLengthBytes());
 		out.write(Constants.CRLF_BYTES);
-		out.write(getContent(), 0, getLength());
+		out.write(content, 0, content.length);
 		out.write(Constants.CRLF_BYTES);
-		out.flush();
 	}
 
 	/**
@@ -64,13 +64,14 @@ public class Chunk {
 	 */
 	@Override
 	public String toString() {
+		byte[] content = getContent();
 		if (content == null)
 			return "";
 		return new String(content, Constants.UTF_8_CHARSET);
 	}
 
 	public int copyChunk(byte[] raw, int destPos) {
-		System.arraycopy(content, 0, raw, destPos, getLength());
+		System.arraycopy(getContent(), 0, raw, destPos, getLength());
 		return destPos + getLength();
 	}
 
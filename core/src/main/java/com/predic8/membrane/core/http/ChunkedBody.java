@@ -18,6 +18,7 @@ import static com.predic8.membrane.core.http.ChunkedBodyTransferrer.ZERO;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -63,7 +64,32 @@ public class ChunkedBody extends AbstractBody {
 
 	@Override
 	protected void readLocal() throws IOException {
-		chunks.addAll(HttpUtil.readChunks(inputStream));
+		int chunkSize;
+		while ((chunkSize = HttpUtil.readChunkSize(inputStream)) > 0) {
+			readChunk(chunkSize, null);
+			inputStream.read(); // CR
+			inputStream.read(); // LF
+		}
+		inputStream.read(); // CR
+		inputStream.read(); // LF
+	}
+
+	/**
+	 * Reads the data of a chunk and adds it to {@link #chunks}. Large chunks are split into segments, so that
+	 * they can be spooled to disk.
+	 *
+	 * @param out the transferrer the data is also written to, or null
+	 */
+	private void readChunk(int chunkSize, AbstractBodyTransferrer out) throws IOException {
+		int maxLength = BodySpool.isEnabled() ? BodySpool.SEGMENT_SIZE : chunkSize;
+		while (chunkSize > 0) {
+			int length = Math.min(chunkSize, maxLength);
+			Chunk chunk = new Chunk(ByteUtil.readByteArray(inputStream, length));
+			if (out != null)
+				out.write(chunk);
+			addChunk(chunk);
+			chunkSize -= length;
+		}
 	}
 
 	@Override
@@ -98,7 +124,7 @@ public class ChunkedBody extends AbstractBody {
 					return null;
 				int chunkSize = HttpUtil.readChunkSize(inputStream);
 				if (chunkSize > 0) {
-					Chunk c = new Chunk(ByteUtil.readByteArray(inputStream, chunkSize));
+					Chunk c = spool(new Chunk(ByteUtil.readByteArray(inputStream, chunkSize)));
 					inputStream.read(); // CR
 					inputStream.read(); // LF
 					return c;
@@ -123,11 +149,11 @@ public class ChunkedBody extends AbstractBody {
 		log.debug("writeNotReadChunked");
 		int chunkSize;
 		while ((chunkSize = HttpUtil.readChunkSize(inputStream)) > 0) {
-			Chunk chunk = new Chunk(ByteUtil.readByteArray(inputStream, chunkSize));
-			out.write(chunk);
-			chunks.add(chunk);
+			readChunk(chunkSize, out);
 			inputStream.read(); // CR
 			inputStream.read(); // LF
+			if (inputStream.available() == 0)
+				out.flush();
 		}
 		inputStream.read(); // CR
 		inputStream.read(); // LF-
@@ -142,8 +168,11 @@ public class ChunkedBody extends AbstractBody {
 		while ((chunkSize = HttpUtil.readChunkSize(inputStream)) > 0) {
 			Chunk chunk = new Chunk(ByteUtil.readByteArray(inputStream, chunkSize));
 			out.write(chunk);
+			notifyData(chunk.getContent(), 0, chunkSize);
 			inputStream.read(); // CR
 			inputStream.read(); // LF
+			if (inputStream.available() == 0)
+				out.flush();
 		}
 		inputStream.read(); // CR
 		inputStream.read(); // LF-
@@ -168,11 +197,15 @@ public class ChunkedBody extends AbstractBody {
 	protected byte[] getRawLocal() throws IOException {
 		byte[] raw = new byte[getRawLength()];
 		int destPos = 0;
-		for (Chunk chunk : chunks) {
-			destPos = chunk.copyChunkLength(raw, destPos, this);
-			destPos = copyCRLF(raw, destPos);
-			destPos = chunk.copyChunk(raw, destPos);
-			destPos = copyCRLF(raw, destPos);
+		try {
+			for (Chunk chunk : chunks) {
+				destPos = chunk.copyChunkLength(raw, destPos, this);
+				destPos = copyCRLF(raw, destPos);
+				destPos = chunk.copyChunk(raw, destPos);
+				destPos = copyCRLF(raw, destPos);
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
 		}
 		destPos = copyLastChunk(raw, destPos);
 		destPos = copyCRLF(raw, destPos);
@@ -196,8 +229,13 @@ public class ChunkedBody extends AbstractBody {
 		if (getLength() == 0)
 			return;
 
-		for (Chunk chunk : chunks) {
-			out.write(chunk);
+		try {
+			for (Chunk chunk : chunks) {
+				out.write(chunk);
+			}
+		} catch (UncheckedIOException e) {
+			// a spooled chunk could not be read
+			throw e.getCause();
 		}
 		out.finish();
 	}
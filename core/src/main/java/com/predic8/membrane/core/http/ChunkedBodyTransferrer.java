@@ -30,7 +30,6 @@ public class ChunkedBodyTransferrer extends AbstractBodyTransferrer {
 		writeChunkSize(out, length);
 		out.write(content, i, length);
 		out.write(Constants.CRLF_BYTES);
-		out.flush();
 	}
 
 	@Override
@@ -38,6 +37,11 @@ public class ChunkedBodyTransferrer extends AbstractBodyTransferrer {
 		chunk.write(out);
 	}
 
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
 	@Override
 	public void finish() throws IOException {
 		out.write(ZERO);
@@ -0,0 +1,116 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.predic8.membrane.core.util.InflatingInputStream;
+
+/**
+ * The content of a body with its Content-Encoding ("gzip" or "deflate") unapplied.
+ *
+ * The decoded content is recorded while it is read for the first time, so that further readers
+ * (e.g. a validator, content based routing and a logger) do not decompress the body again. Content
+ * larger than {@link #MAX_CACHED_LENGTH} is not cached. As long as the first reader has not reached
+ * the end, further readers decode the body themselves.
+ *
+ * An instance belongs to one body and encoding: {@link Message} discards it, when either changes.
+ */
+class DecodedBody {
+
+	static final int MAX_CACHED_LENGTH = Integer.getInteger("membrane.core.http.body.maxDecodedCacheLength", 16 * 1024 * 1024);
+
+	private final AbstractBody body;
+	private final String encoding;
+
+	private final List<Chunk> chunks = new ArrayList<Chunk>();
+	private long length;
+	private boolean recording, complete;
+
+	DecodedBody(AbstractBody body, String encoding) {
+		this.body = body;
+		this.encoding = encoding;
+	}
+
+	boolean isFor(AbstractBody body, String encoding) {
+		return this.body == body && this.encoding.equalsIgnoreCase(encoding);
+	}
+
+	synchronized InputStream getContentAsStream() throws IOException {
+		if (complete)
+			return new BodyInputStream(chunks);
+		InputStream in = new InflatingInputStream(body.getContentAsStream(), "gzip".equalsIgnoreCase(encoding));
+		if (recording)
+			return in;
+		recording = true;
+		return new RecordingInputStream(in);
+	}
+
+	private synchronized boolean record(byte[] b, int off, int len) {
+		length += len;
+		if (length > MAX_CACHED_LENGTH) {
+			chunks.clear();
+			return false;
+		}
+		chunks.add(new Chunk(Arrays.copyOfRange(b, off, off + len)));
+		return true;
+	}
+
+	private synchronized void recordEnd() {
+		complete = true;
+	}
+
+	private class RecordingInputStream extends InputStream {
+		private final InputStream in;
+		private boolean record = true;
+
+		RecordingInputStream(InputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if (record) {
+				if (n == -1)
+					recordEnd();
+				else if (n > 0)
+					record = record(b, off, n);
+			}
+			return n;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return in.available();
+		}
+
+		@Override
+		public void close() throws IOException {
+			record = false;
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,92 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Collects the head (start line and header fields) of a message and, if it is small enough and already
+ * read, its body, so that they can be passed on to the socket's output stream using a single write.
+ *
+ * Strings are encoded directly into the buffer using ISO-8859-1 (see {@link Header#write(OutputStream)}).
+ * Each thread reuses its buffer, as long as it does not exceed {@link #RETAINED_CAPACITY}.
+ */
+final class HeadBuffer extends OutputStream {
+
+	/**
+	 * The maximum size of head and body, for which the body is copied into the buffer.
+	 */
+	static final int GATHER_LIMIT = Integer.getInteger("membrane.core.http.gatherLimit", 128 * 1024);
+
+	private static final int RETAINED_CAPACITY = 16 * 1024;
+
+	private static final ThreadLocal<HeadBuffer> buffers = new ThreadLocal<HeadBuffer>() {
+		@Override
+		protected HeadBuffer initialValue() {
+			return new HeadBuffer();
+		}
+	};
+
+	private byte[] buf = new byte[1024];
+	private int count;
+
+	/**
+	 * @return the (empty) buffer of the current thread. It must not be used after the next call.
+	 */
+	static HeadBuffer get() {
+		HeadBuffer b = buffers.get();
+		b.count = 0;
+		if (b.buf.length > RETAINED_CAPACITY)
+			b.buf = new byte[1024];
+		return b;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > buf.length)
+			buf = Arrays.copyOf(buf, Math.max(capacity, buf.length * 2));
+	}
+
+	void append(String s) {
+		int len = s.length();
+		ensureCapacity(count + len);
+		for (int i = 0; i < len; i++) {
+			char c = s.charAt(i);
+			buf[count++] = c > 0xFF ? (byte) '?' : (byte) c;
+		}
+	}
+
+	@Override
+	public void write(int b) {
+		ensureCapacity(count + 1);
+		buf[count++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) {
+		ensureCapacity(count + len);
+		System.arraycopy(b, off, buf, count, len);
+		count += len;
+	}
+
+	int size() {
+		return count;
+	}
+
+	void writeTo(OutputStream out) throws IOException {
+		out.write(buf, 0, count);
+	}
+
+}
@@ -114,6 +114,14 @@ public class Header {
 
 	public static final String X_HTTP_METHOD_OVERRIDE = "X-HTTP-Method-Override";
 
+	public static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+	public static final String VARY = "Vary";
+
+	public static final String ETAG = "ETag";
+
+	public static final String RETRY_AFTER = "Retry-After";
+
 	// Header field values
 
 	public static final String CHUNKED = "chunked";
@@ -135,13 +143,20 @@ public class Header {
 
 	private final ArrayList<HeaderField> fields = new ArrayList<HeaderField>();
 
+	/**
+	 * The number of bytes read from the stream, or -1.
+	 */
+	private int wireLength = -1;
+
 	public Header() {
 	}
 
 	public Header(InputStream in) throws IOException, EndOfStreamException {
 		String line;
 
+		wireLength = 0;
 		while ((line = HttpUtil.readLine(in)).length() > 0) {
+			wireLength += line.length() + 2;
 			try {
 
 				add(new HeaderField(line));
@@ -210,14 +225,22 @@ public class Header {
 	 * converting it to char-by-char, we use ISO-8859-1 for output here.
 	 */
 	public void write(OutputStream out) throws IOException {
-		StringBuilder buffer = new StringBuilder();
+		if (out instanceof HeadBuffer) {
+			write((HeadBuffer) out);
+			return;
+		}
+		HeadBuffer buffer = HeadBuffer.get();
+		write(buffer);
+		buffer.writeTo(out);
+	}
+
+	void write(HeadBuffer buffer) {
 		for (HeaderField field : fields) {
-			String name = field.getHeaderName().toString();
-			String value = field.getValue();
-			buffer.append(name).append(": ").append(value)
-			.append(Constants.CRLF);
+			buffer.append(field.getHeaderName().toString());
+			buffer.append(": ");
+			buffer.append(field.getValue());
+			buffer.append(Constants.CRLF);
 		}
-		out.write(buffer.toString().getBytes(Constants.ISO_8859_1_CHARSET));
 	}
 
 	public void setValue(String name, String value) {
@@ -339,6 +362,20 @@ public class Header {
 		return "100-continue".equalsIgnoreCase(getFirstValue(EXPECT));
 	}
 
+	/**
+	 * @return the number of bytes the header fields occupied on the wire (including their line breaks, but
+	 *         not the empty line ending the header). If the header was not read from a stream, the length
+	 *         is computed from the current fields.
+	 */
+	public int getWireLength() {
+		if (wireLength != -1)
+			return wireLength;
+		int length = 0;
+		for (HeaderField field : fields)
+			length += field.getHeaderName().toString().length() + field.getValue().length() + 4;
+		return length;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder res = new StringBuilder();
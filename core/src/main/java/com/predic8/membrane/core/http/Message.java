@@ -37,6 +37,11 @@ public abstract class Message {
 
 	protected AbstractBody body;
 
+	/**
+	 * the cached decompressed body, see {@link #getBodyAsStreamUncompressed()}
+	 */
+	private DecodedBody decodedBody;
+
 	protected String version = "1.1";
 
 	private boolean released = false;
@@ -111,19 +116,36 @@ public abstract class Message {
 	 * <p>Supports streaming: The HTTP message does not have to be completely received yet for this method to return.</p>
 	 */
 	public InputStream getBodyAsStreamDecoded() {
-		// TODO: this logic should be split up into configurable decoding modules
-		// TODO: decoding result should be cached
 		try {
 			Message m = xopr.getReconstitutedMessage(this);
 			if (m != null)
 				return m.getBodyAsStream(); // we know decoding is not necessary any more
-			return MessageUtil.getContentAsStream(this);
+			return getBodyAsStreamUncompressed();
 		} catch (Exception e) {
 			log.error("Could not decode body stream", e);
 			throw new RuntimeException("Could not decode body stream", e);
 		}
 	}
 
+	/**
+	 * <p>Returns the body with its Content-Encoding ("gzip" or "deflate") unapplied. (Unlike
+	 * {@link #getBodyAsStreamDecoded()}, XOP messages are not reconstituted.)</p>
+	 *
+	 * <p>The decompressed content is cached, once it has been read completely: Further calls do not decompress
+	 * the body again, until the body or the <tt>Content-Encoding</tt> header is changed.</p>
+	 *
+	 * <p>Supports streaming: The HTTP message does not have to be completely received yet for this method to return.</p>
+	 */
+	public InputStream getBodyAsStreamUncompressed() throws IOException {
+		String encoding = header.getContentEncoding();
+		if (!"gzip".equalsIgnoreCase(encoding) && !"deflate".equalsIgnoreCase(encoding))
+			return body.getContentAsStream();
+		DecodedBody d = decodedBody;
+		if (d == null || !d.isFor(body, encoding))
+			decodedBody = d = new DecodedBody(body, encoding);
+		return d.getContentAsStream();
+	}
+
 	/**
 	 * <p>As this method has bad performance, it should <b>not</b> be used in any critical component.
 	 * (Use {@link #getBodyAsStreamDecoded()} instead.)</p>
@@ -151,6 +173,7 @@ public abstract class Message {
 	 */
 	public void setBody(AbstractBody b) {
 		body = b;
+		decodedBody = null;
 	}
 
 	/**
@@ -158,6 +181,7 @@ public abstract class Message {
 	 */
 	public void setBodyContent(byte[] content) {
 		body = new Body(content);
+		decodedBody = null;
 		header.removeFields(Header.CONTENT_ENCODING);
 		header.removeFields(Header.TRANSFER_ENCODING);
 		header.setContentLength(content.length);
@@ -220,17 +244,32 @@ public abstract class Message {
 		header = srcHeader;
 	}
 
+	/**
+	 * Writes the message and flushes the stream.
+	 *
+	 * The head is encoded into a buffer and passed on using a single write. If the body has already been read
+	 * and is small enough (see {@link HeadBuffer#GATHER_LIMIT}), it is appended to the same buffer, so that a
+	 * small message leaves the (buffered) stream in one write.
+	 */
 	public final void write(OutputStream out) throws IOException {
-		writeStartLine(out);
-		header.write(out);
-		out.write(Constants.CRLF_BYTES);
+		HeadBuffer head = HeadBuffer.get();
+		head.append(getStartLine());
+		header.write(head);
+		head.write(Constants.CRLF_BYTES, 0, Constants.CRLF_BYTES.length);
 
 		if (header.is100ContinueExpected()) {
+			head.writeTo(out);
 			out.flush();
 			return;
 		}
 
-		body.write(getHeader().isChunked() ? new ChunkedBodyTransferrer(out) : new PlainBodyTransferrer(out));
+		if (body.isRead() && head.size() + body.getLength() <= HeadBuffer.GATHER_LIMIT) {
+			body.write(getHeader().isChunked() ? new ChunkedBodyTransferrer(head) : new PlainBodyTransferrer(head));
+			head.writeTo(out);
+		} else {
+			head.writeTo(out);
+			body.write(getHeader().isChunked() ? new ChunkedBodyTransferrer(out) : new PlainBodyTransferrer(out));
+		}
 
 		out.flush();
 	}
@@ -358,6 +397,24 @@ public abstract class Message {
 		body.addObserver(observer);
 	}
 
+	/**
+	 * @return the number of bytes of the header fields and the body as transferred. The body is only
+	 *         counted, if its length is known from the header or it has already been read.
+	 */
+	public long getWireLength() {
+		long length = header.getWireLength();
+		long contentLength = header.getContentLength();
+		if (contentLength >= 0)
+			return length + contentLength;
+		try {
+			if (body != null && body.isRead())
+				length += body.getLength();
+		} catch (IOException e) {
+			// length unknown
+		}
+		return length;
+	}
+
 	public int estimateHeapSize() {
 		try {
 			return 100 +
@@ -371,9 +428,13 @@ public abstract class Message {
 
     public abstract <T extends Message> T createSnapshot() throws Exception;
 
+	/**
+	 * Copies the header. The content of the body is shared (see {@link AbstractBody#createSnapshot()}), if it
+	 * has been read. Otherwise, the body is not read: the snapshot's body stays empty.
+	 */
 	public <T extends Message> T createMessageSnapshot(T result) throws IOException {
 		result.setHeader(new Header(this.getHeader()));
-		result.setBody(new Body(this.getBodyAsStream()));
+		result.setBody(body.isRead() ? body.createSnapshot() : new EmptyBody());
 		result.setErrorMessage(this.getErrorMessage());
 		result.setReleased(this.isReleased());
 
@@ -33,6 +33,11 @@ public class PlainBodyTransferrer extends AbstractBodyTransferrer {
 		out.write(chunk.getContent());
 	}
 
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
 	@Override
 	public void finish() throws IOException {
 	}
@@ -0,0 +1,55 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A chunk whose data has been written to the file of a {@link BodySpool}. The data is read back from the
+ * file every time {@link #getContent()} is called, so only one chunk of a spooled body occupies the heap
+ * while the body is streamed.
+ */
+class SpooledChunk extends Chunk {
+
+	private final BodySpool spool;
+	private final long position;
+	private final int length;
+
+	SpooledChunk(BodySpool spool, long position, int length) {
+		super(null);
+		this.spool = spool;
+		this.position = position;
+		this.length = length;
+	}
+
+	/**
+	 * @throws UncheckedIOException if the spool file could not be read, for example because the body has
+	 *             already been released
+	 */
+	@Override
+	public byte[] getContent() {
+		try {
+			return spool.read(position, length);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public int getLength() {
+		return length;
+	}
+
+}
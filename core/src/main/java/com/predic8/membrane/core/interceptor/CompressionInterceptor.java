@@ -0,0 +1,226 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.springframework.http.MediaType;
+
+import com.predic8.membrane.annot.MCAttribute;
+import com.predic8.membrane.annot.MCElement;
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Body;
+import com.predic8.membrane.core.http.EmptyBody;
+import com.predic8.membrane.core.http.Header;
+import com.predic8.membrane.core.http.HeaderField;
+import com.predic8.membrane.core.http.HeaderName;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.util.DeflatingInputStream;
+
+/**
+ * @description Compresses response bodies using the "gzip" or "deflate" Content-Encoding, if the client
+ *              accepts it.
+ * @explanation <p>
+ *              The body is compressed while it is being forwarded to the client, which is why compressed
+ *              responses use chunked transfer encoding. Responses which already carry a <tt>Content-Encoding</tt>,
+ *              responses to HTTP/1.0 clients and responses marked as <tt>Cache-Control: no-transform</tt> are not
+ *              touched.
+ *              </p>
+ *              <p>
+ *              Only responses whose <tt>Content-Type</tt> matches one of the configured MIME types and whose
+ *              <tt>Content-Length</tt> (if known) is at least <tt>minSize</tt> are compressed.
+ *              </p>
+ * @topic 4. Interceptors/Features
+ */
+@MCElement(name="compression")
+public class CompressionInterceptor extends AbstractInterceptor {
+
+	static final String GZIP = "gzip", DEFLATE = "deflate";
+
+	private int minSize = 1024;
+	private int level = Deflater.DEFAULT_COMPRESSION;
+	private String mimeTypes = "text/*,application/json,application/*+json,application/javascript,application/xml,application/*+xml,image/svg+xml";
+	private List<MediaType> mediaTypes = parseMediaTypes(mimeTypes);
+
+	public CompressionInterceptor() {
+		name = "Compression";
+		setFlow(Flow.Set.RESPONSE);
+	}
+
+	@Override
+	public Outcome handleResponse(Exchange exc) throws Exception {
+		Request request = exc.getRequest();
+		Response response = exc.getResponse();
+		if (!isCompressible(request, response))
+			return Outcome.CONTINUE;
+
+		Header header = response.getHeader();
+		addVary(header);
+
+		String encoding = negotiate(request.getHeader().getFirstValue(Header.ACCEPT_ENCODING));
+		if (encoding == null)
+			return Outcome.CONTINUE;
+
+		header.removeFields(Header.CONTENT_LENGTH);
+		header.setValue(Header.CONTENT_ENCODING, encoding);
+		header.setValue(Header.TRANSFER_ENCODING, Header.CHUNKED);
+		String etag = header.getFirstValue(Header.ETAG);
+		if (etag != null && etag.startsWith("\""))
+			header.setValue(Header.ETAG, "W/" + etag); // the compressed representation differs
+		response.setBody(new Body(new DeflatingInputStream(response.getBodyAsStream(), GZIP.equals(encoding), level)));
+		return Outcome.CONTINUE;
+	}
+
+	private boolean isCompressible(Request request, Response response) {
+		if (request == null || request.isHEADRequest() || request.isHTTP10() || response.isHTTP10())
+			return false;
+		int status = response.getStatusCode();
+		if (status < 200 || status == 204 || status == 206 || status == 304)
+			return false;
+		if (response.getBody() instanceof EmptyBody)
+			return false;
+		Header header = response.getHeader();
+		String contentEncoding = header.getContentEncoding();
+		if (contentEncoding != null && !"identity".equalsIgnoreCase(contentEncoding.trim()))
+			return false;
+		String cacheControl = header.getFirstValue(Header.CACHE_CONTROL);
+		if (cacheControl != null && cacheControl.toLowerCase().contains("no-transform"))
+			return false;
+		if (header.hasContentLength() && header.getContentLength() < Math.max(minSize, 1))
+			return false;
+		return isAllowedType(header.getContentType());
+	}
+
+	private boolean isAllowedType(String contentType) {
+		if (contentType == null)
+			return false;
+		MediaType type;
+		try {
+			type = MediaType.parseMediaType(contentType);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		for (MediaType allowed : mediaTypes)
+			if (allowed.includes(type))
+				return true;
+		return false;
+	}
+
+	private static void addVary(Header header) {
+		for (HeaderField vary : header.getValues(new HeaderName(Header.VARY)))
+			for (String name : vary.getValue().split(","))
+				if (name.trim().equals("*") || name.trim().equalsIgnoreCase(Header.ACCEPT_ENCODING))
+					return;
+		header.add(Header.VARY, Header.ACCEPT_ENCODING);
+	}
+
+	/**
+	 * Chooses the encoding with the highest quality value, preferring gzip over deflate.
+	 *
+	 * @return {@link #GZIP}, {@link #DEFLATE} or null, if the client accepts neither.
+	 */
+	static String negotiate(String acceptEncoding) {
+		if (acceptEncoding == null)
+			return null;
+		double gzip = -1, deflate = -1, any = -1;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] params = coding.split(";");
+			String name = params[0].trim();
+			double q = 1;
+			for (int i = 1; i < params.length; i++) {
+				String param = params[i].trim();
+				if (param.startsWith("q=") || param.startsWith("Q=")) {
+					try {
+						q = Double.parseDouble(param.substring(2).trim());
+					} catch (NumberFormatException e) {
+						q = 0;
+					}
+				}
+			}
+			if (name.equalsIgnoreCase(GZIP) || name.equalsIgnoreCase("x-gzip"))
+				gzip = Math.max(gzip, q);
+			else if (name.equalsIgnoreCase(DEFLATE))
+				deflate = Math.max(deflate, q);
+			else if (name.equals("*"))
+				any = q;
+		}
+		if (gzip == -1)
+			gzip = any;
+		if (deflate == -1)
+			deflate = any;
+		if (gzip <= 0 && deflate <= 0)
+			return null;
+		return gzip >= deflate ? GZIP : DEFLATE;
+	}
+
+	private static List<MediaType> parseMediaTypes(String mimeTypes) {
+		List<MediaType> result = new ArrayList<MediaType>();
+		for (String mimeType : mimeTypes.split(","))
+			if (!mimeType.trim().isEmpty())
+				result.add(MediaType.parseMediaType(mimeType.trim()));
+		return result;
+	}
+
+	@Override
+	public String getShortDescription() {
+		return "Compresses responses of the types " + mimeTypes + " larger than " + minSize + " bytes.";
+	}
+
+	public int getMinSize() {
+		return minSize;
+	}
+
+	/**
+	 * @description Responses with a smaller Content-Length (in bytes) are not compressed. (Responses without
+	 *              Content-Length are always compressed.)
+	 * @default 1024
+	 */
+	@MCAttribute
+	public void setMinSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * @description The compression level, from 1 (fastest) to 9 (best compression). -1 selects the default
+	 *              level of zlib (6).
+	 * @default -1
+	 */
+	@MCAttribute
+	public void setLevel(int level) {
+		this.level = level;
+	}
+
+	public String getMimeTypes() {
+		return mimeTypes;
+	}
+
+	/**
+	 * @description Comma-separated list of the MIME types to compress. Wildcards like "text/*" and
+	 *              "application/*+xml" are supported.
+	 * @default text/*,application/json,application/*+json,application/javascript,application/xml,application/*+xml,image/svg+xml
+	 */
+	@MCAttribute
+	public void setMimeTypes(String mimeTypes) {
+		this.mediaTypes = parseMediaTypes(mimeTypes);
+		this.mimeTypes = mimeTypes;
+	}
+
+}
@@ -0,0 +1,258 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Limits the number of requests processed concurrently.
+ *
+ * A request is admitted without locking, if fewer than {@link #getLimit()} requests are in flight.
+ * Otherwise it waits in a bounded queue until a running request completes or its deadline has passed.
+ * Waiting requests are woken up as soon as capacity is available, instead of polling.
+ *
+ * With an adaptive {@link Algorithm}, the limit follows the observed latency of the completed requests.
+ *
+ * Instances are thread-safe.
+ */
+public class ConcurrencyLimiter {
+
+	public enum Algorithm {
+		/** the limit does not change */
+		FIXED,
+		/**
+		 * additive increase, multiplicative decrease: the limit grows by one while responses are fast and the
+		 * limit is used, and shrinks by the backoff ratio on slow or failed requests
+		 */
+		AIMD,
+		/**
+		 * the limit follows the ratio of the minimum latency (the latency without queueing at the backend) to the
+		 * current latency, plus some headroom
+		 */
+		GRADIENT
+	}
+
+	private static final double GRADIENT_SMOOTHING = 0.2;
+	private static final double GRADIENT_TOLERANCE = 2.0;
+	private static final int GRADIENT_MIN_LATENCY_WINDOW = 1000;
+
+	private final String name;
+	private final Algorithm algorithm;
+	private final int minLimit, maxLimit, maxQueueSize;
+	private final long maxLatencyNanos;
+	private final double backoffRatio;
+
+	private volatile int limit;
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger queued = new AtomicInteger();
+	private final ConcurrentLinkedQueue<Thread> waiters = new ConcurrentLinkedQueue<Thread>();
+
+	private final AtomicLong admitted = new AtomicLong(), rejectedQueueFull = new AtomicLong(),
+			rejectedTimeout = new AtomicLong();
+
+	// state of the adaptive algorithms
+	@GuardedBy("this")
+	private double estimatedLimit;
+	@GuardedBy("this")
+	private long minLatency = Long.MAX_VALUE;
+	@GuardedBy("this")
+	private int samplesSinceMinLatency;
+	@GuardedBy("this")
+	private double smoothedLatency;
+
+	/**
+	 * @param limit the initial limit
+	 * @param maxLatencyMillis (AIMD only) a request taking longer counts as overload
+	 * @param backoffRatio (AIMD only) the factor the limit is multiplied with on overload
+	 */
+	public ConcurrencyLimiter(String name, Algorithm algorithm, int limit, int minLimit, int maxLimit,
+			int maxQueueSize, long maxLatencyMillis, double backoffRatio) {
+		if (limit <= 0 || minLimit <= 0 || maxLimit < minLimit)
+			throw new IllegalArgumentException("Invalid limits: limit=" + limit + ", minLimit=" + minLimit + ", maxLimit=" + maxLimit);
+		this.name = name;
+		this.algorithm = algorithm;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.maxQueueSize = maxQueueSize;
+		this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+		this.backoffRatio = backoffRatio;
+		this.limit = algorithm == Algorithm.FIXED ? limit : Math.max(minLimit, Math.min(maxLimit, limit));
+		estimatedLimit = this.limit;
+	}
+
+	/**
+	 * Admits a request, waiting at most timeoutMillis for a running request to complete.
+	 *
+	 * @return false, if the request must be rejected
+	 */
+	public boolean acquire(long timeoutMillis) {
+		if (tryAcquire())
+			return true;
+		if (timeoutMillis <= 0) {
+			rejectedQueueFull.incrementAndGet();
+			return false;
+		}
+		if (queued.incrementAndGet() > maxQueueSize) {
+			queued.decrementAndGet();
+			rejectedQueueFull.incrementAndGet();
+			return false;
+		}
+		Thread current = Thread.currentThread();
+		waiters.add(current);
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		try {
+			while (true) {
+				// checked after enqueueing, so that a release in between is not missed
+				if (tryAcquire()) {
+					waiters.remove(current);
+					// pass on capacity which might have become available at once (for example by raising the limit)
+					wakeUpNext();
+					return true;
+				}
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0 || current.isInterrupted())
+					break;
+				LockSupport.parkNanos(this, remaining);
+			}
+			waiters.remove(current);
+			// a release might have woken up this thread instead of the next one
+			wakeUpNext();
+			rejectedTimeout.incrementAndGet();
+			return false;
+		} finally {
+			queued.decrementAndGet();
+		}
+	}
+
+	private boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= limit)
+				return false;
+			if (inFlight.compareAndSet(current, current + 1)) {
+				admitted.incrementAndGet();
+				return true;
+			}
+		}
+	}
+
+	private void wakeUpNext() {
+		Thread next = waiters.peek();
+		if (next != null && inFlight.get() < limit)
+			LockSupport.unpark(next);
+	}
+
+	/**
+	 * Completes a request admitted by {@link #acquire(long)}.
+	 *
+	 * @param latencyNanos the time the request took
+	 * @param failed whether the request failed (counts as overload for {@link Algorithm#AIMD})
+	 */
+	public void release(long latencyNanos, boolean failed) {
+		int current = inFlight.getAndDecrement();
+		if (algorithm != Algorithm.FIXED)
+			adapt(latencyNanos, failed, current);
+		Thread next = waiters.peek();
+		if (next != null)
+			LockSupport.unpark(next);
+	}
+
+	private synchronized void adapt(long latencyNanos, boolean failed, int inFlight) {
+		switch (algorithm) {
+		case AIMD:
+			if (failed || latencyNanos > maxLatencyNanos)
+				estimatedLimit = estimatedLimit * backoffRatio;
+			else if (inFlight * 2 >= limit)
+				estimatedLimit = estimatedLimit + 1;
+			break;
+		case GRADIENT:
+			if (failed)
+				break;
+			if (latencyNanos < minLatency || ++samplesSinceMinLatency > GRADIENT_MIN_LATENCY_WINDOW) {
+				// the minimum is measured again from time to time, as the backend's latency may change
+				minLatency = latencyNanos;
+				samplesSinceMinLatency = 0;
+			}
+			smoothedLatency = smoothedLatency == 0 ? latencyNanos
+					: smoothedLatency * (1 - GRADIENT_SMOOTHING) + latencyNanos * GRADIENT_SMOOTHING;
+			double gradient = smoothedLatency <= 0 ? 1.0
+					: Math.max(0.5, Math.min(1.0, GRADIENT_TOLERANCE * minLatency / smoothedLatency));
+			double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+			estimatedLimit = estimatedLimit * (1 - GRADIENT_SMOOTHING) + newLimit * GRADIENT_SMOOTHING;
+			break;
+		default:
+		}
+		estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+		// if the limit is raised, the waiter woken up by release() wakes up the next one, and so on
+		limit = (int) estimatedLimit;
+	}
+
+	/**
+	 * Changes the limit. For adaptive algorithms, this is the starting point of further adaptation.
+	 */
+	public synchronized void setLimit(int limit) {
+		this.limit = limit;
+		estimatedLimit = limit;
+		wakeUpNext();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public int getQueueLength() {
+		return queued.get();
+	}
+
+	public long getAdmitted() {
+		return admitted.get();
+	}
+
+	/**
+	 * @return the number of requests rejected, because the queue was full (or waiting was not allowed)
+	 */
+	public long getRejectedQueueFull() {
+		return rejectedQueueFull.get();
+	}
+
+	/**
+	 * @return the number of requests rejected, because they waited until their deadline
+	 */
+	public long getRejectedTimeout() {
+		return rejectedTimeout.get();
+	}
+
+	public long getRejected() {
+		return rejectedQueueFull.get() + rejectedTimeout.get();
+	}
+
+}
@@ -85,6 +85,10 @@ public class HTTPClientInterceptor extends AbstractInterceptor {
 	}
 
 
+	public HttpClient getHttpClient() {
+		return hc;
+	}
+
 	public boolean isFailOverOn5XX() {
 		return failOverOn5XX;
 	}
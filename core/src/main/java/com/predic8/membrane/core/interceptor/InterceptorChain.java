@@ -0,0 +1,238 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.interceptor.Interceptor.Flow;
+import com.predic8.membrane.core.interceptor.flow.ConditionalInterceptor;
+import com.predic8.membrane.core.interceptor.flow.RequestInterceptor;
+import com.predic8.membrane.core.interceptor.flow.ResponseInterceptor;
+
+/**
+ * An interceptor list compiled into a flat array of steps.
+ *
+ * Flow filtering is resolved at compile time: every step knows whether its request handler
+ * and/or its response handler has to be called. Nested {@link RequestInterceptor}s and
+ * {@link ResponseInterceptor}s are flattened into the chain. A {@link ConditionalInterceptor}
+ * becomes a guard step followed by its (flattened) children; if the condition does not hold,
+ * the {@link InterceptorFlowController} jumps over the block.
+ *
+ * Because of this, an exchange only has to remember how far it got through a chain (see
+ * {@link InterceptorStack}) instead of collecting response handlers one by one.
+ *
+ * Instances are immutable (except for their statistics) and thread-safe.
+ */
+public class InterceptorChain {
+
+	public static final int REQUEST = 1;
+	public static final int RESPONSE = 2;
+	public static final int CONDITION = 4;
+
+	public static final InterceptorChain EMPTY = compile(Collections.<Interceptor>emptyList());
+
+	/** the list this chain was compiled from, used to detect modifications */
+	private final Interceptor[] source;
+
+	private final Interceptor[] interceptors;
+	private final int[] flags;
+	/** for CONDITION steps: the index of the first step after the conditional block */
+	private final int[] blockEnd;
+	/** previousResponse[i] is the largest j < i having the RESPONSE flag, or -1 */
+	private final int[] previousResponse;
+	private final InterceptorStatistics[] statistics;
+
+	private InterceptorChain(Interceptor[] source, Builder b) {
+		this.source = source;
+		int n = b.interceptors.size();
+		interceptors = b.interceptors.toArray(new Interceptor[n]);
+		flags = new int[n];
+		blockEnd = new int[n];
+		statistics = b.statistics == null ? null : new InterceptorStatistics[n];
+		for (int i = 0; i < n; i++) {
+			flags[i] = b.flags.get(i);
+			blockEnd[i] = b.blockEnd.get(i);
+			if (statistics != null)
+				statistics[i] = b.getStatistics(interceptors[i]);
+		}
+		previousResponse = new int[n + 1];
+		previousResponse[0] = -1;
+		for (int i = 0; i < n; i++)
+			previousResponse[i + 1] = (flags[i] & RESPONSE) != 0 ? i : previousResponse[i];
+	}
+
+	public static InterceptorChain compile(List<Interceptor> interceptors) {
+		return compile(interceptors, null);
+	}
+
+	/**
+	 * @param previous a chain previously compiled from (an earlier version of) the list, whose
+	 *                 statistics should be kept, or null.
+	 */
+	public static InterceptorChain compile(List<Interceptor> interceptors, InterceptorChain previous) {
+		Builder b = new Builder(previous);
+		for (Interceptor i : interceptors)
+			b.add(i);
+		return new InterceptorChain(interceptors.toArray(new Interceptor[interceptors.size()]), b);
+	}
+
+	/**
+	 * Creates a chain consisting of a single response handler, without statistics.
+	 * Used for interceptors pushed individually using {@link Exchange#pushInterceptorToStack(Interceptor)}.
+	 */
+	static InterceptorChain single(Interceptor i) {
+		Builder b = new Builder(null);
+		b.statistics = null;
+		b.addStep(i, RESPONSE);
+		return new InterceptorChain(new Interceptor[] { i }, b);
+	}
+
+	/**
+	 * Checks (by identity) whether this chain has been compiled from the given list as it is now.
+	 * This costs one reference comparison per interceptor.
+	 */
+	public boolean isCompiledFrom(List<Interceptor> list) {
+		if (list.size() != source.length)
+			return false;
+		Iterator<Interceptor> it = list.iterator();
+		for (Interceptor i : source)
+			if (it.next() != i)
+				return false;
+		return true;
+	}
+
+	public int size() {
+		return interceptors.length;
+	}
+
+	public Interceptor getInterceptor(int index) {
+		return interceptors[index];
+	}
+
+	public int getFlags(int index) {
+		return flags[index];
+	}
+
+	public int getBlockEnd(int index) {
+		return blockEnd[index];
+	}
+
+	/**
+	 * @return the index of the last step before <code>end</code> having a response handler, or -1.
+	 */
+	public int getPreviousResponseHandler(int end) {
+		return previousResponse[end];
+	}
+
+	public boolean testCondition(int index, Exchange exc) {
+		return ((ConditionalInterceptor) interceptors[index]).testCondition(exc);
+	}
+
+	/**
+	 * @return the statistics of the step, or null if this chain does not collect statistics.
+	 */
+	public InterceptorStatistics getStatistics(int index) {
+		return statistics == null ? null : statistics[index];
+	}
+
+	/**
+	 * @return the statistics of the first step calling the interceptor, or null.
+	 */
+	public InterceptorStatistics getStatistics(Interceptor interceptor) {
+		for (int i = 0; i < interceptors.length; i++)
+			if (interceptors[i] == interceptor)
+				return getStatistics(i);
+		return null;
+	}
+
+	private static class Builder {
+		final List<Interceptor> interceptors = new ArrayList<Interceptor>();
+		final List<Integer> flags = new ArrayList<Integer>();
+		final List<Integer> blockEnd = new ArrayList<Integer>();
+		IdentityHashMap<Interceptor, InterceptorStatistics> statistics = new IdentityHashMap<Interceptor, InterceptorStatistics>();
+
+		Builder(InterceptorChain previous) {
+			if (previous != null && previous.statistics != null)
+				for (int i = 0; i < previous.interceptors.length; i++)
+					statistics.put(previous.interceptors[i], previous.statistics[i]);
+		}
+
+		InterceptorStatistics getStatistics(Interceptor i) {
+			InterceptorStatistics s = statistics.get(i);
+			if (s == null) {
+				s = new InterceptorStatistics();
+				statistics.put(i, s);
+			}
+			return s;
+		}
+
+		int addStep(Interceptor i, int f) {
+			interceptors.add(i);
+			flags.add(f);
+			blockEnd.add(0);
+			return interceptors.size() - 1;
+		}
+
+		/**
+		 * Adds an interceptor as {@link InterceptorFlowController} would have called it in a chain.
+		 */
+		void add(Interceptor i) {
+			if (i.getClass() == RequestInterceptor.class) {
+				for (Interceptor c : ((RequestInterceptor) i).getInterceptors())
+					addRequestOnly(c);
+			} else if (i.getClass() == ResponseInterceptor.class) {
+				addResponseHandlersOf((ResponseInterceptor) i);
+			} else if (i.getClass() == ConditionalInterceptor.class) {
+				int guard = addStep(i, CONDITION | REQUEST);
+				for (Interceptor c : ((ConditionalInterceptor) i).getInterceptors())
+					add(c);
+				blockEnd.set(guard, interceptors.size());
+			} else {
+				EnumSet<Flow> f = i.getFlow();
+				if (f.contains(Flow.RESPONSE) && !f.contains(Flow.REQUEST))
+					addStep(i, RESPONSE);
+				else
+					addStep(i, REQUEST | (f.contains(Flow.RESPONSE) ? RESPONSE : 0));
+			}
+		}
+
+		/**
+		 * Adds an interceptor as {@link RequestInterceptor} would have called it.
+		 */
+		void addRequestOnly(Interceptor i) {
+			if (!i.getFlow().contains(Flow.REQUEST))
+				return;
+			if (i.getClass() == RequestInterceptor.class) {
+				for (Interceptor c : ((RequestInterceptor) i).getInterceptors())
+					addRequestOnly(c);
+			} else if (i.getClass() == ResponseInterceptor.class) {
+				addResponseHandlersOf((ResponseInterceptor) i);
+			} else {
+				addStep(i, REQUEST);
+			}
+		}
+
+		void addResponseHandlersOf(ResponseInterceptor ri) {
+			for (Interceptor c : ri.getInterceptors())
+				if (c.getFlow().contains(Flow.RESPONSE))
+					addStep(c, RESPONSE);
+		}
+	}
+}
@@ -13,7 +13,6 @@
    limitations under the License. */
 package com.predic8.membrane.core.interceptor;
 
-import java.util.EnumSet;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -37,17 +36,21 @@ import com.predic8.membrane.core.transport.http.AbortException;
  * {@link Outcome#CONTINUE}.
  *
  * Any chain is followed using {@link Interceptor#handleRequest(Exchange)} until
- * it hits {@link Outcome#RETURN} or {@link Outcome#ABORT}. As the chain is
- * followed, every interceptor (except those with {@link Flow#REQUEST}) are
- * added to the exchange's stack.
+ * it hits {@link Outcome#RETURN} or {@link Outcome#ABORT}. Chains are compiled
+ * into {@link InterceptorChain}s beforehand. As the chain is followed, the
+ * range of steps passed is recorded on the exchange's {@link InterceptorStack}.
  *
  * When {@link Outcome#RETURN} is hit, the exchange's interceptor stack is
  * unwound and {@link Interceptor#handleResponse(Exchange)} is called for every
- * interceptor on it.
+ * interceptor on it (except those with {@link Flow#REQUEST} only).
  *
  * When {@link Outcome#ABORT} is hit, handling is aborted: An
  * {@link AbortException} is thrown. The stack is unwound calling
  * {@link Interceptor#handleAbort(Exchange)} on each interceptor on it.
+ *
+ * One out of {@link InterceptorStatistics#getSampleRate()} passes through a
+ * chain is timed; the results are collected in the chain's
+ * {@link InterceptorStatistics}.
  */
 public class InterceptorFlowController {
 
@@ -67,8 +70,15 @@ public class InterceptorFlowController {
 	 * Runs both the request and response handlers: This executes the main interceptor chain.
 	 */
 	public void invokeHandlers(Exchange exchange, List<Interceptor> interceptors) throws Exception {
+		invokeHandlers(exchange, InterceptorChain.compile(interceptors));
+	}
+
+	/**
+	 * Runs both the request and response handlers: This executes the main interceptor chain.
+	 */
+	public void invokeHandlers(Exchange exchange, InterceptorChain chain) throws Exception {
 		try {
-			switch (invokeRequestHandlers(exchange, interceptors)) {
+			switch (invokeRequestHandlers(exchange, chain)) {
 			case CONTINUE:
 				throw new Exception("The last interceptor in the main chain may not return CONTINUE. Change it to RETURN.");
 			case RETURN:
@@ -85,32 +95,69 @@ public class InterceptorFlowController {
 	}
 
 	/**
-	 * Runs the request handlers of the given chain. Response handlers are collected as
-	 * the request handlers are executed and appended to the exchange's interceptor stack
-	 * for later unwinding.
+	 * Compiles the list and runs its request handlers. Prefer passing a precompiled
+	 * {@link InterceptorChain}.
 	 */
 	public Outcome invokeRequestHandlers(Exchange exchange, List<Interceptor> interceptors)
 			throws Exception {
+		return invokeRequestHandlers(exchange, InterceptorChain.compile(interceptors));
+	}
+
+	/**
+	 * Runs the request handlers of the given chain. The range of steps passed is
+	 * appended to the exchange's interceptor stack for later unwinding.
+	 */
+	public Outcome invokeRequestHandlers(Exchange exchange, InterceptorChain chain)
+			throws Exception {
 		boolean logDebug = log.isDebugEnabled();
+		boolean sample = InterceptorStatistics.sample();
 
-		for (Interceptor i : interceptors) {
-			EnumSet<Flow> f = i.getFlow();
-			if (f.contains(Flow.RESPONSE) && !f.contains(Flow.REQUEST)) {
-				exchange.pushInterceptorToStack(i);
-				continue;
+		int n = chain.size();
+		int start = 0, i = 0;
+		try {
+			while (i < n) {
+				int flags = chain.getFlags(i);
+				if ((flags & InterceptorChain.REQUEST) == 0) {
+					i++;
+					continue;
+				}
+				if ((flags & InterceptorChain.CONDITION) != 0) {
+					boolean condition = chain.testCondition(i, exchange);
+					if (logDebug)
+						log.debug("ConditionalInterceptor: expression evaluated to " + condition);
+					if (condition) {
+						i++;
+					} else {
+						// skip the conditional block: close the current range and resume after the block
+						exchange.getInterceptorStack().push(chain, start, i);
+						start = i = chain.getBlockEnd(i);
+					}
+					continue;
+				}
+
+				Interceptor interceptor = chain.getInterceptor(i);
+				if (logDebug)
+					log.debug("Invoking request handler: " + interceptor.getDisplayName() + " on exchange: " + exchange);
+
+				Outcome o;
+				InterceptorStatistics stats = sample ? chain.getStatistics(i) : null;
+				if (stats != null) {
+					long t0 = System.nanoTime();
+					o = interceptor.handleRequest(exchange);
+					stats.addRequestTime(System.nanoTime() - t0);
+				} else {
+					o = interceptor.handleRequest(exchange);
+				}
+				if (o != Outcome.CONTINUE)
+					return o;
+				i++;
 			}
-
-			if (logDebug)
-				log.debug("Invoking request handler: " + i.getDisplayName() + " on exchange: " + exchange);
-
-			Outcome o = i.handleRequest(exchange);
-			if (o != Outcome.CONTINUE)
-				return o;
-
-			if (f.contains(Flow.RESPONSE))
-				exchange.pushInterceptorToStack(i);
+			return Outcome.CONTINUE;
+		} finally {
+			// the interceptor at index i (if any) returned RETURN or ABORT or threw: its own response
+			// handler is not called
+			exchange.getInterceptorStack().push(chain, start, i);
 		}
-		return Outcome.CONTINUE;
 	}
 
 	/**
@@ -119,13 +166,25 @@ public class InterceptorFlowController {
 	 */
 	public void invokeResponseHandlers(Exchange exchange) throws Exception {
 		boolean logDebug = log.isDebugEnabled();
+		boolean sample = InterceptorStatistics.sample();
 
-		Interceptor i;
-		while ((i = exchange.popInterceptorFromStack()) != null) {
+		InterceptorStack stack = exchange.getInterceptorStack();
+		while (stack.next()) {
+			InterceptorChain chain = stack.getChain();
+			Interceptor i = chain.getInterceptor(stack.getIndex());
 			if (logDebug)
 				log.debug("Invoking response handler: " + i.getDisplayName() + " on exchange: " + exchange);
 
-			if (i.handleResponse(exchange) == Outcome.ABORT) {
+			Outcome o;
+			InterceptorStatistics stats = sample ? chain.getStatistics(stack.getIndex()) : null;
+			if (stats != null) {
+				long t0 = System.nanoTime();
+				o = i.handleResponse(exchange);
+				stats.addResponseTime(System.nanoTime() - t0);
+			} else {
+				o = i.handleResponse(exchange);
+			}
+			if (o == Outcome.ABORT) {
 				throw new AbortException();
 			}
 		}
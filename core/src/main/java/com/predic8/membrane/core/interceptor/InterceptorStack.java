@@ -0,0 +1,129 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The response handlers an exchange still has to run, in the form of ranges of
+ * {@link InterceptorChain} steps.
+ *
+ * Every pass through a chain adds one range (usually starting at 0 and ending where the
+ * request handlers stopped). Unwinding walks the ranges backwards, visiting only steps having
+ * a response handler.
+ *
+ * Instances are not thread-safe.
+ */
+public class InterceptorStack {
+
+	private InterceptorChain[] chains = new InterceptorChain[4];
+	private int[] starts = new int[4];
+	private int[] ends = new int[4];
+	private int size;
+
+	private InterceptorChain currentChain;
+	private int currentIndex;
+
+	/**
+	 * Adds the response handlers of the steps <code>start</code> (inclusive) to <code>end</code>
+	 * (exclusive) of the chain.
+	 */
+	public void push(InterceptorChain chain, int start, int end) {
+		if (chain.getPreviousResponseHandler(end) < start)
+			return; // nothing to unwind
+		if (size == chains.length) {
+			chains = Arrays.copyOf(chains, size * 2);
+			starts = Arrays.copyOf(starts, size * 2);
+			ends = Arrays.copyOf(ends, size * 2);
+		}
+		chains[size] = chain;
+		starts[size] = start;
+		ends[size] = end;
+		size++;
+	}
+
+	public void push(Interceptor i) {
+		push(InterceptorChain.single(i), 0, 1);
+	}
+
+	/**
+	 * Moves to the next response handler to run and removes it from the stack.
+	 * On success, {@link #getChain()} and {@link #getIndex()} identify the step.
+	 *
+	 * @return false, if the stack is empty.
+	 */
+	public boolean next() {
+		while (size > 0) {
+			int t = size - 1;
+			int i = chains[t].getPreviousResponseHandler(ends[t]);
+			if (i >= starts[t]) {
+				ends[t] = i;
+				currentChain = chains[t];
+				currentIndex = i;
+				return true;
+			}
+			chains[t] = null;
+			size--;
+		}
+		currentChain = null;
+		return false;
+	}
+
+	public InterceptorChain getChain() {
+		return currentChain;
+	}
+
+	public int getIndex() {
+		return currentIndex;
+	}
+
+	/**
+	 * Removes the next response handler from the stack.
+	 *
+	 * @return the interceptor or null, if the stack is empty.
+	 */
+	public Interceptor pop() {
+		return next() ? currentChain.getInterceptor(currentIndex) : null;
+	}
+
+	public boolean isEmpty() {
+		for (int t = 0; t < size; t++)
+			if (chains[t].getPreviousResponseHandler(ends[t]) >= starts[t])
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return the interceptors whose response handlers are still to be run, in the order they were pushed.
+	 */
+	public List<Interceptor> toList() {
+		List<Interceptor> result = new ArrayList<Interceptor>();
+		for (int t = 0; t < size; t++)
+			for (int i = starts[t]; i < ends[t]; i++)
+				if ((chains[t].getFlags(i) & InterceptorChain.RESPONSE) != 0)
+					result.add(chains[t].getInterceptor(i));
+		return result;
+	}
+
+	public InterceptorStack copy() {
+		InterceptorStack copy = new InterceptorStack();
+		copy.chains = Arrays.copyOf(chains, chains.length);
+		copy.starts = Arrays.copyOf(starts, starts.length);
+		copy.ends = Arrays.copyOf(ends, ends.length);
+		copy.size = size;
+		return copy;
+	}
+}
@@ -0,0 +1,127 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampled timing of one interceptor within an {@link InterceptorChain}.
+ *
+ * Only one out of {@link #getSampleRate()} passes through a chain is timed, so that
+ * the hot path usually pays for a single random number only.
+ */
+public class InterceptorStatistics {
+
+	private static volatile int sampleRate = 64;
+
+	private final LongAdder requestCount = new LongAdder();
+	private final LongAdder requestNanos = new LongAdder();
+	private final AtomicLong requestMaxNanos = new AtomicLong();
+	private final LongAdder responseCount = new LongAdder();
+	private final LongAdder responseNanos = new LongAdder();
+	private final AtomicLong responseMaxNanos = new AtomicLong();
+
+	/**
+	 * @return whether the current pass through a chain should be timed.
+	 */
+	public static boolean sample() {
+		int rate = sampleRate;
+		return rate > 0 && (rate == 1 || ThreadLocalRandom.current().nextInt(rate) == 0);
+	}
+
+	public static int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @param sampleRate 1 to time every invocation, n to time every n-th on average, 0 to disable timing.
+	 */
+	public static void setSampleRate(int sampleRate) {
+		InterceptorStatistics.sampleRate = sampleRate;
+	}
+
+	public void addRequestTime(long nanos) {
+		requestCount.increment();
+		requestNanos.add(nanos);
+		updateMax(requestMaxNanos, nanos);
+	}
+
+	public void addResponseTime(long nanos) {
+		responseCount.increment();
+		responseNanos.add(nanos);
+		updateMax(responseMaxNanos, nanos);
+	}
+
+	private static void updateMax(AtomicLong max, long nanos) {
+		long m;
+		while (nanos > (m = max.get()))
+			if (max.compareAndSet(m, nanos))
+				return;
+	}
+
+	/**
+	 * @return the number of sampled request handler invocations.
+	 */
+	public long getRequestCount() {
+		return requestCount.sum();
+	}
+
+	/**
+	 * @return the average sampled request handler time in microseconds.
+	 */
+	public long getAverageRequestTime() {
+		long c = requestCount.sum();
+		return c == 0 ? 0 : requestNanos.sum() / c / 1000;
+	}
+
+	/**
+	 * @return the maximum sampled request handler time in microseconds.
+	 */
+	public long getMaxRequestTime() {
+		return requestMaxNanos.get() / 1000;
+	}
+
+	/**
+	 * @return the number of sampled response handler invocations.
+	 */
+	public long getResponseCount() {
+		return responseCount.sum();
+	}
+
+	/**
+	 * @return the average sampled response handler time in microseconds.
+	 */
+	public long getAverageResponseTime() {
+		long c = responseCount.sum();
+		return c == 0 ? 0 : responseNanos.sum() / c / 1000;
+	}
+
+	/**
+	 * @return the maximum sampled response handler time in microseconds.
+	 */
+	public long getMaxResponseTime() {
+		return responseMaxNanos.get() / 1000;
+	}
+
+	public void reset() {
+		requestCount.reset();
+		requestNanos.reset();
+		requestMaxNanos.set(0);
+		responseCount.reset();
+		responseNanos.reset();
+		responseMaxNanos.set(0);
+	}
+}
@@ -14,37 +14,121 @@
 
 package com.predic8.membrane.core.interceptor;
 
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.predic8.membrane.annot.MCAttribute;
 import com.predic8.membrane.annot.MCElement;
+import com.predic8.membrane.core.Constants;
 import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.BodyExcerpt;
+import com.predic8.membrane.core.http.HeaderField;
 import com.predic8.membrane.core.http.Message;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter.OverflowPolicy;
+import com.predic8.membrane.core.model.AbstractExchangeViewerListener;
 
 /**
- * @description The log feature logs request and response messages to the log4j
+ * @description <p>The log feature logs request and response messages to the log4j
  *              framework. The messages will appear either on the console or in
  *              a log file depending on the configuration of the
- *              <i>conf/log4j.properties</i> file.
+ *              <i>conf/log4j.properties</i> file.</p>
+ *              <p>With format="JSON", one line of JSON is logged per exchange, once the response has been
+ *              sent. Instead of reading the bodies, up to maxBodySize bytes of each body are captured while
+ *              it is streamed. The lines are logged by a background thread; if it cannot keep up, lines are
+ *              dropped instead of delaying the exchanges.</p>
  * @topic 5. Monitoring, Logging and Statistics
  */
 @MCElement(name="log")
-public class LogInterceptor extends AbstractInterceptor {
+public class LogInterceptor extends AbstractInterceptor implements DisposableBean {
 
 	public enum Level {
 		TRACE, DEBUG, INFO, WARN, ERROR, FATAL
 	}
 
+	public enum Format {
+		/** the start line, header and (optionally) body of each message, as several lines of text */
+		TEXT,
+		/** one JSON object per exchange, on a single line */
+		JSON
+	}
+
+	private static final JsonFactory jsonFactory = new JsonFactory();
+
 	private boolean headerOnly = true;
 	private String category = LogInterceptor.class.getName();
 	private Level level = Level.INFO;
+	private Format format = Format.TEXT;
+	private int maxBodySize = 1024;
+	private int queueSize = 10000;
+
+	private volatile Logger logger;
+	private volatile AsyncBatchWriter<ExchangeRecord> writer;
+	private final String recordProperty = "log-record-" + Integer.toHexString(System.identityHashCode(this));
 
 	public LogInterceptor() {
 		name = "Log";
 	}
 
+	@Override
+	public void init() throws Exception {
+		if (format == Format.JSON)
+			getWriter();
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		AsyncBatchWriter<ExchangeRecord> w = writer;
+		if (w != null)
+			w.close(10000);
+	}
+
+	private AsyncBatchWriter<ExchangeRecord> getWriter() {
+		AsyncBatchWriter<ExchangeRecord> w = writer;
+		if (w != null)
+			return w;
+		synchronized (this) {
+			if (writer == null)
+				writer = new AsyncBatchWriter<ExchangeRecord>("Log Writer " + category, new AsyncBatchWriter.Sink<ExchangeRecord>() {
+					private final StringWriter line = new StringWriter();
+
+					@Override
+					public void write(List<ExchangeRecord> batch) throws Exception {
+						for (ExchangeRecord record : batch) {
+							line.getBuffer().setLength(0);
+							try (JsonGenerator gen = jsonFactory.createGenerator(line)) {
+								record.write(gen);
+							}
+							log(line.toString());
+						}
+					}
+				}, queueSize, 100, 100, OverflowPolicy.DROP, null, null);
+			return writer;
+		}
+	}
+
 	@Override
 	public Outcome handleRequest(Exchange exc) throws Exception {
+		if (format == Format.JSON) {
+			if (isEnabled()) {
+				ExchangeRecord record = new ExchangeRecord(exc, excerpt(exc.getRequest()));
+				exc.setProperty(recordProperty, record);
+				exc.addExchangeViewerListener(record);
+			}
+			return Outcome.CONTINUE;
+		}
+		if (!isEnabled())
+			return Outcome.CONTINUE;
 		log("==== Request ===");
 		logMessage(exc.getRequest());
 		return Outcome.CONTINUE;
@@ -52,11 +136,167 @@ public class LogInterceptor extends AbstractInterceptor {
 
 	@Override
 	public Outcome handleResponse(Exchange exc) throws Exception {
+		if (format == Format.JSON) {
+			ExchangeRecord record = (ExchangeRecord) exc.getProperty(recordProperty);
+			if (record != null)
+				record.responseBody = excerpt(exc.getResponse());
+			return Outcome.CONTINUE;
+		}
+		if (!isEnabled())
+			return Outcome.CONTINUE;
 		log("==== Response ===");
 		logMessage(exc.getResponse());
 		return Outcome.CONTINUE;
 	}
 
+	private BodyExcerpt excerpt(Message msg) {
+		if (headerOnly || msg == null || maxBodySize <= 0 || msg.getHeader().isBinaryContentType())
+			return null;
+		BodyExcerpt excerpt = new BodyExcerpt(maxBodySize);
+		msg.addObserver(excerpt);
+		return excerpt;
+	}
+
+	/**
+	 * Collects the data of an exchange for a JSON line. Registered as listener, it is handed over to the
+	 * background thread when the exchange is finished, without keeping a reference to the exchange.
+	 */
+	private class ExchangeRecord extends AbstractExchangeViewerListener {
+		private Exchange exc;
+		private final BodyExcerpt requestBody;
+		private BodyExcerpt responseBody;
+
+		private long time, id, duration;
+		private String rule, remoteAddr, method, uri, error;
+		private int status;
+		private String[] requestHeaders, responseHeaders;
+		private String requestCharset, requestEncoding, responseCharset, responseEncoding;
+		private Excerpt requestExcerpt, responseExcerpt;
+
+		ExchangeRecord(Exchange exc, BodyExcerpt requestBody) {
+			this.exc = exc;
+			this.requestBody = requestBody;
+		}
+
+		@Override
+		public void setExchangeFinished() {
+			Exchange exc;
+			synchronized (this) {
+				exc = this.exc;
+				if (exc == null)
+					return;
+				this.exc = null;
+			}
+			long now = System.currentTimeMillis();
+			time = exc.getTimeReqReceived() != 0 ? exc.getTimeReqReceived() : now;
+			duration = now - time;
+			id = exc.getId();
+			rule = exc.getRule() == null ? null : exc.getRule().getName();
+			remoteAddr = exc.getRemoteAddrIp();
+			error = exc.getErrorMessage();
+			if (exc.getRequest() != null) {
+				method = exc.getRequest().getMethod();
+				uri = exc.getRequest().getUri();
+				requestHeaders = getHeaders(exc.getRequest());
+				requestCharset = exc.getRequest().getCharset();
+				requestEncoding = exc.getRequest().getHeader().getContentEncoding();
+				requestExcerpt = Excerpt.of(requestBody);
+			}
+			if (exc.getResponse() != null) {
+				status = exc.getResponse().getStatusCode();
+				responseHeaders = getHeaders(exc.getResponse());
+				responseCharset = exc.getResponse().getCharset();
+				responseEncoding = exc.getResponse().getHeader().getContentEncoding();
+				responseExcerpt = Excerpt.of(responseBody);
+			}
+			getWriter().offer(this);
+		}
+
+		void write(JsonGenerator gen) throws Exception {
+			gen.writeStartObject();
+			gen.writeStringField("time", Instant.ofEpochMilli(time).toString());
+			gen.writeNumberField("id", id);
+			if (rule != null)
+				gen.writeStringField("rule", rule);
+			if (remoteAddr != null)
+				gen.writeStringField("remoteAddr", remoteAddr);
+			if (method != null)
+				gen.writeStringField("method", method);
+			if (uri != null)
+				gen.writeStringField("uri", uri);
+			if (status != 0)
+				gen.writeNumberField("status", status);
+			gen.writeNumberField("durationMs", duration);
+			if (error != null && !error.isEmpty())
+				gen.writeStringField("error", error);
+			writeMessage(gen, "request", requestHeaders, requestExcerpt, requestCharset, requestEncoding);
+			writeMessage(gen, "response", responseHeaders, responseExcerpt, responseCharset, responseEncoding);
+			gen.writeEndObject();
+		}
+	}
+
+	/**
+	 * The state of a {@link BodyExcerpt} when the exchange was finished.
+	 */
+	private static class Excerpt {
+		final byte[] data;
+		final long totalLength;
+		final boolean truncated;
+
+		private Excerpt(BodyExcerpt body) {
+			data = body.getData();
+			totalLength = body.getTotalLength();
+			truncated = body.isTruncated();
+		}
+
+		static Excerpt of(BodyExcerpt body) {
+			return body == null ? null : new Excerpt(body);
+		}
+	}
+
+	private static String[] getHeaders(Message msg) {
+		HeaderField[] fields = msg.getHeader().getAllHeaderFields();
+		String[] headers = new String[fields.length * 2];
+		for (int i = 0; i < fields.length; i++) {
+			headers[2 * i] = fields[i].getHeaderName().toString();
+			headers[2 * i + 1] = fields[i].getValue();
+		}
+		return headers;
+	}
+
+	private static void writeMessage(JsonGenerator gen, String name, String[] headers, Excerpt body,
+			String charset, String encoding) throws Exception {
+		if (headers == null)
+			return;
+		gen.writeObjectFieldStart(name);
+		// repeated header fields are joined, as a JSON object should not contain duplicate names
+		Map<String, String> fields = new LinkedHashMap<String, String>();
+		for (int i = 0; i < headers.length; i += 2)
+			fields.merge(headers[i], headers[i + 1], (a, b) -> a + ", " + b);
+		gen.writeObjectFieldStart("headers");
+		for (Map.Entry<String, String> field : fields.entrySet())
+			gen.writeStringField(field.getKey(), field.getValue());
+		gen.writeEndObject();
+		if (body != null) {
+			gen.writeNumberField("bodyLength", body.totalLength);
+			if (encoding != null && !encoding.equalsIgnoreCase("identity"))
+				gen.writeStringField("bodyEncoding", encoding);
+			else if (body.totalLength > 0)
+				gen.writeStringField("body", new String(body.data, toCharset(charset)));
+			if (body.truncated)
+				gen.writeBooleanField("bodyTruncated", true);
+		}
+		gen.writeEndObject();
+	}
+
+	private static Charset toCharset(String charset) {
+		try {
+			return Charset.forName(charset);
+		} catch (Exception e) {
+			return Constants.UTF_8_CHARSET;
+		}
+	}
+
 	public boolean isHeaderOnly() {
 		return headerOnly;
 	}
@@ -115,25 +355,49 @@ public class LogInterceptor extends AbstractInterceptor {
 		log("================");
 	}
 
-	private void log(String msg) {
+	private Logger getLogger() {
+		Logger l = logger;
+		if (l == null)
+			logger = l = LoggerFactory.getLogger(category);
+		return l;
+	}
+
+	private boolean isEnabled() {
+		Logger l = getLogger();
+		switch (level) {
+		case TRACE:
+			return l.isTraceEnabled();
+		case DEBUG:
+			return l.isDebugEnabled();
+		case INFO:
+			return l.isInfoEnabled();
+		case WARN:
+			return l.isWarnEnabled();
+		default:
+			return l.isErrorEnabled();
+		}
+	}
+
+	void log(String msg) {
+		Logger l = getLogger();
 		switch (level) {
 		case TRACE:
-			LoggerFactory.getLogger(category).trace(msg);
+			l.trace(msg);
 			break;
 		case DEBUG:
-			LoggerFactory.getLogger(category).debug(msg);
+			l.debug(msg);
 			break;
 		case INFO:
-			LoggerFactory.getLogger(category).info(msg);
+			l.info(msg);
 			break;
 		case WARN:
-			LoggerFactory.getLogger(category).warn(msg);
+			l.warn(msg);
 			break;
 		case ERROR:
-			LoggerFactory.getLogger(category).error(msg);
+			l.error(msg);
 			break;
 		case FATAL:
-			LoggerFactory.getLogger(category).error(msg);
+			l.error(msg);
 			break;
 		}
 
@@ -151,12 +415,72 @@ public class LogInterceptor extends AbstractInterceptor {
 	@MCAttribute
 	public void setCategory(String category) {
 		this.category = category;
+		logger = null;
+	}
+
+	public Format getFormat() {
+		return format;
+	}
+
+	/**
+	 * @default TEXT
+	 * @description TEXT logs each message as several lines. JSON logs one line per exchange, asynchronously,
+	 *              capturing the bodies while they are streamed (see maxBodySize).
+	 * @example JSON
+	 */
+	@MCAttribute
+	public void setFormat(Format format) {
+		this.format = format;
+	}
+
+	public int getMaxBodySize() {
+		return maxBodySize;
+	}
+
+	/**
+	 * @default 1024
+	 * @description (JSON only) The maximum number of bytes of each body included in the log line, if
+	 *              headerOnly is false.
+	 */
+	@MCAttribute
+	public void setMaxBodySize(int maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * @default 10000
+	 * @description (JSON only) The maximum number of log lines waiting to be logged. Further lines are dropped.
+	 */
+	@MCAttribute
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	/**
+	 * @return the writer of the JSON lines, or null, if nothing has been logged using format JSON yet
+	 */
+	public AsyncBatchWriter<?> getAsyncWriter() {
+		return writer;
 	}
 
 	@Override
 	public String getShortDescription() {
 		return "Logs the " + (headerOnly ? "headers of " : "") + "requests and responses" +
+				(format == Format.JSON ? " as JSON" : "") +
 				" using Log4J's " + level.toString() + " level.";
 	}
 
+	@Override
+	public String getLongDescription() {
+		AsyncBatchWriter<ExchangeRecord> w = writer;
+		if (w == null)
+			return getShortDescription();
+		return String.format("%s<br/>Queue depth: %d, lines logged: %d, dropped: %d",
+				getShortDescription(), w.getQueueDepth(), w.getWritten(), w.getDropped());
+	}
+
 }
@@ -14,6 +14,7 @@
 package com.predic8.membrane.core.interceptor;
 
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,6 +26,7 @@ import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.Header;
 import com.predic8.membrane.core.http.HeaderField;
 import com.predic8.membrane.core.http.Message;
+import com.predic8.membrane.core.util.MessageUtil;
 
 /**
  * @description Runs a regular-expression-replacement on either the message body (default) or all header values.
@@ -36,8 +38,10 @@ public class RegExReplaceInterceptor extends AbstractInterceptor {
 	private static Logger log = LoggerFactory.getLogger(RegExReplaceInterceptor.class.getName());
 
 	private String regex;
+	private Pattern pattern;
 	private String replace;
 	private TargetType target = TargetType.BODY;
+	private int maxMatchLength = 4096;
 
 	public enum TargetType {
 		BODY,
@@ -69,7 +73,7 @@ public class RegExReplaceInterceptor extends AbstractInterceptor {
 
 	private void replaceHeader(Header header) {
 		for (HeaderField hf : header.getAllHeaderFields())
-			hf.setValue(hf.getValue().replaceAll(regex, replace));
+			hf.setValue(pattern.matcher(hf.getValue()).replaceAll(replace));
 	}
 
 	private void replaceBody(Message res) throws IOException, Exception {
@@ -78,8 +82,7 @@ public class RegExReplaceInterceptor extends AbstractInterceptor {
 		log.debug("pattern: " +regex);
 		log.debug("replacement: " +replace);
 
-		res.setBodyContent(res.getBodyAsStringDecoded().replaceAll(regex, replace).getBytes(res.getCharset()));
-		res.getHeader().removeFields("Content-Encoding");
+		MessageUtil.replaceAll(res, pattern, replace, maxMatchLength);
 	}
 
 	public String getRegex() {
@@ -93,6 +96,7 @@ public class RegExReplaceInterceptor extends AbstractInterceptor {
 	@MCAttribute
 	public void setRegex(String regex) {
 		this.regex = regex;
+		this.pattern = Pattern.compile(regex);
 	}
 
 	public String getReplace() {
@@ -122,4 +126,17 @@ public class RegExReplaceInterceptor extends AbstractInterceptor {
 		this.target = target;
 	}
 
+	public int getMaxMatchLength() {
+		return maxMatchLength;
+	}
+	/**
+	 * @description The body is rewritten while it is being forwarded. A match is therefore only
+	 *              guaranteed to be found if it is not longer than this number of characters.
+	 * @default 4096
+	 */
+	@MCAttribute
+	public void setMaxMatchLength(int maxMatchLength) {
+		this.maxMatchLength = maxMatchLength;
+	}
+
 }
@@ -27,6 +27,7 @@ import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.Header;
 import com.predic8.membrane.core.http.Request;
 import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.rules.AbstractProxy;
 import com.predic8.membrane.core.rules.AbstractServiceProxy;
 import com.predic8.membrane.core.rules.NullRule;
 import com.predic8.membrane.core.rules.ProxyRule;
@@ -52,6 +53,8 @@ public class RuleMatchingInterceptor extends AbstractInterceptor {
 
 		Rule rule = getRule(exc);
 		exc.setRule(rule);
+		if (rule instanceof AbstractProxy)
+			exc.setRunningOn((AbstractProxy) rule);
 		if(exc.getRule().getSslOutboundContext() != null){
 			exc.setProperty(Exchange.SSL_CONTEXT, exc.getRule().getSslOutboundContext());
 		}
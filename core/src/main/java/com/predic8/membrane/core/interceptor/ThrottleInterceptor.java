@@ -14,17 +14,31 @@
 
 package com.predic8.membrane.core.interceptor;
 
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.predic8.membrane.annot.MCAttribute;
 import com.predic8.membrane.annot.MCElement;
 import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Header;
 import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.interceptor.ConcurrencyLimiter.Algorithm;
 
 /**
  * @description <p>
- *              The throttle feature can slow down traffic to thwart denial of service attacks.
+ *              The throttle feature can slow down traffic to thwart denial of service attacks and limits the
+ *              number of concurrently running requests, to protect the backend from overload.
+ *              </p>
+ *              <p>
+ *              Requests exceeding the limit wait in a bounded queue for at most busyDelay milliseconds and are
+ *              admitted as soon as a running request completes. Requests which cannot be admitted are answered
+ *              with "503 Service Unavailable" and a "Retry-After" header. Optionally, the limit adapts to the
+ *              observed latency (see limitAlgorithm), either for the whole rule or for each backend separately.
  *              </p>
  * @topic 6. Security
  */
@@ -32,10 +46,40 @@ import com.predic8.membrane.core.http.Response;
 public class ThrottleInterceptor extends AbstractInterceptor {
 	private static Logger log = LoggerFactory.getLogger(ThrottleInterceptor.class.getName());
 
+	public enum Scope {
+		/** one limit for all requests passing the interceptor */
+		RULE,
+		/** one limit per backend (host and port of the destination) */
+		BACKEND
+	}
+
 	private long delay = 0;
 	private int maxThreads = 0;
-	private int threads = 0;
 	private int busyDelay = 0;
+	private int maxQueueSize = 100;
+	private int retryAfter = 1;
+	private Algorithm limitAlgorithm = Algorithm.FIXED;
+	private int minLimit = 1;
+	private int maxLimit = 1000;
+	private long maxLatency = 1000;
+	private int backoffPercent = 90;
+	private Scope scope = Scope.RULE;
+
+	private final ConcurrentHashMap<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<String, ConcurrencyLimiter>();
+	private final String permitProperty = "throttle-permit-" + Integer.toHexString(System.identityHashCode(this));
+
+	/**
+	 * A request admitted by a limiter, stored as exchange property until the request completes.
+	 */
+	private static class Permit {
+		final ConcurrencyLimiter limiter;
+		final long start = System.nanoTime();
+		boolean released;
+
+		Permit(ConcurrencyLimiter limiter) {
+			this.limiter = limiter;
+		}
+	}
 
 	public ThrottleInterceptor() {
 		name = "Throttle";
@@ -47,41 +91,70 @@ public class ThrottleInterceptor extends AbstractInterceptor {
 			log.debug("delaying for "+delay+"ms");
 			Thread.sleep(delay);
 		}
-		if ( maxThreads > 0 && threads >= maxThreads ) {
-			log.debug("Max thread limit of "+maxThreads+" reached. Waiting "+busyDelay+"ms");
-			Thread.sleep(busyDelay);
-			if ( threads >= maxThreads ) {
-				log.info("Max thread limit of " +maxThreads+ " reached. Server Busy.");
-				exc.setResponse(Response.serverUnavailable("Server busy.").build());
-				return Outcome.ABORT;
-			}
+		ConcurrencyLimiter limiter = getLimiter(exc);
+		if (!limiter.acquire(busyDelay)) {
+			log.info("Limit of " + limiter.getLimit() + " concurrent requests reached for " + limiter.getName() + ". Server Busy.");
+			exc.setResponse(Response.serverUnavailable("Server busy.")
+					.header(Header.RETRY_AFTER, Integer.toString(retryAfter)).build());
+			return Outcome.ABORT;
 		}
-		increaseThreads();
-		log.debug("thread count increased: "+threads);
+		exc.setProperty(permitProperty, new Permit(limiter));
+		log.debug("requests in flight: " + limiter.getInFlight());
 		return Outcome.CONTINUE;
 	}
 
-
 	@Override
 	public Outcome handleResponse(Exchange exc) throws Exception {
-		decreaseThreads();
-		log.debug("thread count decreased: "+threads);
+		release(exc, exc.getResponse() != null && exc.getResponse().getStatusCode() >= 500);
 		return Outcome.CONTINUE;
 	}
 
 	@Override
 	public void handleAbort(Exchange exchange) {
-		decreaseThreads();
-		log.debug("thread count decreased: "+threads);
+		release(exchange, true);
 	}
 
+	private void release(Exchange exc, boolean failed) {
+		Permit permit = (Permit) exc.getProperty(permitProperty);
+		if (permit == null || permit.released)
+			return;
+		permit.released = true;
+		permit.limiter.release(System.nanoTime() - permit.start, failed);
+		log.debug("requests in flight: " + permit.limiter.getInFlight());
+	}
 
-	private synchronized void decreaseThreads() {
-		--threads;
+	private ConcurrencyLimiter getLimiter(Exchange exc) {
+		String key = scope == Scope.BACKEND ? getBackend(exc) : "rule";
+		ConcurrencyLimiter limiter = limiters.get(key);
+		if (limiter != null)
+			return limiter;
+		return limiters.computeIfAbsent(key, k -> new ConcurrencyLimiter(k, limitAlgorithm, getInitialLimit(),
+				minLimit, maxLimit, maxQueueSize, maxLatency, backoffPercent / 100.0));
 	}
 
-	private synchronized void increaseThreads() {
-		++threads;
+	private static String getBackend(Exchange exc) {
+		if (exc.getDestinations().isEmpty())
+			return "unknown";
+		String destination = exc.getDestinations().get(0);
+		try {
+			URL url = new URL(destination);
+			return url.getHost() + ":" + (url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+		} catch (MalformedURLException e) {
+			return destination;
+		}
+	}
+
+	private int getInitialLimit() {
+		if (maxThreads > 0)
+			return maxThreads;
+		return limitAlgorithm == Algorithm.FIXED ? Integer.MAX_VALUE : maxLimit;
+	}
+
+	/**
+	 * @return the limiters created so far: one for {@link Scope#RULE}, one per backend for {@link Scope#BACKEND}
+	 */
+	public Collection<ConcurrencyLimiter> getLimiters() {
+		return limiters.values();
 	}
 
 	public long getDelay() {
@@ -104,12 +177,15 @@ public class ThrottleInterceptor extends AbstractInterceptor {
 
 	/**
 	 * @description If non-zero, newly incoming request are aborted if the number of running requests has reached this limit.
+	 *              With an adaptive limitAlgorithm, this is the initial limit (maxLimit, if 0).
 	 * @default 0
 	 * @example 5
 	 */
 	@MCAttribute
 	public void setMaxThreads(int maxThreads) {
 		this.maxThreads = maxThreads;
+		for (ConcurrencyLimiter limiter : limiters.values())
+			limiter.setLimit(getInitialLimit());
 	}
 
 	public int getBusyDelay() {
@@ -117,8 +193,8 @@ public class ThrottleInterceptor extends AbstractInterceptor {
 	}
 
 	/**
-	 * @description If a newly incoming request exceeds maxThreads, the interceptor waits the specified number in
-	 *              milliseconds and retries once before aborting the request.
+	 * @description If a newly incoming request exceeds maxThreads, it waits at most the specified number of
+	 *              milliseconds for a running request to complete before it is aborted.
 	 * @default 0
 	 * @example 3000
 	 */
@@ -127,9 +203,118 @@ public class ThrottleInterceptor extends AbstractInterceptor {
 		this.busyDelay = busyDelay;
 	}
 
+	public int getMaxQueueSize() {
+		return maxQueueSize;
+	}
+
+	/**
+	 * @description The maximum number of requests waiting for a running request to complete (see busyDelay).
+	 *              Further requests are aborted at once.
+	 * @default 100
+	 */
+	@MCAttribute
+	public void setMaxQueueSize(int maxQueueSize) {
+		this.maxQueueSize = maxQueueSize;
+	}
+
+	public int getRetryAfter() {
+		return retryAfter;
+	}
+
+	/**
+	 * @description The number of seconds sent in the "Retry-After" header of aborted requests.
+	 * @default 1
+	 */
+	@MCAttribute
+	public void setRetryAfter(int retryAfter) {
+		this.retryAfter = retryAfter;
+	}
+
+	public Algorithm getLimitAlgorithm() {
+		return limitAlgorithm;
+	}
+
+	/**
+	 * @description How the limit of concurrent requests is determined: FIXED uses maxThreads. AIMD raises the
+	 *              limit by one while responses are faster than maxLatency and lowers it to backoffPercent percent on
+	 *              slower or failed (5xx) requests. GRADIENT adapts the limit to the ratio of the minimum latency
+	 *              to the current latency.
+	 * @default FIXED
+	 */
+	@MCAttribute
+	public void setLimitAlgorithm(Algorithm limitAlgorithm) {
+		this.limitAlgorithm = limitAlgorithm;
+	}
+
+	public int getMinLimit() {
+		return minLimit;
+	}
+
+	/**
+	 * @description The lowest limit an adaptive limitAlgorithm may choose.
+	 * @default 1
+	 */
+	@MCAttribute
+	public void setMinLimit(int minLimit) {
+		this.minLimit = minLimit;
+	}
+
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	/**
+	 * @description The highest limit an adaptive limitAlgorithm may choose.
+	 * @default 1000
+	 */
+	@MCAttribute
+	public void setMaxLimit(int maxLimit) {
+		this.maxLimit = maxLimit;
+	}
+
+	public long getMaxLatency() {
+		return maxLatency;
+	}
+
+	/**
+	 * @description (AIMD only) Requests taking longer than this number of milliseconds lower the limit.
+	 * @default 1000
+	 */
+	@MCAttribute
+	public void setMaxLatency(long maxLatency) {
+		this.maxLatency = maxLatency;
+	}
+
+	public int getBackoffPercent() {
+		return backoffPercent;
+	}
+
+	/**
+	 * @description (AIMD only) The percentage of the limit kept on slow or failed requests.
+	 * @default 90
+	 */
+	@MCAttribute
+	public void setBackoffPercent(int backoffPercent) {
+		this.backoffPercent = backoffPercent;
+	}
+
+	public Scope getScope() {
+		return scope;
+	}
+
+	/**
+	 * @description RULE limits all requests passing the interceptor together, BACKEND limits the requests to
+	 *              each backend (host and port of the destination) separately.
+	 * @default RULE
+	 */
+	@MCAttribute
+	public void setScope(Scope scope) {
+		this.scope = scope;
+	}
+
 	@Override
 	public String getShortDescription() {
-		if (delay > 0 || maxThreads > 0)
+		if (delay > 0 || maxThreads > 0 || limitAlgorithm != Algorithm.FIXED)
 			return "Throttles the rate of incoming requests.";
 		else
 			return "Not configured.";
@@ -140,12 +325,21 @@ public class ThrottleInterceptor extends AbstractInterceptor {
 		StringBuilder sb = new StringBuilder();
 		if (delay > 0)
 			sb.append("Delays requests by " + String.format("%.1f", delay/1000.0) + " seconds.");
-		if (maxThreads > 0) {
+		if (maxThreads > 0 && limitAlgorithm == Algorithm.FIXED)
 			sb.append("Only allows " + maxThreads + " concurrent requests.");
-			if (busyDelay > 0)
-				sb.append("The server waits at most " +
-						String.format("%.1f", busyDelay/1000.0) + " seconds for enough running requests to terminate, " +
-						"returning an error if the server is still busy after the timeout.");
+		if (limitAlgorithm != Algorithm.FIXED)
+			sb.append("Adapts the limit of concurrent requests (" + limitAlgorithm + ") between " + minLimit + " and " + maxLimit + ".");
+		if (busyDelay > 0 && (maxThreads > 0 || limitAlgorithm != Algorithm.FIXED))
+			sb.append("The server waits at most " +
+					String.format("%.1f", busyDelay/1000.0) + " seconds for enough running requests to terminate, " +
+					"returning an error if the server is still busy after the timeout.");
+		for (ConcurrencyLimiter limiter : limiters.values()) {
+			sb.append("<br/>" + limiter.getName() + ": ");
+			sb.append("limit " + (limiter.getLimit() == Integer.MAX_VALUE ? "none" : String.valueOf(limiter.getLimit())));
+			sb.append(", in flight " + limiter.getInFlight());
+			sb.append(", waiting " + limiter.getQueueLength());
+			sb.append(", admitted " + limiter.getAdmitted());
+			sb.append(", rejected " + limiter.getRejectedQueueFull() + " at once and " + limiter.getRejectedTimeout() + " after waiting");
 		}
 		return sb.toString();
 	}
@@ -40,7 +40,7 @@ public class UserFeatureInterceptor extends AbstractInterceptor {
 	@Override
 	public Outcome handleRequest(Exchange exc) throws Exception {
 		Rule predecessorRule = exc.getRule();
-		Outcome outcome = flowController.invokeRequestHandlers(exc, predecessorRule.getInterceptors());
+		Outcome outcome = flowController.invokeRequestHandlers(exc, predecessorRule.getInterceptorChain());
 
 		while (isTargetInternalAndContinue(exc, outcome)) {
 			log.debug("routing to serviceProxy with name: " + getServiceProxyName(exc));
@@ -55,7 +55,7 @@ public class UserFeatureInterceptor extends AbstractInterceptor {
 			exc.getDestinations().clear();
 			exc.getDestinations().add(DispatchingInterceptor.getForwardingDestination(exc));
 			// user feature
-			outcome = flowController.invokeRequestHandlers(exc, newRule.getInterceptors());
+			outcome = flowController.invokeRequestHandlers(exc, newRule.getInterceptorChain());
 		}
 		exc.setRule(predecessorRule);
 		return outcome;
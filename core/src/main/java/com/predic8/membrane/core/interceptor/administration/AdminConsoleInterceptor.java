@@ -23,6 +23,7 @@ import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.Header;
 import com.predic8.membrane.core.interceptor.AbstractInterceptor;
 import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
 import com.predic8.membrane.core.interceptor.InterceptorFlowController;
 import com.predic8.membrane.core.interceptor.Outcome;
 import com.predic8.membrane.core.interceptor.rest.RESTInterceptor;
@@ -43,6 +44,7 @@ public class AdminConsoleInterceptor extends AbstractInterceptor {
 
 	// these are the interceptors this interceptor consists of
 	private final List<Interceptor> interceptors = Arrays.asList(new Interceptor[] { r, rai, dapi, wsi });
+	private final InterceptorChain interceptorChain = InterceptorChain.compile(interceptors);
 	private final InterceptorFlowController flowController = new InterceptorFlowController();
 
 	public AdminConsoleInterceptor() {
@@ -54,7 +56,7 @@ public class AdminConsoleInterceptor extends AbstractInterceptor {
 
 	@Override
 	public Outcome handleRequest(Exchange exc) throws Exception {
-		Outcome result = flowController.invokeRequestHandlers(exc, interceptors);
+		Outcome result = flowController.invokeRequestHandlers(exc, interceptorChain);
 
 		if (exc.getRequest().getHeader().getFirstValue(Header.X_REQUESTED_WITH) != null && exc.getResponse() != null)
 			exc.getResponse().getHeader().add(Header.EXPIRES, "-1");
@@ -42,6 +42,8 @@ import com.predic8.membrane.core.Constants;
 import com.predic8.membrane.core.Router;
 import com.predic8.membrane.core.interceptor.AbstractInterceptor;
 import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
+import com.predic8.membrane.core.interceptor.InterceptorStatistics;
 import com.predic8.membrane.core.interceptor.Interceptor.Flow;
 import com.predic8.membrane.core.interceptor.balancer.Balancer;
 import com.predic8.membrane.core.interceptor.balancer.BalancerUtil;
@@ -171,18 +173,26 @@ public class AdminPageBuilder extends Html {
 		}
 	}
 
-	protected void createInterceptorTable(List<Interceptor> interceptors) {
+	protected void createInterceptorTable(InterceptorChain chain) {
 		table().id("interceptortable").attr("cellpadding", "0", "cellspacing", "0", "border", "0", "class", "display", "id", "interceptor-table");
 		thead();
 		tr();
-		createThs("Order", "Name");
+		createThs("Order", "Name", "Sampled Requests", "Avg. Request Time [\u00b5s]", "Max. Request Time [\u00b5s]",
+				"Sampled Responses", "Avg. Response Time [\u00b5s]", "Max. Response Time [\u00b5s]");
 		end();
 		end();
 		tbody();
 		int j = 0;
-		for (Interceptor i : interceptors) {
+		for (int k = 0; k < chain.size(); k++) {
+			Interceptor i = chain.getInterceptor(k);
+			InterceptorStatistics s = chain.getStatistics(k);
 			tr();
-			createTds("" + ++j, i.getDisplayName());
+			if ((chain.getFlags(k) & InterceptorChain.CONDITION) != 0 || s == null)
+				createTds("" + ++j, i.getDisplayName(), "", "", "", "", "", "");
+			else
+				createTds("" + ++j, i.getDisplayName(),
+						"" + s.getRequestCount(), "" + s.getAverageRequestTime(), "" + s.getMaxRequestTime(),
+						"" + s.getResponseCount(), "" + s.getAverageResponseTime(), "" + s.getMaxResponseTime());
 			end();
 		}
 		end();
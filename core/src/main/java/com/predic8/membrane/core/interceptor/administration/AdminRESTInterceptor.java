@@ -18,7 +18,6 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URLEncoder;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -32,6 +31,8 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import com.predic8.membrane.core.exchange.AbstractExchange;
 import com.predic8.membrane.core.exchange.ExchangesUtil;
 import com.predic8.membrane.core.exchangestore.ClientStatistics;
+import com.predic8.membrane.core.exchangestore.ExchangeQuery;
+import com.predic8.membrane.core.exchangestore.ExchangeQueryResult;
 import com.predic8.membrane.core.http.Header;
 import com.predic8.membrane.core.http.HeaderField;
 import com.predic8.membrane.core.http.Message;
@@ -46,6 +47,7 @@ import com.predic8.membrane.core.rules.AbstractServiceProxy;
 import com.predic8.membrane.core.rules.Rule;
 import com.predic8.membrane.core.util.ComparatorFactory;
 import com.predic8.membrane.core.util.TextUtil;
+import com.predic8.membrane.core.util.TopKSelector;
 
 public class AdminRESTInterceptor extends RESTInterceptor {
 
@@ -56,17 +58,18 @@ public class AdminRESTInterceptor extends RESTInterceptor {
 	public Response getClients(QueryParameter params, String relativeRootPath) throws Exception {
 		final List<? extends ClientStatistics> clients = getRouter().getExchangeStore().getClientStatistics();
 
-		Collections.sort(
-				clients,
-				ComparatorFactory.getClientStatisticsComparator(params.getString("sort", "name"),
-						params.getString("order", "asc")));
-
 		int offset = params.getInt("offset", 0);
 		int max = params.getInt("max", clients.size());
 
+		TopKSelector<ClientStatistics> selector = new TopKSelector<ClientStatistics>(
+				ComparatorFactory.getClientStatisticsComparator(params.getString("sort", "name"),
+						params.getString("order", "asc")),
+				(int) Math.min(Integer.MAX_VALUE, (long) offset + max));
+		for (ClientStatistics s : clients)
+			selector.offer(s);
+
 		final int total = clients.size();
-		final List<? extends ClientStatistics> paginated = clients.subList(offset,
-				Math.min(offset + max, clients.size()));
+		final List<ClientStatistics> paginated = selector.getSorted(offset);
 
 		return json( new JSONContent() {
 			public void write(JsonGenerator gen) throws Exception {
@@ -251,57 +254,43 @@ public class AdminRESTInterceptor extends RESTInterceptor {
 			getRouter().getExchangeStore().waitForModification(params.getLong("waitForModification"));
 		}
 
-		List<AbstractExchange> exchanges;
-		synchronized (getRouter().getExchangeStore().getAllExchangesAsList()) {
-			exchanges = new ArrayList<AbstractExchange>(
-					getRouter().getExchangeStore().getAllExchangesAsList());
-		}
-
-		exchanges = filter(params, exchanges);
-
-		Collections.sort(
-				exchanges,
-				ComparatorFactory.getAbstractExchangeComparator(params.getString("sort", "time"),
-						params.getString("order", "desc")));
-
-		int offset = params.getInt("offset", 0);
-		int max = params.getInt("max", exchanges.size());
-
-		final int total = exchanges.size();
-		final List<AbstractExchange> paginated = exchanges.subList(offset,
-				Math.min(offset + max, exchanges.size()));
+		final long lastModified = getRouter().getExchangeStore().getLastModified();
+		final ExchangeQueryResult result = getRouter().getExchangeStore().query(createQuery(params));
 
 		return json( new JSONContent() {
 			public void write(JsonGenerator gen) throws Exception {
 				gen.writeStartObject();
 				gen.writeArrayFieldStart("exchanges");
-				for (AbstractExchange e : paginated) {
+				for (AbstractExchange e : result.getExchanges()) {
 					writeExchange(e, gen);
 				}
 				gen.writeEndArray();
-				gen.writeNumberField("total", total);
-				gen.writeNumberField("lastModified", getRouter().getExchangeStore().getLastModified());
+				gen.writeNumberField("total", result.getTotal());
+				gen.writeNumberField("lastModified", lastModified);
+				if (result.getNextCursor() != null)
+					gen.writeStringField("cursor", result.getNextCursor());
 				gen.writeEndObject();
 			}
 		});
 	}
 
-	private List<AbstractExchange> filter(QueryParameter params,
-			List<AbstractExchange> exchanges) throws Exception {
-
-		List<AbstractExchange> list = new ArrayList<AbstractExchange>();
-		for (AbstractExchange e : exchanges) {
-			if ((!params.has("proxy") || e.getRule().toString().equals(params.getString("proxy"))) &&
-					(!params.has("statuscode") || e.getResponse().getStatusCode() == params.getInt("statuscode")) &&
-					(!params.has("client") || e.getRemoteAddr().equals(params.getString("client"))) &&
-					(!params.has("server") || params.getString("server").equals(e.getServer()==null?"":e.getServer())) &&
-					(!params.has("method") || e.getRequest().getMethod().equals(params.getString("method"))) &&
-					(!params.has("reqcontenttype") || e.getRequestContentType().equals(params.getString("reqcontenttype"))) &&
-					(!params.has("respcontenttype") || e.getResponseContentType().equals(params.getString("respcontenttype")))) {
-				list.add(e);
-			}
-		}
-		return list;
+	private ExchangeQuery createQuery(QueryParameter params) {
+		ExchangeQuery query = new ExchangeQuery();
+		query.setProxy(params.getString("proxy"));
+		if (params.has("statuscode"))
+			query.setStatusCode(params.getInt("statuscode"));
+		query.setClient(params.getString("client"));
+		query.setServer(params.getString("server"));
+		query.setMethod(params.getString("method"));
+		query.setReqContentType(params.getString("reqcontenttype"));
+		query.setRespContentType(params.getString("respcontenttype"));
+		query.setSort(params.getString("sort", ExchangeQuery.SORT_TIME));
+		query.setOrder(params.getString("order", "desc"));
+		query.setOffset(params.getInt("offset", 0));
+		if (params.has("max"))
+			query.setMax(params.getInt("max"));
+		query.setCursor(params.getString("cursor"));
+		return query;
 	}
 
 	private void writeExchange(AbstractExchange exc, JsonGenerator gen)
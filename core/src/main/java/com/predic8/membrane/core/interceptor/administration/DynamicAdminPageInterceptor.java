@@ -156,7 +156,7 @@ public class DynamicAdminPageInterceptor extends AbstractInterceptor {
 				h2().text("Status Codes").end();
 				createStatusCodesTable(rule.getStatisticsByStatusCodes());
 				h2().text("Interceptors").end();
-				createInterceptorTable(rule.getInterceptors());
+				createInterceptorTable(rule.getInterceptorChain());
 			}
 
 		}.createPage());
@@ -249,7 +249,7 @@ public class DynamicAdminPageInterceptor extends AbstractInterceptor {
 				h2().text("Transport").end();
 
 				h3().text("Transport Interceptors").end();
-				createInterceptorTable(router.getTransport().getInterceptors());
+				createInterceptorTable(router.getTransport().getInterceptorChain());
 			}
 
 		}.createPage());
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.interceptor.apimanagement;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Counts within fixed time windows ("epochs") of a policy, e.g. the requests of one API key.
+ *
+ * The counter is reset lazily: the first access within a new epoch replaces the window. So no
+ * periodic sweep over all counters is needed, and no locks are taken.
+ */
+public class WindowedCounter {
+
+    private static class Window {
+        final long epoch;
+        final AtomicLong count = new AtomicLong();
+
+        Window(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    private final AtomicReference<Window> window = new AtomicReference<Window>(new Window(Long.MIN_VALUE));
+
+    private Window getWindow(long epoch) {
+        while (true) {
+            Window w = window.get();
+            if (w.epoch >= epoch)
+                return w;
+            Window n = new Window(epoch);
+            if (window.compareAndSet(w, n))
+                return n;
+        }
+    }
+
+    /**
+     * @return the count within the epoch, after adding delta.
+     */
+    public long add(long epoch, long delta) {
+        return getWindow(epoch).count.addAndGet(delta);
+    }
+
+    /**
+     * @return the count within the epoch.
+     */
+    public long get(long epoch) {
+        Window w = window.get();
+        return w.epoch == epoch ? w.count.get() : 0;
+    }
+}
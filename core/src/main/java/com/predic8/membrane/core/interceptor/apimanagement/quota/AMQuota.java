@@ -34,9 +34,9 @@ import org.joda.time.format.DateTimeFormatter;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Unfinished
@@ -47,8 +47,8 @@ public class AMQuota {
     private static Logger log = LoggerFactory.getLogger(AMQuota.class);
     private ApiManagementConfiguration amc;
 
-    public ConcurrentHashMap<String, ApiKeyByteCounter> keyByteCounter = new ConcurrentHashMap<String, ApiKeyByteCounter>();
-    public ConcurrentHashMap<String, PolicyQuota> policyQuotas = new ConcurrentHashMap<String, PolicyQuota>();
+    public volatile ConcurrentHashMap<String, ApiKeyByteCounter> keyByteCounter = new ConcurrentHashMap<String, ApiKeyByteCounter>();
+    public volatile ConcurrentHashMap<String, PolicyQuota> policyQuotas = new ConcurrentHashMap<String, PolicyQuota>();
 
     public ApiManagementConfiguration getAmc() {
         return amc;
@@ -59,7 +59,6 @@ public class AMQuota {
         public void run() {
             log.info("Getting new config");
             fillPolicyQuotas();
-            keyByteCounter = new ConcurrentHashMap<>();
         }
     };
 
@@ -73,7 +72,7 @@ public class AMQuota {
     }
 
     private void fillPolicyQuotas() {
-        policyQuotas.clear();
+        ConcurrentHashMap<String, PolicyQuota> policyQuotas = new ConcurrentHashMap<String, PolicyQuota>();
         for(Policy policy : amc.getPolicies().values()){
             String name = policy.getName();
             long quotaSize = policy.getQuota().getSize();
@@ -83,10 +82,11 @@ public class AMQuota {
             pq.setName(name);
             pq.setSize(quotaSize);
             pq.setInterval(Duration.standardSeconds(interval));
-            pq.incrementNextCleanup();
             pq.setServices(services);
             policyQuotas.put(name,pq);
         }
+        this.policyQuotas = policyQuotas;
+        keyByteCounter = new ConcurrentHashMap<String, ApiKeyByteCounter>();
     }
 
 
@@ -142,71 +142,40 @@ public class AMQuota {
     }
 
     private QuotaReachedAnswer isQuotaReached(Message msg, String requestedService, String apiKey) {
-        doCleanup();
-        long size = msg.getHeader().toString().getBytes().length + msg.getHeader().getContentLength();
-        addRequestEntry(apiKey, size);
-        ApiKeyByteCounter info = keyByteCounter.get(apiKey);
-        boolean resultTemp = false;
-        PolicyQuota pqTemp = null;
-        synchronized (info){
-            for (String policy : info.getPolicyByteCounters().keySet()) {
-                PolicyQuota pq = policyQuotas.get(policy);
-                if (!pq.getServices().contains(requestedService)) {
-                    // the service is not in this policy
-                    //System.out.println("service not found in " + policy);
-                    continue;
-                }
-                if (info.getPolicyByteCounters().get(policy).get() > pq.getSize()) {
-                    resultTemp = true;
-                    pqTemp = pq;
-                    //System.out.println("limit reached for " + policy);
-                    continue;
-                }
-                // if atleast one policy has available quota, then let it through
-                resultTemp = false;
-                //System.out.println("limit not reached for " + policy);
-                break;
-            }
-        }
-        if(resultTemp){
-            return QuotaReachedAnswer.createQuotaReached(pqTemp);
-        }else{
-            return QuotaReachedAnswer.createQuotaNotReached();
-        }
-    }
-
-    private void addRequestEntry(String apiKey, long sizeOfBytes) {
-        synchronized (keyByteCounter) {
-            if (!keyByteCounter.containsKey(apiKey)) {
-                ApiKeyByteCounter value = new ApiKeyByteCounter();
-                Key key = amc.getKeys().get(apiKey);
-                for(Policy p : key.getPolicies()){
-                    value.getPolicyByteCounters().put(p.getName(), new AtomicLong());
-                }
-                keyByteCounter.put(apiKey, value);
-            }
+        long size = msg.getWireLength();
+        ApiKeyByteCounter info = getByteCounter(apiKey);
+        long now = System.currentTimeMillis();
+        PolicyQuota reached = null;
+        boolean available = false;
+        for (int i = 0; i < info.policies.length; i++) {
+            PolicyQuota pq = info.policies[i];
+            if (!pq.getServices().contains(requestedService))
+                continue; // the service is not in this policy
+            if (info.counters[i].add(pq.getEpoch(now), size) > pq.getSize())
+                reached = pq;
+            else
+                available = true;
         }
 
-        ApiKeyByteCounter keyInfo = keyByteCounter.get(apiKey);
-        for(AtomicLong counter : keyInfo.getPolicyByteCounters().values()) {
-            counter.addAndGet(sizeOfBytes);
-        }
+        // if atleast one policy has available quota, then let it through
+        if (reached != null && !available)
+            return QuotaReachedAnswer.createQuotaReached(reached);
+        return QuotaReachedAnswer.createQuotaNotReached();
     }
 
-    private void doCleanup() {
-        synchronized (policyQuotas) {
-            for (PolicyQuota pq : policyQuotas.values()) {
-                if (DateTime.now().isAfter(pq.getNextCleanup())) {
-                    for(ApiKeyByteCounter keyInfo : keyByteCounter.values()){
-                        if(keyInfo.getPolicyByteCounters().keySet().contains(pq.getName())){
-                            keyInfo.getPolicyByteCounters().get(pq.getName()).set(0);
-                        }
-                    }
-                    pq.incrementNextCleanup();
-                }
-            }
-        }
+    private ApiKeyByteCounter getByteCounter(String apiKey) {
+        ConcurrentHashMap<String, ApiKeyByteCounter> keyByteCounter = this.keyByteCounter;
+        ApiKeyByteCounter info = keyByteCounter.get(apiKey);
+        if (info != null)
+            return info;
+        ArrayList<PolicyQuota> policies = new ArrayList<PolicyQuota>();
+        Key key = amc.getKeys().get(apiKey);
+        if (key != null)
+            for (Policy p : key.getPolicies())
+                if (policyQuotas.containsKey(p.getName()))
+                    policies.add(policyQuotas.get(p.getName()));
+        info = new ApiKeyByteCounter(policies);
+        ApiKeyByteCounter existing = keyByteCounter.putIfAbsent(apiKey, info);
+        return existing != null ? existing : info;
     }
-
-
 }
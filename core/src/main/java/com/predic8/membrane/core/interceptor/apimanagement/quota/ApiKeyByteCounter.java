@@ -13,17 +13,32 @@
 
 package com.predic8.membrane.core.interceptor.apimanagement.quota;
 
-import java.util.HashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import com.predic8.membrane.core.interceptor.apimanagement.WindowedCounter;
 
+import java.util.Collection;
+
+/**
+ * The byte counters of one API key, one per policy of the key having a quota.
+ */
 public class ApiKeyByteCounter {
-    private HashMap<String,AtomicLong> policyByteCounters = new HashMap<String, AtomicLong>();
 
-    public HashMap<String, AtomicLong> getPolicyByteCounters() {
-        return policyByteCounters;
+    final PolicyQuota[] policies;
+    final WindowedCounter[] counters;
+
+    public ApiKeyByteCounter(Collection<PolicyQuota> policies) {
+        this.policies = policies.toArray(new PolicyQuota[policies.size()]);
+        counters = new WindowedCounter[this.policies.length];
+        for (int i = 0; i < counters.length; i++)
+            counters[i] = new WindowedCounter();
     }
 
-    public void setPolicyByteCounters(HashMap<String, AtomicLong> policyByteCounters) {
-        this.policyByteCounters = policyByteCounters;
+    /**
+     * @return the number of bytes counted for the policy in its current interval.
+     */
+    public long getCount(String policy) {
+        for (int i = 0; i < policies.length; i++)
+            if (policies[i].getName().equals(policy))
+                return counters[i].get(policies[i].getEpoch(System.currentTimeMillis()));
+        return 0;
     }
 }
@@ -23,7 +23,7 @@ public class PolicyQuota {
     private String name;
     private long size;
     private Duration interval;
-    private DateTime nextCleanup;
+    private long start = System.currentTimeMillis();
     private HashSet<String> services = new HashSet<String>();
 
     public String getName() {
@@ -50,8 +50,15 @@ public class PolicyQuota {
         this.interval = interval;
     }
 
-    public void incrementNextCleanup(){
-        setNextCleanup(DateTime.now().plus(interval));
+    /**
+     * @return the number of the interval (counting from the creation of the policy) the point in time lies in.
+     */
+    public long getEpoch(long now) {
+        return (now - start) / getIntervalMillis();
+    }
+
+    private long getIntervalMillis() {
+        return Math.max(1, interval.getMillis());
     }
 
     public HashSet<String> getServices() {
@@ -62,11 +69,10 @@ public class PolicyQuota {
         this.services = services;
     }
 
+    /**
+     * @return the end of the current interval.
+     */
     public DateTime getNextCleanup() {
-        return nextCleanup;
-    }
-
-    public void setNextCleanup(DateTime nextCleanup) {
-        this.nextCleanup = nextCleanup;
+        return new DateTime(start + (getEpoch(System.currentTimeMillis()) + 1) * getIntervalMillis());
     }
 }
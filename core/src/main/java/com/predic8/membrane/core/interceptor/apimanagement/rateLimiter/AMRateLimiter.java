@@ -35,10 +35,10 @@ import org.joda.time.format.PeriodFormat;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 @MCElement(name="amRateLimiter")
 public class AMRateLimiter {
@@ -46,8 +46,8 @@ public class AMRateLimiter {
     private static Logger log = LoggerFactory.getLogger(AMRateLimiter.class);
     private ApiManagementConfiguration amc;
 
-    public ConcurrentHashMap<String, ApiKeyRequestCounter> keyInformation = new ConcurrentHashMap<String, ApiKeyRequestCounter>();
-    public ConcurrentHashMap<String, PolicyRateLimit> policyRateLimits = new ConcurrentHashMap<String, PolicyRateLimit>();
+    public volatile ConcurrentHashMap<String, ApiKeyRequestCounter> keyInformation = new ConcurrentHashMap<String, ApiKeyRequestCounter>();
+    public volatile ConcurrentHashMap<String, PolicyRateLimit> policyRateLimits = new ConcurrentHashMap<String, PolicyRateLimit>();
 
     public ApiManagementConfiguration getAmc() {
         return amc;
@@ -57,8 +57,7 @@ public class AMRateLimiter {
         @Override
         public void run() {
             log.info("Getting new config");
-            keyInformation = new ConcurrentHashMap<>();
-            fillPolicyCleanupTimes();
+            fillPolicyRateLimits();
         }
     };
 
@@ -67,12 +66,12 @@ public class AMRateLimiter {
             this.amc.configChangeObservers.remove(observer);
         }
         this.amc = amc;
-        fillPolicyCleanupTimes();
+        fillPolicyRateLimits();
         amc.configChangeObservers.add(observer);
     }
 
-    private void fillPolicyCleanupTimes() {
-        policyRateLimits.clear();
+    private void fillPolicyRateLimits() {
+        ConcurrentHashMap<String, PolicyRateLimit> policyRateLimits = new ConcurrentHashMap<String, PolicyRateLimit>();
         for(Policy policy : amc.getPolicies().values()){
             String name = policy.getName();
             int requests = policy.getRateLimit().getRequests();
@@ -83,9 +82,10 @@ public class AMRateLimiter {
             prl.setRequests(requests);
             prl.setInterval(interval);
             prl.setServices(services);
-            prl.incrementNextCleanup();
             policyRateLimits.put(name,prl);
         }
+        this.policyRateLimits = policyRateLimits;
+        keyInformation = new ConcurrentHashMap<String, ApiKeyRequestCounter>();
     }
 
     public Outcome handleRequest(Exchange exc) throws Exception {
@@ -143,69 +143,39 @@ public class AMRateLimiter {
     }
 
     public LimitReachedAnswer isRequestLimitReached(String service, String apiKey) {
-        doCleanup();
-        addRequestEntry(apiKey);
-        ApiKeyRequestCounter info = keyInformation.get(apiKey);
-        boolean resultTemp = false;
-        PolicyRateLimit prlTemp = null;
-        synchronized(info) {
-            for (String policy : info.getPolicyCounters().keySet()) {
-                PolicyRateLimit prl = policyRateLimits.get(policy);
-                if (!prl.getServices().contains(service)) {
-                    // the service is not in this policy
-                    //System.out.println("service not found in " + policy);
-                    continue;
-                }
-                if (info.getPolicyCounters().get(policy).get() > prl.getRequests()) {
-                    resultTemp = true;
-                    prlTemp = prl;
-                    //System.out.println("limit reached for " + policy);
-                    continue;
-                }
-                // if atleast one policy has available requests, then let it through
-                resultTemp = false;
-                //System.out.println("limit not reached for " + policy);
-                break;
-            }
+        ApiKeyRequestCounter info = getRequestCounter(apiKey);
+        long now = System.currentTimeMillis();
+        PolicyRateLimit reached = null;
+        boolean available = false;
+        for (int i = 0; i < info.policies.length; i++) {
+            PolicyRateLimit prl = info.policies[i];
+            if (!prl.getServices().contains(service))
+                continue; // the service is not in this policy
+            if (info.counters[i].add(prl.getEpoch(now), 1) > prl.getRequests())
+                reached = prl;
+            else
+                available = true;
         }
 
-        if(resultTemp){
-            return LimitReachedAnswer.createLimitReached(prlTemp);
-        }else{
-            return LimitReachedAnswer.createLimitNotReached();
-        }
-    }
-
-    private void doCleanup(){
-        synchronized (policyRateLimits) {
-            for (PolicyRateLimit prl : policyRateLimits.values()) {
-                if (DateTime.now().isAfter(prl.getNextCleanup())) {
-                    for(ApiKeyRequestCounter keyInfo : keyInformation.values()){
-                        if(keyInfo.getPolicyCounters().keySet().contains(prl.getName())){
-                            keyInfo.getPolicyCounters().get(prl.getName()).set(0);
-                        }
-                    }
-                    prl.incrementNextCleanup();
-                }
-            }
-        }
+        // if atleast one policy has available requests, then let it through
+        if (reached != null && !available)
+            return LimitReachedAnswer.createLimitReached(reached);
+        return LimitReachedAnswer.createLimitNotReached();
     }
 
-    private void addRequestEntry(String apiKey) {
-        synchronized (keyInformation) {
-            if (!keyInformation.containsKey(apiKey)) {
-                ApiKeyRequestCounter value = new ApiKeyRequestCounter();
-                Key key = amc.getKeys().get(apiKey);
-                for(Policy p : key.getPolicies()){
-                    value.getPolicyCounters().put(p.getName(), new AtomicInteger());
-                }
-                keyInformation.put(apiKey, value);
-            }
-        }
-
-        ApiKeyRequestCounter keyInfo = keyInformation.get(apiKey);
-        for(AtomicInteger counter : keyInfo.getPolicyCounters().values()) {
-            counter.incrementAndGet();
-        }
+    private ApiKeyRequestCounter getRequestCounter(String apiKey) {
+        ConcurrentHashMap<String, ApiKeyRequestCounter> keyInformation = this.keyInformation;
+        ApiKeyRequestCounter info = keyInformation.get(apiKey);
+        if (info != null)
+            return info;
+        ArrayList<PolicyRateLimit> policies = new ArrayList<PolicyRateLimit>();
+        Key key = amc.getKeys().get(apiKey);
+        if (key != null)
+            for (Policy p : key.getPolicies())
+                if (policyRateLimits.containsKey(p.getName()))
+                    policies.add(policyRateLimits.get(p.getName()));
+        info = new ApiKeyRequestCounter(policies);
+        ApiKeyRequestCounter existing = keyInformation.putIfAbsent(apiKey, info);
+        return existing != null ? existing : info;
     }
 }
@@ -13,18 +13,32 @@
 
 package com.predic8.membrane.core.interceptor.apimanagement.rateLimiter;
 
-import java.util.HashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import com.predic8.membrane.core.interceptor.apimanagement.WindowedCounter;
 
+import java.util.Collection;
+
+/**
+ * The request counters of one API key, one per rate limited policy of the key.
+ */
 public class ApiKeyRequestCounter {
 
-    private HashMap<String,AtomicInteger> policyCounters = new HashMap<String, AtomicInteger>();
+    final PolicyRateLimit[] policies;
+    final WindowedCounter[] counters;
 
-    public HashMap<String, AtomicInteger> getPolicyCounters() {
-        return policyCounters;
+    public ApiKeyRequestCounter(Collection<PolicyRateLimit> policies) {
+        this.policies = policies.toArray(new PolicyRateLimit[policies.size()]);
+        counters = new WindowedCounter[this.policies.length];
+        for (int i = 0; i < counters.length; i++)
+            counters[i] = new WindowedCounter();
     }
 
-    public void setPolicyCounters(HashMap<String, AtomicInteger> policyCounters) {
-        this.policyCounters = policyCounters;
+    /**
+     * @return the number of requests counted for the policy in its current interval.
+     */
+    public long getCount(String policy) {
+        for (int i = 0; i < policies.length; i++)
+            if (policies[i].getName().equals(policy))
+                return counters[i].get(policies[i].getEpoch(System.currentTimeMillis()));
+        return 0;
     }
 }
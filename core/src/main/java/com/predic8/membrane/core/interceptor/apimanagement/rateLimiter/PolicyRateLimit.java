@@ -22,7 +22,7 @@ public class PolicyRateLimit {
     private String name;
     private int requests;
     private Duration interval;
-    private DateTime nextCleanup;
+    private long start = System.currentTimeMillis();
     private HashSet<String> services = new HashSet<String>();
 
     public Duration getInterval() {
@@ -33,12 +33,22 @@ public class PolicyRateLimit {
         this.interval = interval;
     }
 
-    public DateTime getNextCleanup() {
-        return nextCleanup;
+    /**
+     * @return the number of the interval (counting from the creation of the policy) the point in time lies in.
+     */
+    public long getEpoch(long now) {
+        return (now - start) / getIntervalMillis();
+    }
+
+    private long getIntervalMillis() {
+        return Math.max(1, interval.getMillis());
     }
 
-    public void incrementNextCleanup(){
-        nextCleanup = DateTime.now().plus(interval);
+    /**
+     * @return the end of the current interval.
+     */
+    public DateTime getNextCleanup() {
+        return new DateTime(start + (getEpoch(System.currentTimeMillis()) + 1) * getIntervalMillis());
     }
 
     public int getRequests() {
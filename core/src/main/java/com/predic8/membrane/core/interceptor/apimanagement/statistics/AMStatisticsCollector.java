@@ -20,8 +20,8 @@ import com.predic8.membrane.annot.MCElement;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.*;
 import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.apimanagement.statistics.KeyStatistics.ExchangeTrace;
 import com.predic8.membrane.core.model.AbstractExchangeViewerListener;
-import com.predic8.membrane.core.rules.StatisticCollector;
 import com.predic8.membrane.core.transport.http.HttpClient;
 import com.predic8.membrane.core.transport.http.client.HttpClientConfiguration;
 import org.apache.commons.codec.binary.Base64;
@@ -33,16 +33,27 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Collects statistics about the exchanges of API keys and ships them to Elasticsearch.
+ *
+ * When an exchange finishes, only the fields needed are copied into the {@link KeyStatistics} of its API key.
+ * A collector thread takes these every collectTimeInSeconds and ships them using the bulk API, at most
+ * bulkSize exchanges per request. While shipping is slow, at most maxRecords exchanges are buffered: further
+ * exchanges are only counted in the aggregated statistics of their API key.
+ */
 @MCElement(name="amStatisticsCollector")
 public class AMStatisticsCollector {
 
     private static Logger log = LoggerFactory.getLogger(AMStatisticsCollector.class);
     public static final String API_STATISTICS_PATH = "/api/statistics/";
     public static final String API_EXCHANGES_PATH = "/api/exchanges/";
+    public static final String API_AGGREGATES_PATH = "/api/aggregates/";
     boolean shutdown = false;
     private int collectTimeInSeconds = 10;
     static final String localHostname;
@@ -51,10 +62,10 @@ public class AMStatisticsCollector {
     String host = "localhost";
     private String clientId = null;
     private String clientSecret = null;
+    private int maxRecords = 100000;
+    private int bulkSize = 1000;
 
     JsonFactory jsonFactory = new JsonFactory();
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-    JsonGenerator jsonGenerator;
     HttpClient client;
 
     boolean traceStatistics = true;
@@ -62,7 +73,9 @@ public class AMStatisticsCollector {
     boolean traceIncludesHeader = true;
     int bodyBytes = -1;
 
-    ConcurrentHashMap<String, ConcurrentLinkedQueue<Exchange>> exchangesForApiKey = new ConcurrentHashMap<String, ConcurrentLinkedQueue<Exchange>>();
+    ConcurrentHashMap<String, KeyStatistics> statisticsForApiKey = new ConcurrentHashMap<String, KeyStatistics>();
+    private final AtomicInteger bufferedRecords = new AtomicInteger();
+    private final Object shutdownLock = new Object();
 
     ExecutorService collectorThread = Executors.newFixedThreadPool(1);
 
@@ -73,186 +86,248 @@ public class AMStatisticsCollector {
     public AMStatisticsCollector() {
         HttpClientConfiguration conf = new HttpClientConfiguration();
         client =  new HttpClient(conf);
-        try {
-            jsonGenerator = jsonFactory.createGenerator(baos);
-        } catch (IOException ignored) {
-        }
+        jsonFactory.setRootValueSeparator(null);
 
         collectorThread.submit(new Runnable() {
             @Override
             public void run() {
                 while (true) {
-                    try {
-                        Exchange exc = null;
-                        ArrayList<String> jsonStatisticsForApiKey = new ArrayList<String>();
-                        ArrayList<String> jsonExchangesForApiKey = new ArrayList<String>();
-                        for (String apiKey : exchangesForApiKey.keySet()) {
-                            while ((exc = exchangesForApiKey.get(apiKey).poll()) != null) {
-                                String exchangeStatistics = null;
-                                String exchangeData = null;
-                                if (traceStatistics) {
-                                    try {
-                                        exchangeStatistics = collectStatisticFrom(exc, apiKey);
-                                        jsonStatisticsForApiKey.add(exchangeStatistics);
-                                    } catch (Exception ignored) {
-                                        continue;
-                                    }
-
-                                }
-                                if (traceExchanges) {
-                                    try {
-                                        exchangeData = collectExchangeDataFrom(exc, apiKey);
-                                        jsonExchangesForApiKey.add(exchangeData);
-                                    } catch (Exception ignored) {
-                                        continue;
-                                    }
-                                }
+                    boolean last;
+                    synchronized (shutdownLock) {
+                        if (!shutdown) {
+                            try {
+                                shutdownLock.wait(getCollectTimeInSeconds() * 1000L);
+                            } catch (InterruptedException e) {
+                                shutdown = true;
                             }
                         }
-                        if (!jsonStatisticsForApiKey.isEmpty())
-                            sendJsonToElasticSearch(API_STATISTICS_PATH, combineJsons(localHostname, jsonStatisticsForApiKey));
-                        if (!jsonExchangesForApiKey.isEmpty())
-                            sendJsonToElasticSearch(API_EXCHANGES_PATH, combineJsons(localHostname, jsonExchangesForApiKey));
-                        runningId.incrementAndGet();
-                        if (shutdown)
-                            break;
-                        Thread.sleep(getCollectTimeInSeconds() * 1000);
-
+                        last = shutdown;
+                    }
+                    try {
+                        ship(drain());
                     } catch (Exception e) {
-                        e.printStackTrace();
+                        log.warn("Could not ship statistics.", e);
                     }
+                    if (last)
+                        break;
                 }
             }
         });
     }
 
-    private String collectExchangeDataFrom(Exchange exc, String apiKey) throws IOException {
-        JsonGenerator gen = getAndResetJsonGenerator();
-
-        try {
-            gen.writeStartObject();
-            gen.writeObjectField("excId", exc.getId());
-            gen.writeObjectField("excTime", exc.getTime().toInstant().toString());
-            gen.writeObjectField("excApiKey", apiKey);
-            gen.writeObjectField("service", exc.getRule().getName());
-            gen.writeObjectField("uri", exc.getOriginalRequestUri());
-            gen.writeObjectField("method", exc.getRequest().getMethod());
-            gen.writeObjectFieldStart("Request");
-            collectFromMessage(gen, exc.getRequest());
-            gen.writeEndObject();
-            gen.writeObjectFieldStart("Response");
-            collectFromMessage(gen, exc.getResponse());
-            gen.writeEndObject();
-            gen.writeEndObject();
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Takes the statistics of all API keys collected so far.
+     */
+    List<KeyStatistics> drain() {
+        List<KeyStatistics> result = new ArrayList<KeyStatistics>();
+        for (String apiKey : statisticsForApiKey.keySet()) {
+            KeyStatistics statistics = statisticsForApiKey.remove(apiKey);
+            if (statistics == null)
+                continue;
+            statistics.close();
+            bufferedRecords.addAndGet(-statistics.size);
+            result.add(statistics);
         }
-        return getStringFromJsonGenerator();
+        return result;
     }
 
-    private void collectFromMessage(JsonGenerator gen, Message msg) {
-        try {
-            if (traceIncludesHeader) {
-                if (msg.getHeader().getAllHeaderFields().length > 0) {
-                    gen.writeObjectFieldStart("headers");
-                    for (HeaderField hf : msg.getHeader().getAllHeaderFields()) {
-                        gen.writeObjectField(hf.getHeaderName().toString(), hf.getValue());
-                    }
-                    gen.writeEndObject();
+    private void ship(List<KeyStatistics> statistics) throws Exception {
+        if (statistics.isEmpty())
+            return;
+        BulkRequest bulk = new BulkRequest();
+        if (traceStatistics) {
+            for (KeyStatistics s : statistics) {
+                for (int i = 0; i < s.size; i++) {
+                    bulk.startDocument(API_STATISTICS_PATH);
+                    writeStatistic(bulk.gen, s, i);
+                    bulk = sendIfFull(bulk);
                 }
             }
-            String body = getBody(msg);
-            if (body.length() > 0)
-                gen.writeObjectField("body", body);
-        } catch (IOException e) {
-            e.printStackTrace();
         }
+        if (traceExchanges) {
+            for (KeyStatistics s : statistics) {
+                for (ExchangeTrace trace : s.traces) {
+                    bulk.startDocument(API_EXCHANGES_PATH);
+                    writeExchange(bulk.gen, s.apiKey, trace);
+                    bulk = sendIfFull(bulk);
+                }
+            }
+        }
+        long to = System.currentTimeMillis();
+        for (KeyStatistics s : statistics)
+            bulk.addAggregate(s, to);
+        send(bulk);
     }
 
-    private String getBody(Message msg) {
-        String origBody = msg.getBodyAsStringDecoded();
-        if (bodyBytes == -1)
-            return origBody.substring(0, origBody.length());
-
-        return origBody.substring(0, bodyBytes);
-    }
-
-
-    private String getLocalMachineNameWithSuffix() {
-        return localHostname + "-" + startTime + "-" + runningId.get();
+    private BulkRequest sendIfFull(BulkRequest bulk) throws Exception {
+        if (++bulk.rows < bulkSize)
+            return bulk;
+        send(bulk);
+        return new BulkRequest();
     }
 
-    private void sendJsonToElasticSearch(String path, String json) throws Exception {
-        Response resp = null;
-        synchronized (client) {
-            Exchange exc = new Request.Builder().put(getElasticSearchPath(path))
-                    .body(json)
-                    .buildExchange();
+    /**
+     * An Elasticsearch bulk request. The statistics and exchange documents keep their previous layout: one
+     * document per type and request, holding the records in an array named by the local hostname.
+     */
+    private class BulkRequest {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final JsonGenerator gen;
+        final String id = getLocalMachineNameWithSuffix();
+        String openDocument;
+        int rows;
+
+        BulkRequest() throws IOException {
+            gen = jsonFactory.createGenerator(baos);
+            runningId.incrementAndGet();
+        }
 
-            if(clientId != null && clientSecret != null)
-                exc.getRequest().getHeader().add(Header.AUTHORIZATION, "Basic " + new String(Base64.encodeBase64((clientId + ":" + clientSecret).getBytes("UTF-8")), "UTF-8"));
+        void startDocument(String path) throws IOException {
+            if (path.equals(openDocument))
+                return;
+            endDocument();
+            writeAction(path, id);
+            gen.writeStartObject();
+            gen.writeArrayFieldStart(localHostname);
+            openDocument = path;
+        }
 
-            resp = client.call(exc).getResponse();
+        private void endDocument() throws IOException {
+            if (openDocument == null)
+                return;
+            gen.writeEndArray();
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+            openDocument = null;
         }
-        if (!resp.isOk())
-            log.warn("Could not send statistics to elastic search instance. Response: " + resp.getStatusCode() + " - " + resp.getStatusMessage() + " - " + resp.getBodyAsStringDecoded());
-    }
 
-    private String combineJsons(String name, ArrayList<String> jsonStatisticsForRequests) throws IOException {
-        JsonGenerator gen = getAndResetJsonGenerator();
+        void addAggregate(KeyStatistics s, long to) throws IOException {
+            endDocument();
+            writeAction(API_AGGREGATES_PATH, id + "-" + s.apiKey);
+            gen.writeStartObject();
+            gen.writeStringField("excApiKey", s.apiKey);
+            gen.writeStringField("host", localHostname);
+            gen.writeStringField("from", Instant.ofEpochMilli(s.from).toString());
+            gen.writeStringField("to", Instant.ofEpochMilli(to).toString());
+            gen.writeNumberField("count", s.count);
+            gen.writeNumberField("dropped", s.dropped);
+            gen.writeNumberField("totalTime", s.totalTime);
+            gen.writeNumberField("maxTime", s.maxTime);
+            gen.writeObjectFieldStart("codes");
+            for (int i = 1; i < s.statusClasses.length; i++)
+                if (s.statusClasses[i] > 0)
+                    gen.writeNumberField(i + "xx", s.statusClasses[i]);
+            if (s.statusClasses[0] > 0)
+                gen.writeNumberField("other", s.statusClasses[0]);
+            gen.writeEndObject();
+            gen.writeEndObject();
+            gen.writeRaw('\n');
+            rows++;
+        }
 
-        try {
+        private void writeAction(String path, String id) throws IOException {
+            String[] indexAndType = normalizePath(path).substring(1).split("/");
             gen.writeStartObject();
-            gen.writeArrayFieldStart(name);
-            if (!jsonStatisticsForRequests.isEmpty())
-                gen.writeRaw(jsonStatisticsForRequests.get(0));
-            for (int i = 1; i < jsonStatisticsForRequests.size(); i++) {
-                gen.writeRaw("," + jsonStatisticsForRequests.get(i));
-            }
-            gen.writeEndArray();
+            gen.writeObjectFieldStart("index");
+            gen.writeStringField("_index", indexAndType[0]);
+            gen.writeStringField("_type", indexAndType[1]);
+            gen.writeStringField("_id", id);
             gen.writeEndObject();
-        } catch (IOException e) {
-            e.printStackTrace();
+            gen.writeEndObject();
+            gen.writeRaw('\n');
         }
-        return getStringFromJsonGenerator();
-    }
 
-    private String collectStatisticFrom(Exchange exc, String apiKey) throws IOException {
-        StatisticCollector statistics = new StatisticCollector(false);
-        statistics.collectFrom(exc);
+        byte[] finish() throws IOException {
+            endDocument();
+            gen.close();
+            return baos.toByteArray();
+        }
+    }
 
-        JsonGenerator gen = getAndResetJsonGenerator();
+    private void writeStatistic(JsonGenerator gen, KeyStatistics s, int i) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("excId", s.ids[i]);
+        gen.writeStringField("excTime", Instant.ofEpochMilli(s.times[i]).toString());
+        gen.writeStringField("excApiKey", s.apiKey);
+        gen.writeStringField("service", s.services[i]);
+        gen.writeStringField("uri", s.uris[i]);
+        gen.writeStringField("method", s.methods[i]);
+        gen.writeStringField("excStatus", s.states[i]);
+        gen.writeNumberField("code", s.codes[i]);
+        gen.writeNumberField("time", s.durations[i]);
+        gen.writeEndObject();
+    }
 
+    private void writeExchange(JsonGenerator gen, String apiKey, ExchangeTrace trace) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("excId", trace.id);
+        gen.writeStringField("excTime", Instant.ofEpochMilli(trace.time).toString());
+        gen.writeStringField("excApiKey", apiKey);
+        gen.writeStringField("service", trace.service);
+        gen.writeStringField("uri", trace.uri);
+        gen.writeStringField("method", trace.method);
+        gen.writeObjectFieldStart("Request");
+        writeMessage(gen, trace.requestHeaders, trace.requestBody);
+        gen.writeEndObject();
+        gen.writeObjectFieldStart("Response");
+        writeMessage(gen, trace.responseHeaders, trace.responseBody);
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
 
-        try {
-            gen.writeStartObject();
-            gen.writeObjectField("excId", exc.getId());
-            gen.writeObjectField("excTime", exc.getTime().toInstant().toString());
-            gen.writeObjectField("excApiKey", apiKey);
-            gen.writeObjectField("service", exc.getRule().getName());
-            gen.writeObjectField("uri", exc.getOriginalRequestUri());
-            gen.writeObjectField("method", exc.getRequest().getMethod());
-            gen.writeObjectField("excStatus", exc.getStatus().toString());
-            gen.writeObjectField("code", exc.getResponse().getStatusCode());
-            gen.writeObjectField("time", getInflightTime(exc));
+    private void writeMessage(JsonGenerator gen, String[] headers, String body) throws IOException {
+        if (headers != null && headers.length > 0) {
+            gen.writeObjectFieldStart("headers");
+            for (int i = 0; i < headers.length; i += 2)
+                gen.writeStringField(headers[i], headers[i + 1]);
             gen.writeEndObject();
-        } catch (IOException e) {
-            e.printStackTrace();
         }
-        return getStringFromJsonGenerator();
+        if (body != null && body.length() > 0)
+            gen.writeStringField("body", body);
     }
 
-    private long getInflightTime(Exchange exc) {
-        if (exc.getTimeReqSent() == 0)
-            return -1;
-        else
-            return exc.getTimeResSent() - exc.getTimeReqSent();
+    private String[] getHeaders(Message msg) {
+        if (!traceIncludesHeader)
+            return null;
+        HeaderField[] fields = msg.getHeader().getAllHeaderFields();
+        String[] headers = new String[fields.length * 2];
+        for (int i = 0; i < fields.length; i++) {
+            headers[2 * i] = fields[i].getHeaderName().toString();
+            headers[2 * i + 1] = fields[i].getValue();
+        }
+        return headers;
     }
 
-    private String getElasticSearchPath(String path) {
-//        if(host.equals("localhost"))
-//            return "http://" + getHost() + ":" + elasticSearchPort + normalizePath(path) + getLocalMachineNameWithSuffix();
-        return getHost() + normalizePath(path) + getLocalMachineNameWithSuffix();
+    private String getBody(Message msg) {
+        String origBody = msg.getBodyAsStringDecoded();
+        if (bodyBytes == -1 || origBody.length() <= bodyBytes)
+            return origBody;
+
+        return origBody.substring(0, bodyBytes);
+    }
+
+
+    private String getLocalMachineNameWithSuffix() {
+        return localHostname + "-" + startTime + "-" + runningId.get();
+    }
+
+    private void send(BulkRequest bulk) throws Exception {
+        if (bulk.rows == 0)
+            return;
+        Exchange exc = new Request.Builder().post(getHost() + "/_bulk")
+                .header(Header.CONTENT_TYPE, "application/x-ndjson")
+                .body(bulk.finish())
+                .buildExchange();
+
+        if(clientId != null && clientSecret != null)
+            exc.getRequest().getHeader().add(Header.AUTHORIZATION, "Basic " + new String(Base64.encodeBase64((clientId + ":" + clientSecret).getBytes("UTF-8")), "UTF-8"));
+
+        Response resp = client.call(exc).getResponse();
+        String body = resp.getBodyAsStringDecoded();
+        if (!resp.isOk())
+            log.warn("Could not send statistics to elastic search instance. Response: " + resp.getStatusCode() + " - " + resp.getStatusMessage() + " - " + body);
+        else if (body.contains("\"errors\":true"))
+            log.warn("Elastic search could not index some statistics. Response: " + body);
     }
 
     private String normalizePath(String path) {
@@ -290,24 +365,53 @@ public class AMStatisticsCollector {
         return outcome;
     }
 
+    /**
+     * Copies the data needed from the exchange into the statistics of its API key.
+     */
     public void addExchangeToQueue(Exchange exc) {
         String apiKey = (String) exc.getProperty(Exchange.API_KEY);
 
         if (apiKey != null) {
-            ConcurrentLinkedQueue<Exchange> exchangeQueue = exchangesForApiKey.get(apiKey);
-
-            // See SO 3752194 for explanation for this
-            if (exchangeQueue == null) {
-                ConcurrentLinkedQueue<Exchange> newValue = new ConcurrentLinkedQueue<Exchange>();
-                exchangeQueue = exchangesForApiKey.putIfAbsent(apiKey, newValue);
-                if (exchangeQueue == null)
-                    exchangeQueue = newValue;
+            long id = exc.getId();
+            long time = exc.getTime() != null ? exc.getTime().getTimeInMillis() : System.currentTimeMillis();
+            String service = exc.getRule() != null ? exc.getRule().getName() : null;
+            String uri = exc.getOriginalRequestUri();
+            String method = exc.getRequest().getMethod();
+            int code = exc.getResponse() != null ? exc.getResponse().getStatusCode() : 0;
+
+            boolean record = bufferedRecords.incrementAndGet() <= maxRecords;
+            if (!record)
+                bufferedRecords.decrementAndGet();
+            ExchangeTrace trace = null;
+            if (record && traceExchanges)
+                trace = new ExchangeTrace(id, time, service, uri, method,
+                        getHeaders(exc.getRequest()), getBody(exc.getRequest()),
+                        exc.getResponse() == null ? null : getHeaders(exc.getResponse()),
+                        exc.getResponse() == null ? null : getBody(exc.getResponse()));
+
+            while (true) {
+                KeyStatistics statistics = statisticsForApiKey.get(apiKey);
+                if (statistics == null) {
+                    KeyStatistics newValue = new KeyStatistics(apiKey);
+                    statistics = statisticsForApiKey.putIfAbsent(apiKey, newValue);
+                    if (statistics == null)
+                        statistics = newValue;
+                }
+                // fails if the collector has just taken the statistics
+                if (statistics.add(id, time, code, getInflightTime(exc), service, uri, method,
+                        String.valueOf(exc.getStatus()), trace, record))
+                    break;
             }
-
-            exchangeQueue.add(exc);
         }
     }
 
+    private long getInflightTime(Exchange exc) {
+        if (exc.getTimeReqSent() == 0)
+            return -1;
+        else
+            return exc.getTimeResSent() - exc.getTimeReqSent();
+    }
+
     public Outcome handleResponse(Exchange exc, Outcome outcome) {
         /* Ask Tobias if this is a better alternative than to wait for body complete
         exc.getResponse().addObserver(new AbstractMessageObserver() {
@@ -328,8 +432,14 @@ public class AMStatisticsCollector {
         this.collectTimeInSeconds = collectTimeInSeconds;
     }
 
+    /**
+     * Ships the statistics collected so far and stops the collector thread.
+     */
     public void shutdown() {
-        shutdown = true;
+        synchronized (shutdownLock) {
+            shutdown = true;
+            shutdownLock.notifyAll();
+        }
         try {
             collectorThread.shutdown();
             collectorThread.awaitTermination(5, TimeUnit.SECONDS);
@@ -351,16 +461,32 @@ public class AMStatisticsCollector {
         }
     }
 
-    protected JsonGenerator getAndResetJsonGenerator(){
-        baos.reset();
-        return jsonGenerator;
+    public int getMaxRecords() {
+        return maxRecords;
+    }
+
+    /**
+     * @description Maximum number of exchanges buffered until they are shipped. Further exchanges are only
+     *              counted in the aggregated statistics.
+     * @default 100000
+     */
+    @MCAttribute
+    public void setMaxRecords(int maxRecords) {
+        this.maxRecords = maxRecords;
     }
 
-    protected String getStringFromJsonGenerator() throws IOException {
-        jsonGenerator.flush();
-        return baos.toString();
+    public int getBulkSize() {
+        return bulkSize;
     }
 
+    /**
+     * @description Maximum number of exchanges shipped in one bulk request.
+     * @default 1000
+     */
+    @MCAttribute
+    public void setBulkSize(int bulkSize) {
+        this.bulkSize = bulkSize;
+    }
 
     public String getHost() {
         return host;
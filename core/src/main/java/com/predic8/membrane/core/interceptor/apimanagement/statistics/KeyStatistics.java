@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.interceptor.apimanagement.statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The statistics of one API key during one collection interval.
+ *
+ * The exchanges are stored column by column in primitive arrays, so that no reference to the exchange
+ * (and its bodies) is kept. Additionally, counters aggregating all exchanges of the interval are kept:
+ * they stay exact even when the records of single exchanges are dropped to bound the memory use.
+ *
+ * Once {@link #close()} has been called, no more exchanges are accepted and the collector owns the
+ * instance exclusively.
+ */
+class KeyStatistics {
+
+    final String apiKey;
+    final long from = System.currentTimeMillis();
+
+    // one row per recorded exchange
+    int size;
+    long[] ids = new long[16];
+    long[] times = new long[16];
+    int[] codes = new int[16];
+    long[] durations = new long[16];
+    String[] services = new String[16];
+    String[] uris = new String[16];
+    String[] methods = new String[16];
+    String[] states = new String[16];
+
+    final List<ExchangeTrace> traces = new ArrayList<ExchangeTrace>();
+
+    // aggregated over all exchanges, including the dropped ones
+    long count;
+    long dropped;
+    long totalTime;
+    long maxTime;
+    /** exchanges by status code class: index 1 counts 1xx, ..., index 5 counts 5xx, index 0 everything else */
+    final long[] statusClasses = new long[6];
+
+    private boolean closed;
+
+    KeyStatistics(String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    /**
+     * @param record whether the exchange itself should be recorded, or only counted
+     * @return false, if this instance has already been closed
+     */
+    synchronized boolean add(long id, long time, int code, long duration, String service, String uri, String method,
+                             String state, ExchangeTrace trace, boolean record) {
+        if (closed)
+            return false;
+        count++;
+        if (duration > 0) {
+            totalTime += duration;
+            maxTime = Math.max(maxTime, duration);
+        }
+        statusClasses[code >= 100 && code < 600 ? code / 100 : 0]++;
+        if (!record) {
+            dropped++;
+            return true;
+        }
+        if (size == ids.length)
+            grow();
+        ids[size] = id;
+        times[size] = time;
+        codes[size] = code;
+        durations[size] = duration;
+        services[size] = service;
+        uris[size] = uri;
+        methods[size] = method;
+        states[size] = state;
+        size++;
+        if (trace != null)
+            traces.add(trace);
+        return true;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        times = Arrays.copyOf(times, capacity);
+        codes = Arrays.copyOf(codes, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        services = Arrays.copyOf(services, capacity);
+        uris = Arrays.copyOf(uris, capacity);
+        methods = Arrays.copyOf(methods, capacity);
+        states = Arrays.copyOf(states, capacity);
+    }
+
+    synchronized void close() {
+        closed = true;
+    }
+
+    /**
+     * The data of an exchange needed for tracing, with the bodies already truncated.
+     */
+    static class ExchangeTrace {
+        final long id;
+        final long time;
+        final String service, uri, method;
+        /** alternating header names and values, or null */
+        final String[] requestHeaders, responseHeaders;
+        final String requestBody, responseBody;
+
+        ExchangeTrace(long id, long time, String service, String uri, String method, String[] requestHeaders,
+                      String requestBody, String[] responseHeaders, String responseBody) {
+            this.id = id;
+            this.time = time;
+            this.service = service;
+            this.uri = uri;
+            this.method = method;
+            this.requestHeaders = requestHeaders;
+            this.requestBody = requestBody;
+            this.responseHeaders = responseHeaders;
+            this.responseBody = responseBody;
+        }
+    }
+
+}
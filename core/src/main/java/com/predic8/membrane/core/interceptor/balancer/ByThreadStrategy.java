@@ -44,9 +44,12 @@ public class ByThreadStrategy extends AbstractXmlElement implements DispatchingS
 		}
 	}
 
-	public Node dispatch(LoadBalancingInterceptor interceptor) {
+	public Node dispatch(LoadBalancingInterceptor interceptor) throws EmptyNodeListException {
 		for (int j = 0; j < 5; j++) {
-			for (Node ep : interceptor.getEndpoints()) {
+			List<Node> endpoints = interceptor.getEndpoints();
+			if (endpoints.isEmpty())
+				throw new EmptyNodeListException();
+			for (Node ep : endpoints) {
 				String hostColonPort = getHostColonPort(ep);
 				if (!endpointCount.containsKey(hostColonPort)) {
 					endpointCount.put(hostColonPort, 1);
@@ -14,6 +14,7 @@
 package com.predic8.membrane.core.interceptor.balancer;
 
 import java.util.ArrayList;
+import java.util.LinkedList;
 import java.util.List;
 
 import com.predic8.membrane.core.Router;
@@ -29,6 +30,9 @@ import com.predic8.membrane.core.http.Message;
 import com.predic8.membrane.core.http.Response;
 import com.predic8.membrane.core.interceptor.AbstractInterceptor;
 import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.transport.http.CircuitBreaker;
+import com.predic8.membrane.core.transport.http.CircuitBreakers;
+import com.predic8.membrane.core.transport.http.client.CircuitBreakerConfiguration;
 
 /**
  * @description Performs load-balancing between several nodes. Nodes sharing session state may be bundled into a cluster.
@@ -49,6 +53,7 @@ public class LoadBalancingInterceptor extends AbstractInterceptor {
 	private boolean failOver = true;
 	private final Balancer balancer = new Balancer();
 	private NodeOnlineChecker nodeOnlineChecker;
+	private CircuitBreakers circuitBreakers;
 
 	public LoadBalancingInterceptor() {
 		name = "Balancer";
@@ -68,10 +73,19 @@ public class LoadBalancingInterceptor extends AbstractInterceptor {
 			nodeOnlineChecker.putNodesBackUp();
 		}
 
+		if (circuitBreakers != null)
+			exc.setProperty(Exchange.CIRCUIT_BREAKERS, circuitBreakers);
+
 		Node dispatchedNode;
 		try {
 			dispatchedNode = getDispatchedNode(exc.getRequest());
 		} catch (EmptyNodeListException e) {
+			if (circuitBreakers != null && !balancer.getAvailableNodesByCluster(BalancerUtil.getSingleClusterNameOrDefault(balancer)).isEmpty()) {
+				// the nodes are only ejected temporarily
+				log.warn("All nodes are ejected by their circuit breakers.");
+				exc.setResponse(Response.serverUnavailable("All nodes are temporarily unavailable.").build());
+				return Outcome.ABORT;
+			}
 			//This can happen for 2 reasons:
 			//1) Initial server misconfiguration. None configured at all.
 			//2) All destinations got disabled externally (through Membrane maintenance API). See class EmptyNodeListException.
@@ -210,7 +224,40 @@ public class LoadBalancingInterceptor extends AbstractInterceptor {
 	}
 
 	public List<Node> getEndpoints() {
-		return balancer.getAvailableNodesByCluster(BalancerUtil.getSingleClusterNameOrDefault(balancer)); // fallback
+		List<Node> nodes = balancer.getAvailableNodesByCluster(BalancerUtil.getSingleClusterNameOrDefault(balancer)); // fallback
+		if (circuitBreakers == null)
+			return nodes;
+		List<Node> l = new LinkedList<Node>();
+		for (Node n : nodes)
+			if (getCircuitBreaker(n).isAvailable())
+				l.add(n);
+		return l;
+	}
+
+	/**
+	 * @return the circuit breaker of the node, or null if no circuit breaker is configured.
+	 */
+	public CircuitBreaker getCircuitBreaker(Node n) {
+		if (circuitBreakers == null)
+			return null;
+		return circuitBreakers.get(n.getHost(), n.getPort() == 0 ? 80 : n.getPort());
+	}
+
+	public CircuitBreakers getCircuitBreakers() {
+		return circuitBreakers;
+	}
+
+	public CircuitBreakerConfiguration getCircuitBreaker() {
+		return circuitBreakers == null ? null : circuitBreakers.getConfiguration();
+	}
+
+	/**
+	 * @description Enables a circuit breaker per node. Nodes whose circuit is open are not dispatched to and are
+	 *              skipped by the HTTP client's retry loop, until the ejection time has passed.
+	 */
+	@MCChildElement(order=5)
+	public void setCircuitBreaker(CircuitBreakerConfiguration circuitBreaker) {
+		this.circuitBreakers = circuitBreaker == null ? null : new CircuitBreakers(circuitBreaker);
 	}
 
 	public AbstractSessionIdExtractor getSessionIdExtractor() {
@@ -27,6 +27,7 @@ import com.predic8.membrane.annot.MCElement;
 import com.predic8.membrane.core.Router;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
 import com.predic8.membrane.core.interceptor.InterceptorFlowController;
 import com.predic8.membrane.core.interceptor.Outcome;
 import com.predic8.membrane.core.lang.LanguageSupport;
@@ -58,6 +59,7 @@ public class ConditionalInterceptor extends AbstractFlowInterceptor {
 	// state
 	private final InterceptorFlowController interceptorFlowController = new InterceptorFlowController();
 	private Function<Map<String, Object>, Boolean> condition;
+	private volatile InterceptorChain chain = InterceptorChain.EMPTY;
 
 	public enum LanguageType {
 		GROOVY,
@@ -72,9 +74,13 @@ public class ConditionalInterceptor extends AbstractFlowInterceptor {
 		super.init(router);
 		LanguageSupport ls = new GroovyLanguageSupport();
 		condition = ls.compileExpression(router, test);
+		chain = InterceptorChain.compile(getInterceptors());
 	}
 
-	private boolean testCondition(Exchange exc) {
+	/**
+	 * Used directly by {@link InterceptorChain}s into which this interceptor was flattened.
+	 */
+	public boolean testCondition(Exchange exc) {
 		HashMap<String, Object> parameters = new HashMap<String, Object>();
 		parameters.put("exc", exc);
 		return condition.apply(parameters);
@@ -89,11 +95,18 @@ public class ConditionalInterceptor extends AbstractFlowInterceptor {
 			log.debug("ConditionalInterceptor: expression evaluated to " + handleRequest);
 
 		if (handleRequest) {
-			return interceptorFlowController.invokeRequestHandlers(exchange, getInterceptors());
+			return interceptorFlowController.invokeRequestHandlers(exchange, getInterceptorChain());
 		} else
 			return Outcome.CONTINUE;
 	}
 
+	private InterceptorChain getInterceptorChain() {
+		InterceptorChain c = chain;
+		if (!c.isCompiledFrom(getInterceptors()))
+			chain = c = InterceptorChain.compile(getInterceptors(), c);
+		return c;
+	}
+
 	public LanguageType getLanguage() {
 		return language;
 	}
@@ -22,9 +22,18 @@ import com.predic8.membrane.core.http.Header;
 import com.predic8.membrane.core.http.MimeType;
 import com.predic8.membrane.core.http.Response;
 import com.predic8.membrane.core.interceptor.AbstractInterceptor;
+import com.predic8.membrane.core.interceptor.ConcurrencyLimiter;
+import com.predic8.membrane.core.interceptor.HTTPClientInterceptor;
+import com.predic8.membrane.core.interceptor.Interceptor;
 import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.ThrottleInterceptor;
+import com.predic8.membrane.core.interceptor.balancer.LoadBalancingInterceptor;
 import com.predic8.membrane.core.rules.Rule;
 import com.predic8.membrane.core.rules.StatisticCollector;
+import com.predic8.membrane.core.transport.http.CircuitBreaker;
+import com.predic8.membrane.core.transport.http.CircuitBreakers;
+import com.predic8.membrane.core.transport.ssl.SSLContext;
+import com.predic8.membrane.core.transport.ssl.SSLHandshakeStatistics;
 
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -42,8 +51,63 @@ public class PrometheusInterceptor extends AbstractInterceptor {
     }
 
     private void buildPrometheusStyleResponse(StringBuilder sb) {
-        for (Rule r : router.getRuleManager().getRules())
+        for (Rule r : router.getRuleManager().getRules()) {
             buildStatuscodeLines(sb, r);
+            buildCircuitBreakerLines(sb, r);
+            buildThrottleLines(sb, r);
+            buildSSLLines(sb, r.getName(), "inbound", r.getSslInboundContext());
+            if (r.getSslOutboundContext() instanceof SSLContext)
+                buildSSLLines(sb, r.getName(), "outbound", (SSLContext) r.getSslOutboundContext());
+        }
+    }
+
+    private void buildSSLLines(StringBuilder sb, String ruleName, String direction, SSLContext sslContext) {
+        if (sslContext == null)
+            return;
+        SSLHandshakeStatistics stats = sslContext.getHandshakeStatistics();
+        buildLine(sb, ruleName, String.valueOf(stats.getHandshakes()), "ssl", direction, "handshakes");
+        buildLine(sb, ruleName, String.valueOf(stats.getResumedHandshakes()), "ssl", direction, "resumed");
+        buildLine(sb, ruleName, String.valueOf(stats.getFailedHandshakes()), "ssl", direction, "failed");
+        buildLine(sb, ruleName, String.valueOf(stats.getResumptionRatio()), "ssl", direction, "resumption_ratio");
+        buildLine(sb, ruleName, String.valueOf(stats.getAverageHandshakeTime()), "ssl", direction, "handshake_avg");
+        buildLine(sb, ruleName, String.valueOf(stats.getMaxHandshakeTime()), "ssl", direction, "handshake_max");
+    }
+
+    private void buildCircuitBreakerLines(StringBuilder sb, Rule rule) {
+        for (Interceptor i : rule.getInterceptors()) {
+            if (i instanceof LoadBalancingInterceptor)
+                buildCircuitBreakerLines(sb, rule.getName(), ((LoadBalancingInterceptor) i).getCircuitBreakers());
+            if (i instanceof HTTPClientInterceptor && ((HTTPClientInterceptor) i).getHttpClient() != null)
+                buildCircuitBreakerLines(sb, rule.getName(), ((HTTPClientInterceptor) i).getHttpClient().getCircuitBreakers());
+        }
+    }
+
+    private void buildCircuitBreakerLines(StringBuilder sb, String ruleName, CircuitBreakers breakers) {
+        if (breakers == null)
+            return;
+        for (CircuitBreaker cb : breakers.getAll()) {
+            String target = cb.getName().replaceAll("[^A-Za-z0-9]", "_");
+            buildLine(sb, ruleName, String.valueOf(cb.getState().ordinal()), "circuitbreaker", target, "state");
+            buildLine(sb, ruleName, String.valueOf(cb.getOpenedCount()), "circuitbreaker", target, "opened");
+            buildLine(sb, ruleName, String.valueOf(cb.getHalfOpenedCount()), "circuitbreaker", target, "halfopened");
+            buildLine(sb, ruleName, String.valueOf(cb.getClosedCount()), "circuitbreaker", target, "closed");
+            buildLine(sb, ruleName, String.valueOf(cb.getRejectedCount()), "circuitbreaker", target, "rejected");
+        }
+    }
+
+    private void buildThrottleLines(StringBuilder sb, Rule rule) {
+        for (Interceptor i : rule.getInterceptors()) {
+            if (!(i instanceof ThrottleInterceptor))
+                continue;
+            for (ConcurrencyLimiter limiter : ((ThrottleInterceptor) i).getLimiters()) {
+                String target = limiter.getName().replaceAll("[^A-Za-z0-9]", "_");
+                buildLine(sb, rule.getName(), String.valueOf(limiter.getLimit()), "throttle", target, "limit");
+                buildLine(sb, rule.getName(), String.valueOf(limiter.getInFlight()), "throttle", target, "inflight");
+                buildLine(sb, rule.getName(), String.valueOf(limiter.getQueueLength()), "throttle", target, "queued");
+                buildLine(sb, rule.getName(), String.valueOf(limiter.getAdmitted()), "throttle", target, "admitted");
+                buildLine(sb, rule.getName(), String.valueOf(limiter.getRejected()), "throttle", target, "rejected");
+            }
+        }
     }
 
     private StringBuilder buildStatuscodeLines(StringBuilder sb, Rule rule) {
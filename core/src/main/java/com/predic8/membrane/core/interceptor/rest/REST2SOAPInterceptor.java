@@ -45,6 +45,7 @@ import com.predic8.membrane.core.http.MimeType;
 import com.predic8.membrane.core.http.Response;
 import com.predic8.membrane.core.interceptor.Outcome;
 import com.predic8.membrane.core.rules.AbstractServiceProxy;
+import com.predic8.membrane.core.util.RegExIndex;
 
 /**
  * @description Converts REST requests into SOAP messages.
@@ -61,6 +62,8 @@ public class REST2SOAPInterceptor extends SOAPRESTHelper {
 		public String requestXSLT;
 		public String responseXSLT;
 
+		private Pattern pattern;
+
 		@Override
 		protected void parseAttributes(XMLStreamReader token) throws Exception {
 			regex = token.getAttributeValue("", "regex");
@@ -96,6 +99,13 @@ public class REST2SOAPInterceptor extends SOAPRESTHelper {
 			this.regex = regex;
 		}
 
+		Pattern getPattern() {
+			Pattern p = pattern;
+			if (p == null || !p.pattern().equals(regex))
+				pattern = p = Pattern.compile(regex);
+			return p;
+		}
+
 		public String getSoapAction() {
 			return soapAction;
 		}
@@ -155,6 +165,7 @@ public class REST2SOAPInterceptor extends SOAPRESTHelper {
 	private static Logger log = LoggerFactory.getLogger(REST2SOAPInterceptor.class.getName());
 
 	private List<Mapping> mappings = new ArrayList<Mapping>();
+	private volatile RegExIndex<Mapping> index;
 	private Boolean isSOAP12;
 
 	public REST2SOAPInterceptor() {
@@ -224,11 +235,14 @@ public class REST2SOAPInterceptor extends SOAPRESTHelper {
 	}
 
 	private Mapping findFirstMatchingRegEx(String uri) {
-		for (Mapping m : mappings) {
-			if (Pattern.matches(m.regex, uri))
-				return m;
+		RegExIndex<Mapping> index = this.index;
+		if (index == null) {
+			List<Pattern> patterns = new ArrayList<Pattern>();
+			for (Mapping m : mappings)
+				patterns.add(m.getPattern());
+			this.index = index = new RegExIndex<Mapping>(patterns, mappings, true);
 		}
-		return null;
+		return index.findFirstMatching(uri);
 	}
 
 	private void modifyRequest(AbstractExchange exc, Mapping mapping) {
@@ -271,7 +285,7 @@ public class REST2SOAPInterceptor extends SOAPRESTHelper {
 
 	private void setServiceEndpoint(AbstractExchange exc, Mapping mapping) {
 		exc.getRequest().setUri(
-				getURI(exc).replaceAll(mapping.regex, mapping.soapURI));
+				mapping.getPattern().matcher(getURI(exc)).replaceAll(mapping.soapURI));
 
 		String newDestination = getNewDestination(exc);
 		exc.getDestinations().clear();
@@ -300,6 +314,7 @@ public class REST2SOAPInterceptor extends SOAPRESTHelper {
 	@MCChildElement
 	public void setMappings(List<Mapping> mappings) {
 		this.mappings = mappings;
+		index = null;
 	}
 
 	@Override
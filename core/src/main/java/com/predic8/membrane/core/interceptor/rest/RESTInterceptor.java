@@ -13,7 +13,7 @@
    limitations under the License. */
 package com.predic8.membrane.core.interceptor.rest;
 
-import java.io.StringWriter;
+import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.security.InvalidParameterException;
@@ -22,6 +22,7 @@ import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 
@@ -54,16 +55,19 @@ public abstract class RESTInterceptor extends AbstractInterceptor {
 		return o;
 	}
 
+	/**
+	 * The content is encoded while it is written, without an intermediate String.
+	 */
 	protected Response json(JSONContent content) throws Exception {
-		StringWriter jsonTxt = new StringWriter();
+		ByteArrayOutputStream json = new ByteArrayOutputStream(4096);
 
-		JsonGenerator gen = jsonFactory.createGenerator(jsonTxt);
+		JsonGenerator gen = jsonFactory.createGenerator(json, JsonEncoding.UTF8);
 		content.write(gen);
-		gen.flush();
+		gen.close();
 
 		return Response.ok()
 				.header(Header.CONTENT_TYPE, MimeType.APPLICATION_JSON_UTF8)
-				.body(jsonTxt.toString()).build();
+				.body(json.toByteArray()).build();
 	}
 
 	private Outcome dispatchRequest(Exchange exc) throws Exception {
@@ -13,17 +13,16 @@
    limitations under the License. */
 package com.predic8.membrane.core.interceptor.rest;
 
-import java.io.StringReader;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.transform.Source;
-import javax.xml.transform.stream.StreamSource;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.predic8.membrane.core.Constants;
+import com.predic8.membrane.core.config.XMLElementSource;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.Message;
 import com.predic8.membrane.core.http.xml.Request;
@@ -50,22 +49,22 @@ abstract class SOAPRESTHelper extends AbstractInterceptor {
 		return t;
 	}
 
-	protected StreamSource getRequestXMLSource(Exchange exc) throws Exception {
+	protected Source getRequestXMLSource(Exchange exc) throws Exception {
 		Request req = new Request(exc.getRequest());
 
-		String res = req.toXml();
-		log.debug("http-xml: " + res);
+		if (log.isDebugEnabled())
+			log.debug("http-xml: " + req.toXml());
 
-		return new StreamSource(new StringReader(res));
+		return new XMLElementSource(req);
 	}
 
-	protected StreamSource getExchangeXMLSource(Exchange exc) throws Exception {
+	protected Source getExchangeXMLSource(Exchange exc) throws Exception {
 		com.predic8.membrane.core.http.xml.Exchange xmlExc = new com.predic8.membrane.core.http.xml.Exchange(exc);
 
-		String res = xmlExc.toXml();
-		log.debug("http-xml: " + res);
+		if (log.isDebugEnabled())
+			log.debug("http-xml: " + xmlExc.toXml());
 
-		return new StreamSource(new StringReader(res));
+		return new XMLElementSource(xmlExc);
 	}
 
 	protected void transformAndReplaceBody(Message msg, String ss, Source src, Map<String, String> properties)
@@ -33,6 +33,7 @@ import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.Response;
 import com.predic8.membrane.core.interceptor.AbstractInterceptor;
 import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.util.RegExIndex;
 import com.predic8.membrane.core.util.TextUtil;
 import com.predic8.membrane.core.util.URLUtil;
 
@@ -84,6 +85,10 @@ public class RewriteInterceptor extends AbstractInterceptor {
 			return pattern.matcher(uri).find();
 		}
 
+		public String replace(String uri) {
+			return pattern.matcher(uri).replaceAll(to);
+		}
+
 		public String getFrom() {
 			return from;
 		}
@@ -138,6 +143,7 @@ public class RewriteInterceptor extends AbstractInterceptor {
 	private static Logger log = LoggerFactory.getLogger(RewriteInterceptor.class.getName());
 
 	private List<Mapping> mappings = new ArrayList<Mapping>();
+	private volatile RegExIndex<Mapping> index;
 
 	public RewriteInterceptor() {
 		name = "URL Rewriter";
@@ -146,8 +152,9 @@ public class RewriteInterceptor extends AbstractInterceptor {
 
 	@Override
 	public Outcome handleRequest(Exchange exc) throws Exception {
-
-		logMappings();
+		String uri = exc.getRequest().getUri();
+		Mapping uriMapping = null;
+		boolean uriMappingFound = false;
 
 		ListIterator<String>  it = exc.getDestinations().listIterator();
 		while ( it.hasNext() ) {
@@ -160,18 +167,23 @@ public class RewriteInterceptor extends AbstractInterceptor {
 				pathBegin = dest.indexOf("/", authorityBegin + 2);
 			String schemaHostPort = pathBegin == -1 ? null : dest.substring(0, pathBegin);
 
-			log.debug("pathQuery: " + pathQuery);
-			log.debug("schemaHostPort: " + schemaHostPort);
+			log.debug("pathQuery: {}", pathQuery);
+			log.debug("schemaHostPort: {}", schemaHostPort);
 
 			Mapping mapping = findFirstMatchingRegEx(pathQuery);
+			if (pathQuery.equals(uri)) {
+				// usually, the destination ends with the request URI: no need to match it again below
+				uriMapping = mapping;
+				uriMappingFound = true;
+			}
 			if (mapping == null)
 				continue;
 
 			Type do_ = mapping.getDo();
 
-			log.debug("match found: " + mapping.from);
-			log.debug("replacing with: " + mapping.to);
-			log.debug("for type: " + do_);
+			log.debug("match found: {}", mapping.from);
+			log.debug("replacing with: {}", mapping.to);
+			log.debug("for type: {}", do_);
 
 			String newDest = replace(pathQuery, mapping);
 
@@ -188,9 +200,9 @@ public class RewriteInterceptor extends AbstractInterceptor {
 			it.set(newDest);
 		}
 
-		Mapping mapping = findFirstMatchingRegEx(exc.getRequest().getUri());
+		Mapping mapping = uriMappingFound ? uriMapping : findFirstMatchingRegEx(uri);
 		if (mapping != null && mapping.do_ == Type.REWRITE) {
-			String newDest = replace(exc.getRequest().getUri(), mapping);
+			String newDest = replace(uri, mapping);
 			if (newDest.contains("://")) {
 				newDest = URLUtil.getPathQuery(router.getUriFactory(), newDest);
 			}
@@ -207,19 +219,24 @@ public class RewriteInterceptor extends AbstractInterceptor {
 	}
 
 	private String replace(String uri, Mapping mapping) {
-		String replaced = uri.replaceAll(mapping.from, mapping.to);
+		String replaced = mapping.replace(uri);
 
-		log.debug("replaced URI: " + replaced);
+		log.debug("replaced URI: {}", replaced);
 
 		return replaced;
 	}
 
 	private Mapping findFirstMatchingRegEx(String uri) {
-		for (Mapping m : mappings) {
-			if (m.matches(uri))
-				return m;
+		RegExIndex<Mapping> index = this.index;
+		if (index == null) {
+			if (log.isDebugEnabled())
+				logMappings();
+			List<Pattern> patterns = new ArrayList<Pattern>();
+			for (Mapping m : mappings)
+				patterns.add(m.pattern);
+			this.index = index = new RegExIndex<Mapping>(patterns, mappings, false);
 		}
-		return null;
+		return index.findFirstMatching(uri);
 	}
 
 	public List<Mapping> getMappings() {
@@ -233,6 +250,7 @@ public class RewriteInterceptor extends AbstractInterceptor {
 	@MCChildElement
 	public void setMappings(List<Mapping> mappings) {
 		this.mappings = mappings;
+		index = null;
 	}
 
 	@Override
@@ -38,6 +38,7 @@ import com.predic8.membrane.core.interceptor.Outcome;
 import com.predic8.membrane.core.interceptor.schemavalidation.ValidatorInterceptor.FailureHandler;
 import com.predic8.membrane.core.multipart.XOPReconstitutor;
 import com.predic8.membrane.core.resolver.ResolverMap;
+import com.predic8.membrane.core.util.PoolStatistics;
 import com.predic8.schema.Schema;
 
 public abstract class AbstractXMLSchemaValidator implements IValidator {
@@ -49,6 +50,7 @@ public abstract class AbstractXMLSchemaValidator implements IValidator {
 	protected final ResolverMap resourceResolver;
 	protected final ValidatorInterceptor.FailureHandler failureHandler;
 	private final boolean skipFaults;
+	private final PoolStatistics poolStatistics = new PoolStatistics();
 
 	protected final AtomicLong valid = new AtomicLong();
 	protected final AtomicLong invalid = new AtomicLong();
@@ -64,8 +66,10 @@ public abstract class AbstractXMLSchemaValidator implements IValidator {
 		this.skipFaults = skipFaults;
 		int concurrency = Runtime.getRuntime().availableProcessors() * 2;
 		validators = new ArrayBlockingQueue<List<Validator>>(concurrency);
-		for (int i = 0; i < concurrency; i++)
+		for (int i = 0; i < concurrency; i++) {
 			validators.add(createValidators());
+			poolStatistics.recordCreated();
+		}
 		xopr = new XOPReconstitutor();
 	}
 
@@ -73,7 +77,13 @@ public abstract class AbstractXMLSchemaValidator implements IValidator {
 		List<Exception> exceptions = new ArrayList<Exception>();
 		String preliminaryError = getPreliminaryError(xopr, msg);
 		if (preliminaryError == null) {
-			List<Validator> vals = validators.take();
+			List<Validator> vals = validators.poll();
+			if (vals == null) {
+				long start = System.nanoTime();
+				vals = validators.take();
+				poolStatistics.recordWait(System.nanoTime() - start);
+			}
+			poolStatistics.recordAcquired();
 			try {
 				// the message must be valid for one schema embedded into WSDL
 				for (Validator validator: vals) {
@@ -150,6 +160,11 @@ public abstract class AbstractXMLSchemaValidator implements IValidator {
 		return invalid.get();
 	}
 
+	@Override
+	public PoolStatistics getPoolStatistics() {
+		return poolStatistics;
+	}
+
 	protected abstract List<Schema> getSchemas();
 	protected abstract Source getMessageBody(InputStream input) throws Exception;
 	protected abstract Response createErrorResponse(String message);
@@ -17,6 +17,7 @@ package com.predic8.membrane.core.interceptor.schemavalidation;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.Message;
 import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.util.PoolStatistics;
 
 public interface IValidator {
 	/**
@@ -28,4 +29,11 @@ public interface IValidator {
 
 	public long getInvalid();
 
+	/**
+	 * @return the use of the pooled validator instances, or null, if the validator does not use a pool
+	 */
+	public default PoolStatistics getPoolStatistics() {
+		return null;
+	}
+
 }
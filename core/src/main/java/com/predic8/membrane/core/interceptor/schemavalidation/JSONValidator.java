@@ -20,12 +20,18 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jackson.JsonLoader;
@@ -35,48 +41,103 @@ import com.github.fge.jsonschema.core.report.ProcessingReport;
 import com.github.fge.jsonschema.main.JsonSchema;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
 import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Body;
 import com.predic8.membrane.core.http.Message;
 import com.predic8.membrane.core.http.Response;
 import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.schemavalidation.StreamingJSONSchema.ValidationException;
 import com.predic8.membrane.core.interceptor.schemavalidation.ValidatorInterceptor.FailureHandler;
 import com.predic8.membrane.core.resolver.ResolverMap;
+import com.predic8.membrane.core.util.InflatingInputStream;
 
 public class JSONValidator implements IValidator {
+	private static Logger log = LoggerFactory.getLogger(JSONValidator.class.getName());
+
 	private static final Charset UTF8 = Charset.forName("UTF-8");
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	/**
+	 * How messages are validated.
+	 */
+	public enum Mode {
+		/**
+		 * The body is parsed into a tree, which is validated. All keywords are supported.
+		 */
+		TREE,
+		/**
+		 * The token stream of the body is validated (see {@link StreamingJSONSchema}), stopping at the
+		 * first violation. Invalid messages are answered with "400 Bad Request".
+		 */
+		STREAMING,
+		/**
+		 * Like {@link #STREAMING}, but the body is validated while it is forwarded and is not
+		 * buffered. A violation aborts the forwarding, so the message has already been partially
+		 * forwarded.
+		 */
+		FORWARDING
+	}
 
 	private JsonSchema schema;
+	private StreamingJSONSchema streamingSchema;
 	private final ResolverMap resourceResolver;
 	private final String jsonSchema;
 	private final ValidatorInterceptor.FailureHandler failureHandler;
+	private final Mode mode;
 
 	private final AtomicLong valid = new AtomicLong();
 	private final AtomicLong invalid = new AtomicLong();
 
 	public JSONValidator(ResolverMap resourceResolver, String jsonSchema, ValidatorInterceptor.FailureHandler failureHandler) throws IOException {
+		this(resourceResolver, jsonSchema, failureHandler, Mode.TREE);
+	}
+
+	public JSONValidator(ResolverMap resourceResolver, String jsonSchema, ValidatorInterceptor.FailureHandler failureHandler, Mode mode) throws IOException {
 		this.resourceResolver = resourceResolver;
 		this.jsonSchema = jsonSchema;
 		this.failureHandler = failureHandler;
+		this.mode = mode;
 		createValidators();
 	}
 
 	public Outcome validateMessage(Exchange exc, Message msg, String source) throws Exception {
-		return validateMessage(exc, msg.getBodyAsStreamDecoded(), Charset.forName(msg.getCharset()), source);
+		Charset charset = Charset.forName(msg.getCharset());
+		if (streamingSchema != null && mode == Mode.FORWARDING && !msg.isDeflate()) {
+			long length = msg.getHeader().getContentLength();
+			msg.setBody(new Body(new ValidatingInputStream(exc, msg.getBodyAsStream(), msg.isGzip(), charset, source), length));
+			return Outcome.CONTINUE;
+		}
+		return validateMessage(exc, msg.getBodyAsStreamDecoded(), charset, source);
 	}
 
 	public Outcome validateMessage(Exchange exc, InputStream body, Charset charset, String source) throws Exception {
 		List<String> errors;
 		boolean success = true;
-		try {
-			JsonNode node = JsonLoader.fromReader(new InputStreamReader(body, charset));
-			ProcessingReport report = schema.validateUnchecked(node);
-			success = report.isSuccess();
-			errors = new ArrayList<String>();
-			for (ProcessingMessage message : report)
-				errors.add(message.getMessage());
-		} catch (JsonParseException e) {
-			success = false;
+		if (streamingSchema != null) {
 			errors = new ArrayList<String>();
-			errors.add(e.getMessage());
+			try {
+				streamingSchema.validate(JSON_FACTORY.createParser(new InputStreamReader(body, charset)));
+			} catch (JsonParseException e) {
+				success = false;
+				errors.add(e.getMessage());
+			} catch (ValidationException e) {
+				success = false;
+				errors.add(e.getMessage());
+			}
+			if (!success)
+				drain(body);
+		} else {
+			try {
+				JsonNode node = JsonLoader.fromReader(new InputStreamReader(body, charset));
+				ProcessingReport report = schema.validateUnchecked(node);
+				success = report.isSuccess();
+				errors = new ArrayList<String>();
+				for (ProcessingMessage message : report)
+					errors.add(message.getMessage());
+			} catch (JsonParseException e) {
+				success = false;
+				errors = new ArrayList<String>();
+				errors.add(e.getMessage());
+			}
 		}
 
 		if (success) {
@@ -125,6 +186,16 @@ public class JSONValidator implements IValidator {
 	}
 
 
+	/**
+	 * Reads the rest of a body which has only partially been validated, so that the connection
+	 * remains usable.
+	 */
+	private static void drain(InputStream body) throws IOException {
+		byte[] buffer = new byte[8192];
+		while (body.read(buffer) != -1)
+			;
+	}
+
 	private void createValidators() throws IOException {
 		JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
 		JsonNode schemaNode = JsonLoader.fromReader(new InputStreamReader(resourceResolver.resolve(jsonSchema)));
@@ -133,6 +204,128 @@ public class JSONValidator implements IValidator {
 		} catch (ProcessingException e) {
 			throw new IOException(e);
 		}
+		if (mode != Mode.TREE) {
+			try {
+				streamingSchema = new StreamingJSONSchema(schemaNode);
+			} catch (IllegalArgumentException e) {
+				log.warn("Falling back to tree-based validation for " + jsonSchema + ": " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Passes the raw body through while validating it. The last byte is held back until the
+	 * validation has succeeded, so an invalid message is never forwarded completely.
+	 */
+	private class ValidatingInputStream extends InputStream {
+		private final Exchange exc;
+		private final InputStream raw;
+		private final boolean gzip;
+		private final Charset charset;
+		private final String source;
+
+		private JsonParser parser;
+		private StreamingJSONSchema.Validation validation;
+		private boolean validated;
+		private String failure;
+
+		// the bytes read by the parser, but not yet passed on: [pos, count)
+		private byte[] buffer = new byte[8192];
+		private int pos, count;
+
+		public ValidatingInputStream(Exchange exc, InputStream raw, boolean gzip, Charset charset, String source) {
+			this.exc = exc;
+			this.raw = raw;
+			this.gzip = gzip;
+			this.charset = charset;
+			this.source = source;
+		}
+
+		private void capture(byte[] b, int off, int len) {
+			if (count + len > buffer.length) {
+				System.arraycopy(buffer, pos, buffer, 0, count - pos);
+				count -= pos;
+				pos = 0;
+				if (count + len > buffer.length)
+					buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + len));
+			}
+			System.arraycopy(b, off, buffer, count, len);
+			count += len;
+		}
+
+		private void step() throws IOException {
+			if (parser == null) {
+				InputStream tee = new InputStream() {
+					@Override
+					public int read() throws IOException {
+						byte[] b = new byte[1];
+						return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+					}
+
+					@Override
+					public int read(byte[] b, int off, int len) throws IOException {
+						int n = raw.read(b, off, len);
+						if (n > 0)
+							capture(b, off, n);
+						return n;
+					}
+				};
+				parser = JSON_FACTORY.createParser(new InputStreamReader(gzip ? new InflatingInputStream(tee, true) : tee, charset));
+				validation = streamingSchema.newValidation();
+			}
+			try {
+				JsonToken token = parser.nextToken();
+				if (token == null) {
+					validation.end();
+					validated = true;
+					valid.incrementAndGet();
+				} else {
+					validation.next(parser);
+				}
+			} catch (JsonParseException e) {
+				throw fail(e.getMessage());
+			} catch (ValidationException e) {
+				throw fail(e.getMessage());
+			}
+		}
+
+		private IOException fail(String error) {
+			String message = source + ": " + error;
+			exc.setProperty("error", message);
+			if (failureHandler != null)
+				failureHandler.handleFailure(message, exc);
+			invalid.incrementAndGet();
+			failure = "JSON validation failed. " + message;
+			return new IOException(failure);
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (len == 0)
+				return 0;
+			if (failure != null)
+				throw new IOException(failure);
+			int held = validated ? 0 : 1;
+			while (count - pos <= held) {
+				if (validated) {
+					if (pos == count)
+						return raw.read(b, off, len);
+					break;
+				}
+				step();
+				held = validated ? 0 : 1;
+			}
+			int n = Math.min(len, count - pos - held);
+			System.arraycopy(buffer, pos, b, off, n);
+			pos += n;
+			return n;
+		}
 	}
 
 	@Override
@@ -51,6 +51,7 @@ import com.predic8.membrane.core.http.Response;
 import com.predic8.membrane.core.interceptor.Outcome;
 import com.predic8.membrane.core.multipart.XOPReconstitutor;
 import com.predic8.membrane.core.resolver.ResolverMap;
+import com.predic8.membrane.core.util.PoolStatistics;
 
 public class SchematronValidator implements IValidator {
 	private static Logger log = LoggerFactory.getLogger(SchematronValidator.class.getName());
@@ -62,6 +63,7 @@ public class SchematronValidator implements IValidator {
 
 	private final AtomicLong valid = new AtomicLong();
 	private final AtomicLong invalid = new AtomicLong();
+	private final PoolStatistics poolStatistics = new PoolStatistics();
 
 
 	public SchematronValidator(ResolverMap resourceResolver, String schematron, ValidatorInterceptor.FailureHandler failureHandler, Router router, BeanFactory beanFactory) throws Exception {
@@ -95,6 +97,7 @@ public class SchematronValidator implements IValidator {
 			Transformer transformer = fac.newTransformer(new DOMSource(r.getNode()));
 			transformer.setErrorListener(new NullErrorListener()); // silence console logging
 			transformers.put(transformer);
+			poolStatistics.recordCreated();
 		}
 
 		xmlInputFactory = XMLInputFactory.newInstance();
@@ -107,7 +110,13 @@ public class SchematronValidator implements IValidator {
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
 
 		try {
-			Transformer transformer = transformers.take();
+			Transformer transformer = transformers.poll();
+			if (transformer == null) {
+				long start = System.nanoTime();
+				transformer = transformers.take();
+				poolStatistics.recordWait(System.nanoTime() - start);
+			}
+			poolStatistics.recordAcquired();
 			try {
 				transformer.transform(new StreamSource(xopr.reconstituteIfNecessary(msg)), new StreamResult(baos));
 			} finally {
@@ -173,6 +182,11 @@ public class SchematronValidator implements IValidator {
 		return invalid.get();
 	}
 
+	@Override
+	public PoolStatistics getPoolStatistics() {
+		return poolStatistics;
+	}
+
 	private static final class NullErrorListener implements ErrorListener {
 		@Override
 		public void warning(TransformerException exception)
@@ -0,0 +1,458 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor.schemavalidation;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A JSON Schema (draft 4) compiled for validating the token stream of a {@link JsonParser}, without
+ * building a tree of the document.
+ *
+ * Memory usage only depends on the nesting depth of the document, and validation stops at the first
+ * violation. Supported are the keywords "type", "enum" (with scalar values), "properties",
+ * "additionalProperties", "required", "minProperties", "maxProperties", "items" (with a single
+ * schema), "minItems", "maxItems", "minLength", "maxLength", "pattern", "minimum", "maximum",
+ * "exclusiveMinimum", "exclusiveMaximum", "multipleOf" and local "$ref"s. Compiling a schema using
+ * any other validation keyword fails with an {@link IllegalArgumentException}.
+ */
+class StreamingJSONSchema {
+
+	private static final Set<String> IGNORED = new HashSet<String>(Arrays.asList(
+			"$schema", "id", "title", "description", "default", "definitions"));
+	private static final Set<String> UNSUPPORTED = new HashSet<String>(Arrays.asList(
+			"format", "allOf", "anyOf", "oneOf", "not", "patternProperties", "dependencies",
+			"uniqueItems", "additionalItems"));
+
+	private static final int OBJECT = 1, ARRAY = 2, STRING = 4, INTEGER = 8, NUMBER = 16, BOOLEAN = 32, NULL = 64;
+	private static final String[] TYPE_NAMES = { "object", "array", "string", "integer", "number", "boolean", "null" };
+	private static final Object NULL_VALUE = new Object();
+
+	public static class ValidationException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		public ValidationException(String message) {
+			super(message);
+		}
+	}
+
+	private static class Schema {
+		int types; // 0: any
+		Set<Object> enumValues;
+
+		Map<String, Schema> properties;
+		boolean additionalPropertiesAllowed = true;
+		Schema additionalProperties;
+		Map<String, Integer> required;
+		int minProperties = -1, maxProperties = -1;
+
+		Schema items;
+		int minItems = -1, maxItems = -1;
+
+		int minLength = -1, maxLength = -1;
+		Pattern pattern;
+
+		BigDecimal minimum, maximum, multipleOf;
+		boolean exclusiveMinimum, exclusiveMaximum;
+
+		boolean needsText() {
+			return enumValues != null || minLength != -1 || maxLength != -1 || pattern != null;
+		}
+
+		boolean needsNumber() {
+			return enumValues != null || minimum != null || maximum != null || multipleOf != null;
+		}
+	}
+
+	private final JsonNode rootNode;
+	private final Map<JsonNode, Schema> compiled = new IdentityHashMap<JsonNode, Schema>();
+	private final Set<JsonNode> resolving = Collections.newSetFromMap(new IdentityHashMap<JsonNode, Boolean>());
+	private final Schema root;
+
+	StreamingJSONSchema(JsonNode schema) {
+		rootNode = schema;
+		root = compile(schema, "#");
+	}
+
+	private Schema compile(JsonNode node, String path) {
+		if (!node.isObject())
+			throw new IllegalArgumentException(path + " is not a schema.");
+		if (node.has("$ref")) {
+			if (!resolving.add(node))
+				throw new IllegalArgumentException("Circular reference at " + path);
+			try {
+				return compile(resolve(node.get("$ref").asText(), path), node.get("$ref").asText());
+			} finally {
+				resolving.remove(node);
+			}
+		}
+
+		Schema s = compiled.get(node);
+		if (s != null)
+			return s;
+		s = new Schema();
+		compiled.put(node, s); // before compiling children, for recursive references
+
+		Iterator<Map.Entry<String, JsonNode>> it = node.fields();
+		while (it.hasNext()) {
+			Map.Entry<String, JsonNode> e = it.next();
+			String keyword = e.getKey();
+			JsonNode value = e.getValue();
+			String p = path + "/" + keyword;
+			if (IGNORED.contains(keyword))
+				continue;
+			if (UNSUPPORTED.contains(keyword))
+				throw new IllegalArgumentException("Unsupported keyword at " + p);
+
+			if (keyword.equals("type")) {
+				if (value.isArray())
+					for (JsonNode t : value)
+						s.types |= getType(t.asText(), p);
+				else
+					s.types = getType(value.asText(), p);
+			} else if (keyword.equals("enum")) {
+				s.enumValues = new HashSet<Object>();
+				for (JsonNode v : value) {
+					if (v.isContainerNode())
+						throw new IllegalArgumentException("Unsupported non-scalar enum value at " + p);
+					s.enumValues.add(v.isNull() ? NULL_VALUE : v.isBoolean() ? (Object) v.booleanValue() :
+						v.isNumber() ? normalize(v.decimalValue()) : v.asText());
+				}
+			} else if (keyword.equals("properties")) {
+				s.properties = new HashMap<String, Schema>();
+				Iterator<Map.Entry<String, JsonNode>> props = value.fields();
+				while (props.hasNext()) {
+					Map.Entry<String, JsonNode> prop = props.next();
+					s.properties.put(prop.getKey(), compile(prop.getValue(), p + "/" + prop.getKey()));
+				}
+			} else if (keyword.equals("additionalProperties")) {
+				if (value.isBoolean())
+					s.additionalPropertiesAllowed = value.booleanValue();
+				else
+					s.additionalProperties = compile(value, p);
+			} else if (keyword.equals("required")) {
+				if (!value.isArray())
+					throw new IllegalArgumentException("Unsupported keyword at " + p);
+				s.required = new HashMap<String, Integer>();
+				for (JsonNode r : value)
+					if (!s.required.containsKey(r.asText()))
+						s.required.put(r.asText(), s.required.size());
+			} else if (keyword.equals("items")) {
+				if (value.isArray())
+					throw new IllegalArgumentException("Unsupported array of schemas at " + p);
+				s.items = compile(value, p);
+			} else if (keyword.equals("minProperties")) {
+				s.minProperties = value.intValue();
+			} else if (keyword.equals("maxProperties")) {
+				s.maxProperties = value.intValue();
+			} else if (keyword.equals("minItems")) {
+				s.minItems = value.intValue();
+			} else if (keyword.equals("maxItems")) {
+				s.maxItems = value.intValue();
+			} else if (keyword.equals("minLength")) {
+				s.minLength = value.intValue();
+			} else if (keyword.equals("maxLength")) {
+				s.maxLength = value.intValue();
+			} else if (keyword.equals("pattern")) {
+				s.pattern = Pattern.compile(value.asText());
+			} else if (keyword.equals("minimum")) {
+				s.minimum = value.decimalValue();
+			} else if (keyword.equals("maximum")) {
+				s.maximum = value.decimalValue();
+			} else if (keyword.equals("exclusiveMinimum")) {
+				s.exclusiveMinimum = value.booleanValue();
+			} else if (keyword.equals("exclusiveMaximum")) {
+				s.exclusiveMaximum = value.booleanValue();
+			} else if (keyword.equals("multipleOf")) {
+				s.multipleOf = value.decimalValue();
+			}
+			// other keywords are ignored, as by the tree-based validator
+		}
+		return s;
+	}
+
+	private JsonNode resolve(String ref, String path) {
+		if (!ref.startsWith("#"))
+			throw new IllegalArgumentException("Unsupported non-local reference at " + path);
+		JsonNode target = ref.length() == 1 ? rootNode : rootNode.at(ref.substring(1));
+		if (target.isMissingNode())
+			throw new IllegalArgumentException("Unresolvable reference " + ref + " at " + path);
+		return target;
+	}
+
+	private static int getType(String name, String path) {
+		for (int i = 0; i < TYPE_NAMES.length; i++)
+			if (TYPE_NAMES[i].equals(name))
+				return 1 << i;
+		throw new IllegalArgumentException("Unknown type '" + name + "' at " + path);
+	}
+
+	private static BigDecimal normalize(BigDecimal d) {
+		// BigDecimal.equals() considers the scale
+		return d.signum() == 0 ? BigDecimal.ZERO : d.stripTrailingZeros();
+	}
+
+	/**
+	 * Validates the token stream read from the parser.
+	 */
+	void validate(JsonParser parser) throws IOException, ValidationException {
+		Validation v = new Validation();
+		while (parser.nextToken() != null)
+			v.next(parser);
+		v.end();
+	}
+
+	Validation newValidation() {
+		return new Validation();
+	}
+
+	private static class Frame {
+		Schema schema;
+		boolean object;
+		int count;
+		String name;
+		Schema next;
+		boolean[] required;
+	}
+
+	/**
+	 * The state of validating one document: Feed every token using {@link #next(JsonParser)} and
+	 * call {@link #end()} afterwards.
+	 */
+	class Validation {
+		private final List<Frame> frames = new ArrayList<Frame>();
+		private int depth;
+		private boolean started;
+
+		/**
+		 * Validates the current token of the parser.
+		 */
+		void next(JsonParser p) throws IOException, ValidationException {
+			JsonToken t = p.getCurrentToken();
+			if (t == JsonToken.FIELD_NAME) {
+				Frame f = frames.get(depth - 1);
+				f.name = p.getCurrentName();
+				f.count++;
+				f.next = f.schema == null ? null : getPropertySchema(f);
+				return;
+			}
+			if (t == JsonToken.END_OBJECT || t == JsonToken.END_ARRAY) {
+				end(frames.get(--depth));
+				return;
+			}
+
+			Schema s;
+			if (depth == 0) {
+				s = root;
+				started = true;
+			} else {
+				Frame f = frames.get(depth - 1);
+				if (f.object) {
+					s = f.next;
+				} else {
+					f.count++;
+					s = f.schema == null ? null : f.schema.items;
+				}
+			}
+			value(p, t, s);
+		}
+
+		void end() throws ValidationException {
+			if (!started)
+				throw new ValidationException("No JSON content.");
+		}
+
+		private Schema getPropertySchema(Frame f) throws ValidationException {
+			Schema s = f.schema;
+			if (s.required != null) {
+				Integer index = s.required.get(f.name);
+				if (index != null)
+					f.required[index] = true;
+			}
+			Schema property = s.properties == null ? null : s.properties.get(f.name);
+			if (property != null)
+				return property;
+			if (!s.additionalPropertiesAllowed)
+				throw error(depth - 1, "object instance has properties which are not allowed by the schema: [\"" + f.name + "\"]");
+			return s.additionalProperties;
+		}
+
+		private void value(JsonParser p, JsonToken t, Schema s) throws IOException, ValidationException {
+			if (s == null) {
+				// not constrained, but the nesting has to be tracked
+				if (t == JsonToken.START_OBJECT || t == JsonToken.START_ARRAY)
+					push(null, t == JsonToken.START_OBJECT);
+				return;
+			}
+
+			int type;
+			switch (t) {
+			case START_OBJECT: type = OBJECT; break;
+			case START_ARRAY: type = ARRAY; break;
+			case VALUE_STRING: type = STRING; break;
+			case VALUE_NUMBER_INT: type = INTEGER; break;
+			case VALUE_NUMBER_FLOAT: type = NUMBER; break;
+			case VALUE_TRUE:
+			case VALUE_FALSE: type = BOOLEAN; break;
+			case VALUE_NULL: type = NULL; break;
+			default: throw new ValidationException("Unexpected token " + t + ".");
+			}
+
+			if (s.types != 0 && (s.types & type) == 0 && !(type == INTEGER && (s.types & NUMBER) != 0))
+				throw error(depth, "instance type (" + typeName(type) + ") does not match any allowed primitive type (allowed: " + typeNames(s.types) + ")");
+
+			switch (type) {
+			case OBJECT:
+			case ARRAY:
+				if (s.enumValues != null)
+					throw error(depth, "instance value not found in enum");
+				push(s, type == OBJECT);
+				break;
+			case STRING:
+				if (s.needsText())
+					validateString(p.getText(), s);
+				break;
+			case INTEGER:
+			case NUMBER:
+				if (s.needsNumber())
+					validateNumber(p.getDecimalValue(), s);
+				break;
+			case BOOLEAN:
+				if (s.enumValues != null && !s.enumValues.contains(t == JsonToken.VALUE_TRUE))
+					throw error(depth, "instance value (" + p.getText() + ") not found in enum");
+				break;
+			case NULL:
+				if (s.enumValues != null && !s.enumValues.contains(NULL_VALUE))
+					throw error(depth, "instance value (null) not found in enum");
+				break;
+			}
+		}
+
+		private void validateString(String text, Schema s) throws ValidationException {
+			if (s.enumValues != null && !s.enumValues.contains(text))
+				throw error(depth, "instance value (\"" + text + "\") not found in enum");
+			if (s.minLength != -1 || s.maxLength != -1) {
+				int length = text.codePointCount(0, text.length());
+				if (s.minLength != -1 && length < s.minLength)
+					throw error(depth, "string \"" + text + "\" is too short (length: " + length + ", required minimum: " + s.minLength + ")");
+				if (s.maxLength != -1 && length > s.maxLength)
+					throw error(depth, "string \"" + text + "\" is too long (length: " + length + ", maximum allowed: " + s.maxLength + ")");
+			}
+			if (s.pattern != null && !s.pattern.matcher(text).find())
+				throw error(depth, "ECMA 262 regex \"" + s.pattern.pattern() + "\" does not match input string \"" + text + "\"");
+		}
+
+		private void validateNumber(BigDecimal number, Schema s) throws ValidationException {
+			if (s.enumValues != null && !s.enumValues.contains(normalize(number)))
+				throw error(depth, "instance value (" + number + ") not found in enum");
+			if (s.minimum != null) {
+				int c = number.compareTo(s.minimum);
+				if (c < 0 || c == 0 && s.exclusiveMinimum)
+					throw error(depth, "numeric instance is lower than the required minimum (minimum: " + s.minimum + ", found: " + number + ")");
+			}
+			if (s.maximum != null) {
+				int c = number.compareTo(s.maximum);
+				if (c > 0 || c == 0 && s.exclusiveMaximum)
+					throw error(depth, "numeric instance is greater than the required maximum (maximum: " + s.maximum + ", found: " + number + ")");
+			}
+			if (s.multipleOf != null && number.remainder(s.multipleOf).signum() != 0)
+				throw error(depth, "remainder of division is not zero (" + number + " / " + s.multipleOf + ")");
+		}
+
+		private void push(Schema s, boolean object) {
+			if (depth == frames.size())
+				frames.add(new Frame());
+			Frame f = frames.get(depth++);
+			f.schema = s;
+			f.object = object;
+			f.count = 0;
+			f.name = null;
+			f.next = null;
+			if (object && s != null && s.required != null) {
+				if (f.required == null || f.required.length < s.required.size())
+					f.required = new boolean[s.required.size()];
+				else
+					Arrays.fill(f.required, false);
+			}
+		}
+
+		private void end(Frame f) throws ValidationException {
+			Schema s = f.schema;
+			if (s == null)
+				return;
+			if (f.object) {
+				if (s.required != null)
+					for (Map.Entry<String, Integer> e : s.required.entrySet())
+						if (!f.required[e.getValue()])
+							throw error(depth, "object has missing required properties ([\"" + e.getKey() + "\"])");
+				if (s.minProperties != -1 && f.count < s.minProperties)
+					throw error(depth, "object has too few properties (found " + f.count + " but schema requires at least " + s.minProperties + ")");
+				if (s.maxProperties != -1 && f.count > s.maxProperties)
+					throw error(depth, "object has too many properties (found " + f.count + " but schema requires at most " + s.maxProperties + ")");
+			} else {
+				if (s.minItems != -1 && f.count < s.minItems)
+					throw error(depth, "array is too short: must have at least " + s.minItems + " elements but instance has " + f.count + " elements");
+				if (s.maxItems != -1 && f.count > s.maxItems)
+					throw error(depth, "array is too long: must have at most " + s.maxItems + " elements but instance has " + f.count + " elements");
+			}
+		}
+
+		/**
+		 * @param depth the number of frames containing the instance
+		 */
+		private ValidationException error(int depth, String message) {
+			StringBuilder pointer = new StringBuilder();
+			for (int i = 0; i < depth; i++) {
+				Frame f = frames.get(i);
+				pointer.append('/');
+				if (f.object)
+					pointer.append(f.name.replace("~", "~0").replace("/", "~1"));
+				else
+					pointer.append(f.count - 1);
+			}
+			return new ValidationException((pointer.length() == 0 ? "/" : pointer.toString()) + ": " + message);
+		}
+	}
+
+	private static String typeName(int type) {
+		return TYPE_NAMES[Integer.numberOfTrailingZeros(type)];
+	}
+
+	private static String typeNames(int types) {
+		StringBuilder sb = new StringBuilder("[");
+		for (int i = 0; i < TYPE_NAMES.length; i++) {
+			if ((types & (1 << i)) == 0)
+				continue;
+			if (sb.length() > 1)
+				sb.append(",");
+			sb.append('"').append(TYPE_NAMES[i]).append('"');
+		}
+		return sb.append("]").toString();
+	}
+}
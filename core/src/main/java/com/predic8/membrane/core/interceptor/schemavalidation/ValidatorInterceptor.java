@@ -44,6 +44,7 @@ public class ValidatorInterceptor extends AbstractInterceptor implements Applica
 	private String wsdl;
 	private String schema;
 	private String jsonSchema;
+	private JSONValidator.Mode jsonSchemaMode = JSONValidator.Mode.TREE;
 	private String schematron;
 	private String failureHandler;
 	private boolean skipFaults;
@@ -52,6 +53,13 @@ public class ValidatorInterceptor extends AbstractInterceptor implements Applica
 	private ResolverMap resourceResolver;
 	private ApplicationContext applicationContext;
 
+	/**
+	 * @return the validator created by {@link #init()}
+	 */
+	public IValidator getValidator() {
+		return validator;
+	}
+
 	private void setValidator(IValidator validator) throws Exception {
 		if (this.validator != null)
 			throw new Exception("<validator> cannot have more than one validator attribute.");
@@ -79,7 +87,7 @@ public class ValidatorInterceptor extends AbstractInterceptor implements Applica
 		}
 		if (jsonSchema != null) {
 			name="JSON Schema Validator";
-			setValidator(new JSONValidator(resourceResolver, ResolverMap.combine(baseLocation, jsonSchema), createFailureHandler()));
+			setValidator(new JSONValidator(resourceResolver, ResolverMap.combine(baseLocation, jsonSchema), createFailureHandler(), jsonSchemaMode));
 		}
 		if (schematron != null) {
 			name="Schematron Validator";
@@ -171,6 +179,24 @@ public class ValidatorInterceptor extends AbstractInterceptor implements Applica
 		this.jsonSchema = jsonSchema;
 	}
 
+	public JSONValidator.Mode getJsonSchemaMode() {
+		return jsonSchemaMode;
+	}
+
+	/**
+	 * @description How messages are validated against the JSON Schema. "tree" parses the body into a tree
+	 *              first. "streaming" validates while parsing, using memory independent of the body size, and
+	 *              supports the common keywords only (for other schemas, "tree" is used). "forwarding" works
+	 *              like "streaming", but validates while the body is forwarded: An invalid message is then
+	 *              aborted instead of being answered with "400 Bad Request".
+	 * @default tree
+	 * @example streaming
+	 */
+	@MCAttribute
+	public void setJsonSchemaMode(JSONValidator.Mode jsonSchemaMode) {
+		this.jsonSchemaMode = jsonSchemaMode;
+	}
+
 	public String getSchematron() {
 		return schematron;
 	}
@@ -13,16 +13,17 @@
    limitations under the License. */
 package com.predic8.membrane.core.interceptor.statistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.commons.lang.StringEscapeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Required;
 
 import com.predic8.membrane.annot.MCAttribute;
@@ -32,65 +33,162 @@ import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.exchange.ExchangesUtil;
 import com.predic8.membrane.core.interceptor.AbstractInterceptor;
 import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter.OverflowPolicy;
+import com.predic8.membrane.core.interceptor.statistics.util.RotatingFileSink;
+import com.predic8.membrane.core.interceptor.statistics.util.RotatingFileSink.FsyncPolicy;
 
 /**
  * @description Writes statistics (time, status code, hostname, URI, etc.) about exchanges passing through into a CSV
  *              file (one line per exchange).
- * @explanation Note that the CSV file is UTF-8 encoded.
+ * @explanation <p>
+ *              Note that the CSV file is UTF-8 encoded.
+ *              </p>
+ *              <p>
+ *              The lines are written by a background thread, so that the disk does not delay the exchanges. When
+ *              <tt>queueSize</tt> lines are waiting, the <tt>overflowPolicy</tt> decides what happens to further
+ *              lines. The file can be rotated by size (<tt>maxFileSize</tt>) or age (<tt>rotationInterval</tt>);
+ *              rotated files are renamed to <tt>&lt;file&gt;.&lt;yyyyMMdd-HHmmss&gt;</tt>.
+ *              </p>
+ *              <p>
+ *              Interceptors using the same file share its writer, which is configured by the first of them.
+ *              </p>
  * @topic 5. Monitoring, Logging and Statistics
  */
 @MCElement(name="statisticsCSV")
-public class StatisticsCSVInterceptor extends AbstractInterceptor {
+public class StatisticsCSVInterceptor extends AbstractInterceptor implements DisposableBean {
 
 	private static Logger log = LoggerFactory.getLogger(StatisticsCSVInterceptor.class
 			.getName());
 
-	// maps all fileName objects used by instances of this class to themselves.
-	// used to get unique String instances of the same file name
-	// (when two instances use the same file name)
-	private static final Map<String, String> fileNames = new HashMap<String, String>();
+	private static final String HEADER = "Status Code;Time;Rule;Method;Path;Client;Server;Request Content-Type;" +
+			"Request Content Length;Response Content-Type;Response Content Length;Duration;";
+
+	/**
+	 * The writer of one CSV file, shared by all instances of this class using the file.
+	 */
+	private static class CSVFile {
+		final AsyncBatchWriter<String> writer;
+		final RotatingFileSink sink;
+		int users;
+
+		CSVFile(AsyncBatchWriter<String> writer, RotatingFileSink sink) {
+			this.writer = writer;
+			this.sink = sink;
+		}
+	}
+
+	// maps the absolute paths of the files used by instances of this class to their writers
+	private static final Map<String, CSVFile> files = new HashMap<String, CSVFile>();
+
+	private static final AsyncBatchWriter.Codec<String> LINE_CODEC = new AsyncBatchWriter.Codec<String>() {
+		@Override
+		public void write(String line, DataOutput out) throws IOException {
+			byte[] bytes = line.getBytes(Constants.UTF_8_CHARSET);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		@Override
+		public String read(DataInput in) throws IOException {
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return new String(bytes, Constants.UTF_8_CHARSET);
+		}
+	};
 
-	// the file name of the log file; at the same time a lock guarding the lock file
 	private String fileName;
 
+	private int queueSize = 10000;
+	private int batchSize = 1000;
+	private long flushInterval = 1000;
+	private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+	private String spillFile;
+	private int bufferSize = 256 * 1024;
+	private long maxFileSize;
+	private long rotationInterval;
+	private boolean compressRotated;
+	private FsyncPolicy fsync = FsyncPolicy.NEVER;
+
+	private volatile CSVFile file;
+
 	public StatisticsCSVInterceptor() {
 		name = "CSV Logging";
 	}
 
 	@Override
-	public Outcome handleResponse(Exchange exc) throws Exception {
-		log.debug("logging statistics to "
-				+ new File(fileName).getAbsolutePath());
-		writeExchange(exc);
-		return Outcome.CONTINUE;
+	public void init() throws Exception {
+		getFile();
 	}
 
-	private void writeExchange(Exchange exc) throws Exception {
-		synchronized(fileName) {
-			FileOutputStream fos = new FileOutputStream(fileName, true);
-			try {
-				OutputStreamWriter w = new OutputStreamWriter(fos, Constants.UTF_8_CHARSET);
-
-				writeCSV(ExchangesUtil.getStatusCode(exc), w);
-				writeCSV(ExchangesUtil.getTime(exc), w);
-				writeCSV(exc.getRule().toString(), w);
-				writeCSV(exc.getRequest().getMethod(), w);
-				writeCSV(exc.getRequest().getUri(), w);
-				writeCSV(exc.getRemoteAddr(), w);
-				writeCSV(exc.getServer(), w);
-				writeCSV(exc.getRequestContentType(), w);
-				writeCSV(ExchangesUtil.getRequestContentLength(exc), w);
-				writeCSV(ExchangesUtil.getResponseContentType(exc), w);
-				writeCSV(ExchangesUtil.getResponseContentLength(exc), w);
-				writeCSV(ExchangesUtil.getTimeDifference(exc), w);
-				writeNewLine(w);
-				w.flush();
-			} finally {
-				fos.close();
+	private CSVFile getFile() throws IOException {
+		CSVFile f = file;
+		if (f != null)
+			return f;
+		synchronized (files) {
+			if (file != null)
+				return file;
+			String path = new File(fileName).getAbsolutePath();
+			f = files.get(path);
+			if (f == null) {
+				log.debug("creating csv file at " + path);
+				if (overflowPolicy == OverflowPolicy.SPILL && spillFile == null)
+					throw new IllegalArgumentException("overflowPolicy SPILL requires spillFile.");
+				RotatingFileSink sink = new RotatingFileSink(new File(path), HEADER, maxFileSize,
+						rotationInterval * 1000, compressRotated, fsync, bufferSize);
+				sink.open();
+				f = new CSVFile(new AsyncBatchWriter<String>("StatisticsCSV Writer " + path, sink, queueSize,
+						batchSize, flushInterval, overflowPolicy, LINE_CODEC, spillFile == null ? null : new File(spillFile)), sink);
+				files.put(path, f);
 			}
+			f.users++;
+			file = f;
+			return f;
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		synchronized (files) {
+			CSVFile f = file;
+			if (f == null)
+				return;
+			file = null;
+			if (--f.users > 0)
+				return;
+			files.values().remove(f);
+			f.writer.close(10000);
+			f.sink.close();
 		}
 	}
 
+	@Override
+	public Outcome handleResponse(Exchange exc) throws Exception {
+		getFile().writer.offer(getLine(exc));
+		return Outcome.CONTINUE;
+	}
+
+	private String getLine(Exchange exc) {
+		StringBuilder line = new StringBuilder(256);
+		appendCSV(ExchangesUtil.getStatusCode(exc), line);
+		appendCSV(ExchangesUtil.getTime(exc), line);
+		appendCSV(exc.getRule().toString(), line);
+		appendCSV(exc.getRequest().getMethod(), line);
+		appendCSV(exc.getRequest().getUri(), line);
+		appendCSV(exc.getRemoteAddr(), line);
+		appendCSV(exc.getServer(), line);
+		appendCSV(exc.getRequestContentType(), line);
+		appendCSV(ExchangesUtil.getRequestContentLength(exc), line);
+		appendCSV(ExchangesUtil.getResponseContentType(exc), line);
+		appendCSV(ExchangesUtil.getResponseContentLength(exc), line);
+		appendCSV(ExchangesUtil.getTimeDifference(exc), line);
+		return line.toString();
+	}
+
+	private void appendCSV(String value, StringBuilder line) {
+		line.append(value).append(';');
+	}
+
 	/**
 	 * @description Locations of csv file to write out logs.
 	 * @example stat.csv
@@ -98,71 +196,150 @@ public class StatisticsCSVInterceptor extends AbstractInterceptor {
 	@Required
 	@MCAttribute(attributeName="file")
 	public void setFileName(String fileName) throws Exception {
-		synchronized(fileNames) {
-			String fn = fileNames.get(fileName);
-			if (fn != null)
-				fileName = fn;
-			else
-				fileNames.put(fileName, fileName);
-			this.fileName = fileName;
-			createCSVFile();
-		}
+		this.fileName = fileName;
 	}
 
-	private void createCSVFile() throws Exception {
-		synchronized (fileName) {
-			File csvFile = new File(fileName);
-			log.debug("creating csv file at " + csvFile.getAbsolutePath());
+	public String getFileName() {
+		return new File(fileName).getName();
+	}
 
-			if (csvFile.getParentFile() != null) {
-				csvFile.getParentFile().mkdirs();
-			}
-			csvFile.createNewFile();
+	public AsyncBatchWriter<String> getWriter() {
+		CSVFile f = file;
+		return f == null ? null : f.writer;
+	}
 
-			if (!csvFile.canWrite())
-				throw new IOException("File " + fileName + " is not writable.");
+	public int getQueueSize() {
+		return queueSize;
+	}
 
-			if (csvFile.length() == 0)
-				writeHeaders();
-		}
+	/**
+	 * @description Maximum number of lines waiting to be written.
+	 * @default 10000
+	 */
+	@MCAttribute
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
 	}
 
-	public String getFileName() {
-		return new File(fileName).getName();
+	public int getBatchSize() {
+		return batchSize;
 	}
 
-	private void writeCSV(String value, OutputStreamWriter w) throws IOException {
-		w.append(value + ";");
-	}
-
-	private void writeNewLine(OutputStreamWriter w) throws IOException {
-		w.append(System.getProperty("line.separator"));
-	}
-
-	private void writeHeaders() throws Exception {
-		synchronized(fileName) {
-			FileOutputStream fos = new FileOutputStream(fileName, true);
-			try {
-				OutputStreamWriter w = new OutputStreamWriter(fos, Constants.UTF_8_CHARSET);
-
-				writeCSV("Status Code", w);
-				writeCSV("Time", w);
-				writeCSV("Rule", w);
-				writeCSV("Method", w);
-				writeCSV("Path", w);
-				writeCSV("Client", w);
-				writeCSV("Server", w);
-				writeCSV("Request Content-Type", w);
-				writeCSV("Request Content Length", w);
-				writeCSV("Response Content-Type", w);
-				writeCSV("Response Content Length", w);
-				writeCSV("Duration", w);
-				writeNewLine(w);
-				w.flush();
-			} finally {
-				fos.close();
-			}
-		}
+	/**
+	 * @description Maximum number of lines written at once.
+	 * @default 1000
+	 */
+	@MCAttribute
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * @description Maximum time (in milliseconds) a line waits in the queue.
+	 * @default 1000
+	 */
+	@MCAttribute
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * @description What happens to lines when the queue is full: BLOCK delays the exchange until there is
+	 *              space, DROP discards the line and SPILL appends it to <tt>spillFile</tt>, from where it
+	 *              is written once the queue is empty again.
+	 * @default DROP
+	 */
+	@MCAttribute
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	public String getSpillFile() {
+		return spillFile;
+	}
+
+	/**
+	 * @description The file used by the overflow policy SPILL.
+	 */
+	@MCAttribute
+	public void setSpillFile(String spillFile) {
+		this.spillFile = spillFile;
+	}
+
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * @description Size (in bytes) of the write buffer.
+	 * @default 262144
+	 */
+	@MCAttribute
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	public long getMaxFileSize() {
+		return maxFileSize;
+	}
+
+	/**
+	 * @description The file is rotated before it grows larger than this size (in bytes). 0 disables size based
+	 *              rotation.
+	 * @default 0
+	 */
+	@MCAttribute
+	public void setMaxFileSize(long maxFileSize) {
+		this.maxFileSize = maxFileSize;
+	}
+
+	public long getRotationInterval() {
+		return rotationInterval;
+	}
+
+	/**
+	 * @description The file is rotated when it is older than this number of seconds (checked whenever lines are
+	 *              written). 0 disables time based rotation.
+	 * @default 0
+	 */
+	@MCAttribute
+	public void setRotationInterval(long rotationInterval) {
+		this.rotationInterval = rotationInterval;
+	}
+
+	public boolean isCompressRotated() {
+		return compressRotated;
+	}
+
+	/**
+	 * @description Whether rotated files are gzipped.
+	 * @default false
+	 */
+	@MCAttribute
+	public void setCompressRotated(boolean compressRotated) {
+		this.compressRotated = compressRotated;
+	}
+
+	public FsyncPolicy getFsync() {
+		return fsync;
+	}
+
+	/**
+	 * @description When the written lines are forced to the disk: NEVER leaves this to the operating system,
+	 *              BATCH forces them after every write and ROTATION when the file is rotated or closed.
+	 * @default NEVER
+	 */
+	@MCAttribute
+	public void setFsync(FsyncPolicy fsync) {
+		this.fsync = fsync;
 	}
 
 	@Override
@@ -170,4 +347,16 @@ public class StatisticsCSVInterceptor extends AbstractInterceptor {
 		return "Logs access statistics into the CSV-based file " + StringEscapeUtils.escapeHtml(fileName) + " .";
 	}
 
+	@Override
+	public String getLongDescription() {
+		AsyncBatchWriter<String> writer = getWriter();
+		if (writer == null)
+			return getShortDescription();
+		return String.format("%s<br/>Queue depth: %d, lines written: %d, failed: %d, dropped: %d, spilled: %d<br/>" +
+				"Batches: %d, average batch size: %.1f, average write time: %.1f ms, maximum write time: %.1f ms",
+				getShortDescription(), writer.getQueueDepth(), writer.getWritten(), writer.getFailed(),
+				writer.getDropped(), writer.getSpilled(), writer.getBatches(), writer.getAverageBatchSize(),
+				writer.getAverageWriteMillis(), writer.getMaxWriteMillis());
+	}
+
 }
@@ -13,10 +13,15 @@
    limitations under the License. */
 package com.predic8.membrane.core.interceptor.statistics;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.Statement;
+import java.util.List;
 
 import javax.mail.internet.ContentType;
 import javax.mail.internet.ParseException;
@@ -25,26 +30,34 @@ import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Required;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
 import com.predic8.membrane.annot.MCAttribute;
 import com.predic8.membrane.annot.MCElement;
+import com.predic8.membrane.core.Constants;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.MimeType;
 import com.predic8.membrane.core.http.Request;
 import com.predic8.membrane.core.interceptor.AbstractInterceptor;
 import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter.OverflowPolicy;
 import com.predic8.membrane.core.interceptor.statistics.util.JDBCUtil;
 
 /**
  * @description Writes statistics (time, status code, hostname, URI, etc.) about exchanges passing through into a
  * database (one row per exchange).
+ * @explanation The rows are inserted by a background thread using JDBC batches, so that the database does not
+ *              delay the exchanges. A batch is written when <tt>batchSize</tt> rows are queued or
+ *              <tt>flushInterval</tt> milliseconds after the first row was queued. When <tt>queueSize</tt>
+ *              rows are waiting, the <tt>overflowPolicy</tt> decides what happens to further rows.
  * @topic 5. Monitoring, Logging and Statistics
  */
 @MCElement(name="statisticsJDBC")
-public class StatisticsJDBCInterceptor extends AbstractInterceptor implements ApplicationContextAware {
+public class StatisticsJDBCInterceptor extends AbstractInterceptor implements ApplicationContextAware, DisposableBean {
 	private static final String DATASOURCE_BEAN_ID_ATTRIBUTE_CANNOT_BE_USED = "datasource bean id attribute cannot be used";
 
 	private static Logger log = LoggerFactory.getLogger(StatisticsJDBCInterceptor.class.getName());
@@ -58,6 +71,19 @@ public class StatisticsJDBCInterceptor extends AbstractInterceptor implements Ap
 	private String statString;
 	private String dataSourceBeanId = DATASOURCE_BEAN_ID_ATTRIBUTE_CANNOT_BE_USED;
 
+	private int queueSize = 10000;
+	private int batchSize = 100;
+	private long flushInterval = 1000;
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+	private String spillFile;
+
+	private AsyncBatchWriter<Object[]> writer;
+
+	// used by the writer thread only, or by destroy() once the writer thread has stopped
+	private Connection writerConnection;
+	private PreparedStatement writerStatement;
+	private volatile boolean destroyed;
+
 	public StatisticsJDBCInterceptor() {
 		name = "JDBC Logging";
 	}
@@ -83,28 +109,73 @@ public class StatisticsJDBCInterceptor extends AbstractInterceptor implements Ap
 		} finally {
 			closeConnection(con);
 		}
+		if (overflowPolicy == OverflowPolicy.SPILL && spillFile == null)
+			throw new RuntimeException("Init for StatisticsJDBCInterceptor failed: overflowPolicy SPILL requires spillFile.");
+		writer = new AsyncBatchWriter<Object[]>("StatisticsJDBC Writer", new AsyncBatchWriter.Sink<Object[]>() {
+			@Override
+			public void write(List<Object[]> batch) throws Exception {
+				writeBatch(batch);
+			}
+		}, queueSize, batchSize, flushInterval, overflowPolicy, new RowCodec(),
+				spillFile == null ? null : new File(spillFile));
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		destroyed = true;
+		if (writer != null && !writer.close(10000)) {
+			log.warn("The statistics writer did not stop within 10 seconds, its connection is closed after the current batch.");
+			return;
+		}
+		closeWriterConnection();
 	}
 
 	@Override
 	public Outcome handleResponse(Exchange exc) throws Exception {
-		Connection con = null;
 		try {
-			con = dataSource.getConnection();
-			saveExchange(con, exc);
+			saveExchange(exc);
 		} catch (Exception e) {
 			log.warn("Could not save statistics.", e);
-		} finally {
-			closeConnection(con);
 		}
 		return Outcome.CONTINUE;
 	}
 
-	private void saveExchange(Connection con, Exchange exc) throws Exception {
+	private void saveExchange(Exchange exc) throws Exception {
 		if ( ignoreGetMethod(exc) ) return;
 		if ( ignoreNotSoap(exc) ) return;
-		PreparedStatement stat = con.prepareStatement(statString);
-		JDBCUtil.setData(exc, stat, idGenerated);
-		stat.executeUpdate();
+		writer.offer(JDBCUtil.getData(exc, idGenerated));
+	}
+
+	/**
+	 * Called by the writer thread. The connection and statement are kept open between batches and are
+	 * reopened after a failure.
+	 */
+	private void writeBatch(List<Object[]> batch) throws Exception {
+		try {
+			if (writerStatement == null) {
+				writerConnection = dataSource.getConnection();
+				writerStatement = writerConnection.prepareStatement(statString);
+			}
+			for (Object[] row : batch) {
+				JDBCUtil.setData(row, writerStatement);
+				writerStatement.addBatch();
+			}
+			writerStatement.executeBatch();
+		} catch (Exception e) {
+			closeWriterConnection();
+			throw e;
+		} finally {
+			// destroy() has given up waiting for the writer thread
+			if (destroyed)
+				closeWriterConnection();
+		}
+	}
+
+	private void closeWriterConnection() {
+		closeConnection(writerStatement);
+		closeConnection(writerConnection);
+		writerStatement = null;
+		writerConnection = null;
 	}
 
 	private boolean ignoreNotSoap(Exchange exc) {
@@ -146,6 +217,137 @@ public class StatisticsJDBCInterceptor extends AbstractInterceptor implements Ap
 		}
 	}
 
+	/**
+	 * Serializes rows for {@link OverflowPolicy#SPILL}.
+	 */
+	private static class RowCodec implements AsyncBatchWriter.Codec<Object[]> {
+		private static final int NULL = 0, INT = 1, LONG = 2, STRING = 3;
+
+		@Override
+		public void write(Object[] row, DataOutput out) throws IOException {
+			out.writeShort(row.length);
+			for (Object value : row) {
+				if (value instanceof Integer) {
+					out.writeByte(INT);
+					out.writeInt((Integer) value);
+				} else if (value instanceof Long) {
+					out.writeByte(LONG);
+					out.writeLong((Long) value);
+				} else if (value != null) {
+					// not writeUTF(), which is limited to 64 KB
+					byte[] bytes = ((String) value).getBytes(Constants.UTF_8_CHARSET);
+					out.writeByte(STRING);
+					out.writeInt(bytes.length);
+					out.write(bytes);
+				} else {
+					out.writeByte(NULL);
+				}
+			}
+		}
+
+		@Override
+		public Object[] read(DataInput in) throws IOException {
+			Object[] row = new Object[in.readShort()];
+			for (int i = 0; i < row.length; i++) {
+				switch (in.readByte()) {
+				case INT:
+					row[i] = in.readInt();
+					break;
+				case LONG:
+					row[i] = in.readLong();
+					break;
+				case STRING:
+					byte[] bytes = new byte[in.readInt()];
+					in.readFully(bytes);
+					row[i] = new String(bytes, Constants.UTF_8_CHARSET);
+					break;
+				}
+			}
+			return row;
+		}
+	}
+
+	@Override
+	public String getLongDescription() {
+		if (writer == null)
+			return getShortDescription();
+		return String.format("%s<br/>Queue depth: %d, rows written: %d, failed: %d, dropped: %d, spilled: %d<br/>" +
+				"Batches: %d, average batch size: %.1f, average write time: %.1f ms, maximum write time: %.1f ms",
+				getShortDescription(), writer.getQueueDepth(), writer.getWritten(), writer.getFailed(),
+				writer.getDropped(), writer.getSpilled(), writer.getBatches(), writer.getAverageBatchSize(),
+				writer.getAverageWriteMillis(), writer.getMaxWriteMillis());
+	}
+
+	public AsyncBatchWriter<Object[]> getWriter() {
+		return writer;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * @description Maximum number of rows waiting to be written.
+	 * @default 10000
+	 */
+	@MCAttribute
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * @description Maximum number of rows inserted using one JDBC batch.
+	 * @default 100
+	 */
+	@MCAttribute
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * @description Maximum time (in milliseconds) a row waits for its batch to fill up.
+	 * @default 1000
+	 */
+	@MCAttribute
+	public void setFlushInterval(long flushInterval) {
+		this.flushInterval = flushInterval;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * @description What happens to rows when the queue is full: BLOCK delays the exchange until there is
+	 *              space, DROP discards the row and SPILL appends it to <tt>spillFile</tt>, from where it
+	 *              is written once the queue is empty again.
+	 * @default BLOCK
+	 */
+	@MCAttribute
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	public String getSpillFile() {
+		return spillFile;
+	}
+
+	/**
+	 * @description The file used by the overflow policy SPILL.
+	 */
+	@MCAttribute
+	public void setSpillFile(String spillFile) {
+		this.spillFile = spillFile;
+	}
+
 	public DataSource getDataSource() {
 		return dataSource;
 	}
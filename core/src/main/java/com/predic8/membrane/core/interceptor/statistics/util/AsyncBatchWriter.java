@@ -0,0 +1,348 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor.statistics.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes records in batches on a dedicated background thread, so that the threads handling exchanges
+ * never wait for the storage (a database, a file).
+ *
+ * Records are enqueued without locking. A batch is written as soon as batchSize records are queued or
+ * flushInterval milliseconds after the first record of the batch was enqueued. When capacity records
+ * are queued, the {@link OverflowPolicy} decides what happens to further records.
+ */
+public class AsyncBatchWriter<T> {
+
+	private static final Logger log = LoggerFactory.getLogger(AsyncBatchWriter.class.getName());
+
+	public enum OverflowPolicy {
+		/** the enqueueing thread waits until there is space in the queue */
+		BLOCK,
+		/** the record is discarded */
+		DROP,
+		/** the record is appended to a file, which is written once the queue is empty again */
+		SPILL
+	}
+
+	/**
+	 * Writes a batch of records to the storage.
+	 */
+	public interface Sink<T> {
+		void write(List<T> batch) throws Exception;
+	}
+
+	/**
+	 * Serializes records for {@link OverflowPolicy#SPILL}.
+	 */
+	public interface Codec<T> {
+		void write(T record, DataOutput out) throws IOException;
+
+		T read(DataInput in) throws IOException;
+	}
+
+	private final Sink<T> sink;
+	private final int batchSize;
+	private final long flushIntervalNanos;
+	private final OverflowPolicy overflowPolicy;
+	private final Codec<T> codec;
+	private final File spillFile;
+
+	private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<T>();
+	private final Semaphore free;
+	private final AtomicInteger size = new AtomicInteger();
+	private final Thread thread;
+	private volatile boolean closed;
+	// set when the background thread has ended, normally or because of an unexpected error
+	private volatile boolean stopped;
+
+	private final Object spillLock = new Object();
+	private DataOutputStream spill;
+	private volatile boolean spilled;
+
+	// metrics
+	private final AtomicLong dropped = new AtomicLong(), spilledCount = new AtomicLong();
+	private volatile long written, failed, batches, writeNanos, maxWriteNanos;
+	private volatile int lastBatchSize;
+
+	/**
+	 * @param spillFile the file used by {@link OverflowPolicy#SPILL}, may be null for the other policies.
+	 */
+	public AsyncBatchWriter(String name, Sink<T> sink, int capacity, int batchSize, long flushIntervalMillis,
+			OverflowPolicy overflowPolicy, Codec<T> codec, File spillFile) {
+		if (capacity <= 0 || batchSize <= 0)
+			throw new IllegalArgumentException("capacity and batchSize must be positive.");
+		if (overflowPolicy == OverflowPolicy.SPILL && (codec == null || spillFile == null))
+			throw new IllegalArgumentException("Spilling requires a codec and a spill file.");
+		this.sink = sink;
+		this.batchSize = batchSize;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+		this.overflowPolicy = overflowPolicy;
+		this.codec = codec;
+		this.spillFile = spillFile;
+		free = new Semaphore(capacity);
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				AsyncBatchWriter.this.run();
+			}
+		}, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Enqueues a record.
+	 *
+	 * @return false, if the record was dropped.
+	 */
+	public boolean offer(T record) {
+		if (closed || stopped) {
+			dropped.incrementAndGet();
+			return false;
+		}
+		if (!free.tryAcquire()) {
+			switch (overflowPolicy) {
+			case DROP:
+				if (dropped.incrementAndGet() % 10000 == 1)
+					log.warn("Queue of {} is full, dropping records.", thread.getName());
+				return false;
+			case SPILL:
+				return spill(record);
+			default:
+				if (!acquire()) {
+					dropped.incrementAndGet();
+					return false;
+				}
+			}
+		}
+		queue.offer(record);
+		if (size.incrementAndGet() == batchSize)
+			LockSupport.unpark(thread);
+		return true;
+	}
+
+	/**
+	 * Waits for space in the queue, as long as the background thread is running.
+	 *
+	 * @return false, if the background thread has stopped meanwhile.
+	 */
+	private boolean acquire() {
+		boolean interrupted = false;
+		try {
+			while (!stopped) {
+				try {
+					if (free.tryAcquire(100, TimeUnit.MILLISECONDS))
+						return true;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			return false;
+		} finally {
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+	}
+
+	private boolean spill(T record) {
+		synchronized (spillLock) {
+			try {
+				if (spill == null)
+					spill = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile, true)));
+				codec.write(record, spill);
+				spilled = true;
+				spilledCount.incrementAndGet();
+				return true;
+			} catch (IOException e) {
+				log.warn("Could not spill record to " + spillFile + ", dropping it.", e);
+				dropped.incrementAndGet();
+				return false;
+			}
+		}
+	}
+
+	private void run() {
+		try {
+			writeBatches();
+		} catch (Throwable t) {
+			log.error(thread.getName() + " stopped unexpectedly, further records are dropped.", t);
+		} finally {
+			stopped = true;
+		}
+	}
+
+	private void writeBatches() {
+		List<T> batch = new ArrayList<T>(batchSize);
+		long deadline = 0;
+		while (true) {
+			T record;
+			while (batch.size() < batchSize && (record = queue.poll()) != null) {
+				if (batch.isEmpty())
+					deadline = System.nanoTime() + flushIntervalNanos;
+				batch.add(record);
+				size.decrementAndGet();
+				free.release();
+			}
+			boolean stop = closed && queue.isEmpty();
+			if (!batch.isEmpty() && (batch.size() >= batchSize || System.nanoTime() - deadline >= 0 || stop)) {
+				write(batch);
+				continue;
+			}
+			if (batch.isEmpty() && spilled) {
+				replaySpill();
+				continue;
+			}
+			if (stop)
+				return;
+			LockSupport.parkNanos(this, batch.isEmpty() ? flushIntervalNanos : deadline - System.nanoTime());
+		}
+	}
+
+	private void write(List<T> batch) {
+		long start = System.nanoTime();
+		try {
+			sink.write(batch);
+			written += batch.size();
+		} catch (Throwable e) {
+			log.warn("Could not write " + batch.size() + " records.", e);
+			failed += batch.size();
+		}
+		long duration = System.nanoTime() - start;
+		writeNanos += duration;
+		if (duration > maxWriteNanos)
+			maxWriteNanos = duration;
+		lastBatchSize = batch.size();
+		batches++;
+		batch.clear();
+	}
+
+	/**
+	 * Writes the spilled records. Records spilled meanwhile are written during the next call.
+	 */
+	private void replaySpill() {
+		File replay = new File(spillFile.getPath() + ".replay");
+		synchronized (spillLock) {
+			try {
+				if (spill != null)
+					spill.close();
+			} catch (IOException e) {
+				log.warn("Could not close " + spillFile, e);
+			}
+			spill = null;
+			spilled = false;
+			if (!spillFile.renameTo(replay)) {
+				log.warn("Could not rename " + spillFile + " to " + replay + ".");
+				return;
+			}
+		}
+		List<T> batch = new ArrayList<T>(batchSize);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(replay)))) {
+			while (true) {
+				T record;
+				try {
+					record = codec.read(in);
+				} catch (EOFException e) {
+					break;
+				}
+				batch.add(record);
+				if (batch.size() == batchSize)
+					write(batch);
+			}
+		} catch (IOException e) {
+			log.warn("Could not read spilled records from " + replay + ".", e);
+		}
+		if (!batch.isEmpty())
+			write(batch);
+		if (!replay.delete())
+			log.warn("Could not delete " + replay + ".");
+	}
+
+	/**
+	 * Writes all queued records and stops the background thread.
+	 *
+	 * @return whether the background thread has stopped within the timeout. If not, it may still be
+	 *         using the sink.
+	 */
+	public boolean close(long timeoutMillis) throws InterruptedException {
+		closed = true;
+		LockSupport.unpark(thread);
+		thread.join(timeoutMillis);
+		return !thread.isAlive();
+	}
+
+	public int getQueueDepth() {
+		return size.get();
+	}
+
+	public long getWritten() {
+		return written;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	public long getSpilled() {
+		return spilledCount.get();
+	}
+
+	public long getBatches() {
+		return batches;
+	}
+
+	public int getLastBatchSize() {
+		return lastBatchSize;
+	}
+
+	public double getAverageBatchSize() {
+		long b = batches;
+		return b == 0 ? 0 : (double) (written + failed) / b;
+	}
+
+	public double getAverageWriteMillis() {
+		long b = batches;
+		return b == 0 ? 0 : writeNanos / 1e6 / b;
+	}
+
+	public double getMaxWriteMillis() {
+		return maxWriteNanos / 1e6;
+	}
+
+}
@@ -169,25 +169,44 @@ public class JDBCUtil {
 	}
 
 	public static void setData(AbstractExchange exc, PreparedStatement prepSt, boolean idGenerated) throws SQLException {
-		int startIndex = 0;
-		if (!idGenerated) {
-			UUID id = UUID.randomUUID();
-			prepSt.setLong(++ startIndex, id.getLeastSignificantBits());
+		setData(getData(exc, idGenerated), prepSt);
+	}
+
+	/**
+	 * Extracts the column values of the row describing the exchange, in the order used by
+	 * {@link #getPreparedInsertStatement(boolean)}.
+	 */
+	public static Object[] getData(AbstractExchange exc, boolean idGenerated) {
+		Object[] row = new Object[idGenerated ? 13 : 14];
+		int i = 0;
+		if (!idGenerated)
+			row[i++] = UUID.randomUUID().getLeastSignificantBits();
+		row[i++] = exc.getResponse().getStatusCode();
+		row[i++] = ExchangesUtil.getTime(exc);
+		row[i++] = exc.getRule().toString();
+		row[i++] = exc.getRequest().getMethod();
+		row[i++] = exc.getRequest().getUri();
+		row[i++] = exc.getRemoteAddr();
+		row[i++] = exc.getServer();
+		row[i++] = exc.getRequestContentType();
+		row[i++] = exc.getRequestContentLength();
+		row[i++] = exc.getResponseContentType();
+		row[i++] = exc.getResponseContentLength();
+		row[i++] = exc.getTimeResReceived() - exc.getTimeReqSent();
+		row[i++] = getFilePath(exc);
+		return row;
+	}
+
+	public static void setData(Object[] row, PreparedStatement prepSt) throws SQLException {
+		for (int i = 0; i < row.length; i++) {
+			Object value = row[i];
+			if (value instanceof Integer)
+				prepSt.setInt(i + 1, (Integer) value);
+			else if (value instanceof Long)
+				prepSt.setLong(i + 1, (Long) value);
+			else
+				prepSt.setString(i + 1, (String) value);
 		}
-		prepSt.setInt(++ startIndex, exc.getResponse().getStatusCode());
-		prepSt.setString(++ startIndex, ExchangesUtil.getTime(exc));
-		prepSt.setString(++ startIndex, exc.getRule().toString());
-		prepSt.setString(++ startIndex, exc.getRequest().getMethod());
-		prepSt.setString(++ startIndex, exc.getRequest().getUri());
-		prepSt.setString(++ startIndex, exc.getRemoteAddr());
-		prepSt.setString(++ startIndex, exc.getServer());
-		prepSt.setString(++ startIndex, exc.getRequestContentType());
-		prepSt.setLong(++ startIndex, exc.getRequestContentLength());
-		prepSt.setString(++ startIndex, exc.getResponseContentType());
-		prepSt.setLong(++ startIndex, exc.getResponseContentLength());
-		prepSt.setLong(++ startIndex, (exc.getTimeResReceived() - exc.getTimeReqSent()));
-
-		prepSt.setString(++ startIndex, getFilePath(exc));
 	}
 
 	public static String getFilePath(AbstractExchange exc) {
@@ -0,0 +1,220 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor.statistics.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.predic8.membrane.core.Constants;
+
+/**
+ * Appends lines to a file through a large buffer, rotating the file by size or age.
+ *
+ * Rotated files are renamed to "&lt;file&gt;.&lt;yyyyMMdd-HHmmss&gt;" and, optionally, gzipped on a separate
+ * thread, which {@link #close()} waits for. Every new file starts with the header line. If a file cannot be
+ * renamed, appending to it continues and rotation is retried after another interval or another maxFileSize
+ * bytes. Instances are not thread-safe: they are meant to be used by the thread of an {@link AsyncBatchWriter}.
+ */
+public class RotatingFileSink implements AsyncBatchWriter.Sink<String> {
+
+	private static final Logger log = LoggerFactory.getLogger(RotatingFileSink.class.getName());
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+
+	public enum FsyncPolicy {
+		/** leave it to the operating system when data reaches the disk */
+		NEVER,
+		/** force the data to the disk after every batch */
+		BATCH,
+		/** force the data to the disk when a file is rotated or closed */
+		ROTATION
+	}
+
+	private final File file;
+	private final String header;
+	private final long maxFileSize;
+	private final long rotationIntervalMillis;
+	private final boolean compressRotated;
+	private final FsyncPolicy fsync;
+	private final ByteBuffer buffer;
+	private final List<Thread> compressors = new ArrayList<Thread>();
+
+	private FileChannel channel;
+	private long size, openedAt;
+
+	/**
+	 * @param header the first line of every file (without line separator), or null
+	 * @param maxFileSize the size in bytes after which the file is rotated, 0 for no limit
+	 * @param rotationIntervalMillis the age after which the file is rotated, 0 for no limit
+	 */
+	public RotatingFileSink(File file, String header, long maxFileSize, long rotationIntervalMillis,
+			boolean compressRotated, FsyncPolicy fsync, int bufferSize) {
+		this.file = file;
+		this.header = header;
+		this.maxFileSize = maxFileSize;
+		this.rotationIntervalMillis = rotationIntervalMillis;
+		this.compressRotated = compressRotated;
+		this.fsync = fsync;
+		buffer = ByteBuffer.allocate(bufferSize);
+	}
+
+	/**
+	 * Opens the file, creating it (and its directory) if necessary.
+	 */
+	public void open() throws IOException {
+		if (channel != null)
+			return;
+		if (file.getParentFile() != null)
+			file.getParentFile().mkdirs();
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		size = channel.size();
+		openedAt = System.currentTimeMillis();
+		if (size == 0 && header != null)
+			append(header);
+	}
+
+	@Override
+	public void write(List<String> lines) throws IOException {
+		open();
+		// time based rotation is checked when there is something to write, so that no empty files are created
+		if (rotationIntervalMillis > 0 && System.currentTimeMillis() - openedAt >= rotationIntervalMillis)
+			rotate();
+		for (String line : lines)
+			append(line);
+		flush();
+		if (fsync == FsyncPolicy.BATCH)
+			channel.force(false);
+	}
+
+	private void append(String line) throws IOException {
+		byte[] bytes = (line + LINE_SEPARATOR).getBytes(Constants.UTF_8_CHARSET);
+		if (maxFileSize > 0 && size > 0 && size + bytes.length > maxFileSize)
+			rotate();
+		if (bytes.length > buffer.remaining()) {
+			flush();
+			if (bytes.length > buffer.capacity()) {
+				writeFully(ByteBuffer.wrap(bytes));
+				size += bytes.length;
+				return;
+			}
+		}
+		buffer.put(bytes);
+		size += bytes.length;
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		writeFully(buffer);
+		buffer.clear();
+	}
+
+	private void writeFully(ByteBuffer b) throws IOException {
+		while (b.hasRemaining())
+			channel.write(b);
+	}
+
+	private void rotate() throws IOException {
+		closeChannel();
+		String name = file.getPath() + "." + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+		File rotated = new File(name);
+		for (int i = 1; rotated.exists() || new File(rotated.getPath() + ".gz").exists(); i++)
+			rotated = new File(name + "-" + i);
+		if (!rename(rotated)) {
+			log.warn("Could not rename " + file + " to " + rotated + ", continuing to append.");
+			open();
+			// count from here, so that the rename is not retried on every append
+			size = 0;
+			return;
+		}
+		if (compressRotated)
+			compress(rotated);
+		open();
+	}
+
+	boolean rename(File rotated) {
+		return file.renameTo(rotated);
+	}
+
+	private void compress(final File rotated) {
+		for (Iterator<Thread> it = compressors.iterator(); it.hasNext(); )
+			if (!it.next().isAlive())
+				it.remove();
+		Thread t = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				File gz = new File(rotated.getPath() + ".gz");
+				try (InputStream in = new FileInputStream(rotated);
+						OutputStream out = new GZIPOutputStream(new FileOutputStream(gz), 65536)) {
+					byte[] buf = new byte[65536];
+					int n;
+					while ((n = in.read(buf)) != -1)
+						out.write(buf, 0, n);
+				} catch (IOException e) {
+					log.warn("Could not compress " + rotated + ".", e);
+					gz.delete();
+					return;
+				}
+				if (!rotated.delete())
+					log.warn("Could not delete " + rotated + ".");
+			}
+		}, "Compressing " + rotated.getName());
+		t.setDaemon(true);
+		t.start();
+		compressors.add(t);
+	}
+
+	private void closeChannel() throws IOException {
+		if (channel == null)
+			return;
+		try {
+			flush();
+			if (fsync != FsyncPolicy.NEVER)
+				channel.force(false);
+		} finally {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	/**
+	 * Closes the file and waits until the rotated files have been compressed.
+	 */
+	public void close() throws IOException {
+		closeChannel();
+		try {
+			for (Thread t : compressors)
+				t.join();
+			compressors.clear();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
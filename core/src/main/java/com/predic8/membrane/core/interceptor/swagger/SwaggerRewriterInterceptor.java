@@ -19,6 +19,8 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.predic8.membrane.core.rules.Rule;
@@ -36,6 +38,7 @@ import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.interceptor.AbstractInterceptor;
 import com.predic8.membrane.core.interceptor.Outcome;
 import com.predic8.membrane.core.rules.ServiceProxy;
+import com.predic8.membrane.core.util.MessageUtil;
 
 /**
  * @description Allow Swagger proxying
@@ -43,10 +46,18 @@ import com.predic8.membrane.core.rules.ServiceProxy;
 @MCElement(name = "swaggerRewriter")
 public class SwaggerRewriterInterceptor extends AbstractInterceptor {
 
+	private static final Pattern UI_URI = Pattern.compile("/.*.js(on)?");
+
 	private Swagger swagger;
 	private boolean rewriteUI = true;
 	private String swaggerUrl;
 	private String swaggerJson = "swagger.json";
+	private int maxMatchLength = 4096;
+
+	/**
+	 * target host -> pattern matching links to it in the UI
+	 */
+	private final ConcurrentHashMap<String, Pattern> uiPatterns = new ConcurrentHashMap<String, Pattern>();
 
 	public SwaggerRewriterInterceptor() { this(null, true, "swagger.json"); } // 0-parameter ctor needed because of MCElement
 	public SwaggerRewriterInterceptor(Swagger swag) {
@@ -104,19 +115,26 @@ public class SwaggerRewriterInterceptor extends AbstractInterceptor {
 
 		// replacement in json and javascript (specifically UI)
 		if (rewriteUI &&
-				(exc.getRequest().getUri().matches("/.*.js(on)?")
+				(UI_URI.matcher(exc.getRequest().getUri()).matches()
 					|| exc.getResponse().getHeader().getContentType() != null
 						&& exc.getResponse().getHeader().getContentType().equals(MediaType.TEXT_HTML_VALUE)
 				)) {
-			String from = "(http(s)?://)" + Pattern.quote(((ServiceProxy) exc.getRule()).getTarget().getHost()) + "(/.*\\.js(on)?)";
-			String to = "$1" + exc2originalHostPort(exc) + "$3";
-			byte[] body = exc.getResponse().getBodyAsStringDecoded().replaceAll(from, to).getBytes(exc.getResponse().getCharset());
-			exc.getResponse().setBodyContent(body);
+			String to = "$1" + Matcher.quoteReplacement(exc2originalHostPort(exc)) + "$3";
+			MessageUtil.replaceAll(exc.getResponse(), getUIPattern(((ServiceProxy) exc.getRule()).getTarget().getHost()), to, maxMatchLength);
 		}
 
 		return super.handleResponse(exc);
 	}
 
+	private Pattern getUIPattern(String targetHost) {
+		Pattern pattern = uiPatterns.get(targetHost);
+		if (pattern == null) {
+			pattern = Pattern.compile("(http(s)?://)" + Pattern.quote(targetHost) + "(/.*\\.js(on)?)");
+			uiPatterns.put(targetHost, pattern);
+		}
+		return pattern;
+	}
+
 	private String exc2originalHostPort(Exchange exc) {
 		return exc.getOriginalHostHeader();
 	}
@@ -162,4 +180,17 @@ public class SwaggerRewriterInterceptor extends AbstractInterceptor {
 		this.swaggerJson = swaggerJson;
 	}
 
+	public int getMaxMatchLength() {
+		return maxMatchLength;
+	}
+	/**
+	 * @description The UI is rewritten while it is being forwarded. A link is therefore only
+	 *              guaranteed to be rewritten if it is not longer than this number of characters.
+	 * @default 4096
+	 */
+	@MCAttribute
+	public void setMaxMatchLength(int maxMatchLength) {
+		this.maxMatchLength = maxMatchLength;
+	}
+
 }
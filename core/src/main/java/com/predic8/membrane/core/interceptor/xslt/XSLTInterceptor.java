@@ -73,6 +73,13 @@ public class XSLTInterceptor extends AbstractInterceptor {
 		return xslt;
 	}
 
+	/**
+	 * @return the transformer created by {@link #init()}, or null
+	 */
+	public XSLTTransformer getTransformer() {
+		return xsltTransformer;
+	}
+
 	/**
 	 * @description Location of the XSLT stylesheet that will be applied to request and response.
 	 * @example strip.xslt
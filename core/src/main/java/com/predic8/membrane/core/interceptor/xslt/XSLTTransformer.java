@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
@@ -33,44 +34,44 @@ import org.slf4j.LoggerFactory;
 import com.predic8.membrane.core.Router;
 import com.predic8.membrane.core.resolver.ResolverMap;
 import com.predic8.membrane.core.resolver.ResourceRetrievalException;
-
+import com.predic8.membrane.core.util.PoolStatistics;
+
+/**
+ * Applies an XSLT stylesheet.
+ *
+ * The stylesheet is compiled once into {@link Templates}. The {@link Transformer} instances created from them
+ * are pooled, as they may not be used concurrently.
+ */
 public class XSLTTransformer {
 	private static Logger log = LoggerFactory.getLogger(XSLTTransformer.class.getName());
 
 	private final TransformerFactory fac;
+	private final Templates templates;
 	private final ArrayBlockingQueue<Transformer> transformers;
 	private final String styleSheet;
+	private final PoolStatistics poolStatistics = new PoolStatistics();
 
 	public XSLTTransformer(String styleSheet, final Router router, final int concurrency) throws Exception {
 		fac = TransformerFactory.newInstance();
 
 		this.styleSheet = styleSheet;
-		log.debug("using " + concurrency + " parallel transformer instances for " + styleSheet);
+		log.debug("using up to " + concurrency + " pooled transformer instances for " + styleSheet);
 		transformers = new ArrayBlockingQueue<Transformer>(concurrency);
-		createOneTransformer(router.getResolverMap(), router.getBaseLocation());
-		router.getBackgroundInitializator().execute(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					for (int i = 1; i < concurrency; i++)
-						createOneTransformer(router.getResolverMap(), router.getBaseLocation());
-				} catch (Exception e) {
-					log.error("Error creating XSLT transformer:", e);
-				}
-			}
-		});
+		templates = compile(router.getResolverMap(), router.getBaseLocation());
+		transformers.offer(createTransformer());
 	}
 
-	private void createOneTransformer(ResolverMap rr, String baseLocation) throws TransformerConfigurationException, InterruptedException, ResourceRetrievalException {
-		Transformer t;
+	private Templates compile(ResolverMap rr, String baseLocation) throws TransformerConfigurationException, ResourceRetrievalException {
 		if (isNullOrEmpty(styleSheet))
-			t = fac.newTransformer();
-		else {
-			StreamSource source = new StreamSource(rr.resolve(ResolverMap.combine(baseLocation, styleSheet)));
-			source.setSystemId(styleSheet);
-			t = fac.newTransformer(source);
-		}
-		transformers.put(t);
+			return null;
+		StreamSource source = new StreamSource(rr.resolve(ResolverMap.combine(baseLocation, styleSheet)));
+		source.setSystemId(styleSheet);
+		return fac.newTemplates(source);
+	}
+
+	private synchronized Transformer createTransformer() throws TransformerConfigurationException {
+		poolStatistics.recordCreated();
+		return templates == null ? fac.newTransformer() : templates.newTransformer();
 	}
 
 	public byte[] transform(Source xml) throws Exception {
@@ -82,7 +83,10 @@ public class XSLTTransformer {
 		log.debug("applying transformation: " + styleSheet);
 
 		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		Transformer t = transformers.take();
+		poolStatistics.recordAcquired();
+		Transformer t = transformers.poll();
+		if (t == null)
+			t = createTransformer();
 		try {
 			try {
 				t.clearParameters();
@@ -94,9 +98,16 @@ public class XSLTTransformer {
 			}
 			t.transform(xml, new StreamResult(baos));
 		} finally {
-			transformers.put(t);
+			transformers.offer(t);
 		}
 		return baos.toByteArray();
 	}
 
+	/**
+	 * @return the use of the pooled transformers. The pool never waits: if it is empty, a transformer is created.
+	 */
+	public PoolStatistics getPoolStatistics() {
+		return poolStatistics;
+	}
+
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.jmx;
+
+import com.predic8.membrane.core.http.BodySpool;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Exposes the memory and disk used by large message bodies (see {@link BodySpool}).
+ */
+@ManagedResource
+public class JmxBodySpool {
+
+    @ManagedAttribute
+    public long getMemoryUsed() {
+        return BodySpool.getMemoryUsed();
+    }
+
+    @ManagedAttribute
+    public long getMemoryBudget() {
+        return BodySpool.getMemoryBudget();
+    }
+
+    @ManagedAttribute
+    public long getDiskUsed() {
+        return BodySpool.getDiskUsed();
+    }
+
+    @ManagedAttribute
+    public long getDiskBudget() {
+        return BodySpool.getDiskBudget();
+    }
+
+    @ManagedAttribute
+    public long getSpooledBodies() {
+        return BodySpool.getSpooledBodies();
+    }
+
+    @ManagedAttribute
+    public long getSpooledBytes() {
+        return BodySpool.getSpooledBytes();
+    }
+
+    @ManagedAttribute
+    public long getMemoryBudgetExceeded() {
+        return BodySpool.getMemoryBudgetExceeded();
+    }
+
+    @ManagedAttribute
+    public long getDiskBudgetExceeded() {
+        return BodySpool.getDiskBudgetExceeded();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.jmx;
+
+import com.predic8.membrane.core.interceptor.HTTPClientInterceptor;
+import com.predic8.membrane.core.interceptor.InterceptorStatistics;
+import com.predic8.membrane.core.transport.http.ConnectionManager;
+import com.predic8.membrane.core.transport.http.HttpClient;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Additionally exposes the pool of backend connections.
+ */
+@ManagedResource
+public class JmxHTTPClientInterceptor extends JmxInterceptor {
+
+    private final HTTPClientInterceptor interceptor;
+
+    public JmxHTTPClientInterceptor(HTTPClientInterceptor interceptor, InterceptorStatistics statistics) {
+        super(interceptor, statistics);
+        this.interceptor = interceptor;
+    }
+
+    private ConnectionManager getConnectionManager() {
+        HttpClient client = interceptor.getHttpClient();
+        return client == null ? null : client.getConnectionManager();
+    }
+
+    @ManagedAttribute
+    public int getBackendConnections() {
+        ConnectionManager cm = getConnectionManager();
+        return cm == null ? 0 : cm.getNumberInPool();
+    }
+
+    @ManagedAttribute
+    public int getIdleBackendConnections() {
+        ConnectionManager cm = getConnectionManager();
+        return cm == null ? 0 : cm.getNumberIdle();
+    }
+
+    @ManagedAttribute
+    public long getOpenedBackendConnections() {
+        ConnectionManager cm = getConnectionManager();
+        return cm == null ? 0 : cm.getOpened();
+    }
+
+    @ManagedAttribute
+    public long getReusedBackendConnections() {
+        ConnectionManager cm = getConnectionManager();
+        return cm == null ? 0 : cm.getReused();
+    }
+}
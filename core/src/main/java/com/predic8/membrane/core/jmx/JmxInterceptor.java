@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.jmx;
+
+import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorStatistics;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Exposes the sampled timing of one interceptor. All times are in microseconds.
+ */
+@ManagedResource
+public class JmxInterceptor {
+
+    private final Interceptor interceptor;
+    private final InterceptorStatistics statistics;
+
+    public JmxInterceptor(Interceptor interceptor, InterceptorStatistics statistics) {
+        this.interceptor = interceptor;
+        this.statistics = statistics;
+    }
+
+    @ManagedAttribute
+    public String getName() {
+        return interceptor.getDisplayName();
+    }
+
+    @ManagedAttribute
+    public int getSampleRate() {
+        return InterceptorStatistics.getSampleRate();
+    }
+
+    @ManagedAttribute
+    public long getSampledRequests() {
+        return statistics.getRequestCount();
+    }
+
+    @ManagedAttribute
+    public long getAverageRequestTime() {
+        return statistics.getAverageRequestTime();
+    }
+
+    @ManagedAttribute
+    public long getMaxRequestTime() {
+        return statistics.getMaxRequestTime();
+    }
+
+    @ManagedAttribute
+    public long getSampledResponses() {
+        return statistics.getResponseCount();
+    }
+
+    @ManagedAttribute
+    public long getAverageResponseTime() {
+        return statistics.getAverageResponseTime();
+    }
+
+    @ManagedAttribute
+    public long getMaxResponseTime() {
+        return statistics.getMaxResponseTime();
+    }
+
+    @ManagedOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.jmx;
+
+import com.predic8.membrane.core.interceptor.InterceptorStatistics;
+import com.predic8.membrane.core.interceptor.LogInterceptor;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Additionally exposes the queue of the asynchronous JSON log.
+ */
+@ManagedResource
+public class JmxLogInterceptor extends JmxInterceptor {
+
+    private final LogInterceptor interceptor;
+
+    public JmxLogInterceptor(LogInterceptor interceptor, InterceptorStatistics statistics) {
+        super(interceptor, statistics);
+        this.interceptor = interceptor;
+    }
+
+    @ManagedAttribute
+    public int getQueueDepth() {
+        AsyncBatchWriter<?> writer = interceptor.getAsyncWriter();
+        return writer == null ? 0 : writer.getQueueDepth();
+    }
+
+    @ManagedAttribute
+    public long getWritten() {
+        AsyncBatchWriter<?> writer = interceptor.getAsyncWriter();
+        return writer == null ? 0 : writer.getWritten();
+    }
+
+    @ManagedAttribute
+    public long getDropped() {
+        AsyncBatchWriter<?> writer = interceptor.getAsyncWriter();
+        return writer == null ? 0 : writer.getDropped();
+    }
+
+    @ManagedAttribute
+    public long getFailed() {
+        AsyncBatchWriter<?> writer = interceptor.getAsyncWriter();
+        return writer == null ? 0 : writer.getFailed();
+    }
+}
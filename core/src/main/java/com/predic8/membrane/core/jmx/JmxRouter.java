@@ -14,6 +14,14 @@
 package com.predic8.membrane.core.jmx;
 
 import com.predic8.membrane.core.Router;
+import com.predic8.membrane.core.interceptor.HTTPClientInterceptor;
+import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
+import com.predic8.membrane.core.interceptor.InterceptorStatistics;
+import com.predic8.membrane.core.interceptor.LogInterceptor;
+import com.predic8.membrane.core.interceptor.ThrottleInterceptor;
+import com.predic8.membrane.core.interceptor.schemavalidation.ValidatorInterceptor;
+import com.predic8.membrane.core.interceptor.xslt.XSLTInterceptor;
 import com.predic8.membrane.core.rules.Rule;
 import com.predic8.membrane.core.rules.ServiceProxy;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
@@ -32,6 +40,7 @@ public class JmxRouter {
         this.router = router;
         this.exporter = exporter;
         exportServiceProxyList();
+        exportTransport();
     }
 
     @ManagedAttribute
@@ -50,5 +59,48 @@ public class JmxRouter {
     private void exportServiceProxy(ServiceProxy rule) {
         String prefix = "org.membrane-soa:00=serviceProxies, 01=" + router.getJmx()+ ", name=";
         exporter.addBean(prefix + rule.getName().replace(":",""), new JmxServiceProxy(rule, router));
+        exportInterceptors(rule);
+    }
+
+    private void exportTransport() {
+        exporter.addBean("org.membrane-soa:00=transport, name=" + router.getJmx(), new JmxTransport(router));
+        exporter.addBean("org.membrane-soa:00=bodySpool, name=" + router.getJmx(), new JmxBodySpool());
+        if (router.getTransport() != null)
+            exportInterceptors("transport", router.getTransport().getInterceptorChain());
+    }
+
+    private void exportInterceptors(ServiceProxy rule) {
+        exportInterceptors(sanitize(rule.getName()), rule.getInterceptorChain());
+    }
+
+    private void exportInterceptors(String chainName, InterceptorChain chain) {
+        String prefix = "org.membrane-soa:00=interceptors, 01=" + router.getJmx() + ", 02=" + chainName + ", name=";
+        for (int i = 0; i < chain.size(); i++) {
+            if ((chain.getFlags(i) & InterceptorChain.CONDITION) != 0)
+                continue;
+            Interceptor interceptor = chain.getInterceptor(i);
+            exporter.addBean(prefix + i + "-" + sanitize(interceptor.getDisplayName()), createJmxInterceptor(interceptor, chain.getStatistics(i)));
+        }
+    }
+
+    /**
+     * Interceptors with pools, caches or queues of their own get a bean exposing them, too.
+     */
+    private JmxInterceptor createJmxInterceptor(Interceptor interceptor, InterceptorStatistics statistics) {
+        if (interceptor instanceof HTTPClientInterceptor)
+            return new JmxHTTPClientInterceptor((HTTPClientInterceptor) interceptor, statistics);
+        if (interceptor instanceof ValidatorInterceptor)
+            return new JmxValidatorInterceptor((ValidatorInterceptor) interceptor, statistics);
+        if (interceptor instanceof XSLTInterceptor)
+            return new JmxXSLTInterceptor((XSLTInterceptor) interceptor, statistics);
+        if (interceptor instanceof ThrottleInterceptor)
+            return new JmxThrottleInterceptor((ThrottleInterceptor) interceptor, statistics);
+        if (interceptor instanceof LogInterceptor)
+            return new JmxLogInterceptor((LogInterceptor) interceptor, statistics);
+        return new JmxInterceptor(interceptor, statistics);
+    }
+
+    private String sanitize(String value) {
+        return value.replaceAll("[:,=*?\"\\n]", "");
     }
 }
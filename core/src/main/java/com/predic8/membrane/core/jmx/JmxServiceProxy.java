@@ -15,6 +15,7 @@ package com.predic8.membrane.core.jmx;
 
 import com.predic8.membrane.core.Router;
 import com.predic8.membrane.core.rules.ServiceProxy;
+import com.predic8.membrane.core.transport.ssl.SSLContext;
 import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
@@ -52,4 +53,71 @@ public class JmxServiceProxy {
     public int getProcessedExchanges(){
         return rule.getCount();
     }
+
+    // latency in milliseconds, see AbstractProxy#getLatencies()
+
+    @ManagedAttribute
+    public long getLatencySamples() {
+        return rule.getLatencies().getCount();
+    }
+
+    @ManagedAttribute
+    public long getLatencyP50() {
+        return rule.getLatencies().getPercentile(50);
+    }
+
+    @ManagedAttribute
+    public long getLatencyP90() {
+        return rule.getLatencies().getPercentile(90);
+    }
+
+    @ManagedAttribute
+    public long getLatencyP99() {
+        return rule.getLatencies().getPercentile(99);
+    }
+
+    @ManagedAttribute
+    public long getLatencyP999() {
+        return rule.getLatencies().getPercentile(99.9);
+    }
+
+    @ManagedAttribute
+    public long getLatencyMax() {
+        return rule.getLatencies().getMax();
+    }
+
+    @ManagedOperation
+    public void resetLatencies() {
+        rule.getLatencies().reset();
+    }
+
+    @ManagedAttribute
+    public long getInboundHandshakes() {
+        SSLContext ctx = rule.getSslInboundContext();
+        return ctx == null ? 0 : ctx.getHandshakeStatistics().getHandshakes();
+    }
+
+    /**
+     * @return the share of inbound TLS handshakes resuming a cached session (0 to 1)
+     */
+    @ManagedAttribute
+    public double getInboundSessionResumptionRatio() {
+        SSLContext ctx = rule.getSslInboundContext();
+        return ctx == null ? 0 : ctx.getHandshakeStatistics().getResumptionRatio();
+    }
+
+    @ManagedAttribute
+    public long getOutboundHandshakes() {
+        return rule.getSslOutboundContext() instanceof SSLContext
+                ? ((SSLContext) rule.getSslOutboundContext()).getHandshakeStatistics().getHandshakes() : 0;
+    }
+
+    /**
+     * @return the share of outbound TLS handshakes resuming a cached session (0 to 1)
+     */
+    @ManagedAttribute
+    public double getOutboundSessionResumptionRatio() {
+        return rule.getSslOutboundContext() instanceof SSLContext
+                ? ((SSLContext) rule.getSslOutboundContext()).getHandshakeStatistics().getResumptionRatio() : 0;
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.jmx;
+
+import com.predic8.membrane.core.interceptor.ConcurrencyLimiter;
+import com.predic8.membrane.core.interceptor.InterceptorStatistics;
+import com.predic8.membrane.core.interceptor.ThrottleInterceptor;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Additionally exposes the concurrency limits, summed up over all backends.
+ */
+@ManagedResource
+public class JmxThrottleInterceptor extends JmxInterceptor {
+
+    private final ThrottleInterceptor interceptor;
+
+    public JmxThrottleInterceptor(ThrottleInterceptor interceptor, InterceptorStatistics statistics) {
+        super(interceptor, statistics);
+        this.interceptor = interceptor;
+    }
+
+    @ManagedAttribute
+    public long getLimit() {
+        long sum = 0;
+        for (ConcurrencyLimiter limiter : interceptor.getLimiters())
+            sum += limiter.getLimit();
+        return sum;
+    }
+
+    @ManagedAttribute
+    public long getInFlight() {
+        long sum = 0;
+        for (ConcurrencyLimiter limiter : interceptor.getLimiters())
+            sum += limiter.getInFlight();
+        return sum;
+    }
+
+    @ManagedAttribute
+    public long getQueueLength() {
+        long sum = 0;
+        for (ConcurrencyLimiter limiter : interceptor.getLimiters())
+            sum += limiter.getQueueLength();
+        return sum;
+    }
+
+    @ManagedAttribute
+    public long getAdmitted() {
+        long sum = 0;
+        for (ConcurrencyLimiter limiter : interceptor.getLimiters())
+            sum += limiter.getAdmitted();
+        return sum;
+    }
+
+    @ManagedAttribute
+    public long getRejected() {
+        long sum = 0;
+        for (ConcurrencyLimiter limiter : interceptor.getLimiters())
+            sum += limiter.getRejected();
+        return sum;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.jmx;
+
+import com.predic8.membrane.core.Router;
+import com.predic8.membrane.core.transport.Transport;
+import com.predic8.membrane.core.transport.http.HttpEndpointListener;
+import com.predic8.membrane.core.transport.http.HttpTransport;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Exposes the worker threads and the client connections of the router's transport.
+ */
+@ManagedResource
+public class JmxTransport {
+
+    private final Router router;
+
+    public JmxTransport(Router router) {
+        this.router = router;
+    }
+
+    private HttpTransport getHttpTransport() {
+        Transport transport = router.getTransport();
+        return transport instanceof HttpTransport ? (HttpTransport) transport : null;
+    }
+
+    private ThreadPoolExecutor getThreadPool() {
+        HttpTransport transport = getHttpTransport();
+        ExecutorService executor = transport == null ? null : transport.getExecutorService();
+        return executor instanceof ThreadPoolExecutor ? (ThreadPoolExecutor) executor : null;
+    }
+
+    private List<HttpEndpointListener> getListeners() {
+        HttpTransport transport = getHttpTransport();
+        return transport == null ? new ArrayList<HttpEndpointListener>()
+                : new ArrayList<HttpEndpointListener>(transport.portListenerMapping.values());
+    }
+
+    @ManagedAttribute
+    public int getActiveThreads() {
+        ThreadPoolExecutor pool = getThreadPool();
+        return pool == null ? 0 : pool.getActiveCount();
+    }
+
+    @ManagedAttribute
+    public int getThreads() {
+        ThreadPoolExecutor pool = getThreadPool();
+        return pool == null ? 0 : pool.getPoolSize();
+    }
+
+    @ManagedAttribute
+    public int getLargestThreads() {
+        ThreadPoolExecutor pool = getThreadPool();
+        return pool == null ? 0 : pool.getLargestPoolSize();
+    }
+
+    @ManagedAttribute
+    public long getCompletedTasks() {
+        ThreadPoolExecutor pool = getThreadPool();
+        return pool == null ? 0 : pool.getCompletedTaskCount();
+    }
+
+    @ManagedAttribute
+    public int getOpenPorts() {
+        return getListeners().size();
+    }
+
+    @ManagedAttribute
+    public int getOpenConnections() {
+        int open = 0;
+        for (HttpEndpointListener listener : getListeners())
+            open += listener.getNumberOfOpenConnections();
+        return open;
+    }
+
+    @ManagedAttribute
+    public int getIdleConnections() {
+        int idle = 0;
+        for (HttpEndpointListener listener : getListeners())
+            idle += listener.getNumberOfIdleConnections();
+        return idle;
+    }
+
+    @ManagedAttribute
+    public int getRunningStreamPumps() {
+        return router.getStatistics().getStreamPumpStats().getRunning();
+    }
+}
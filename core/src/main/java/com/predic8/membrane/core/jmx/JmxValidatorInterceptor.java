@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.jmx;
+
+import com.predic8.membrane.core.interceptor.InterceptorStatistics;
+import com.predic8.membrane.core.interceptor.schemavalidation.IValidator;
+import com.predic8.membrane.core.interceptor.schemavalidation.ValidatorInterceptor;
+import com.predic8.membrane.core.util.PoolStatistics;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Additionally exposes the validation results and the use of the pooled validators. Wait times are in
+ * microseconds.
+ */
+@ManagedResource
+public class JmxValidatorInterceptor extends JmxInterceptor {
+
+    private final ValidatorInterceptor interceptor;
+
+    public JmxValidatorInterceptor(ValidatorInterceptor interceptor, InterceptorStatistics statistics) {
+        super(interceptor, statistics);
+        this.interceptor = interceptor;
+    }
+
+    private PoolStatistics getPoolStatistics() {
+        IValidator validator = interceptor.getValidator();
+        PoolStatistics stats = validator == null ? null : validator.getPoolStatistics();
+        return stats == null ? new PoolStatistics() : stats;
+    }
+
+    @ManagedAttribute
+    public long getValid() {
+        IValidator validator = interceptor.getValidator();
+        return validator == null ? 0 : validator.getValid();
+    }
+
+    @ManagedAttribute
+    public long getInvalid() {
+        IValidator validator = interceptor.getValidator();
+        return validator == null ? 0 : validator.getInvalid();
+    }
+
+    @ManagedAttribute
+    public long getPooledValidatorsAcquired() {
+        return getPoolStatistics().getAcquired();
+    }
+
+    @ManagedAttribute
+    public long getPoolWaits() {
+        return getPoolStatistics().getWaits();
+    }
+
+    @ManagedAttribute
+    public long getAveragePoolWaitTime() {
+        return getPoolStatistics().getAverageWaitTime();
+    }
+
+    @ManagedAttribute
+    public long getMaxPoolWaitTime() {
+        return getPoolStatistics().getMaxWaitTime();
+    }
+}
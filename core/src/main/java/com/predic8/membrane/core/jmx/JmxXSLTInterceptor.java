@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 predic8 GmbH, www.predic8.com
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+
+package com.predic8.membrane.core.jmx;
+
+import com.predic8.membrane.core.interceptor.InterceptorStatistics;
+import com.predic8.membrane.core.interceptor.xslt.XSLTInterceptor;
+import com.predic8.membrane.core.interceptor.xslt.XSLTTransformer;
+import com.predic8.membrane.core.util.PoolStatistics;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+/**
+ * Additionally exposes the use of the pooled transformers. When the pool is empty, a transformer is created
+ * instead of waiting, so the number of created transformers shows the contention.
+ */
+@ManagedResource
+public class JmxXSLTInterceptor extends JmxInterceptor {
+
+    private final XSLTInterceptor interceptor;
+
+    public JmxXSLTInterceptor(XSLTInterceptor interceptor, InterceptorStatistics statistics) {
+        super(interceptor, statistics);
+        this.interceptor = interceptor;
+    }
+
+    private PoolStatistics getPoolStatistics() {
+        XSLTTransformer transformer = interceptor.getTransformer();
+        return transformer == null ? new PoolStatistics() : transformer.getPoolStatistics();
+    }
+
+    @ManagedAttribute
+    public long getPooledTransformersAcquired() {
+        return getPoolStatistics().getAcquired();
+    }
+
+    @ManagedAttribute
+    public long getTransformersCreated() {
+        return getPoolStatistics().getCreated();
+    }
+}
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,8 +30,10 @@ import com.predic8.membrane.annot.MCChildElement;
 import com.predic8.membrane.core.Router;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
 import com.predic8.membrane.core.transport.ssl.SSLContext;
 import com.predic8.membrane.core.transport.ssl.SSLProvider;
+import com.predic8.membrane.core.util.LatencyHistogram;
 
 public abstract class AbstractProxy implements Rule {
 	private static final Logger log = LoggerFactory.getLogger(AbstractProxy.class.getName());
@@ -43,6 +46,7 @@ public abstract class AbstractProxy implements Rule {
 	protected volatile boolean blockResponse;
 
 	protected List<Interceptor> interceptors = new ArrayList<Interceptor>();
+	private volatile InterceptorChain interceptorChain;
 
 	/**
 	 * Used to determine the IP address for outgoing connections
@@ -54,6 +58,18 @@ public abstract class AbstractProxy implements Rule {
 	 */
 	private ConcurrentHashMap<Integer, StatisticCollector> statusCodes = new ConcurrentHashMap<Integer, StatisticCollector>();
 
+	/**
+	 * The time in milliseconds from sending the request to the backend until the response has been sent to the
+	 * client, like {@link StatisticCollector}.
+	 */
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	/**
+	 * The number of exchanges matched to this rule which have not been detached yet, see
+	 * {@link Exchange#setRunningOn(AbstractProxy)}.
+	 */
+	private final AtomicInteger runningExchanges = new AtomicInteger();
+
 	private boolean active;
 	private String error;
 
@@ -84,6 +100,18 @@ public abstract class AbstractProxy implements Rule {
 		this.interceptors = interceptors;
 	}
 
+	/**
+	 * The chain is compiled during {@link #init(Router)}. If the interceptor list has been modified
+	 * since, it is recompiled (keeping the collected statistics).
+	 */
+	@Override
+	public InterceptorChain getInterceptorChain() {
+		InterceptorChain c = interceptorChain;
+		if (c == null || !c.isCompiledFrom(interceptors))
+			interceptorChain = c = InterceptorChain.compile(interceptors, c);
+		return c;
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -151,12 +179,33 @@ public abstract class AbstractProxy implements Rule {
 		synchronized (sc) {
 			sc.collectFrom(exc);
 		}
+		if (exc.getTimeReqSent() != 0 && exc.getTimeResSent() != 0)
+			latencies.record(exc.getTimeResSent() - exc.getTimeReqSent());
+	}
+
+	public LatencyHistogram getLatencies() {
+		return latencies;
 	}
 
 	public Map<Integer, StatisticCollector> getStatisticsByStatusCodes() {
 		return statusCodes;
 	}
 
+	/**
+	 * @return the number of exchanges which have been matched to this rule and are still running
+	 */
+	public int getRunningExchanges() {
+		return runningExchanges.get();
+	}
+
+	public void exchangeStarted() {
+		runningExchanges.incrementAndGet();
+	}
+
+	public void exchangeCompleted() {
+		runningExchanges.decrementAndGet();
+	}
+
 	public int getCount() {
 		int c = 0;
 		for (StatisticCollector statisticCollector : statusCodes.values()) {
@@ -202,6 +251,7 @@ public abstract class AbstractProxy implements Rule {
 			init();
 			for (Interceptor i : interceptors)
 				i.init(router);
+			interceptorChain = InterceptorChain.compile(interceptors, interceptorChain);
 			active = true;
 		} catch (Exception e) {
 			if (!router.isRetryInit())
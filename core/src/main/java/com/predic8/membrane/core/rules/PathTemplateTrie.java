@@ -0,0 +1,242 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
+
+/**
+ * Matches request paths and methods against the path templates ("/pet/{petId}") of a Swagger
+ * specification.
+ *
+ * The templates (prefixed by the base path) are compiled into a trie of path segments, where each
+ * segment is either a literal, a parameter or (rarely) a mix of both. Matching walks the trie along the
+ * segments of the request path, taking time proportional to the path depth. It allocates no objects,
+ * except for mixed segments, which are matched using regular expressions.
+ */
+class PathTemplateTrie {
+
+	static final int GET = 1, POST = 2, HEAD = 4, PUT = 8, DELETE = 16;
+
+	/**
+	 * The characters a parameter value may consist of.
+	 */
+	private static final String IDENTIFIER = "[-_a-zA-Z0-9]+";
+	private static final Pattern PARAMETER = Pattern.compile("\\{" + IDENTIFIER + "\\}");
+
+	private static class Node {
+		final Map<String, Node> literals = new HashMap<String, Node>();
+		final Map<String, Node> mixed = new HashMap<String, Node>();
+		Node parameter;
+		int methods;
+
+		// compiled
+		String[] literalNames;
+		int[] literalHashes;
+		Node[] literalNodes;
+		Pattern[] mixedPatterns;
+		Node[] mixedNodes;
+
+		Node child(String segment) {
+			Matcher m = PARAMETER.matcher(segment);
+			if (!m.find())
+				return getOrCreate(literals, segment);
+			if (m.start() == 0 && m.end() == segment.length()) {
+				if (parameter == null)
+					parameter = new Node();
+				return parameter;
+			}
+			return getOrCreate(mixed, segment);
+		}
+
+		private static Node getOrCreate(Map<String, Node> map, String key) {
+			Node n = map.get(key);
+			if (n == null)
+				map.put(key, n = new Node());
+			return n;
+		}
+
+		void compile() {
+			List<Map.Entry<String, Node>> entries = new ArrayList<Map.Entry<String, Node>>(literals.entrySet());
+			entries.sort(new Comparator<Map.Entry<String, Node>>() {
+				@Override
+				public int compare(Map.Entry<String, Node> o1, Map.Entry<String, Node> o2) {
+					return Integer.compare(o1.getKey().hashCode(), o2.getKey().hashCode());
+				}
+			});
+			literalNames = new String[entries.size()];
+			literalHashes = new int[entries.size()];
+			literalNodes = new Node[entries.size()];
+			for (int i = 0; i < entries.size(); i++) {
+				literalNames[i] = entries.get(i).getKey();
+				literalHashes[i] = literalNames[i].hashCode();
+				literalNodes[i] = entries.get(i).getValue();
+				literalNodes[i].compile();
+			}
+
+			mixedPatterns = new Pattern[mixed.size()];
+			mixedNodes = new Node[mixed.size()];
+			int i = 0;
+			for (Map.Entry<String, Node> e : mixed.entrySet()) {
+				mixedPatterns[i] = toPattern(e.getKey());
+				mixedNodes[i] = e.getValue();
+				mixedNodes[i++].compile();
+			}
+
+			if (parameter != null)
+				parameter.compile();
+		}
+
+		/**
+		 * @return the child for the literal segment path[start, end), or null.
+		 */
+		Node findLiteral(String path, int start, int end) {
+			int hash = 0;
+			for (int i = start; i < end; i++)
+				hash = 31 * hash + path.charAt(i);
+			int i = Arrays.binarySearch(literalHashes, hash);
+			if (i < 0)
+				return null;
+			while (i > 0 && literalHashes[i - 1] == hash)
+				i--;
+			for (; i < literalHashes.length && literalHashes[i] == hash; i++)
+				if (literalNames[i].length() == end - start && path.regionMatches(start, literalNames[i], 0, end - start))
+					return literalNodes[i];
+			return null;
+		}
+	}
+
+	private final Node root = new Node();
+
+	PathTemplateTrie(Swagger swagger) {
+		String basePath = swagger.getBasePath() == null ? "" : swagger.getBasePath();
+		if (basePath.endsWith("/"))
+			basePath = basePath.substring(0, basePath.length() - 1);
+		if (swagger.getPaths() != null)
+			for (Map.Entry<String, Path> e : swagger.getPaths().entrySet())
+				add(basePath + e.getKey(), getMethods(e.getValue()));
+		root.compile();
+	}
+
+	private static int getMethods(Path path) {
+		return (path.getGet() != null ? GET : 0)
+				| (path.getPost() != null ? POST : 0)
+				| (path.getHead() != null ? HEAD : 0)
+				| (path.getPut() != null ? PUT : 0)
+				| (path.getDelete() != null ? DELETE : 0);
+	}
+
+	private void add(String template, int methods) {
+		if (!template.startsWith("/"))
+			return;
+		Node node = root;
+		int start = 1;
+		while (true) {
+			int slash = template.indexOf('/', start);
+			node = node.child(template.substring(start, slash == -1 ? template.length() : slash));
+			if (slash == -1)
+				break;
+			start = slash + 1;
+		}
+		node.methods |= methods;
+	}
+
+	private static Pattern toPattern(String segment) {
+		StringBuilder regex = new StringBuilder();
+		Matcher m = PARAMETER.matcher(segment);
+		int last = 0;
+		while (m.find()) {
+			if (m.start() > last)
+				regex.append(Pattern.quote(segment.substring(last, m.start())));
+			regex.append(IDENTIFIER);
+			last = m.end();
+		}
+		if (last < segment.length())
+			regex.append(Pattern.quote(segment.substring(last)));
+		return Pattern.compile(regex.toString());
+	}
+
+	static int getMethod(String method) {
+		if ("GET".equalsIgnoreCase(method))
+			return GET;
+		if ("POST".equalsIgnoreCase(method))
+			return POST;
+		if ("HEAD".equalsIgnoreCase(method))
+			return HEAD;
+		if ("PUT".equalsIgnoreCase(method))
+			return PUT;
+		if ("DELETE".equalsIgnoreCase(method))
+			return DELETE;
+		return 0;
+	}
+
+	/**
+	 * @param uri the request URI. A query string is ignored.
+	 * @return whether the specification contains an operation for the method and path.
+	 */
+	public boolean matches(String method, String uri) {
+		int m = getMethod(method);
+		if (m == 0 || uri.isEmpty() || uri.charAt(0) != '/')
+			return false;
+		int end = uri.indexOf('?');
+		return match(root, uri, 1, end == -1 ? uri.length() : end, m);
+	}
+
+	private static boolean match(Node node, String path, int start, int end, int method) {
+		int slash = path.indexOf('/', start);
+		if (slash == -1 || slash > end)
+			slash = end;
+
+		Node child = node.findLiteral(path, start, slash);
+		if (child != null && matchRest(child, path, slash, end, method))
+			return true;
+
+		if (node.parameter != null && isIdentifier(path, start, slash)
+				&& matchRest(node.parameter, path, slash, end, method))
+			return true;
+
+		for (int i = 0; i < node.mixedPatterns.length; i++)
+			if (node.mixedPatterns[i].matcher(path.subSequence(start, slash)).matches()
+					&& matchRest(node.mixedNodes[i], path, slash, end, method))
+				return true;
+
+		return false;
+	}
+
+	private static boolean matchRest(Node node, String path, int slash, int end, int method) {
+		if (slash == end)
+			return (node.methods & method) != 0;
+		return match(node, path, slash + 1, end, method);
+	}
+
+	private static boolean isIdentifier(String path, int start, int end) {
+		if (start == end)
+			return false;
+		for (int i = start; i < end; i++) {
+			char c = path.charAt(i);
+			if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_'))
+				return false;
+		}
+		return true;
+	}
+}
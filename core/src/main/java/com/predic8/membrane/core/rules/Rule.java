@@ -19,6 +19,7 @@ import java.util.Map;
 import com.predic8.membrane.core.Router;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
 import com.predic8.membrane.core.transport.ssl.SSLContext;
 import com.predic8.membrane.core.transport.ssl.SSLProvider;
 
@@ -28,6 +29,11 @@ public interface Rule extends Cloneable {
 
 	public void setInterceptors(List<Interceptor> interceptors);
 
+	/**
+	 * @return the interceptors, compiled for execution by the {@link com.predic8.membrane.core.interceptor.InterceptorFlowController}.
+	 */
+	public InterceptorChain getInterceptorChain();
+
 	public boolean isBlockRequest();
 
 	public boolean isBlockResponse();
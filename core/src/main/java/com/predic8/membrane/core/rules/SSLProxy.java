@@ -22,6 +22,7 @@ import com.predic8.membrane.core.Router;
 import com.predic8.membrane.core.config.security.SSLParser;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
 import com.predic8.membrane.core.transport.http.Connection;
 import com.predic8.membrane.core.transport.http.ConnectionManager;
 import com.predic8.membrane.core.transport.http.StreamPump;
@@ -99,6 +100,11 @@ public class SSLProxy implements Rule {
 
     }
 
+    @Override
+    public InterceptorChain getInterceptorChain() {
+        return InterceptorChain.EMPTY;
+    }
+
     @Override
     public boolean isBlockRequest() {
         return false;
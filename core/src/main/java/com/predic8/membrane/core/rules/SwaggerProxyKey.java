@@ -14,20 +14,42 @@
 package com.predic8.membrane.core.rules;
 
 import java.util.Arrays;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.regex.Pattern;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import io.swagger.models.Path;
 import io.swagger.models.Swagger;
 
 public class SwaggerProxyKey extends ServiceProxyKey {
 	private static Logger log = LoggerFactory.getLogger(SwaggerProxyKey.class.getName());
 
+	private static final Set<String> UI_PATHS = new HashSet<String>(Arrays.asList(
+			  "/"
+			, "/favicon.ico"
+			, "/swagger-ui.js"
+			, "/css/typography.css"
+			, "/css/reset.css"
+			, "/css/screen.css"
+			, "/css/print.css"
+			, "/lib/jquery.slideto.min.js"
+			, "/lib/jquery-1.8.0.min.js"
+			, "/lib/jquery.wiggle.min.js"
+			, "/lib/jquery.ba-bbq.min.js"
+			, "/lib/underscore-min.js"
+			, "/lib/handlebars-2.0.0.js"
+			, "/lib/backbone-min.js"
+			, "/lib/highlight.7.3.pack.js"
+			, "/lib/marked.js"
+			, "/lib/swagger-oauth.js"
+			, "/images/favicon-16x16.png"
+			, "/images/logo_small.png"
+			, "/fonts/droid-sans-v6-latin-700.woff2"
+	));
+
 	private Swagger swagger;
+	private PathTemplateTrie paths;
 	private boolean allowUI;
 
 	public SwaggerProxyKey(int port) {
@@ -64,62 +86,26 @@ public class SwaggerProxyKey extends ServiceProxyKey {
 		}
 
 		// check if request is in Swagger specification
-		Map<String, Path> paths = swagger.getPaths();
-		for (Entry<String, Path> p : paths.entrySet()) {
-			if (pathTemplateMatch(uri, p.getKey()) && methodMatch(method, p.getValue())) {
-				log.debug("Request is a Swagger call according to specification");
-				return true;
-			}
+		if (paths.matches(method, uri)) {
+			log.debug("Request is a Swagger call according to specification");
+			return true;
 		}
 
 		return false;
 	}
 
-	// Self-made Path Template Matching
-	private boolean pathTemplateMatch(String calledURI, String specName) {
-		final String IDENTIFIER = "[-_a-zA-Z0-9]+";
-		specName = specName.replaceAll("\\{" + IDENTIFIER + "\\}", IDENTIFIER);
-		String spec = swagger.getBasePath() + specName;
-		return Pattern.matches(spec, calledURI);
-	}
-
-	private boolean methodMatch(String method, Path path) {
-		return method.equalsIgnoreCase("GET") && path.getGet() != null
-			|| method.equalsIgnoreCase("POST") && path.getPost() != null
-			|| method.equalsIgnoreCase("HEAD") && path.getHead() != null
-			|| method.equalsIgnoreCase("PUT") && path.getPut() != null
-			|| method.equalsIgnoreCase("DELETE") && path.getDelete() != null;
-	}
-
 	private boolean isUI(String path) {
-		return Arrays.asList(
-			  "/"
-			, "/favicon.ico"
-			, "/swagger-ui.js"
-			, "/css/typography.css"
-			, "/css/reset.css"
-			, "/css/screen.css"
-			, "/css/print.css"
-			, "/lib/jquery.slideto.min.js"
-			, "/lib/jquery-1.8.0.min.js"
-			, "/lib/jquery.wiggle.min.js"
-			, "/lib/jquery.ba-bbq.min.js"
-			, "/lib/underscore-min.js"
-			, "/lib/handlebars-2.0.0.js"
-			, "/lib/backbone-min.js"
-			, "/lib/highlight.7.3.pack.js"
-			, "/lib/marked.js"
-			, "/lib/swagger-oauth.js"
-			, "/images/favicon-16x16.png"
-			, "/images/logo_small.png"
-			, "/fonts/droid-sans-v6-latin-700.woff2"
-		).contains(path);
+		return UI_PATHS.contains(path);
 	}
 
 	public Swagger getSwagger() {
 		return swagger;
 	}
+	/**
+	 * Sets the specification and compiles its paths for matching.
+	 */
 	public void setSwagger(Swagger swag) {
+		this.paths = swag == null ? null : new PathTemplateTrie(swag);
 		this.swagger = swag;
 	}
 
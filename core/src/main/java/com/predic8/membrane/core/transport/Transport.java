@@ -26,6 +26,7 @@ import com.predic8.membrane.core.interceptor.DispatchingInterceptor;
 import com.predic8.membrane.core.interceptor.ExchangeStoreInterceptor;
 import com.predic8.membrane.core.interceptor.HTTPClientInterceptor;
 import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.interceptor.InterceptorChain;
 import com.predic8.membrane.core.interceptor.RuleMatchingInterceptor;
 import com.predic8.membrane.core.interceptor.UserFeatureInterceptor;
 import com.predic8.membrane.core.interceptor.rewrite.ReverseProxyingInterceptor;
@@ -37,6 +38,7 @@ public abstract class Transport {
 	protected Set<IPortChangeListener> menuListeners = new HashSet<IPortChangeListener>();
 
 	private List<Interceptor> interceptors = new Vector<Interceptor>();
+	private volatile InterceptorChain interceptorChain;
 	private Router router;
 	private boolean printStackTrace = false;
 	private boolean reverseDNS = true;
@@ -69,6 +71,17 @@ public abstract class Transport {
 		for (Interceptor interceptor : interceptors) {
 			interceptor.init(router);
 		}
+		interceptorChain = InterceptorChain.compile(interceptors, interceptorChain);
+	}
+
+	/**
+	 * @return the compiled interceptors, recompiled if the list has been modified since {@link #init(Router)}.
+	 */
+	public InterceptorChain getInterceptorChain() {
+		InterceptorChain c = interceptorChain;
+		if (c == null || !c.isCompiledFrom(interceptors))
+			interceptorChain = c = InterceptorChain.compile(interceptors, c);
+		return c;
 	}
 
 	public Router getRouter() {
@@ -94,6 +107,7 @@ public abstract class Transport {
 
 	public void closeAll(boolean waitForCompletion) throws IOException {}
 	public void openPort(String ip, int port, SSLProvider sslProvider) throws IOException {}
+	public void closePort(String ip, int port) throws IOException {}
 
 	public abstract boolean isOpeningPorts();
 
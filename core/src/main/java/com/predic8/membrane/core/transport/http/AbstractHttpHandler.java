@@ -67,7 +67,7 @@ public abstract class AbstractHttpHandler  {
 
 	protected void invokeHandlers() throws IOException, EndOfStreamException, AbortException, NoMoreRequestsException, EOFWhileReadingFirstLineException {
 		try {
-			flowController.invokeHandlers(exchange, transport.getInterceptors());
+			flowController.invokeHandlers(exchange, transport.getInterceptorChain());
 			if (exchange.getResponse() == null)
 				throw new AbortException("No response was generated by the interceptor chain.");
 		} catch (Exception e) {
@@ -0,0 +1,237 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.transport.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.predic8.membrane.core.transport.http.client.CircuitBreakerConfiguration;
+
+/**
+ * Remembers the recent call outcomes of one destination (host and port) and decides whether
+ * calls to it should be attempted at all.
+ *
+ * The breaker starts CLOSED. It switches to OPEN after too many consecutive errors or when
+ * the error rate over the last calls exceeds the threshold. After the ejection time, it lets
+ * a few probe calls through (HALF_OPEN). A successful probe closes the breaker again, a failed
+ * probe reopens it with a doubled ejection time.
+ *
+ * Instances are thread-safe.
+ */
+public class CircuitBreaker {
+
+	private static Logger log = LoggerFactory.getLogger(CircuitBreaker.class.getName());
+
+	public static enum State {
+		CLOSED, OPEN, HALF_OPEN;
+	}
+
+	private final String name;
+	private final CircuitBreakerConfiguration config;
+
+	private volatile State state = State.CLOSED;
+	@GuardedBy("this")
+	private long openUntil;
+	@GuardedBy("this")
+	private int consecutiveErrors;
+	@GuardedBy("this")
+	private int ejections;
+	@GuardedBy("this")
+	private int probesInFlight;
+
+	/** ring buffer of the last outcomes, true meaning error */
+	@GuardedBy("this")
+	private final boolean[] window;
+	@GuardedBy("this")
+	private int windowPos, windowFill, windowErrors;
+
+	private final AtomicLong opened = new AtomicLong();
+	private final AtomicLong halfOpened = new AtomicLong();
+	private final AtomicLong closed = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+
+	public CircuitBreaker(String name, CircuitBreakerConfiguration config) {
+		this.name = name;
+		this.config = config;
+		window = new boolean[Math.max(1, config.getErrorRateWindow())];
+	}
+
+	/**
+	 * Checks whether a call may be attempted right now. In the HALF_OPEN state, a positive answer
+	 * reserves one of the probe slots, so every call to this method returning true must be followed
+	 * by either {@link #recordSuccess()} or {@link #recordFailure()}.
+	 */
+	public boolean allowRequest() {
+		if (state == State.CLOSED)
+			return true;
+		synchronized (this) {
+			if (state == State.OPEN && now() >= openUntil)
+				transitionTo(State.HALF_OPEN);
+			if (state == State.HALF_OPEN && probesInFlight < config.getHalfOpenRequests()) {
+				probesInFlight++;
+				return true;
+			}
+			if (state == State.CLOSED)
+				return true;
+		}
+		rejected.incrementAndGet();
+		return false;
+	}
+
+	/**
+	 * Same as {@link #allowRequest()}, but does not reserve a probe slot. Used to filter candidate
+	 * destinations before one of them is chosen.
+	 */
+	public boolean isAvailable() {
+		State s = state;
+		if (s == State.CLOSED)
+			return true;
+		synchronized (this) {
+			if (state == State.OPEN)
+				return now() >= openUntil;
+			return state != State.HALF_OPEN || probesInFlight < config.getHalfOpenRequests();
+		}
+	}
+
+	public void recordSuccess() {
+		synchronized (this) {
+			record(false);
+			consecutiveErrors = 0;
+			if (state == State.HALF_OPEN) {
+				ejections = 0;
+				probesInFlight = 0;
+				clearWindow();
+				transitionTo(State.CLOSED);
+			}
+		}
+	}
+
+	public void recordFailure() {
+		synchronized (this) {
+			record(true);
+			consecutiveErrors++;
+			switch (state) {
+			case HALF_OPEN:
+				probesInFlight = 0;
+				eject();
+				break;
+			case CLOSED:
+				if (isConsecutiveErrorsExceeded() || isErrorRateExceeded())
+					eject();
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	@GuardedBy("this")
+	private boolean isConsecutiveErrorsExceeded() {
+		return config.getConsecutiveErrors() > 0 && consecutiveErrors >= config.getConsecutiveErrors();
+	}
+
+	@GuardedBy("this")
+	private boolean isErrorRateExceeded() {
+		return config.getErrorRateThreshold() > 0 && windowFill == window.length &&
+				windowErrors * 100 >= config.getErrorRateThreshold() * windowFill;
+	}
+
+	@GuardedBy("this")
+	private void record(boolean error) {
+		if (windowFill == window.length) {
+			if (window[windowPos])
+				windowErrors--;
+		} else {
+			windowFill++;
+		}
+		window[windowPos] = error;
+		if (error)
+			windowErrors++;
+		windowPos = (windowPos + 1) % window.length;
+	}
+
+	@GuardedBy("this")
+	private void clearWindow() {
+		windowPos = windowFill = windowErrors = 0;
+	}
+
+	@GuardedBy("this")
+	private void eject() {
+		long ejectionTime = config.getBaseEjectionTime() << Math.min(ejections, 30);
+		if (ejectionTime <= 0 || ejectionTime > config.getMaxEjectionTime())
+			ejectionTime = config.getMaxEjectionTime();
+		ejections++;
+		openUntil = now() + ejectionTime;
+		consecutiveErrors = 0;
+		clearWindow();
+		transitionTo(State.OPEN);
+		log.info("Circuit breaker for " + name + " opened for " + ejectionTime + " ms.");
+	}
+
+	@GuardedBy("this")
+	private void transitionTo(State newState) {
+		if (state == newState)
+			return;
+		state = newState;
+		switch (newState) {
+		case OPEN:
+			opened.incrementAndGet();
+			break;
+		case HALF_OPEN:
+			halfOpened.incrementAndGet();
+			break;
+		case CLOSED:
+			closed.incrementAndGet();
+			log.info("Circuit breaker for " + name + " closed.");
+			break;
+		}
+	}
+
+	protected long now() {
+		return System.currentTimeMillis();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public State getState() {
+		return state;
+	}
+
+	public long getOpenedCount() {
+		return opened.get();
+	}
+
+	public long getHalfOpenedCount() {
+		return halfOpened.get();
+	}
+
+	public long getClosedCount() {
+		return closed.get();
+	}
+
+	public long getRejectedCount() {
+		return rejected.get();
+	}
+
+	@Override
+	public String toString() {
+		return name + " " + state;
+	}
+}
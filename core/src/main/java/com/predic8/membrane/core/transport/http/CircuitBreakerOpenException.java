@@ -0,0 +1,31 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.transport.http;
+
+import java.net.ConnectException;
+
+/**
+ * Indicates that a destination was skipped because its {@link CircuitBreaker} is open.
+ *
+ * Extends {@link ConnectException}, so that callers treat it like an unreachable target.
+ */
+public class CircuitBreakerOpenException extends ConnectException {
+
+	private static final long serialVersionUID = 1L;
+
+	public CircuitBreakerOpenException(String destination) {
+		super("Circuit breaker for " + destination + " is open.");
+	}
+
+}
@@ -0,0 +1,52 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.transport.http;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.predic8.membrane.core.transport.http.client.CircuitBreakerConfiguration;
+
+/**
+ * Holds one {@link CircuitBreaker} per destination "host:port", created on first access.
+ */
+public class CircuitBreakers {
+
+	private final CircuitBreakerConfiguration config;
+	private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+	public CircuitBreakers(CircuitBreakerConfiguration config) {
+		this.config = config;
+	}
+
+	public CircuitBreaker get(String host, int port) {
+		String key = host + ":" + port;
+		CircuitBreaker cb = breakers.get(key);
+		if (cb == null) {
+			cb = new CircuitBreaker(key, config);
+			CircuitBreaker cb2 = breakers.putIfAbsent(key, cb);
+			if (cb2 != null)
+				cb = cb2;
+		}
+		return cb;
+	}
+
+	public Collection<CircuitBreaker> getAll() {
+		return breakers.values();
+	}
+
+	public CircuitBreakerConfiguration getConfiguration() {
+		return config;
+	}
+}
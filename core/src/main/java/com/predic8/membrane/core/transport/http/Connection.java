@@ -51,6 +51,12 @@ public class Connection implements MessageObserver, NonRelevantBodyObserver {
 
 	private static Logger log = LoggerFactory.getLogger(Connection.class.getName());
 
+	/**
+	 * The default size of the buffers of the socket's streams. A message whose head and body fit into the
+	 * buffer is sent using a single write.
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
 	public final ConnectionManager mgr;
 	public final String host;
 	public Socket socket;
@@ -75,6 +81,15 @@ public class Connection implements MessageObserver, NonRelevantBodyObserver {
 	public static Connection open(String host, int port, String localHost, SSLProvider sslProvider, ConnectionManager mgr,
 								  int connectTimeout, @Nullable String sniServername, @Nullable ProxyConfiguration proxy,
 								  @Nullable SSLProvider proxySSLProvider) throws UnknownHostException, IOException {
+		return open(host, port, localHost, sslProvider, mgr, connectTimeout, sniServername, proxy, proxySSLProvider, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * @param bufferSize the size of the buffers of the socket's streams
+	 */
+	public static Connection open(String host, int port, String localHost, SSLProvider sslProvider, ConnectionManager mgr,
+								  int connectTimeout, @Nullable String sniServername, @Nullable ProxyConfiguration proxy,
+								  @Nullable SSLProvider proxySSLProvider, int bufferSize) throws UnknownHostException, IOException {
 		Connection con = new Connection(mgr, host, sslProvider, sniServername, proxy);
 
 		String origHost = host;
@@ -110,8 +125,8 @@ public class Connection implements MessageObserver, NonRelevantBodyObserver {
 
 		log.debug("Opened connection on localPort: " + con.socket.getLocalPort());
 		//Creating output stream before input stream is suggested.
-		con.out = new BufferedOutputStream(con.socket.getOutputStream(), 2048);
-		con.in = new BufferedInputStream(con.socket.getInputStream(), 2048);
+		con.out = new BufferedOutputStream(con.socket.getOutputStream(), bufferSize);
+		con.in = new BufferedInputStream(con.socket.getInputStream(), bufferSize);
 
 		return con;
 	}
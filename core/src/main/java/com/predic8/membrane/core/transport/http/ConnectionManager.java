@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.predic8.membrane.core.transport.http.client.ProxyConfiguration;
 import com.predic8.membrane.core.transport.ssl.SSLContext;
@@ -120,14 +121,21 @@ public class ConnectionManager {
 		}
 	}
 
+	private final int bufferSize;
 	private AtomicInteger numberInPool = new AtomicInteger();
+	private final AtomicLong opened = new AtomicLong(), reused = new AtomicLong();
 	private HashMap<ConnectionKey, ArrayList<OldConnection>> availableConnections =
 			new HashMap<ConnectionManager.ConnectionKey, ArrayList<OldConnection>>(); // guarded by this
 	private Timer timer;
 	private volatile boolean shutdownWhenDone = false;
 
 	public ConnectionManager(long keepAliveTimeout) {
+		this(keepAliveTimeout, Connection.DEFAULT_BUFFER_SIZE);
+	}
+
+	public ConnectionManager(long keepAliveTimeout, int bufferSize) {
 		this.keepAliveTimeout = keepAliveTimeout;
+		this.bufferSize = bufferSize;
 		this.autoCloseInterval = keepAliveTimeout * 2;
 		timer = new Timer("Connection Closer", true);
 		timer.schedule(new TimerTask() {
@@ -166,6 +174,7 @@ public class ConnectionManager {
 					OldConnection c = l.get(i);
 					if (c.deathTime > now) {
 						l.remove(i);
+						reused.incrementAndGet();
 						return c.connection;
 					}
 					Collections.swap(l, 0, i);
@@ -174,8 +183,9 @@ public class ConnectionManager {
 			}
 		}
 
-		Connection result = Connection.open(host, port, localHost, sslProvider, this, connectTimeout,sniServerName,proxy,proxySSLContext);
+		Connection result = Connection.open(host, port, localHost, sslProvider, this, connectTimeout,sniServerName,proxy,proxySSLContext,bufferSize);
 		numberInPool.incrementAndGet();
+		opened.incrementAndGet();
 		return result;
 	}
 
@@ -251,10 +261,37 @@ public class ConnectionManager {
 		shutdownWhenDone = true;
 	}
 
+	/**
+	 * @return the number of open connections, idle or in use
+	 */
 	public int getNumberInPool() {
 		return numberInPool.get();
 	}
 
+	/**
+	 * @return the number of open connections waiting to be reused
+	 */
+	public synchronized int getNumberIdle() {
+		int idle = 0;
+		for (ArrayList<OldConnection> l : availableConnections.values())
+			idle += l.size();
+		return idle;
+	}
+
+	/**
+	 * @return the number of connections opened since startup
+	 */
+	public long getOpened() {
+		return opened.get();
+	}
+
+	/**
+	 * @return how often an idle connection was reused since startup
+	 */
+	public long getReused() {
+		return reused.get();
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
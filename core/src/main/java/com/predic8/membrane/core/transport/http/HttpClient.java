@@ -72,6 +72,7 @@ public class HttpClient {
 	private final String localAddr;
 
 	private final ConnectionManager conMgr;
+	private final CircuitBreakers circuitBreakers;
 	private StreamPump.StreamPumpStats streamPumpStats;
 
 	public HttpClient() {
@@ -90,7 +91,12 @@ public class HttpClient {
 		connectTimeout = configuration.getConnection().getTimeout();
 		localAddr = configuration.getConnection().getLocalAddr();
 
-		conMgr = new ConnectionManager(configuration.getConnection().getKeepAliveTimeout());
+		conMgr = new ConnectionManager(configuration.getConnection().getKeepAliveTimeout(), configuration.getConnection().getBufferSize());
+
+		if (configuration.getCircuitBreaker() != null)
+			circuitBreakers = new CircuitBreakers(configuration.getCircuitBreaker());
+		else
+			circuitBreakers = null;
 	}
 
 	public void setStreamPumpStats(StreamPump.StreamPumpStats streamPumpStats) {
@@ -145,6 +151,17 @@ public class HttpClient {
 		return null;
 	}
 
+	/**
+	 * The circuit breakers set on the exchange (e.g. by the load balancer, which uses them to filter
+	 * its nodes) take precedence over the ones configured for this client.
+	 */
+	private CircuitBreakers getCircuitBreakers(Exchange exc) {
+		Object cbObj = exc.getProperty(Exchange.CIRCUIT_BREAKERS);
+		if (cbObj != null)
+			return (CircuitBreakers) cbObj;
+		return circuitBreakers;
+	}
+
 	private static synchronized SSLProvider getDefaultSSLProvider() {
 		if (defaultSSLProvider == null)
 			defaultSSLProvider = new StaticSSLContext(new SSLParser(), null, null);
@@ -163,14 +180,24 @@ public class HttpClient {
 		Exception exception = null;
 		Object trackNodeStatusObj = exc.getProperty(Exchange.TRACK_NODE_STATUS);
 		boolean trackNodeStatus = trackNodeStatusObj != null && trackNodeStatusObj instanceof Boolean && (Boolean)trackNodeStatusObj;
+		CircuitBreakers breakers = getCircuitBreakers(exc);
 		disableStreamingForRetries(exc);
 		while (counter < maxRetries) {
 			Connection con = null;
 			String dest = getDestination(exc, counter);
 			HostColonPort target = null;
+			CircuitBreaker breaker = null;
+			boolean skipped = false;
 			try {
 				log.debug("try # " + counter + " to " + dest);
 				target = init(exc, dest, adjustHostHeader);
+				if (breakers != null) {
+					breaker = breakers.get(target.host, target.port);
+					if (!breaker.allowRequest()) {
+						breaker = null;
+						throw new CircuitBreakerOpenException(dest);
+					}
+				}
 				if (counter == 0) {
 					con = exc.getTargetConnection();
 					if (con != null) {
@@ -218,6 +245,7 @@ public class HttpClient {
 				}
 
 				if (newProtocol != null) {
+					recordSuccess(breaker);
 					setupConnectionForwarding(exc, con, newProtocol, streamPumpStats);
 					exc.getDestinations().clear();
 					exc.getDestinations().add(dest);
@@ -227,6 +255,10 @@ public class HttpClient {
 				}
 
 				boolean is5XX = 500 <= response.getStatusCode() && response.getStatusCode() < 600;
+				if (is5XX)
+					recordFailure(breaker);
+				else
+					recordSuccess(breaker);
 				if (!failOverOn5XX || !is5XX || counter == maxRetries-1) {
 					applyKeepAliveHeader(response, con);
 					exc.getDestinations().clear();
@@ -237,10 +269,16 @@ public class HttpClient {
 					return exc;
 				}
 				// java.net.SocketException: Software caused connection abort: socket write error
+			} catch (CircuitBreakerOpenException e) {
+				exception = e;
+				skipped = true;
+				log.debug(e.getMessage());
 			} catch (ConnectException e) {
+				recordFailure(breaker);
 				exception = e;
 				log.info("Connection to " + (target == null ? dest : target ) + " refused.");
 			} catch(SocketException e){
+				recordFailure(breaker);
 				if ( e.getMessage().contains("Software caused connection abort")) {
 					log.info("Connection to " + dest + " was aborted externally. Maybe by the server or the OS Membrane is running on.");
 				} else if (e.getMessage().contains("Connection reset") ) {
@@ -250,6 +288,7 @@ public class HttpClient {
 				}
 				exception = e;
 			} catch (UnknownHostException e) {
+				recordFailure(breaker);
 				log.warn("Unknown host: " + (target == null ? dest : target ));
 				exception = e;
 				if (exc.getDestinations().size() < 2) {
@@ -257,11 +296,14 @@ public class HttpClient {
 					break;
 				}
 			} catch (EOFWhileReadingFirstLineException e) {
+				recordFailure(breaker);
 				log.debug("Server connection to " + dest + " terminated before line was read. Line so far: " + e.getLineSoFar());
 				exception = e;
 			} catch (NoResponseException e) {
+				recordFailure(breaker);
 				throw e;
 			} catch (Exception e) {
+				recordFailure(breaker);
 				logException(exc, counter, e);
 				exception = e;
 			}
@@ -273,14 +315,25 @@ public class HttpClient {
 				}
 			}
 			counter++;
-			if (exc.getDestinations().size() == 1) {
+			if (exc.getDestinations().size() == 1 && !skipped) {
 				//as documented above, the sleep timeout is only applied between successive calls to the same destination.
+				//it is not applied if the destination has been skipped because of an open circuit breaker.
 				Thread.sleep(timeBetweenTriesMs);
 			}
 		}
 		throw exception;
 	}
 
+	private void recordSuccess(CircuitBreaker breaker) {
+		if (breaker != null)
+			breaker.recordSuccess();
+	}
+
+	private void recordFailure(CircuitBreaker breaker) {
+		if (breaker != null)
+			breaker.recordFailure();
+	}
+
 	private void disableStreamingForRetries(Exchange exc) {
 		if(maxRetries > 1)
 			exc.getRequest().addObserver(new MessageObserver() {
@@ -430,7 +483,14 @@ public class HttpClient {
 		Util.shutdownOutput(con.socket);
 	}
 
-	ConnectionManager getConnectionManager() {
+	/**
+	 * @return the circuit breakers of this client, or null if none are configured.
+	 */
+	public CircuitBreakers getCircuitBreakers() {
+		return circuitBreakers;
+	}
+
+	public ConnectionManager getConnectionManager() {
 		return conMgr;
 	}
 }
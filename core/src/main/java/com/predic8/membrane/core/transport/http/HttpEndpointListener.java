@@ -132,6 +132,13 @@ public class HttpEndpointListener extends Thread {
 		return openSockets.size();
 	}
 
+	/**
+	 * @return the number of open connections waiting for the next request
+	 */
+	public int getNumberOfIdleConnections() {
+		return idleSockets.size();
+	}
+
 	public HttpTransport getTransport() {
 		return transport;
 	}
@@ -71,14 +71,17 @@ public class HttpServerHandler extends AbstractHttpHandler implements Runnable {
 		SSLProvider sslProvider = endpointListener.getSslProvider();
 		if (sslProvider != null) {
 			showSSLExceptions = sslProvider.showSSLExceptions();
+			// the TLS handshake happens while wrapping
+			sourceSocket.setSoTimeout(endpointListener.getTransport().getSocketTimeout());
 			sourceSocket = sslProvider.wrapAcceptedSocket(sourceSocket);
 		}else{
 			// if there is no SSLProvider then there shouldn't be any ssl exceptions showing here
 			showSSLExceptions = false;
 		}
 		log.debug("New ServerThread created. " + counter.incrementAndGet());
-		srcIn = new BufferedInputStream(sourceSocket.getInputStream(), 2048);
-		srcOut = new BufferedOutputStream(sourceSocket.getOutputStream(), 2048);
+		int bufferSize = endpointListener.getTransport().getBufferSize();
+		srcIn = new BufferedInputStream(sourceSocket.getInputStream(), bufferSize);
+		srcOut = new BufferedOutputStream(sourceSocket.getOutputStream(), bufferSize);
 		sourceSocket.setSoTimeout(endpointListener.getTransport().getSocketTimeout());
 		sourceSocket.setTcpNoDelay(endpointListener.getTransport().isTcpNoDelay());
 	}
@@ -54,6 +54,7 @@ public class HttpTransport extends Transport {
 	private int socketTimeout = 30000;
 	private int forceSocketCloseOnHotDeployAfter = 30000;
 	private boolean tcpNoDelay = true;
+	private int bufferSize = Connection.DEFAULT_BUFFER_SIZE;
 
 	public Hashtable<IpPort, HttpEndpointListener> portListenerMapping = new Hashtable<IpPort, HttpEndpointListener>();
 	public List<WeakReference<HttpEndpointListener>> stillRunning = new ArrayList<WeakReference<HttpEndpointListener>>();
@@ -81,6 +82,7 @@ public class HttpTransport extends Transport {
 	 * Closes the corresponding server port. Note that connections might still be open and exchanges still running after
 	 * this method completes.
 	 */
+	@Override
 	public synchronized void closePort(String ip, int port) throws IOException {
 		IpPort p = new IpPort(ip, port);
 		log.debug("Closing server port: " + p);
@@ -241,6 +243,21 @@ public class HttpTransport extends Transport {
 		this.tcpNoDelay = tcpNoDelay;
 	}
 
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * @description Size (in bytes) of the buffers of the input and output streams of incoming connections. A
+	 *              response whose head and body fit into the buffer is sent using a single write. Streamed bodies
+	 *              are passed on whenever the buffer is full or the next part of the body has not arrived yet.
+	 * @default 8192
+	 */
+	@MCAttribute
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
 	@Override
 	public boolean isOpeningPorts() {
 		return true;
@@ -0,0 +1,115 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.transport.http.client;
+
+import com.predic8.membrane.annot.MCAttribute;
+import com.predic8.membrane.annot.MCElement;
+
+/**
+ * @description Configures the per-destination circuit breaker. A destination is ejected ("open") after a number of
+ *              consecutive errors or when its error rate exceeds a threshold. While open, requests skip the
+ *              destination immediately. After the ejection time, a limited number of probe requests is let through
+ *              ("half-open"): a successful probe closes the circuit, a failed one ejects the destination again for
+ *              twice as long (up to the maximum ejection time).
+ */
+@MCElement(name="circuitBreaker", topLevel=false)
+public class CircuitBreakerConfiguration {
+
+	private int consecutiveErrors = 5;
+	private int errorRateThreshold = 50;
+	private int errorRateWindow = 20;
+	private long baseEjectionTime = 10000;
+	private long maxEjectionTime = 300000;
+	private int halfOpenRequests = 1;
+
+	public int getConsecutiveErrors() {
+		return consecutiveErrors;
+	}
+
+	/**
+	 * @description Number of consecutive errors after which a destination gets ejected. 0 disables this trigger.
+	 * @default 5
+	 */
+	@MCAttribute
+	public void setConsecutiveErrors(int consecutiveErrors) {
+		this.consecutiveErrors = consecutiveErrors;
+	}
+
+	public int getErrorRateThreshold() {
+		return errorRateThreshold;
+	}
+
+	/**
+	 * @description Error rate in percent (over the last <i>errorRateWindow</i> calls) at which a destination gets
+	 *              ejected. 0 disables this trigger.
+	 * @default 50
+	 */
+	@MCAttribute
+	public void setErrorRateThreshold(int errorRateThreshold) {
+		this.errorRateThreshold = errorRateThreshold;
+	}
+
+	public int getErrorRateWindow() {
+		return errorRateWindow;
+	}
+
+	/**
+	 * @description Number of most recent calls the error rate is computed over. The error rate is only evaluated
+	 *              once the window has been filled.
+	 * @default 20
+	 */
+	@MCAttribute
+	public void setErrorRateWindow(int errorRateWindow) {
+		this.errorRateWindow = errorRateWindow;
+	}
+
+	public long getBaseEjectionTime() {
+		return baseEjectionTime;
+	}
+
+	/**
+	 * @description Time in milliseconds a destination stays ejected the first time. Doubled for every failed probe.
+	 * @default 10000
+	 */
+	@MCAttribute
+	public void setBaseEjectionTime(long baseEjectionTime) {
+		this.baseEjectionTime = baseEjectionTime;
+	}
+
+	public long getMaxEjectionTime() {
+		return maxEjectionTime;
+	}
+
+	/**
+	 * @description Upper bound for the ejection time in milliseconds.
+	 * @default 300000
+	 */
+	@MCAttribute
+	public void setMaxEjectionTime(long maxEjectionTime) {
+		this.maxEjectionTime = maxEjectionTime;
+	}
+
+	public int getHalfOpenRequests() {
+		return halfOpenRequests;
+	}
+
+	/**
+	 * @description Number of concurrent probe requests let through while the circuit is half-open.
+	 * @default 1
+	 */
+	@MCAttribute
+	public void setHalfOpenRequests(int halfOpenRequests) {
+		this.halfOpenRequests = halfOpenRequests;
+	}
+}
@@ -15,6 +15,7 @@ package com.predic8.membrane.core.transport.http.client;
 
 import com.predic8.membrane.annot.MCAttribute;
 import com.predic8.membrane.annot.MCElement;
+import com.predic8.membrane.core.transport.http.Connection;
 
 @MCElement(name="connection", topLevel=false)
 public class ConnectionConfiguration {
@@ -22,6 +23,7 @@ public class ConnectionConfiguration {
 	private long keepAliveTimeout = 4000;
 	private int connectTimeout = 10000;
 	private String localAddr;
+	private int bufferSize = Connection.DEFAULT_BUFFER_SIZE;
 
 	public long getKeepAliveTimeout() {
 		return keepAliveTimeout;
@@ -64,5 +66,19 @@ public class ConnectionConfiguration {
 		this.localAddr = localAddr;
 	}
 
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * @description Size (in bytes) of the buffers of a connection's input and output streams. A request whose
+	 *              head and body fit into the buffer is sent using a single write.
+	 * @default 8192
+	 */
+	@MCAttribute
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
 
 }
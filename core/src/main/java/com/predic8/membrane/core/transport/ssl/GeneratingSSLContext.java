@@ -207,7 +207,9 @@ public class GeneratingSSLContext extends SSLContext {
             javax.net.ssl.SSLContext sslc = javax.net.ssl.SSLContext.getInstance("TLS");
             sslc.init(kmf.getKeyManagers(), null, null);
 
-            return new StaticSSLContext(sslParser, sslc);
+            StaticSSLContext sslContext = new StaticSSLContext(sslParser, sslc);
+            sslContext.handshakeStatistics = handshakeStatistics;
+            return sslContext;
 
         } catch (Exception e) {
             throw new RuntimeException(e);
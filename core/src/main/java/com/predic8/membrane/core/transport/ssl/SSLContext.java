@@ -21,6 +21,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
 import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
 import java.io.ByteArrayInputStream;
@@ -41,8 +43,12 @@ public abstract class SSLContext implements SSLProvider {
 
     private boolean showSSLExceptions = true;
 
+    SSLHandshakeStatistics handshakeStatistics = new SSLHandshakeStatistics();
+
     public void init(SSLParser sslParser, javax.net.ssl.SSLContext sslc) {
         showSSLExceptions = sslParser.isShowSSLExceptions();
+        initSessionContext(sslc.getServerSessionContext(), sslParser);
+        initSessionContext(sslc.getClientSessionContext(), sslParser);
         if (sslParser.getCiphers() != null) {
             ciphers = sslParser.getCiphers().split(",");
             Set<String> supportedCiphers = Sets.newHashSet(sslc.getSocketFactory().getSupportedCipherSuites());
@@ -87,6 +93,13 @@ public abstract class SSLContext implements SSLProvider {
         endpointIdentificationAlgorithm = sslParser.getEndpointIdentificationAlgorithm();
     }
 
+    private void initSessionContext(SSLSessionContext sessionContext, SSLParser sslParser) {
+        if (sessionContext == null)
+            return;
+        sessionContext.setSessionCacheSize(sslParser.getSessionCacheSize());
+        sessionContext.setSessionTimeout(sslParser.getSessionTimeout());
+    }
+
     abstract String getLocation();
     abstract List<String> getDnsNames();
 
@@ -113,9 +126,40 @@ public abstract class SSLContext implements SSLProvider {
         }
         serviceSocket.setWantClientAuth(isWantClientAuth());
         serviceSocket.setNeedClientAuth(isNeedClientAuth());
+        handshake(serviceSocket, 0);
         return serviceSocket;
     }
 
+    /**
+     * Performs the handshake right away (instead of on first I/O) to record its duration and whether
+     * an earlier session was resumed.
+     *
+     * @param timeout the read timeout to use during the handshake, if the socket has none set; 0 to keep it
+     */
+    protected void handshake(SSLSocket socket, int timeout) throws IOException {
+        int soTimeout = socket.getSoTimeout();
+        if (soTimeout == 0 && timeout > 0)
+            socket.setSoTimeout(timeout);
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            socket.startHandshake();
+        } catch (IOException e) {
+            handshakeStatistics.recordFailure();
+            throw e;
+        }
+        long nanos = System.nanoTime() - start;
+        SSLSession session = socket.getSession();
+        // a resumed session has been created during an earlier handshake
+        handshakeStatistics.record(nanos, session.getCreationTime() < startMillis);
+        if (soTimeout != socket.getSoTimeout())
+            socket.setSoTimeout(soTimeout);
+    }
+
+    public SSLHandshakeStatistics getHandshakeStatistics() {
+        return handshakeStatistics;
+    }
+
     public void applyCiphers(SSLSocket sslSocket) {
         if (ciphers != null) {
             SSLParameters sslParameters = sslSocket.getSSLParameters();
@@ -21,7 +21,10 @@ import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
@@ -67,7 +70,10 @@ public class SSLContextCollection implements SSLProvider {
 	}
 
 	private final List<SSLContext> sslContexts;
-	private final List<Pattern> dnsNames;
+	/** lower case host name to index into {@link #sslContexts} of the first context listing it */
+	private final Map<String, Integer> exactNames = new HashMap<String, Integer>();
+	/** patterns matching the wildcard names of the context at the same index, or null */
+	private final Pattern[] wildcardNames;
 
 	/**
 	 * @param sslContexts
@@ -78,12 +84,42 @@ public class SSLContextCollection implements SSLProvider {
 	 *            {@link ServiceProxyKey#setHost(String)})
 	 */
 	private SSLContextCollection(List<SSLContext> sslContexts, List<String> dnsNames) {
-		this.dnsNames = new ArrayList<Pattern>();
-		for (String dnsName : dnsNames)
-			this.dnsNames.add(Pattern.compile(ServiceProxyKey.createHostPattern(dnsName), Pattern.CASE_INSENSITIVE));
+		wildcardNames = new Pattern[dnsNames.size()];
+		for (int i = 0; i < dnsNames.size(); i++) {
+			StringBuilder wildcards = new StringBuilder();
+			for (String name : dnsNames.get(i).split(" ")) {
+				if (name.isEmpty())
+					continue;
+				if (name.contains("*")) {
+					wildcards.append(name).append(' ');
+				} else {
+					String key = name.toLowerCase(Locale.ENGLISH);
+					if (!exactNames.containsKey(key))
+						exactNames.put(key, i);
+				}
+			}
+			if (wildcards.length() > 0)
+				wildcardNames[i] = Pattern.compile(ServiceProxyKey.createHostPattern(wildcards.toString().trim()), Pattern.CASE_INSENSITIVE);
+		}
 		this.sslContexts = sslContexts;
 	}
 
+	/**
+	 * Looks the hostname up in the exact-match map first. Wildcard patterns are only checked for
+	 * contexts configured before the exact match (if any), so the first matching context wins as
+	 * before.
+	 *
+	 * @return the index of the matching context, or -1.
+	 */
+	int findContext(String hostname) {
+		Integer exact = exactNames.get(hostname.toLowerCase(Locale.ENGLISH));
+		int end = exact != null ? exact : wildcardNames.length;
+		for (int i = 0; i < end; i++)
+			if (wildcardNames[i] != null && wildcardNames[i].matcher(hostname).matches())
+				return i;
+		return exact != null ? exact : -1;
+	}
+
 	public ServerSocket createServerSocket(int port, int backlog, InetAddress bindAddress) throws IOException {
 		return new ServerSocket(port, 50, bindAddress);
 	}
@@ -131,15 +167,13 @@ public class SSLContextCollection implements SSLProvider {
 		if (capabilities != null) {
 			List<SNIServerName> serverNames = capabilities.getServerNames();
 			if (serverNames != null && serverNames.size() > 0) {
-				OUTER:
-					for (SNIServerName snisn : serverNames) {
-						String hostname = new String(snisn.getEncoded(), "UTF-8");
-						for (int i = 0; i < dnsNames.size(); i++)
-							if (dnsNames.get(i).matcher(hostname).matches()) {
-								sslContext = sslContexts.get(i);
-								break OUTER;
-							}
+				for (SNIServerName snisn : serverNames) {
+					int i = findContext(new String(snisn.getEncoded(), "UTF-8"));
+					if (i != -1) {
+						sslContext = sslContexts.get(i);
+						break;
 					}
+				}
 			if (sslContext == null) {
 				// no hostname matched: send 'unrecognized_name' alert and close socket
 
@@ -174,15 +208,8 @@ public class SSLContextCollection implements SSLProvider {
 	}
 
 	private SSLContext getSSLContextForHostname(String hostname) {
-		SSLContext sslContext = null;
-		for (int i = 0; i < dnsNames.size(); i++)
-			if (dnsNames.get(i).matcher(hostname).matches()) {
-				sslContext = sslContexts.get(i);
-				break;
-			}
-		if (sslContext == null)
-			sslContext = sslContexts.get(0);
-		return sslContext;
+		int i = findContext(hostname);
+		return sslContexts.get(i == -1 ? 0 : i);
 	}
 
 	@Override
@@ -0,0 +1,86 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.transport.ssl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the TLS handshakes performed using one {@link SSLContext} (inbound and outbound),
+ * how many of them resumed an earlier session and how long they took.
+ */
+public class SSLHandshakeStatistics {
+
+	private final LongAdder handshakes = new LongAdder();
+	private final LongAdder resumed = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder nanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	public void record(long nanos, boolean resumed) {
+		handshakes.increment();
+		if (resumed)
+			this.resumed.increment();
+		this.nanos.add(nanos);
+		long m;
+		while (nanos > (m = maxNanos.get()))
+			if (maxNanos.compareAndSet(m, nanos))
+				return;
+	}
+
+	public void recordFailure() {
+		failed.increment();
+	}
+
+	/**
+	 * @return the number of successful handshakes.
+	 */
+	public long getHandshakes() {
+		return handshakes.sum();
+	}
+
+	/**
+	 * @return the number of successful handshakes resuming an earlier session.
+	 */
+	public long getResumedHandshakes() {
+		return resumed.sum();
+	}
+
+	public long getFailedHandshakes() {
+		return failed.sum();
+	}
+
+	/**
+	 * @return the share of resumed handshakes (0 to 1).
+	 */
+	public double getResumptionRatio() {
+		long h = handshakes.sum();
+		return h == 0 ? 0 : (double) resumed.sum() / h;
+	}
+
+	/**
+	 * @return the average handshake time in microseconds.
+	 */
+	public long getAverageHandshakeTime() {
+		long h = handshakes.sum();
+		return h == 0 ? 0 : nanos.sum() / h / 1000;
+	}
+
+	/**
+	 * @return the maximum handshake time in microseconds.
+	 */
+	public long getMaxHandshakeTime() {
+		return maxNanos.get() / 1000;
+	}
+}
@@ -290,6 +290,8 @@ public class StaticSSLContext extends SSLContext {
     }
 
     public Socket wrapAcceptedSocket(Socket socket) throws IOException {
+        if (socket instanceof SSLSocket)
+            handshake((SSLSocket) socket, 0);
         return socket;
     }
 
@@ -311,6 +313,7 @@ public class StaticSSLContext extends SSLContext {
             ssls.setEnabledProtocols(set.toArray(new String[0]));
         }
         applyCiphers(ssls);
+        handshake(ssls, connectTimeout);
         return ssls;
     }
 
@@ -54,9 +54,8 @@ public class WebSocketFrame {
         this.rsv3 = rsv3;
         this.opcode = opcode;
         this.isMasked = isMasked;
-        payloadLength = payload.length;
-        System.arraycopy(this.maskKey,0,maskingKey,0,maskingKey.length);
-        System.arraycopy(this.payload,0,payload,0,payload.length);
+        setMaskKey(maskingKey);
+        setPayload(payload);
     }
 
     private String calcError() {
@@ -14,19 +14,14 @@
 
 package com.predic8.membrane.core.util;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.zip.DataFormatException;
-import java.util.zip.Inflater;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.predic8.membrane.core.http.Chunk;
-
 public class ByteUtil {
 
 	private static Logger log = LoggerFactory.getLogger(ByteUtil.class.getName());
@@ -74,51 +69,12 @@ public class ByteUtil {
 		}
 	}
 
+	/**
+	 * @return the decompressed "deflate" data (zlib or raw), or null if it is empty.
+	 */
 	public static byte[] getDecompressedData(byte[] compressedData) throws IOException {
-		Inflater decompressor = new Inflater(true);
-		decompressor.setInput(compressedData);
-
-		byte[] buf = new byte[1024];
-
-		List<Chunk> chunks = new ArrayList<Chunk>();
-
-		while (!decompressor.finished()) {
-			int count;
-			try {
-				count = decompressor.inflate(buf);
-			} catch (DataFormatException e) {
-				throw new IOException(e);
-			}
-			if (buf.length == count) {
-				Chunk chunk = new Chunk(buf);
-				chunks.add(chunk);
-			} else if (count < buf.length){
-				byte[] shortContent = new byte[count];
-				for (int j = 0; j < count; j ++) {
-					shortContent[j] = buf[j];
-				}
-				Chunk chunk = new Chunk(shortContent);
-				chunks.add(chunk);
-			}
-		}
-
-		log.debug("Number of decompressed chunks: " + chunks.size());
-		if (chunks.size() > 0) {
-
-			ByteArrayOutputStream bos = new ByteArrayOutputStream();
-
-			for (Chunk chunk : chunks) {
-				chunk.write(bos);
-			}
-
-			try {
-				bos.close();
-			} catch (IOException e) {
-			}
-			return bos.toByteArray();
-		}
-
-		return null;
+		byte[] data = getByteArrayData(new InflatingInputStream(new ByteArrayInputStream(compressedData), false));
+		return data.length == 0 ? null : data;
 	}
 
 	public static int getValueOfBits(byte b, int minBitPosition, int maxBitPosition){
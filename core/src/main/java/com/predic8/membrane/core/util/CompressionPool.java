@@ -0,0 +1,94 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Pools {@link Inflater} and {@link Deflater} instances.
+ *
+ * Each instance holds native zlib memory (a {@link Deflater} several hundred kilobytes), which
+ * is otherwise only freed by the garbage collector. Instances which are not returned (e.g.
+ * because a stream was abandoned) are simply garbage collected.
+ */
+public class CompressionPool {
+
+	private static final int MAX_POOLED = Integer.getInteger("membrane.core.util.compressionPool.size", 64);
+
+	private static class Pool<T> {
+		private final Queue<T> queue = new ConcurrentLinkedQueue<T>();
+		private final AtomicInteger size = new AtomicInteger();
+
+		T poll() {
+			T t = queue.poll();
+			if (t != null)
+				size.decrementAndGet();
+			return t;
+		}
+
+		boolean offer(T t) {
+			if (size.incrementAndGet() > MAX_POOLED) {
+				size.decrementAndGet();
+				return false;
+			}
+			queue.offer(t);
+			return true;
+		}
+	}
+
+	private static final Pool<Inflater> inflaters = new Pool<Inflater>(), rawInflaters = new Pool<Inflater>();
+	private static final Pool<Deflater> deflaters = new Pool<Deflater>(), rawDeflaters = new Pool<Deflater>();
+
+	/**
+	 * @param nowrap whether the data is raw deflate data (as in gzip) instead of the zlib format
+	 */
+	public static Inflater getInflater(boolean nowrap) {
+		Inflater inflater = (nowrap ? rawInflaters : inflaters).poll();
+		return inflater != null ? inflater : new Inflater(nowrap);
+	}
+
+	/**
+	 * @param nowrap must be the value passed to {@link #getInflater(boolean)}
+	 */
+	public static void release(Inflater inflater, boolean nowrap) {
+		inflater.reset();
+		if (!(nowrap ? rawInflaters : inflaters).offer(inflater))
+			inflater.end();
+	}
+
+	/**
+	 * @param nowrap whether to produce raw deflate data (as in gzip) instead of the zlib format
+	 */
+	public static Deflater getDeflater(int level, boolean nowrap) {
+		Deflater deflater = (nowrap ? rawDeflaters : deflaters).poll();
+		if (deflater == null)
+			return new Deflater(level, nowrap);
+		deflater.setLevel(level);
+		return deflater;
+	}
+
+	/**
+	 * @param nowrap must be the value passed to {@link #getDeflater(int, boolean)}
+	 */
+	public static void release(Deflater deflater, boolean nowrap) {
+		deflater.reset();
+		if (!(nowrap ? rawDeflaters : deflaters).offer(deflater))
+			deflater.end();
+	}
+
+}
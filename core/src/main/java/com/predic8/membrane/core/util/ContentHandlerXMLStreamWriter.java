@@ -0,0 +1,382 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.ext.LexicalHandler;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.NamespaceSupport;
+
+/**
+ * An {@link XMLStreamWriter} passing the written document on to a SAX {@link ContentHandler} (and,
+ * optionally, a {@link LexicalHandler} for comments and CDATA sections), instead of serializing it.
+ *
+ * This allows code writing XML through StAX to feed e.g. an XSLT transformation directly. Start and
+ * end of the document are not reported, as this is up to the caller.
+ */
+public class ContentHandlerXMLStreamWriter implements XMLStreamWriter {
+
+	private static class Element {
+		final String uri, localName, qName;
+		final List<String> prefixes;
+
+		Element(String uri, String localName, String qName, List<String> prefixes) {
+			this.uri = uri;
+			this.localName = localName;
+			this.qName = qName;
+			this.prefixes = prefixes;
+		}
+	}
+
+	private final ContentHandler handler;
+	private final LexicalHandler lexicalHandler;
+	private final NamespaceSupport namespaces = new NamespaceSupport();
+	private final Deque<Element> elements = new ArrayDeque<Element>();
+	// the bindings outside of the document, see setNamespaceContext(), or null
+	private NamespaceContext rootContext;
+
+	// the start tag being written: it is reported once all attributes are known
+	private boolean pending, pendingEmpty;
+	private String pendingPrefix, pendingUri, pendingLocalName;
+	private final AttributesImpl pendingAttributes = new AttributesImpl();
+	private List<String> pendingPrefixes = new ArrayList<String>();
+
+	public ContentHandlerXMLStreamWriter(ContentHandler handler, LexicalHandler lexicalHandler) {
+		this.handler = handler;
+		this.lexicalHandler = lexicalHandler;
+	}
+
+	private void startElement(String prefix, String localName, String uri, boolean empty) throws XMLStreamException {
+		flushStartElement();
+		namespaces.pushContext();
+		pending = true;
+		pendingEmpty = empty;
+		pendingPrefix = prefix;
+		pendingLocalName = localName;
+		pendingUri = uri;
+	}
+
+	private void flushStartElement() throws XMLStreamException {
+		if (!pending)
+			return;
+		pending = false;
+		String prefix = pendingPrefix, uri = pendingUri;
+		if (prefix == null && (prefix = getPrefix(uri)) == null)
+			throw new XMLStreamException("Namespace URI " + uri + " is not bound to a prefix.");
+		if (uri == null)
+			uri = getNamespaceURI(prefix);
+		String qName = prefix.isEmpty() ? pendingLocalName : prefix + ":" + pendingLocalName;
+		try {
+			for (String p : pendingPrefixes)
+				handler.startPrefixMapping(p, namespaces.getURI(p));
+			handler.startElement(uri, pendingLocalName, qName, pendingAttributes);
+		} catch (SAXException e) {
+			throw new XMLStreamException(e);
+		}
+		pendingAttributes.clear();
+		elements.push(new Element(uri, pendingLocalName, qName, pendingPrefixes));
+		pendingPrefixes = new ArrayList<String>();
+		if (pendingEmpty)
+			writeEndElement();
+	}
+
+	private static String nonNull(String s) {
+		return s == null ? "" : s;
+	}
+
+	/**
+	 * @return the URI bound to the prefix within the document or by the root namespace context, or ""
+	 */
+	private String getNamespaceURI(String prefix) {
+		String uri = namespaces.getURI(prefix);
+		if (uri == null && rootContext != null)
+			uri = rootContext.getNamespaceURI(prefix);
+		return nonNull(uri);
+	}
+
+	/**
+	 * @return a non-default prefix bound to the URI, or null
+	 */
+	private String getNonDefaultPrefix(String uri) {
+		String prefix = namespaces.getPrefix(uri);
+		if (prefix == null && rootContext != null) {
+			prefix = rootContext.getPrefix(uri);
+			// the prefix is unusable if it is the default one or has been rebound within the document
+			if (prefix != null && (prefix.isEmpty() || namespaces.getURI(prefix) != null))
+				prefix = null;
+		}
+		return prefix;
+	}
+
+	@Override
+	public void writeStartElement(String localName) throws XMLStreamException {
+		startElement("", localName, null, false);
+	}
+
+	@Override
+	public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+		startElement(null, localName, nonNull(namespaceURI), false);
+	}
+
+	@Override
+	public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+		startElement(nonNull(prefix), localName, nonNull(namespaceURI), false);
+	}
+
+	@Override
+	public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+		startElement(null, localName, nonNull(namespaceURI), true);
+	}
+
+	@Override
+	public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+		startElement(nonNull(prefix), localName, nonNull(namespaceURI), true);
+	}
+
+	@Override
+	public void writeEmptyElement(String localName) throws XMLStreamException {
+		startElement("", localName, null, true);
+	}
+
+	@Override
+	public void writeEndElement() throws XMLStreamException {
+		flushStartElement();
+		Element e = elements.pop();
+		try {
+			handler.endElement(e.uri, e.localName, e.qName);
+			for (String p : e.prefixes)
+				handler.endPrefixMapping(p);
+		} catch (SAXException ex) {
+			throw new XMLStreamException(ex);
+		}
+		namespaces.popContext();
+	}
+
+	@Override
+	public void writeEndDocument() throws XMLStreamException {
+		while (pending || !elements.isEmpty())
+			writeEndElement();
+	}
+
+	@Override
+	public void close() throws XMLStreamException {
+	}
+
+	@Override
+	public void flush() throws XMLStreamException {
+	}
+
+	@Override
+	public void writeAttribute(String localName, String value) throws XMLStreamException {
+		writeAttribute("", "", localName, value);
+	}
+
+	@Override
+	public void writeAttribute(String prefix, String namespaceURI, String localName, String value) throws XMLStreamException {
+		if (!pending)
+			throw new XMLStreamException("Attributes can only be written directly after a start tag.");
+		prefix = nonNull(prefix);
+		pendingAttributes.addAttribute(nonNull(namespaceURI), localName, prefix.isEmpty() ? localName : prefix + ":" + localName,
+				"CDATA", value);
+	}
+
+	@Override
+	public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+		String prefix = "";
+		if (namespaceURI != null && !namespaceURI.isEmpty()) {
+			prefix = getNonDefaultPrefix(namespaceURI);
+			if (prefix == null)
+				throw new XMLStreamException("Namespace URI " + namespaceURI + " is not bound to a prefix.");
+		}
+		writeAttribute(prefix, namespaceURI, localName, value);
+	}
+
+	@Override
+	public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+		if (prefix == null || prefix.isEmpty() || XMLConstants.XMLNS_ATTRIBUTE.equals(prefix)) {
+			writeDefaultNamespace(namespaceURI);
+			return;
+		}
+		if (!pending)
+			throw new XMLStreamException("Namespaces can only be written directly after a start tag.");
+		namespaces.declarePrefix(prefix, nonNull(namespaceURI));
+		pendingPrefixes.add(prefix);
+	}
+
+	@Override
+	public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+		if (!pending)
+			throw new XMLStreamException("Namespaces can only be written directly after a start tag.");
+		namespaces.declarePrefix("", nonNull(namespaceURI));
+		pendingPrefixes.add("");
+	}
+
+	@Override
+	public void writeComment(String data) throws XMLStreamException {
+		flushStartElement();
+		if (lexicalHandler == null)
+			return;
+		try {
+			lexicalHandler.comment(data.toCharArray(), 0, data.length());
+		} catch (SAXException e) {
+			throw new XMLStreamException(e);
+		}
+	}
+
+	@Override
+	public void writeProcessingInstruction(String target) throws XMLStreamException {
+		writeProcessingInstruction(target, "");
+	}
+
+	@Override
+	public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+		flushStartElement();
+		try {
+			handler.processingInstruction(target, data);
+		} catch (SAXException e) {
+			throw new XMLStreamException(e);
+		}
+	}
+
+	@Override
+	public void writeCData(String data) throws XMLStreamException {
+		flushStartElement();
+		try {
+			if (lexicalHandler != null)
+				lexicalHandler.startCDATA();
+			handler.characters(data.toCharArray(), 0, data.length());
+			if (lexicalHandler != null)
+				lexicalHandler.endCDATA();
+		} catch (SAXException e) {
+			throw new XMLStreamException(e);
+		}
+	}
+
+	@Override
+	public void writeDTD(String dtd) throws XMLStreamException {
+		// ignored
+	}
+
+	@Override
+	public void writeEntityRef(String name) throws XMLStreamException {
+		flushStartElement();
+		try {
+			handler.skippedEntity(name);
+		} catch (SAXException e) {
+			throw new XMLStreamException(e);
+		}
+	}
+
+	@Override
+	public void writeStartDocument() throws XMLStreamException {
+	}
+
+	@Override
+	public void writeStartDocument(String version) throws XMLStreamException {
+	}
+
+	@Override
+	public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+	}
+
+	@Override
+	public void writeCharacters(String text) throws XMLStreamException {
+		writeCharacters(text.toCharArray(), 0, text.length());
+	}
+
+	@Override
+	public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+		flushStartElement();
+		try {
+			handler.characters(text, start, len);
+		} catch (SAXException e) {
+			throw new XMLStreamException(e);
+		}
+	}
+
+	@Override
+	public String getPrefix(String uri) throws XMLStreamException {
+		if (uri.equals(getNamespaceURI("")))
+			return "";
+		return getNonDefaultPrefix(uri);
+	}
+
+	@Override
+	public void setPrefix(String prefix, String uri) throws XMLStreamException {
+		namespaces.declarePrefix(nonNull(prefix), nonNull(uri));
+	}
+
+	@Override
+	public void setDefaultNamespace(String uri) throws XMLStreamException {
+		namespaces.declarePrefix("", nonNull(uri));
+	}
+
+	@Override
+	public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+		if (pending || !elements.isEmpty())
+			throw new XMLStreamException("The namespace context can only be set before the root element is written.");
+		rootContext = context;
+	}
+
+	@Override
+	public NamespaceContext getNamespaceContext() {
+		return new NamespaceContext() {
+			@Override
+			public String getNamespaceURI(String prefix) {
+				return ContentHandlerXMLStreamWriter.this.getNamespaceURI(prefix);
+			}
+
+			@Override
+			public String getPrefix(String namespaceURI) {
+				try {
+					return ContentHandlerXMLStreamWriter.this.getPrefix(namespaceURI);
+				} catch (XMLStreamException e) {
+					return null;
+				}
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public Iterator<String> getPrefixes(String namespaceURI) {
+				List<String> prefixes = Collections.list(namespaces.getPrefixes(namespaceURI));
+				if (rootContext != null)
+					for (Iterator<?> i = rootContext.getPrefixes(namespaceURI); i.hasNext(); ) {
+						String prefix = (String) i.next();
+						if (namespaces.getURI(prefix) == null && !prefixes.contains(prefix))
+							prefixes.add(prefix);
+					}
+				return prefixes.iterator();
+			}
+		};
+	}
+
+	@Override
+	public Object getProperty(String name) throws IllegalArgumentException {
+		throw new IllegalArgumentException("Property " + name + " is not supported.");
+	}
+
+}
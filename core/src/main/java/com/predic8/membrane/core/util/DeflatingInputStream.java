@@ -0,0 +1,126 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses a stream while it is being read, producing the gzip or deflate (zlib) format, using a
+ * {@link Deflater} from the {@link CompressionPool}.
+ *
+ * Whenever the input stream has no more data available at the moment (e.g. a server sending events
+ * one by one), the compressed data produced so far is flushed, so that compression does not delay
+ * streamed messages.
+ *
+ * The {@link Deflater} is returned to the pool when the end of the stream is reached or the stream
+ * is closed.
+ */
+public class DeflatingInputStream extends InputStream {
+
+	private static final byte[] GZIP_HEADER = new byte[] { 0x1F, (byte) 0x8B, 8, 0, 0, 0, 0, 0, 0, (byte) 0xFF };
+
+	private final InputStream in;
+	private final boolean gzip;
+	private final byte[] buf = new byte[8192];
+	private final CRC32 crc = new CRC32();
+	private Deflater deflater;
+	private boolean flush, inputEnded;
+
+	/** header or trailer bytes to be returned before/after the compressed data */
+	private byte[] pending;
+	private int pendingPos;
+
+	/**
+	 * @param gzip whether to produce the "gzip" or the "deflate" encoding
+	 * @param level the compression level (0-9 or {@link Deflater#DEFAULT_COMPRESSION})
+	 */
+	public DeflatingInputStream(InputStream in, boolean gzip, int level) {
+		this.in = in;
+		this.gzip = gzip;
+		this.deflater = CompressionPool.getDeflater(level, gzip);
+		if (gzip)
+			pending = GZIP_HEADER;
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		while (true) {
+			if (pending != null) {
+				int n = Math.min(len, pending.length - pendingPos);
+				System.arraycopy(pending, pendingPos, b, off, n);
+				pendingPos += n;
+				if (pendingPos == pending.length) {
+					pending = null;
+					pendingPos = 0;
+				}
+				return n;
+			}
+			if (deflater == null)
+				return -1;
+			if (deflater.needsInput() && !inputEnded) {
+				int n = in.read(buf);
+				if (n == -1) {
+					inputEnded = true;
+					deflater.finish();
+				} else {
+					if (gzip)
+						crc.update(buf, 0, n);
+					deflater.setInput(buf, 0, n);
+					flush = n < buf.length && in.available() == 0;
+				}
+			}
+			int n = deflater.deflate(b, off, len, flush ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH);
+			if (n > 0)
+				return n;
+			flush = false;
+			if (deflater.finished()) {
+				if (gzip)
+					pending = getTrailer(crc.getValue(), deflater.getBytesRead());
+				CompressionPool.release(deflater, gzip);
+				deflater = null;
+			}
+		}
+	}
+
+	private static byte[] getTrailer(long crc, long size) {
+		byte[] trailer = new byte[8];
+		for (int i = 0; i < 4; i++) {
+			trailer[i] = (byte) (crc >> (8 * i));
+			trailer[4 + i] = (byte) (size >> (8 * i));
+		}
+		return trailer;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (deflater != null) {
+			CompressionPool.release(deflater, gzip);
+			deflater = null;
+		}
+		pending = null;
+		in.close();
+	}
+
+}
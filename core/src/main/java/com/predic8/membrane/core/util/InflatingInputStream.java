@@ -0,0 +1,208 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decompresses a gzip or deflate stream (the HTTP Content-Encodings) using an {@link Inflater} from
+ * the {@link CompressionPool}.
+ *
+ * Like {@link java.util.zip.GZIPInputStream}, gzip streams may consist of several members. In
+ * contrast to it, an empty input is accepted as an empty stream (e.g. a 204 response carrying a
+ * "Content-Encoding" header), and "deflate" accepts both the zlib format (RFC 1950, as required
+ * by HTTP) and raw deflate data (as sent by some servers).
+ *
+ * The {@link Inflater} is returned to the pool when the end of the stream is reached or the stream
+ * is closed.
+ */
+public class InflatingInputStream extends InputStream {
+
+	private static final int FHCRC = 2, FEXTRA = 4, FNAME = 8, FCOMMENT = 16;
+
+	private final InputStream in;
+	private final boolean gzip;
+	private final byte[] buf = new byte[8192];
+	/** the compressed data in buf which has not been consumed yet */
+	private int bufPos, bufLen;
+
+	private final CRC32 crc = new CRC32();
+	private Inflater inflater;
+	private boolean nowrap;
+	private boolean first = true, eof;
+
+	/**
+	 * @param gzip whether the stream uses the "gzip" or the "deflate" encoding
+	 */
+	public InflatingInputStream(InputStream in, boolean gzip) {
+		this.in = in;
+		this.gzip = gzip;
+	}
+
+	/**
+	 * Ensures that at least n bytes are available in the buffer.
+	 *
+	 * @return false, if the input ended before.
+	 */
+	private boolean ensure(int n) throws IOException {
+		if (bufLen - bufPos >= n)
+			return true;
+		System.arraycopy(buf, bufPos, buf, 0, bufLen - bufPos);
+		bufLen -= bufPos;
+		bufPos = 0;
+		while (bufLen < n) {
+			int read = in.read(buf, bufLen, buf.length - bufLen);
+			if (read == -1)
+				return false;
+			bufLen += read;
+		}
+		return true;
+	}
+
+	private int readByte() throws IOException {
+		if (!ensure(1))
+			throw new EOFException("Unexpected end of compressed stream.");
+		return buf[bufPos++] & 0xFF;
+	}
+
+	private int readShort() throws IOException {
+		return readByte() | readByte() << 8;
+	}
+
+	private long readInt() throws IOException {
+		return (readShort() | (long) readShort() << 16) & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Reads the header of the next member of the stream.
+	 *
+	 * @return false, if there is none.
+	 */
+	private boolean startMember() throws IOException {
+		if (gzip) {
+			if (!ensure(2) || (buf[bufPos] & 0xFF) != 0x1F || (buf[bufPos + 1] & 0xFF) != 0x8B) {
+				if (first && bufLen > bufPos)
+					throw new ZipException("Not in GZIP format");
+				return false; // like GZIPInputStream, ignore trailing garbage
+			}
+			bufPos += 2;
+			if (readByte() != 8)
+				throw new ZipException("Unsupported compression method");
+			int flags = readByte();
+			for (int i = 0; i < 6; i++) // modification time, extra flags, operating system
+				readByte();
+			if ((flags & FEXTRA) != 0)
+				for (int len = readShort(); len > 0; len--)
+					readByte();
+			if ((flags & FNAME) != 0)
+				while (readByte() != 0);
+			if ((flags & FCOMMENT) != 0)
+				while (readByte() != 0);
+			if ((flags & FHCRC) != 0)
+				readShort();
+			nowrap = true;
+			crc.reset();
+		} else {
+			if (!first || !ensure(1))
+				return false;
+			// RFC 1950: compression method 8, header checksum
+			nowrap = !(ensure(2) && (buf[bufPos] & 0x0F) == 8 && ((buf[bufPos] & 0xFF) << 8 | buf[bufPos + 1] & 0xFF) % 31 == 0);
+		}
+		first = false;
+		inflater = CompressionPool.getInflater(nowrap);
+		if (bufLen > bufPos)
+			inflater.setInput(buf, bufPos, bufLen - bufPos);
+		bufPos = bufLen;
+		return true;
+	}
+
+	private void endMember() throws IOException {
+		bufPos = bufLen - inflater.getRemaining();
+		long written = inflater.getBytesWritten();
+		releaseInflater();
+		if (!gzip)
+			return;
+		if (readInt() != crc.getValue() || readInt() != (written & 0xFFFFFFFFL))
+			throw new ZipException("Corrupt GZIP trailer");
+	}
+
+	private void releaseInflater() {
+		if (inflater != null) {
+			CompressionPool.release(inflater, nowrap);
+			inflater = null;
+		}
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] b = new byte[1];
+		return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		while (!eof) {
+			if (inflater == null) {
+				if (!startMember()) {
+					eof = true;
+					break;
+				}
+			}
+			int n;
+			try {
+				n = inflater.inflate(b, off, len);
+			} catch (DataFormatException e) {
+				throw new ZipException(e.getMessage() != null ? e.getMessage() : "Invalid compressed data");
+			}
+			if (n > 0) {
+				if (gzip)
+					crc.update(b, off, n);
+				return n;
+			}
+			if (inflater.finished()) {
+				endMember();
+			} else if (inflater.needsDictionary()) {
+				throw new ZipException("Preset dictionaries are not supported");
+			} else if (inflater.needsInput()) {
+				bufPos = bufLen = 0;
+				if (!ensure(1))
+					throw new EOFException("Unexpected end of compressed stream.");
+				inflater.setInput(buf, 0, bufLen);
+				bufPos = bufLen;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return eof ? 0 : 1;
+	}
+
+	@Override
+	public void close() throws IOException {
+		eof = true;
+		releaseInflater();
+		in.close();
+	}
+
+}
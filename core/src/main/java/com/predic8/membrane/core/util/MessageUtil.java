@@ -13,10 +13,10 @@
    limitations under the License. */
 package com.predic8.membrane.core.util;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.zip.GZIPInputStream;
+import java.nio.charset.Charset;
+import java.util.regex.Pattern;
 
 import javax.xml.transform.Source;
 import javax.xml.transform.sax.SAXSource;
@@ -25,6 +25,9 @@ import org.xml.sax.InputSource;
 import org.xml.sax.helpers.XMLReaderFactory;
 
 import com.predic8.membrane.core.Constants;
+import com.predic8.membrane.core.http.Body;
+import com.predic8.membrane.core.http.EmptyBody;
+import com.predic8.membrane.core.http.Header;
 import com.predic8.membrane.core.http.Message;
 import com.predic8.membrane.core.http.Request;
 import com.predic8.membrane.core.interceptor.schemavalidation.SOAPXMLFilter;
@@ -32,23 +35,40 @@ import com.predic8.membrane.core.interceptor.schemavalidation.SOAPXMLFilter;
 public class MessageUtil {
 
 	public static InputStream getContentAsStream(Message res) throws IOException {
-		if (res.isGzip()) {
-			return new GZIPInputStream(res.getBodyAsStream());
-		} else if (res.isDeflate()) {
-			return new ByteArrayInputStream(ByteUtil.getDecompressedData(res.getBody().getContent()));
-		}
-		return res.getBodyAsStream();
+		return res.getBodyAsStreamUncompressed();
 	}
 
 	public static byte[] getContent(Message res) throws Exception {
-		if (res.isGzip()) {
-			return ByteUtil.getByteArrayData(new GZIPInputStream(res.getBodyAsStream()));
-		} else if (res.isDeflate()) {
-			return ByteUtil.getDecompressedData(res.getBody().getContent());
-		}
+		if (res.isGzip() || res.isDeflate())
+			return ByteUtil.getByteArrayData(res.getBodyAsStreamUncompressed());
 		return res.getBody().getContent();
 	}
 
+	/**
+	 * Replaces all matches of the pattern in the decoded body.
+	 *
+	 * The body is not read here: The replacement happens while the body is being forwarded, which
+	 * is why the message is switched to chunked transfer encoding. HTTP/1.0 messages do not support
+	 * chunking and are therefore rewritten at once.
+	 *
+	 * @see RegExReplaceInputStream
+	 */
+	public static void replaceAll(Message msg, Pattern pattern, String replacement, int maxMatchLength) throws IOException {
+		if (msg.getBody() instanceof EmptyBody || msg.isBodyEmpty())
+			return;
+		InputStream in = new RegExReplaceInputStream(msg.getBodyAsStreamDecoded(), Charset.forName(msg.getCharset()),
+				pattern, replacement, maxMatchLength);
+		if (msg.isHTTP10()) {
+			msg.setBodyContent(ByteUtil.getByteArrayData(in));
+			return;
+		}
+		Header header = msg.getHeader();
+		header.removeFields(Header.CONTENT_LENGTH);
+		header.removeFields(Header.CONTENT_ENCODING);
+		header.setValue(Header.TRANSFER_ENCODING, Header.CHUNKED);
+		msg.setBody(new Body(in));
+	}
+
 	public static Source getSOAPBody(InputStream stream) throws Exception {
 		return new SAXSource(new SOAPXMLFilter(XMLReaderFactory.createXMLReader()), new InputSource(stream));
 	}
@@ -0,0 +1,82 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the use of a pool of objects which are expensive to create and may not be used concurrently (for
+ * example validators or XSLT transformers): how often an object was taken from the pool, and how often the
+ * pool was empty, so that the caller had to wait or a new object had to be created.
+ */
+public class PoolStatistics {
+
+	private final LongAdder acquired = new LongAdder();
+	private final LongAdder created = new LongAdder();
+	private final LongAdder waits = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	public void recordAcquired() {
+		acquired.increment();
+	}
+
+	public void recordCreated() {
+		created.increment();
+	}
+
+	/**
+	 * @param nanos the time the caller waited for an object to be returned to the pool
+	 */
+	public void recordWait(long nanos) {
+		waits.increment();
+		waitNanos.add(nanos);
+		long m;
+		while (nanos > (m = maxWaitNanos.get()))
+			if (maxWaitNanos.compareAndSet(m, nanos))
+				return;
+	}
+
+	public long getAcquired() {
+		return acquired.sum();
+	}
+
+	public long getCreated() {
+		return created.sum();
+	}
+
+	/**
+	 * @return how often a caller had to wait, because all objects were in use.
+	 */
+	public long getWaits() {
+		return waits.sum();
+	}
+
+	/**
+	 * @return the average time a waiting caller waited in microseconds.
+	 */
+	public long getAverageWaitTime() {
+		long w = waits.sum();
+		return w == 0 ? 0 : waitNanos.sum() / w / 1000;
+	}
+
+	/**
+	 * @return the maximum time a caller waited in microseconds.
+	 */
+	public long getMaxWaitTime() {
+		return maxWaitNanos.get() / 1000;
+	}
+
+}
@@ -0,0 +1,196 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the first of a list of regular expressions matching a URI, without evaluating every
+ * expression. Used to dispatch requests to configured mappings (e.g. by the rewriter).
+ *
+ * Most expressions start with a literal, e.g. "^/bank/(.*)" requires the URI to start with "/bank/",
+ * and "/buy/(.*)" requires it to contain "/buy/". These literals are stored in a trie. A lookup walks
+ * the trie from each position of the URI, collecting the expressions whose literal occurs at that
+ * position (or at position 0, for anchored expressions). Only these candidates and the expressions
+ * without a usable literal are then evaluated, in the order of the list.
+ *
+ * @param <T> the values associated with the expressions
+ */
+public class RegExIndex<T> {
+
+	private static class Node {
+		final Map<Character, Node> children = new TreeMap<Character, Node>();
+		final BitSet anchoredSet = new BitSet(), floatingSet = new BitSet();
+
+		// compiled
+		char[] keys;
+		Node[] nodes;
+		int[] anchored, floating;
+
+		Node child(char c) {
+			Node n = children.get(c);
+			if (n == null)
+				children.put(c, n = new Node());
+			return n;
+		}
+
+		void compile() {
+			keys = new char[children.size()];
+			nodes = new Node[children.size()];
+			int i = 0;
+			for (Map.Entry<Character, Node> e : children.entrySet()) {
+				keys[i] = e.getKey();
+				nodes[i] = e.getValue();
+				nodes[i++].compile();
+			}
+			anchored = anchoredSet.stream().toArray();
+			floating = floatingSet.stream().toArray();
+		}
+
+		Node get(char c) {
+			int i = Arrays.binarySearch(keys, c);
+			return i < 0 ? null : nodes[i];
+		}
+	}
+
+	private final Pattern[] patterns;
+	private final Object[] values;
+	private final boolean wholeInput;
+	private final Node root = new Node();
+	/**
+	 * expressions without a literal, ascending; they are always evaluated
+	 */
+	private final int[] unfiltered;
+
+	/**
+	 * @param wholeInput whether an expression has to match the whole URI ({@link java.util.regex.Matcher#matches()})
+	 *        instead of a part of it ({@link java.util.regex.Matcher#find()})
+	 */
+	public RegExIndex(List<Pattern> patterns, List<T> values, boolean wholeInput) {
+		if (patterns.size() != values.size())
+			throw new IllegalArgumentException("The number of patterns and values differ.");
+		this.patterns = patterns.toArray(new Pattern[patterns.size()]);
+		this.values = values.toArray();
+		this.wholeInput = wholeInput;
+		BitSet unfilteredSet = new BitSet();
+		for (int i = 0; i < this.patterns.length; i++) {
+			String regex = this.patterns[i].pattern();
+			boolean anchored = wholeInput || regex.startsWith("^");
+			String literal = (this.patterns[i].flags() & (Pattern.CASE_INSENSITIVE | Pattern.LITERAL | Pattern.COMMENTS)) != 0 ? ""
+					: getLiteral(regex, regex.startsWith("^") ? 1 : 0);
+			if (literal.isEmpty()) {
+				unfilteredSet.set(i);
+				continue;
+			}
+			Node node = root;
+			for (int j = 0; j < literal.length(); j++)
+				node = node.child(literal.charAt(j));
+			(anchored ? node.anchoredSet : node.floatingSet).set(i);
+		}
+		unfiltered = unfilteredSet.stream().toArray();
+		root.compile();
+	}
+
+	/**
+	 * @return the literal every match of the regular expression starts with, or "" if it cannot be
+	 *         determined.
+	 */
+	public static String getLiteral(String regex, int start) {
+		if (regex.indexOf('|') != -1)
+			return "";
+		StringBuilder literal = new StringBuilder();
+		for (int i = start; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				if (i + 1 == regex.length())
+					break;
+				char next = regex.charAt(++i);
+				if (next == 'Q') {
+					// quoted, as created by Pattern.quote()
+					int end = regex.indexOf("\\E", i + 1);
+					literal.append(regex, i + 1, end == -1 ? regex.length() : end);
+					i = end == -1 ? regex.length() : end + 1;
+				} else if (Character.isLetterOrDigit(next)) {
+					break; // e.g. "\d"
+				} else {
+					literal.append(next);
+				}
+			} else if (c == '*' || c == '?' || c == '{') {
+				// the previous character is optional
+				if (literal.length() > 0)
+					literal.setLength(literal.length() - 1);
+				break;
+			} else if (".+()[]^$".indexOf(c) != -1) {
+				break;
+			} else {
+				literal.append(c);
+			}
+		}
+		return literal.toString();
+	}
+
+	/**
+	 * @return the value of the first expression matching the URI, or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public T findFirstMatching(String uri) {
+		// the expressions whose literal occurs, usually only a few; the shared index is not modified
+		int[] hits = null;
+		int count = 0;
+		for (int start = 0; start < uri.length(); start++) {
+			Node node = root;
+			for (int i = start; i < uri.length(); i++) {
+				node = node.get(uri.charAt(i));
+				if (node == null)
+					break;
+				int n = (start == 0 ? node.anchored.length : 0) + node.floating.length;
+				if (n == 0)
+					continue;
+				if (hits == null)
+					hits = new int[Math.max(4, n)];
+				else if (count + n > hits.length)
+					hits = Arrays.copyOf(hits, Math.max(2 * hits.length, count + n));
+				if (start == 0)
+					for (int m : node.anchored)
+						hits[count++] = m;
+				for (int m : node.floating)
+					hits[count++] = m;
+			}
+		}
+		if (count > 1)
+			Arrays.sort(hits, 0, count);
+
+		// evaluates the hits and the unfiltered expressions in the order of the list
+		int u = 0, h = 0;
+		while (u < unfiltered.length || h < count) {
+			int i;
+			if (h == count || u < unfiltered.length && unfiltered[u] < hits[h]) {
+				i = unfiltered[u++];
+			} else {
+				i = hits[h++];
+				// a literal may occur several times
+				while (h < count && hits[h] == i)
+					h++;
+			}
+			if (wholeInput ? patterns[i].matcher(uri).matches() : patterns[i].matcher(uri).find())
+				return (T) values[i];
+		}
+		return null;
+	}
+}
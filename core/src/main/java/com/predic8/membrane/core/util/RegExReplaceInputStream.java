@@ -0,0 +1,225 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces all matches of a regular expression in a character stream, emitting the result while
+ * the input is still being read.
+ *
+ * The input is processed through a sliding window: A match is only accepted once at least
+ * maxMatchLength characters following its start have been read (or the input has ended). Matches
+ * of up to maxMatchLength characters are therefore found just as by {@link String#replaceAll(String, String)}
+ * on the whole input; longer matches are cut off. Up to maxMatchLength characters before the
+ * current position are kept as context for lookbehinds and boundary matchers.
+ *
+ * The replacement string supports the same syntax as {@link Matcher#appendReplacement(StringBuffer, String)}
+ * ("$1", "${name}" and "\" as escape character). It is parsed once on construction.
+ */
+public class RegExReplaceInputStream extends InputStream {
+
+	private static final int READ_SIZE = 8192;
+
+	private final Reader in;
+	private final Matcher matcher;
+	private final Object[] replacement;
+	private final int maxMatchLength;
+
+	private final StringBuilder window = new StringBuilder();
+	private final StringBuilder result = new StringBuilder();
+	private final char[] readBuffer = new char[READ_SIZE];
+	private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	private final Writer writer;
+
+	/** the position within the window up to which the input has been processed */
+	private int pos;
+	private boolean eof;
+
+	private byte[] out = new byte[0];
+	private int outPos;
+
+	public RegExReplaceInputStream(InputStream in, Charset charset, Pattern pattern, String replacement, int maxMatchLength) {
+		if (maxMatchLength <= 0)
+			throw new IllegalArgumentException("maxMatchLength must be positive.");
+		this.in = new InputStreamReader(in, charset);
+		this.writer = new OutputStreamWriter(bytes, charset);
+		this.matcher = pattern.matcher(window).useTransparentBounds(true).useAnchoringBounds(false);
+		this.replacement = parseReplacement(pattern, replacement);
+		this.maxMatchLength = maxMatchLength;
+	}
+
+	/**
+	 * Splits the replacement string into literal strings and group references (Integers for
+	 * numbered and Strings wrapped in a one-element array for named groups).
+	 */
+	private static Object[] parseReplacement(Pattern pattern, String replacement) {
+		int groupCount = pattern.matcher("").groupCount();
+		List<Object> parts = new ArrayList<Object>();
+		StringBuilder literal = new StringBuilder();
+		for (int i = 0; i < replacement.length(); i++) {
+			char c = replacement.charAt(i);
+			if (c == '\\') {
+				if (++i == replacement.length())
+					throw new IllegalArgumentException("character to be escaped is missing");
+				literal.append(replacement.charAt(i));
+			} else if (c == '$') {
+				if (++i == replacement.length())
+					throw new IllegalArgumentException("Illegal group reference: group index is missing");
+				if (literal.length() > 0) {
+					parts.add(literal.toString());
+					literal.setLength(0);
+				}
+				if (replacement.charAt(i) == '{') {
+					int end = replacement.indexOf('}', i);
+					if (end == -1)
+						throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+					parts.add(new String[] { replacement.substring(i + 1, end) });
+					i = end;
+				} else {
+					int group = replacement.charAt(i) - '0';
+					if (group < 0 || group > 9)
+						throw new IllegalArgumentException("Illegal group reference");
+					// like Matcher: take further digits as long as the group exists
+					while (i + 1 < replacement.length()) {
+						int next = replacement.charAt(i + 1) - '0';
+						if (next < 0 || next > 9 || group * 10 + next > groupCount)
+							break;
+						group = group * 10 + next;
+						i++;
+					}
+					if (group > groupCount)
+						throw new IndexOutOfBoundsException("No group " + group);
+					parts.add(group);
+				}
+			} else {
+				literal.append(c);
+			}
+		}
+		if (literal.length() > 0)
+			parts.add(literal.toString());
+		return parts.toArray();
+	}
+
+	private void appendReplacement() {
+		for (Object part : replacement) {
+			String s;
+			if (part instanceof Integer)
+				s = matcher.group((Integer) part);
+			else if (part instanceof String[])
+				s = matcher.group(((String[]) part)[0]);
+			else
+				s = (String) part;
+			if (s != null)
+				result.append(s);
+		}
+	}
+
+	/**
+	 * Reads the next piece of input and moves the processed part of the window to {@link #result}.
+	 */
+	private void process() throws IOException {
+		int read = in.read(readBuffer);
+		if (read == -1)
+			eof = true;
+		else
+			window.append(readBuffer, 0, read);
+
+		int limit = eof ? window.length() : window.length() - maxMatchLength;
+		if (limit <= pos && !eof)
+			return;
+		// do not split surrogate pairs
+		if (!eof && Character.isHighSurrogate(window.charAt(limit - 1)))
+			limit--;
+
+		matcher.reset(window);
+		matcher.region(pos, window.length());
+		while (matcher.find()) {
+			if (matcher.start() >= limit && !eof)
+				break;
+			result.append(window, pos, matcher.start());
+			appendReplacement();
+			pos = matcher.end();
+		}
+		if (pos < limit) {
+			result.append(window, pos, limit);
+			pos = limit;
+		}
+
+		if (pos > maxMatchLength) {
+			window.delete(0, pos - maxMatchLength);
+			pos = maxMatchLength;
+		}
+	}
+
+	private boolean fill() throws IOException {
+		while (outPos == out.length) {
+			if (eof)
+				return false;
+			process();
+			if (result.length() == 0 && !eof)
+				continue;
+			bytes.reset();
+			writer.append(result);
+			if (eof)
+				writer.close();
+			else
+				writer.flush();
+			result.setLength(0);
+			out = bytes.toByteArray();
+			outPos = 0;
+		}
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fill())
+			return -1;
+		return out[outPos++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len == 0)
+			return 0;
+		if (!fill())
+			return -1;
+		int n = Math.min(len, out.length - outPos);
+		System.arraycopy(out, outPos, b, off, n);
+		outPos += n;
+		return n;
+	}
+
+	@Override
+	public int available() {
+		return out.length - outPos;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -0,0 +1,67 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Selects the k smallest of the offered elements according to a comparator, without sorting all of them.
+ *
+ * Offering n elements takes O(n log k) time and O(k) memory. Not thread-safe.
+ */
+public class TopKSelector<T> {
+
+	private final Comparator<? super T> comparator;
+	private final int k;
+	private final PriorityQueue<T> heap; // the largest selected element is the head
+
+	public TopKSelector(Comparator<? super T> comparator, int k) {
+		if (k < 0)
+			throw new IllegalArgumentException("k must not be negative: " + k);
+		this.comparator = comparator;
+		this.k = k;
+		heap = new PriorityQueue<T>(Math.max(1, Math.min(k, 1024)), Collections.reverseOrder(comparator));
+	}
+
+	public void offer(T element) {
+		if (heap.size() < k) {
+			heap.add(element);
+		} else if (k > 0 && comparator.compare(element, heap.peek()) < 0) {
+			heap.poll();
+			heap.add(element);
+		}
+	}
+
+	/**
+	 * @return the selected elements in ascending order
+	 */
+	public List<T> getSorted() {
+		List<T> result = new ArrayList<T>(heap);
+		Collections.sort(result, comparator);
+		return result;
+	}
+
+	/**
+	 * @return the selected elements in ascending order, skipping the first offset ones
+	 */
+	public List<T> getSorted(int offset) {
+		List<T> sorted = getSorted();
+		return sorted.subList(Math.min(offset, sorted.size()), sorted.size());
+	}
+
+}
@@ -0,0 +1,216 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import com.predic8.membrane.core.config.spring.BeanDefinitionComparator;
+import com.predic8.membrane.core.config.spring.TrackingFileSystemXmlApplicationContext;
+import com.predic8.membrane.core.interceptor.AbstractInterceptor;
+import com.predic8.membrane.core.interceptor.Interceptor;
+import com.predic8.membrane.core.rules.Rule;
+
+public class IncrementalHotDeployerTest {
+
+	public static class DisposableInterceptor extends AbstractInterceptor implements DisposableBean {
+		private volatile boolean destroyed;
+
+		@Override
+		public void destroy() {
+			destroyed = true;
+		}
+
+		public boolean isDestroyed() {
+			return destroyed;
+		}
+	}
+
+	private File config;
+	private TrackingFileSystemXmlApplicationContext context;
+	/** the definitions the running beans were created from, as kept by the {@link HotDeploymentThread} */
+	private DefaultListableBeanFactory deployed;
+
+	@Before
+	public void setUp() throws Exception {
+		File dir = new File("target/temp/hotdeploy");
+		dir.mkdirs();
+		config = new File(dir, "proxies.xml");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (context != null)
+			context.close();
+	}
+
+	private static String proxy(String name, int port, int targetPort, String... interceptors) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("<serviceProxy name=\"" + name + "\" port=\"" + port + "\">");
+		sb.append("<spring:bean class=\"" + DisposableInterceptor.class.getName() + "\">");
+		sb.append("<spring:property name=\"displayName\" value=\"" + name + "\" /></spring:bean>");
+		for (String interceptor : interceptors)
+			sb.append(interceptor);
+		sb.append("<target host=\"localhost\" port=\"" + targetPort + "\" />");
+		sb.append("</serviceProxy>");
+		return sb.toString();
+	}
+
+	/**
+	 * Writes a configuration with a router with the given attributes and proxies, and a bean "shared".
+	 */
+	private void writeConfig(String routerAttributes, String... proxies) throws IOException {
+		try (Writer w = new OutputStreamWriter(new FileOutputStream(config), "UTF-8")) {
+			w.write("<spring:beans xmlns=\"http://membrane-soa.org/proxies/1/\"\n"
+					+ "	xmlns:spring=\"http://www.springframework.org/schema/beans\"\n"
+					+ "	xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+					+ "	xsi:schemaLocation=\"http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans-4.2.xsd\n"
+					+ "		http://membrane-soa.org/proxies/1/ http://membrane-soa.org/schemas/proxies-1.xsd\">\n");
+			w.write("<spring:bean id=\"shared\" class=\"" + DisposableInterceptor.class.getName() + "\" />\n");
+			w.write("<router hotDeploy=\"false\" " + routerAttributes + ">\n");
+			for (String proxy : proxies)
+				w.write(proxy + "\n");
+			w.write("</router>\n");
+			w.write("</spring:beans>\n");
+		}
+	}
+
+	private Router start() throws Exception {
+		context = new TrackingFileSystemXmlApplicationContext(new String[] { config.getPath() }, false);
+		context.refresh();
+		context.start();
+		deployed = context.parseBeanDefinitions();
+		return context.getBean("router", Router.class);
+	}
+
+	private boolean deploy() throws Exception {
+		DefaultListableBeanFactory changed = context.parseBeanDefinitions();
+		if (!new IncrementalHotDeployer(context).deploy(deployed, changed))
+			return false;
+		deployed = changed;
+		return true;
+	}
+
+	private static List<String> getNames(Router router) {
+		List<String> names = new ArrayList<String>();
+		for (Rule rule : router.getRuleManager().getRules())
+			names.add(rule.getName());
+		return names;
+	}
+
+	private static Rule getRule(Router router, String name) {
+		for (Rule rule : router.getRuleManager().getRules())
+			if (rule.getName().equals(name))
+				return rule;
+		throw new AssertionError("No rule " + name + ".");
+	}
+
+	private static DisposableInterceptor getInterceptor(Rule rule) {
+		for (Interceptor interceptor : rule.getInterceptors())
+			if (interceptor instanceof DisposableInterceptor && rule.getName().equals(interceptor.getDisplayName()))
+				return (DisposableInterceptor) interceptor;
+		throw new AssertionError("No interceptor in rule " + rule.getName() + ".");
+	}
+
+	@Test
+	public void testKeptAddedAndRemovedRules() throws Exception {
+		writeConfig("",
+				proxy("kept", 3091, 3000),
+				proxy("changed", 3091, 3000),
+				proxy("removed", 3092, 3000, "<interceptor refid=\"shared\" />"));
+		Router router = start();
+		Rule kept = getRule(router, "kept");
+		Rule changed = getRule(router, "changed");
+		Rule removed = getRule(router, "removed");
+		DisposableInterceptor shared = context.getBean("shared", DisposableInterceptor.class);
+
+		writeConfig("",
+				proxy("kept", 3091, 3000),
+				proxy("changed", 3091, 3001),
+				proxy("added", 3093, 3000));
+		assertTrue(deploy());
+
+		assertEquals("[kept, changed, added]", getNames(router).toString());
+		assertSame(kept, getRule(router, "kept"));
+		assertNotSame(changed, getRule(router, "changed"));
+		Rule added = getRule(router, "added");
+		Rule changed2 = getRule(router, "changed");
+
+		// the beans of the removed rules are destroyed, but not the shared ones
+		assertTrue(getInterceptor(removed).isDestroyed());
+		assertTrue(getInterceptor(changed).isDestroyed());
+		assertFalse(getInterceptor(kept).isDestroyed());
+		assertFalse(getInterceptor(added).isDestroyed());
+		assertFalse(getInterceptor(changed2).isDestroyed());
+		assertFalse(shared.isDestroyed());
+
+		// the created rules are destroyed with the application context
+		context.close();
+		context = null;
+		assertTrue(getInterceptor(added).isDestroyed());
+		assertTrue(getInterceptor(changed2).isDestroyed());
+	}
+
+	@Test
+	public void testUnchangedConfiguration() throws Exception {
+		writeConfig("", proxy("a", 3091, 3000), proxy("b", 3092, 3000));
+		Router router = start();
+		List<Rule> rules = new ArrayList<Rule>(router.getRuleManager().getRules());
+
+		DefaultListableBeanFactory first = context.parseBeanDefinitions();
+		DefaultListableBeanFactory second = context.parseBeanDefinitions();
+		for (String name : first.getBeanDefinitionNames())
+			assertTrue(name, BeanDefinitionComparator.equal(first.getBeanDefinition(name), second.getBeanDefinition(name)));
+
+		assertTrue(deploy());
+		assertEquals(rules.size(), router.getRuleManager().getRules().size());
+		for (int i = 0; i < rules.size(); i++) {
+			assertSame(rules.get(i), router.getRuleManager().getRules().get(i));
+			assertFalse(getInterceptor(rules.get(i)).isDestroyed());
+		}
+	}
+
+	@Test
+	public void testChangeOutsideOfRulesNeedsRestart() throws Exception {
+		writeConfig("", proxy("a", 3091, 3000), proxy("b", 3092, 3000));
+		Router router = start();
+		List<Rule> rules = new ArrayList<Rule>(router.getRuleManager().getRules());
+
+		writeConfig("retryInitInterval=\"1234\"", proxy("a", 3091, 3000), proxy("b", 3092, 3001));
+		assertFalse(deploy());
+
+		// nothing has been changed
+		assertEquals(rules, router.getRuleManager().getRules());
+		for (Rule rule : rules)
+			assertFalse(getInterceptor(rule).isDestroyed());
+	}
+
+}
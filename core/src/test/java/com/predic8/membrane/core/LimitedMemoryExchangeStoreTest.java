@@ -14,14 +14,21 @@
 
 package com.predic8.membrane.core;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Calendar;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.predic8.membrane.core.exchange.AbstractExchange;
 import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.exchangestore.ExchangeQuery;
+import com.predic8.membrane.core.exchangestore.ExchangeQueryResult;
 import com.predic8.membrane.core.exchangestore.LimitedMemoryExchangeStore;
+import com.predic8.membrane.core.http.Body;
+import com.predic8.membrane.core.http.BodySpool;
 import com.predic8.membrane.core.http.Header;
 import com.predic8.membrane.core.http.Request;
 import com.predic8.membrane.core.http.Response;
@@ -59,15 +66,122 @@ public class LimitedMemoryExchangeStoreTest {
 
 	}
 
+	@Test
+	public void testQuery() throws Exception {
+		for (int i = 0; i < 10; i++)
+			store.snap(getExchange("" + i, i % 2 == 0 ? "GET" : "POST"), Flow.RESPONSE);
+
+		ExchangeQuery query = new ExchangeQuery();
+		query.setMethod("POST");
+		query.setMax(2);
+		ExchangeQueryResult result = store.query(query);
+		Assert.assertEquals(5, result.getTotal());
+		assertResult(result, "9", "7");
+
+		query.setCursor(result.getNextCursor());
+		result = store.query(query);
+		Assert.assertEquals(5, result.getTotal());
+		assertResult(result, "5", "3");
+
+		query.setCursor(result.getNextCursor());
+		result = store.query(query);
+		assertResult(result, "1");
+		Assert.assertNull(result.getNextCursor());
+
+		query = new ExchangeQuery();
+		query.setMethod("GET");
+		query.setOrder("asc");
+		query.setOffset(1);
+		query.setMax(2);
+		assertResult(store.query(query), "2", "4");
+
+		store.removeAllExchanges(store.getAllExchangesAsList().subList(0, 4).toArray(new AbstractExchange[0]));
+		query.setOffset(0);
+		result = store.query(query);
+		Assert.assertEquals(3, result.getTotal());
+		assertResult(result, "4", "6");
+	}
+
+	@Test
+	public void testNewAlgorithm() throws Exception {
+		store.setNewAlgorithm(true);
+		Exchange exc = getExchange("0");
+
+		store.snap(exc, Flow.REQUEST);
+		AbstractExchange record = store.getExchangeById((int) exc.getId());
+		Assert.assertNotNull(record);
+		Assert.assertNotSame(exc, record);
+		Assert.assertEquals("GET", record.getRequest().getMethod());
+		Assert.assertNull(record.getResponse());
+
+		store.snap(exc, Flow.RESPONSE);
+		Assert.assertSame(record, store.getExchangeById((int) exc.getId()));
+		Assert.assertEquals("<xml />", record.getResponse().getBodyAsStringDecoded());
+		Assert.assertEquals(1, store.getAllExchangesAsList().size());
+
+		store.remove(record);
+		Assert.assertNull(store.getExchangeById((int) exc.getId()));
+	}
+
+	@Test
+	public void testSpooledBody() throws Exception {
+		testSpooledBody(false);
+	}
+
+	@Test
+	public void testSpooledBodyNewAlgorithm() throws Exception {
+		testSpooledBody(true);
+	}
+
+	/**
+	 * A body larger than the spool threshold is kept on disk. It must still be available from the store, after
+	 * the exchange has been detached (as by HttpServerHandler after every exchange).
+	 */
+	private void testSpooledBody(boolean newAlgorithm) throws Exception {
+		store.setNewAlgorithm(newAlgorithm);
+		store.setMaxSize(100000000);
+		long diskUsed = BodySpool.getDiskUsed();
+		byte[] content = new byte[(int) BodySpool.getThreshold() * 2 + 100];
+		for (int i = 0; i < content.length; i++)
+			content[i] = (byte) ('a' + i % 26);
+
+		Exchange exc = getExchange("0");
+		exc.getResponse().setBody(new Body(new ByteArrayInputStream(content), content.length));
+		store.snap(exc, Flow.REQUEST);
+		store.snap(exc, Flow.RESPONSE);
+		exc.getResponse().getBody().read();
+		Assert.assertTrue(exc.getResponse().getBody().isSpooled());
+		exc.detach();
+
+		AbstractExchange stored = store.getExchangeById((int) exc.getId());
+		Assert.assertArrayEquals(content, stored.getResponse().getBody().getContent());
+
+		store.remove(stored);
+		Assert.assertEquals(diskUsed, BodySpool.getDiskUsed());
+	}
+
+	private void assertResult(ExchangeQueryResult result, String... ids) {
+		Assert.assertEquals(ids.length, result.getExchanges().size());
+		for (int i = 0; i < ids.length; i++)
+			Assert.assertEquals(ids[i], result.getExchanges().get(i).getProperty("id"));
+	}
+
 	private void assertStore(int pos, String value) {
 		Assert.assertEquals(value, store.getAllExchangesAsList().get(pos).getProperty("id"));
 	}
 
 	private Exchange getExchange(String id) throws IOException {
+		return getExchange(id, "GET");
+	}
+
+	private Exchange getExchange(String id, String method) throws IOException {
 		Exchange exc = new Exchange(null);
 		exc.setProperty("id", id);
+		Calendar time = Calendar.getInstance();
+		time.setTimeInMillis(1000L * Integer.parseInt(id));
+		exc.setTime(time);
 		Request req = new Request();
-		req.create("GET", "http://test", "HTTP/", new Header(), null);
+		req.create(method, "http://test", "HTTP/", new Header(), null);
 		exc.setRequest(req);
 		exc.setResponse(Response.ok().body("<xml />").build());
 		return exc;
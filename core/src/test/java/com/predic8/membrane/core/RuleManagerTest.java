@@ -17,6 +17,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -109,4 +111,12 @@ public class RuleManagerTest {
 		assertEquals(forwardBlz, manager.getRules().get(2));
 	}
 
+	@Test
+	public void testReplaceRulesFromSource() throws Exception {
+		Rule forwardBlzPUT = new ServiceProxy(new ServiceProxyKey("localhost", "PUT", ".*", 3014), "thomas-bayer.com", 80);
+		manager.replaceRulesFromSource(RuleManager.RuleDefinitionSource.MANUAL, Arrays.asList(forwardBlzPOST, forwardBlzPUT));
+		assertEquals(Arrays.asList(forwardBlzPOST, forwardBlzPUT), manager.getRules());
+		assertEquals(2, manager.getRulesBySource(RuleManager.RuleDefinitionSource.MANUAL).size());
+	}
+
 }
@@ -13,11 +13,16 @@
    limitations under the License. */
 package com.predic8.membrane.core;
 
+import com.predic8.membrane.core.cloud.etcd.EtcdBasedConfiguratorTest;
 import com.predic8.membrane.core.config.CustomSpringConfigurationTest;
 import com.predic8.membrane.core.config.ProxyTest;
 import com.predic8.membrane.core.config.ReadRulesConfigurationTest;
 import com.predic8.membrane.core.config.ReadRulesWithInterceptorsConfigurationTest;
+import com.predic8.membrane.core.config.XMLElementSourceTest;
 import com.predic8.membrane.core.exchangestore.AbortExchangeTest;
+import com.predic8.membrane.core.exchangestore.SegmentedExchangeLogTest;
+import com.predic8.membrane.core.http.BodyExcerptTest;
+import com.predic8.membrane.core.http.BodySpoolTest;
 import com.predic8.membrane.core.http.BodyTest;
 import com.predic8.membrane.core.http.HeaderTest;
 import com.predic8.membrane.core.http.RequestTest;
@@ -25,6 +30,7 @@ import com.predic8.membrane.core.http.ResponseTest;
 import com.predic8.membrane.core.interceptor.*;
 import com.predic8.membrane.core.interceptor.acl.AccessControlInterceptorTest;
 import com.predic8.membrane.core.interceptor.acl.AccessControlParserTest;
+import com.predic8.membrane.core.interceptor.apimanagement.AMStatisticsCollectorTest;
 import com.predic8.membrane.core.interceptor.balancer.*;
 import com.predic8.membrane.core.interceptor.cbr.XPathCBRInterceptorTest;
 import com.predic8.membrane.core.interceptor.formvalidation.FormValidationInterceptorTest;
@@ -37,8 +43,11 @@ import com.predic8.membrane.core.interceptor.rewrite.RewriteInterceptorTest;
 import com.predic8.membrane.core.interceptor.schemavalidation.JSONSchemaValidationTest;
 import com.predic8.membrane.core.interceptor.schemavalidation.SOAPMessageValidatorInterceptorTest;
 import com.predic8.membrane.core.interceptor.schemavalidation.SOAPUtilTest;
+import com.predic8.membrane.core.interceptor.schemavalidation.StreamingJSONSchemaTest;
 import com.predic8.membrane.core.interceptor.schemavalidation.ValidatorInterceptorTest;
 import com.predic8.membrane.core.interceptor.soap.SoapOperationExtractorTest;
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriterTest;
+import com.predic8.membrane.core.interceptor.statistics.util.RotatingFileSinkTest;
 import com.predic8.membrane.core.interceptor.xmlcontentfilter.SimpleXPathAnalyzerTest;
 import com.predic8.membrane.core.interceptor.xmlcontentfilter.SimpleXPathParserTest;
 import com.predic8.membrane.core.interceptor.xmlcontentfilter.XMLContentFilterTest;
@@ -50,10 +59,12 @@ import com.predic8.membrane.core.resolver.SingleResolverTest;
 import com.predic8.membrane.core.rules.ProxyRuleTest;
 import com.predic8.membrane.core.rules.ServiceProxyKeyTest;
 import com.predic8.membrane.core.transport.ExchangeTest;
+import com.predic8.membrane.core.transport.http.CircuitBreakerTest;
 import com.predic8.membrane.core.transport.http.HostColonPortTest;
 import com.predic8.membrane.core.transport.http.HttpKeepAliveTest;
 import com.predic8.membrane.core.transport.http.ServiceInvocationTest;
 import com.predic8.membrane.core.transport.ssl.SSLContextTest;
+import com.predic8.membrane.core.transport.ws.WebSocketFrameTest;
 import com.predic8.membrane.core.util.*;
 import com.predic8.membrane.core.ws.relocator.RelocatorTest;
 import com.predic8.membrane.core.ws.relocator.RelocatorWADLTest;
@@ -63,17 +74,17 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({HeaderTest.class, BodyTest.class, ByteUtilTest.class,
+@SuiteClasses({HeaderTest.class, BodyTest.class, BodySpoolTest.class, BodyExcerptTest.class, ByteUtilTest.class,
         HttpUtilTest.class, RequestTest.class, ResponseTest.class,
         MagicTest.class, WSDLInterceptorTest.class,
         AccessControlParserTest.class, AccessControlInterceptorTest.class,
         DispatchingInterceptorTest.class,
         HostColonPortTest.class,
         HTTP2XMLInterceptorTest.class, ReadRulesConfigurationTest.class,
-        ReadRulesWithInterceptorsConfigurationTest.class,
-        RuleManagerTest.class, ProxyTest.class, ServiceProxyKeyTest.class,
-        ProxyRuleTest.class, TextUtilTest.class, RelocatorTest.class,
-        XSLTInterceptorTest.class, URLUtilTest.class, ClusterManagerTest.class,
+        ReadRulesWithInterceptorsConfigurationTest.class, XMLElementSourceTest.class,
+        RuleManagerTest.class, IncrementalHotDeployerTest.class, ProxyTest.class, ServiceProxyKeyTest.class,
+        ProxyRuleTest.class, TextUtilTest.class, ContentHandlerXMLStreamWriterTest.class, RegExReplaceInputStreamTest.class, InflatingInputStreamTest.class, RelocatorTest.class,
+        XSLTInterceptorTest.class, URLUtilTest.class, TopKSelectorTest.class, LatencyHistogramTest.class, ClusterManagerTest.class,
         ClusterNotificationInterceptorTest.class,
         XMLSessionIdExtractorTest.class, ClusterBalancerTest.class,
         LoadBalancingWithClusterManagerAndNoSessionTest.class,
@@ -81,7 +92,7 @@ import org.junit.runners.Suite.SuiteClasses;
         MultipleLoadBalancersTest.class, DNSCacheTest.class,
         ValidatorInterceptorTest.class, XPathCBRInterceptorTest.class,
         CustomSpringConfigurationTest.class, JSESSIONIDExtractorTest.class,
-        ThrottleInterceptorTest.class, GroovyInterceptorTest.class,
+        ThrottleInterceptorTest.class, ConcurrencyLimiterTest.class, GroovyInterceptorTest.class,
         FormValidationInterceptorTest.class, ServiceInvocationTest.class,
         HttpKeepAliveTest.class, ReverseProxyingInterceptorTest.class,
         SSLContextTest.class, RelocatorWADLTest.class,
@@ -91,16 +102,19 @@ import org.junit.runners.Suite.SuiteClasses;
         InternalInvocationTest.class, HeaderFilterInterceptorTest.class,
         SOAPUtilTest.class, SoapOperationExtractorTest.class,
         ContentTypeDetectorTest.class,
-        MessageAnalyserTest.class, ExchangeTest.class,
+        MessageAnalyserTest.class, ExchangeTest.class, WebSocketFrameTest.class,
         LimitedMemoryExchangeStoreTest.class,
+        SegmentedExchangeLogTest.class,
         IndexInterceptorTest.class,
         SingleResolverTest.class,
         JSONSchemaValidationTest.class,
+        StreamingJSONSchemaTest.class,
         SOAPMessageValidatorInterceptorTest.class,
         URITest.class,
         RewriteInterceptorTest.class,
-        AbortExchangeTest.class, RateLimitInterceptorTest.class,
-        OAuth2UnitTests.class
+        AbortExchangeTest.class, RateLimitInterceptorTest.class, CompressionInterceptorTest.class, LogInterceptorTest.class, AMStatisticsCollectorTest.class, AsyncBatchWriterTest.class, RotatingFileSinkTest.class,
+        OAuth2UnitTests.class, CircuitBreakerTest.class,
+        InterceptorChainTest.class, EtcdBasedConfiguratorTest.class
 
 })
 public class UnitTests {
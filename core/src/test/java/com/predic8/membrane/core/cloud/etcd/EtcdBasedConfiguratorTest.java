@@ -14,6 +14,292 @@
 
 package com.predic8.membrane.core.cloud.etcd;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.predic8.membrane.core.HttpRouter;
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.exchangestore.LimitedMemoryExchangeStore;
+import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.interceptor.AbstractInterceptor;
+import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.balancer.LoadBalancingInterceptor;
+import com.predic8.membrane.core.interceptor.balancer.Node;
+import com.predic8.membrane.core.rules.Rule;
+import com.predic8.membrane.core.rules.ServiceProxy;
+import com.predic8.membrane.core.rules.ServiceProxyKey;
+
 public class EtcdBasedConfiguratorTest {
 
+	private static final String BASE_KEY = "/asa/lb";
+
+	private HttpRouter etcdRouter;
+	private HttpRouter router;
+	private EtcdStub etcd;
+	private EtcdBasedConfigurator configurator;
+
+	/**
+	 * Emulates the parts of the etcd v2 keys API used by {@link EtcdBasedConfigurator}: recursive reads and
+	 * recursive long polls with "waitIndex".
+	 */
+	private static class EtcdStub extends AbstractInterceptor {
+		private final TreeMap<String, String> store = new TreeMap<String, String>();
+		private final List<Map<String, Object>> history = new ArrayList<Map<String, Object>>();
+		private long index = 10;
+		private long historyStart = 1;
+		private boolean paused;
+		private final List<Long> waitIndices = new ArrayList<Long>();
+
+		public synchronized void set(String key, String value) {
+			store.put(key, value);
+			addEvent("set", key, value);
+		}
+
+		public synchronized void delete(String key) {
+			for (String k : new TreeSet<String>(store.keySet()))
+				if (k.equals(key) || k.startsWith(key + "/"))
+					store.remove(k);
+			addEvent("delete", key, null);
+		}
+
+		/**
+		 * Drops the event history, as etcd does after 1000 events.
+		 */
+		public synchronized void clearHistory() {
+			history.clear();
+			historyStart = index + 1;
+		}
+
+		/**
+		 * While paused, long polls do not return events.
+		 */
+		public synchronized void setPaused(boolean paused) {
+			this.paused = paused;
+			notifyAll();
+		}
+
+		public synchronized List<Long> getWaitIndices() {
+			return new ArrayList<Long>(waitIndices);
+		}
+
+		private void addEvent(String action, String key, String value) {
+			index++;
+			Map<String, Object> node = new LinkedHashMap<String, Object>();
+			node.put("key", key);
+			if (value != null)
+				node.put("value", value);
+			node.put("modifiedIndex", index);
+			Map<String, Object> event = new LinkedHashMap<String, Object>();
+			event.put("action", action);
+			event.put("node", node);
+			history.add(event);
+			notifyAll();
+		}
+
+		private Map<String, Object> getNode(String key) {
+			Map<String, Object> node = new LinkedHashMap<String, Object>();
+			node.put("key", key);
+			if (store.containsKey(key)) {
+				node.put("value", store.get(key));
+				return node;
+			}
+			node.put("dir", true);
+			TreeSet<String> children = new TreeSet<String>();
+			for (String k : store.tailMap(key + "/").keySet()) {
+				if (!k.startsWith(key + "/"))
+					break;
+				int end = k.indexOf('/', key.length() + 1);
+				children.add(end == -1 ? k : k.substring(0, end));
+			}
+			List<Object> nodes = new ArrayList<Object>();
+			for (String child : children)
+				nodes.add(getNode(child));
+			node.put("nodes", nodes);
+			return node;
+		}
+
+		private Response json(int status, Object json) throws Exception {
+			return Response.ResponseBuilder.newInstance().status(status, status == 200 ? "OK" : "Bad Request")
+					.header("X-Etcd-Index", "" + index).contentType("application/json")
+					.body(new ObjectMapper().writeValueAsString(json)).build();
+		}
+
+		@Override
+		public synchronized Outcome handleRequest(Exchange exc) throws Exception {
+			String uri = exc.getRequest().getUri();
+			String key = uri.substring("/v2/keys".length(), uri.contains("?") ? uri.indexOf('?') : uri.length());
+			Map<String, String> params = new HashMap<String, String>();
+			if (uri.contains("?"))
+				for (String param : uri.substring(uri.indexOf('?') + 1).split("&"))
+					params.put(param.substring(0, param.indexOf('=')), param.substring(param.indexOf('=') + 1));
+
+			if (!"true".equals(params.get("wait"))) {
+				Map<String, Object> result = new LinkedHashMap<String, Object>();
+				result.put("action", "get");
+				result.put("node", getNode(key));
+				exc.setResponse(json(200, result));
+				return Outcome.RETURN;
+			}
+
+			long waitIndex = Long.parseLong(params.get("waitIndex"));
+			waitIndices.add(waitIndex);
+			long end = System.currentTimeMillis() + 1000;
+			while (true) {
+				if (waitIndex < historyStart) {
+					Map<String, Object> error = new LinkedHashMap<String, Object>();
+					error.put("errorCode", 401);
+					error.put("message", "The event in requested index is outdated and cleared");
+					exc.setResponse(json(400, error));
+					return Outcome.RETURN;
+				}
+				for (Map<String, Object> event : paused ? new ArrayList<Map<String, Object>>() : history) {
+					@SuppressWarnings("unchecked")
+					Map<String, Object> node = (Map<String, Object>) event.get("node");
+					if ((Long) node.get("modifiedIndex") >= waitIndex && node.get("key").toString().startsWith(key)) {
+						exc.setResponse(json(200, event));
+						return Outcome.RETURN;
+					}
+				}
+				long wait = end - System.currentTimeMillis();
+				if (wait <= 0)
+					break;
+				wait(wait);
+			}
+			// like a proxy timing out the long poll
+			exc.setResponse(Response.ok().body("").build());
+			return Outcome.RETURN;
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		etcd = new EtcdStub();
+		etcd.set(BASE_KEY + "/eep/u1/name", "eep");
+		etcd.set(BASE_KEY + "/eep/u1/host", "host1");
+		etcd.set(BASE_KEY + "/eep/u1/port", "8081");
+
+		etcdRouter = new HttpRouter();
+		ServiceProxy sp = new ServiceProxy(new ServiceProxyKey("*", "*", ".*", 3029), "", -1);
+		sp.getInterceptors().add(etcd);
+		etcdRouter.getRuleManager().addProxyAndOpenPortIfNew(sp);
+		etcdRouter.init();
+
+		router = new HttpRouter();
+		// set by Router.start(), which would also open the ports
+		router.setExchangeStore(new LimitedMemoryExchangeStore());
+		router.init();
+
+		configurator = new EtcdBasedConfigurator();
+		configurator.setRouter(router);
+		configurator.setBaseUrl("http://localhost:3029");
+		configurator.setBaseKey(BASE_KEY);
+		configurator.setPort(3030);
+		configurator.setMinRetryDelay(100);
+		configurator.start();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		configurator.stop();
+		router.shutdown();
+		etcdRouter.shutdown();
+	}
+
+	/**
+	 * @return "path host:port" for every node of every rule, and "path" for rules without nodes
+	 */
+	private List<String> getNodes() {
+		List<String> result = new ArrayList<String>();
+		for (Rule rule : router.getRuleManager().getRules()) {
+			List<Node> nodes = ((LoadBalancingInterceptor) rule.getInterceptors().get(0)).getClusterManager().getClusters().get(0).getNodes();
+			if (nodes.isEmpty())
+				result.add(rule.getKey().getPath());
+			for (Node node : nodes)
+				result.add(rule.getKey().getPath() + " " + node.getHost() + ":" + node.getPort());
+		}
+		return result;
+	}
+
+	private void waitForNodes(String... expected) throws InterruptedException {
+		List<String> nodes = null;
+		for (int i = 0; i < 100; i++) {
+			nodes = getNodes();
+			if (new TreeSet<String>(nodes).equals(new TreeSet<String>(Arrays.asList(expected))))
+				return;
+			Thread.sleep(50);
+		}
+		assertEquals(new TreeSet<String>(Arrays.asList(expected)), new TreeSet<String>(nodes));
+	}
+
+	@Test
+	public void testRequestUrls() {
+		EtcdRequest request = EtcdRequest.create("http://localhost:3029", BASE_KEY, "");
+		assertEquals("http://localhost:3029/v2/keys/asa/lb?recursive=true", request.recursive().createGetRequest().getUrl());
+		request = EtcdRequest.create("http://localhost:3029", BASE_KEY, "");
+		assertEquals("http://localhost:3029/v2/keys/asa/lb?wait=true&recursive=true&waitIndex=14",
+				request.longPollRecursive(14).createGetRequest().getUrl());
+		request = EtcdRequest.create("http://localhost:3029", BASE_KEY, "/eep");
+		assertEquals("http://localhost:3029/v2/keys/asa/lb/eep", request.createGetRequest().getUrl());
+	}
+
+	@Test
+	public void testWatch() throws Exception {
+		waitForNodes("/eep host1:8081");
+
+		etcd.set(BASE_KEY + "/eep/u2/name", "eep");
+		etcd.set(BASE_KEY + "/eep/u2/host", "host2");
+		etcd.set(BASE_KEY + "/eep/u2/port", "8082");
+		waitForNodes("/eep host1:8081", "/eep host2:8082");
+
+		etcd.set(BASE_KEY + "/other/u3/name", "other");
+		etcd.set(BASE_KEY + "/other/u3/host", "host3");
+		etcd.set(BASE_KEY + "/other/u3/port", "8083");
+		waitForNodes("/eep host1:8081", "/eep host2:8082", "/other host3:8083");
+		assertEquals(2, router.getRuleManager().getRules().size());
+
+		etcd.delete(BASE_KEY + "/eep/u1");
+		waitForNodes("/eep host2:8082", "/other host3:8083");
+
+		etcd.delete(BASE_KEY + "/other");
+		waitForNodes("/eep host2:8082");
+		assertEquals(1, router.getRuleManager().getRules().size());
+
+		// every event was received in order, without reading the tree again
+		List<Long> waitIndices = etcd.getWaitIndices();
+		assertEquals(14, (long) waitIndices.get(0));
+		for (int i = 1; i < waitIndices.size(); i++)
+			assertTrue(waitIndices.get(i) - waitIndices.get(i - 1) <= 1);
+		assertEquals(22, (long) waitIndices.get(waitIndices.size() - 1));
+	}
+
+	@Test
+	public void testOutdatedIndex() throws Exception {
+		waitForNodes("/eep host1:8081");
+
+		etcd.setPaused(true);
+		etcd.set(BASE_KEY + "/eep/u1/host", "host4");
+		etcd.clearHistory();
+		etcd.setPaused(false);
+		waitForNodes("/eep host4:8081");
+
+		// the watch for index 14 failed, so the tree was read again and the watch continued after its index
+		List<Long> waitIndices = etcd.getWaitIndices();
+		assertEquals(14, (long) waitIndices.get(0));
+		assertEquals(15, (long) waitIndices.get(waitIndices.size() - 1));
+	}
+
 }
@@ -0,0 +1,64 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.config;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.Test;
+
+import com.predic8.membrane.core.http.Header;
+import com.predic8.membrane.core.http.MimeType;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.util.MessageUtil;
+
+public class XMLElementSourceTest {
+
+	private static final String XSLT = "<xsl:stylesheet version='1.0' xmlns:xsl='http://www.w3.org/1999/XSL/Transform' "
+			+ "xmlns:http='http://membrane-soa.org/schemas/http/v1/' xmlns:s='urn:soap'>"
+			+ "<xsl:template match='/'><r method='{http:request/@method}' query='{//uri/query/param[1]}' "
+			+ "body='{//s:Envelope/s:Body}' attr='{//s:Envelope/@s:a}'/></xsl:template></xsl:stylesheet>";
+
+	private static String transform(Templates templates, Source source) throws Exception {
+		StringWriter sw = new StringWriter();
+		(templates == null ? TransformerFactory.newInstance().newTransformer() : templates.newTransformer())
+				.transform(source, new StreamResult(sw));
+		return sw.toString();
+	}
+
+	@Test
+	public void request() throws Exception {
+		Request request = MessageUtil.getPostRequest("/bank/blz?a=1&b=%3C");
+		request.getHeader().setContentType(MimeType.TEXT_XML_UTF8);
+		request.getHeader().add(Header.SOAP_ACTION, "\"urn:test\"");
+		request.setBodyContent("<s:Envelope xmlns:s='urn:soap' s:a='x'><!-- c --><s:Body>a &amp; b<![CDATA[<c>]]></s:Body></s:Envelope>".getBytes("UTF-8"));
+		com.predic8.membrane.core.http.xml.Request xml = new com.predic8.membrane.core.http.xml.Request(request);
+
+		String serialized = xml.toXml();
+		assertEquals(transform(null, new StreamSource(new StringReader(serialized))), transform(null, new XMLElementSource(xml)));
+
+		Templates templates = TransformerFactory.newInstance().newTemplates(new StreamSource(new StringReader(XSLT)));
+		String expected = transform(templates, new StreamSource(new StringReader(serialized)));
+		assertEquals(expected, transform(templates, new XMLElementSource(xml)));
+	}
+
+}
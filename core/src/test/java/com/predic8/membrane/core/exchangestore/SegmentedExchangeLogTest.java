@@ -0,0 +1,225 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.exchangestore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.predic8.membrane.core.Constants;
+import com.predic8.membrane.core.http.Body;
+import com.predic8.membrane.core.http.BodySpool;
+import com.predic8.membrane.core.http.Response;
+
+public class SegmentedExchangeLogTest {
+
+	private File dir;
+
+	@Before
+	public void createDir() throws IOException {
+		dir = File.createTempFile("membrane", "log");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void deleteDir() {
+		for (File f : dir.listFiles())
+			f.delete();
+		dir.delete();
+	}
+
+	private static ExchangeLogRecord record(long id, boolean request) {
+		String head = request ? "GET /" + id + " HTTP/1.1\r\n\r\n" : "HTTP/1.1 200 OK\r\n\r\n";
+		return new ExchangeLogRecord(id, 1000 * id, request, head.getBytes(Constants.UTF_8_CHARSET),
+				new Body(("body " + id).getBytes(Constants.UTF_8_CHARSET)));
+	}
+
+	private static void writeExchanges(SegmentedExchangeLog log, long from, long to) throws IOException {
+		List<ExchangeLogRecord> batch = new ArrayList<ExchangeLogRecord>();
+		for (long id = from; id <= to; id++) {
+			batch.add(record(id, true));
+			batch.add(record(id, false));
+		}
+		log.write(batch);
+	}
+
+	private static void assertExchange(SegmentedExchangeLog log, long id) throws Exception {
+		List<ExchangeLogRecord> records = log.read(id);
+		assertEquals(2, records.size());
+		for (ExchangeLogRecord record : records) {
+			assertEquals(id, record.getId());
+			assertEquals(1000 * id, record.getTime());
+			assertEquals("body " + id, new String(record.getBody().getContent(), Constants.UTF_8_CHARSET));
+		}
+		assertTrue(records.get(0).isRequest() != records.get(1).isRequest());
+	}
+
+	@Test
+	public void testReadByIdAndTime() throws Exception {
+		SegmentedExchangeLog log = new SegmentedExchangeLog(dir, 1024 * 1024, false, 0, 0);
+		log.open();
+		writeExchanges(log, 1, 10);
+		assertEquals(20, log.getAppended());
+		assertExchange(log, 7);
+		assertTrue(log.read(11).isEmpty());
+
+		List<ExchangeLogRecord> records = log.read(3000, 4000, 100);
+		assertEquals(4, records.size());
+		assertEquals(2, log.read(0, Long.MAX_VALUE, 2).size());
+		log.close();
+	}
+
+	@Test
+	public void testRollAndCompress() throws Exception {
+		SegmentedExchangeLog log = new SegmentedExchangeLog(dir, 200, true, 0, 0);
+		log.open();
+		for (long id = 1; id <= 10; id++)
+			writeExchanges(log, id, id);
+		assertTrue(log.getSegmentCount() > 1);
+		log.close();
+		log.awaitCompression(10000);
+
+		assertTrue(new File(dir, String.format("exchanges-%020d.log.gz", 1)).exists());
+		assertFalse(new File(dir, String.format("exchanges-%020d.log", 1)).exists());
+		for (long id = 1; id <= 10; id++)
+			assertExchange(log, id);
+		List<ExchangeLogRecord> records = log.read(0, Long.MAX_VALUE, 100);
+		assertEquals(20, records.size());
+		// newest first
+		assertEquals(10, records.get(0).getId());
+		assertEquals(1, records.get(19).getId());
+
+		// reopened, the existing segments are found again
+		SegmentedExchangeLog reopened = new SegmentedExchangeLog(dir, 200, true, 0, 0);
+		reopened.open();
+		assertEquals(log.getSegmentCount(), reopened.getSegmentCount());
+		writeExchanges(reopened, 11, 11);
+		assertExchange(reopened, 1);
+		assertExchange(reopened, 11);
+		reopened.close();
+		reopened.awaitCompression(10000);
+	}
+
+	/**
+	 * A failed write does not leave a partial record, which would shift the offsets of the following ones.
+	 */
+	@Test
+	public void testFailedWrite() throws Exception {
+		SegmentedExchangeLog log = new SegmentedExchangeLog(dir, 1024 * 1024, false, 0, 0);
+		log.open();
+		writeExchanges(log, 1, 1);
+		try {
+			// fails after the first fields of the record have been written
+			log.write(Collections.singletonList(new ExchangeLogRecord(2, 2000, true, null, null)));
+			fail();
+		} catch (NullPointerException e) {
+			// expected
+		}
+		writeExchanges(log, 3, 3);
+		assertExchange(log, 1);
+		assertTrue(log.read(2).isEmpty());
+		assertExchange(log, 3);
+		assertEquals(4, log.read(0, Long.MAX_VALUE, 100).size());
+		log.close();
+	}
+
+	@Test
+	public void testRetentionBySize() throws Exception {
+		SegmentedExchangeLog log = new SegmentedExchangeLog(dir, 200, false, 1000, 0);
+		log.open();
+		for (long id = 1; id <= 50; id++)
+			writeExchanges(log, id, id);
+		assertTrue(log.getDiskSize() <= 1000 + 200 + 100);
+		assertTrue(log.read(1).isEmpty());
+		assertExchange(log, 50);
+		log.close();
+	}
+
+	@Test
+	public void testRetentionByAge() throws Exception {
+		// all records are from 1970
+		SegmentedExchangeLog log = new SegmentedExchangeLog(dir, 200, false, 0, 1000);
+		log.open();
+		for (long id = 1; id <= 10; id++)
+			writeExchanges(log, id, id);
+		// the active segment is kept
+		assertEquals(1, log.getSegmentCount());
+		assertExchange(log, 10);
+		log.close();
+	}
+
+	private static Response spooledResponse(byte[] content) throws Exception {
+		for (int i = 0; i < content.length; i++)
+			content[i] = (byte) ('a' + i % 26);
+		Response response = Response.ok().build();
+		response.setBody(new Body(new ByteArrayInputStream(content), content.length));
+		response.getBody().read();
+		assertTrue(response.getBody().isSpooled());
+		return response;
+	}
+
+	/**
+	 * The record keeps a spooled body, even if the message has been released before the record is written.
+	 */
+	@Test
+	public void testSpooledBody() throws Exception {
+		SegmentedExchangeLog log = new SegmentedExchangeLog(dir, 1024 * 1024, false, 0, 0);
+		log.open();
+		long diskUsed = BodySpool.getDiskUsed();
+		byte[] content = new byte[(int) BodySpool.getThreshold() * 2 + 100];
+		Response response = spooledResponse(content);
+		ExchangeLogRecord record = ExchangeLogRecord.create(1, 1000, false, response);
+		response.getBody().release();
+
+		log.write(Collections.singletonList(record));
+		assertEquals(diskUsed, BodySpool.getDiskUsed());
+		List<ExchangeLogRecord> records = log.read(1);
+		assertEquals(1, records.size());
+		assertFalse(records.get(0).isTruncated());
+		assertArrayEquals(content, records.get(0).getBody().getContent());
+		log.close();
+	}
+
+	@Test
+	public void testTruncatedBody() throws Exception {
+		SegmentedExchangeLog log = new SegmentedExchangeLog(dir, 1024 * 1024, false, 0, 0);
+		log.open();
+		Response response = spooledResponse(new byte[(int) BodySpool.getThreshold() * 2 + 100]);
+		response.getBody().release();
+		ExchangeLogRecord record = ExchangeLogRecord.create(1, 1000, false, response);
+
+		log.write(Collections.singletonList(record));
+		List<ExchangeLogRecord> records = log.read(1);
+		assertEquals(1, records.size());
+		assertTrue(records.get(0).isTruncated());
+		assertFalse(records.get(0).isRequest());
+		assertEquals(0, records.get(0).getBody().getContent().length);
+		log.close();
+	}
+
+}
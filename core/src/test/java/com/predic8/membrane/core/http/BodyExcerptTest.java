@@ -0,0 +1,88 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.predic8.membrane.core.Constants;
+
+public class BodyExcerptTest {
+
+	private static final String CONTENT = "0123456789abcdefghijklmnopqrstuvwxyz";
+
+	@Test
+	public void testStreamedBody() throws IOException {
+		byte[] content = CONTENT.getBytes(Constants.UTF_8_CHARSET);
+		Body body = new Body(new ByteArrayInputStream(content), content.length);
+		BodyExcerpt excerpt = new BodyExcerpt(10);
+		body.addObserver(excerpt);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		body.write(new PlainBodyTransferrer(out));
+
+		assertTrue(body.wasStreamed());
+		assertEquals(CONTENT, new String(out.toByteArray(), Constants.UTF_8_CHARSET));
+		assertTrue(excerpt.isComplete());
+		assertEquals("0123456789", new String(excerpt.getData(), Constants.UTF_8_CHARSET));
+		assertEquals(content.length, excerpt.getTotalLength());
+		assertTrue(excerpt.isTruncated());
+	}
+
+	@Test
+	public void testStreamedChunkedBody() throws IOException {
+		ChunkedBody body = new ChunkedBody(new ByteArrayInputStream(
+				"5\r\n01234\r\n5\r\n56789\r\n0\r\n\r\n".getBytes(Constants.UTF_8_CHARSET)));
+		BodyExcerpt excerpt = new BodyExcerpt(100);
+		body.addObserver(excerpt);
+
+		body.write(new ChunkedBodyTransferrer(new ByteArrayOutputStream()));
+
+		assertTrue(body.wasStreamed());
+		assertEquals("0123456789", new String(excerpt.getData(), Constants.UTF_8_CHARSET));
+		assertFalse(excerpt.isTruncated());
+	}
+
+	@Test
+	public void testBodyRead() throws IOException {
+		byte[] content = CONTENT.getBytes(Constants.UTF_8_CHARSET);
+		Body body = new Body(new ByteArrayInputStream(content), content.length);
+		BodyExcerpt excerpt = new BodyExcerpt(100);
+		body.addObserver(excerpt);
+
+		body.read();
+
+		assertEquals(CONTENT, new String(excerpt.getData(), Constants.UTF_8_CHARSET));
+		assertFalse(excerpt.isTruncated());
+	}
+
+	@Test
+	public void testBodyAlreadyRead() throws IOException {
+		Body body = new Body(CONTENT.getBytes(Constants.UTF_8_CHARSET));
+		BodyExcerpt excerpt = new BodyExcerpt(5);
+		body.addObserver(excerpt);
+
+		assertTrue(excerpt.isComplete());
+		assertEquals("01234", new String(excerpt.getData(), Constants.UTF_8_CHARSET));
+		assertEquals(CONTENT.length(), excerpt.getTotalLength());
+	}
+
+}
@@ -0,0 +1,202 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import com.predic8.membrane.core.Constants;
+
+public class BodySpoolTest {
+
+	private static final int SIZE = (int) BodySpool.getThreshold() * 3 + 1234;
+
+	private static byte[] createContent() {
+		byte[] content = new byte[SIZE];
+		for (int i = 0; i < content.length; i++)
+			content[i] = (byte) (i % 251);
+		return content;
+	}
+
+	private static byte[] chunked(byte[] content, int chunkSize) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		for (int offset = 0; offset < content.length; offset += chunkSize) {
+			int length = Math.min(chunkSize, content.length - offset);
+			out.write(Integer.toHexString(length).getBytes(Constants.UTF_8_CHARSET), 0, Integer.toHexString(length).length());
+			out.write(Constants.CRLF_BYTES, 0, 2);
+			out.write(content, offset, length);
+			out.write(Constants.CRLF_BYTES, 0, 2);
+		}
+		out.write('0');
+		out.write(Constants.CRLF_BYTES, 0, 2);
+		out.write(Constants.CRLF_BYTES, 0, 2);
+		return out.toByteArray();
+	}
+
+	private static byte[] readFully(InputStream in) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[5000];
+		int n;
+		while ((n = in.read(buffer)) != -1)
+			out.write(buffer, 0, n);
+		return out.toByteArray();
+	}
+
+	private static void assertSpooled(AbstractBody body, byte[] content) throws IOException {
+		assertTrue(body.isSpooled());
+		assertEquals(content.length, body.getLength());
+		assertArrayEquals(content, body.getContent());
+		assertArrayEquals(content, readFully(body.getContentAsStream()));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		body.write(new PlainBodyTransferrer(out));
+		assertArrayEquals(content, out.toByteArray());
+	}
+
+	@Test
+	public void testSmallBodyIsNotSpooled() throws IOException {
+		byte[] content = "small".getBytes(Constants.UTF_8_CHARSET);
+		Body body = new Body(new ByteArrayInputStream(content), content.length);
+		body.read();
+		assertFalse(body.isSpooled());
+		assertArrayEquals(content, body.getContent());
+	}
+
+	@Test
+	public void testBodyWithLength() throws IOException {
+		byte[] content = createContent();
+		Body body = new Body(new ByteArrayInputStream(content), content.length);
+		body.read();
+		assertSpooled(body, content);
+		body.release();
+	}
+
+	@Test
+	public void testBodyWithoutLength() throws IOException {
+		byte[] content = createContent();
+		Body body = new Body(new ByteArrayInputStream(content));
+		body.read();
+		assertSpooled(body, content);
+		body.release();
+	}
+
+	@Test
+	public void testChunkedBody() throws IOException {
+		byte[] content = createContent();
+		// a single chunk larger than the threshold is split, too
+		ChunkedBody body = new ChunkedBody(new ByteArrayInputStream(chunked(content, content.length / 2)));
+		body.read();
+		assertSpooled(body, content);
+		body.release();
+	}
+
+	@Test
+	public void testBodyIsSpooledWhileWritten() throws IOException {
+		byte[] content = createContent();
+		Body body = new Body(new ByteArrayInputStream(content), content.length);
+		body.addObserver(new MessageObserver() {
+			@Override
+			public void bodyRequested(AbstractBody body) {
+			}
+
+			@Override
+			public void bodyComplete(AbstractBody body) {
+			}
+		});
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		body.write(new PlainBodyTransferrer(out));
+		assertArrayEquals(content, out.toByteArray());
+		assertSpooled(body, content);
+		body.release();
+	}
+
+	@Test
+	public void testRelease() throws IOException {
+		long diskUsed = BodySpool.getDiskUsed();
+		byte[] content = createContent();
+		Body body = new Body(new ByteArrayInputStream(content), content.length);
+		body.read();
+		assertTrue(BodySpool.getDiskUsed() > diskUsed);
+
+		body.release();
+		assertEquals(diskUsed, BodySpool.getDiskUsed());
+		try {
+			readFully(body.getContentAsStream());
+			fail("The content of a released body should not be available.");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testReleasedBodyThrowsIOException() throws IOException {
+		byte[] content = createContent();
+		ChunkedBody body = new ChunkedBody(new ByteArrayInputStream(chunked(content, 100000)));
+		body.read();
+		body.release();
+		try {
+			body.getContent();
+			fail("The content of a released body should not be available.");
+		} catch (IOException e) {
+			// expected
+		}
+		try {
+			body.write(new PlainBodyTransferrer(new ByteArrayOutputStream()));
+			fail("The content of a released body should not be available.");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testSnapshotKeepsSpooledData() throws IOException {
+		long diskUsed = BodySpool.getDiskUsed();
+		byte[] content = createContent();
+		Body body = new Body(new ByteArrayInputStream(content), content.length);
+		body.read();
+		AbstractBody snapshot = body.createSnapshot();
+
+		body.release();
+		assertTrue(BodySpool.getDiskUsed() > diskUsed);
+		assertSpooled(snapshot, content);
+
+		snapshot.release();
+		assertEquals(diskUsed, BodySpool.getDiskUsed());
+	}
+
+	@Test
+	public void testRetain() throws IOException {
+		long diskUsed = BodySpool.getDiskUsed();
+		byte[] content = createContent();
+		Body body = new Body(new ByteArrayInputStream(content), content.length);
+		body.read();
+		body.retain();
+
+		body.release();
+		assertSpooled(body, content);
+
+		body.release();
+		assertEquals(diskUsed, BodySpool.getDiskUsed());
+	}
+
+}
@@ -126,4 +126,21 @@ public class BodyTest {
 		assertTrue(Arrays.equals(ciob2.getContent(), ciob.getContent()));
 	}
 
+	@Test
+	public void testSnapshotSharesContent() throws Exception {
+		AbstractBody body = new ChunkedBody(new ByteArrayInputStream(chunk2.getBytes()));
+		body.read();
+
+		AbstractBody snapshot = body.createSnapshot();
+		assertTrue(snapshot.isRead());
+		assertEquals(chunk2Body.length(), snapshot.getLength());
+		assertTrue(Arrays.equals(chunk2Body.getBytes(), snapshot.getContent()));
+		assertTrue(body.chunks.get(0).getContent() == snapshot.chunks.get(0).getContent());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSnapshotOfUnreadBody() throws Exception {
+		unchunkedBody.createSnapshot();
+	}
+
 }
@@ -204,4 +204,45 @@ public class ResponseTest {
 		res3.read(in, true);
 		assertEquals(185, res3.getBody().getLength());
 	}
+
+	private static class CountingOutputStream extends ByteArrayOutputStream {
+		int writes, flushes;
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			writes++;
+			super.write(b, off, len);
+		}
+
+		@Override
+		public void flush() {
+			flushes++;
+		}
+	}
+
+	@Test
+	public void testSmallResponseIsWrittenAtOnce() throws Exception {
+		Response res = Response.ok().header(Header.CONTENT_TYPE, "text/plain").body(new byte[1024]).build();
+		CountingOutputStream out = new CountingOutputStream();
+		res.write(out);
+		assertEquals(1, out.writes);
+
+		Response resTemp = new Response();
+		resTemp.read(new ByteArrayInputStream(out.toByteArray()), true);
+		assertEquals(200, resTemp.getStatusCode());
+		assertEquals("text/plain", resTemp.getHeader().getContentType());
+		assertEquals(1024, resTemp.getBody().getLength());
+	}
+
+	@Test
+	public void testStreamedChunksAreFlushedOnce() throws Exception {
+		// a chunked body whose chunks are all available at once: no flush until the message is complete
+		byte[] chunked = "5\r\nHello\r\n5\r\nWorld\r\n0\r\n\r\n".getBytes("UTF-8");
+		Response res = Response.ok().header(Header.TRANSFER_ENCODING, Header.CHUNKED).build();
+		res.setBody(new ChunkedBody(new ByteArrayInputStream(chunked)));
+		CountingOutputStream out = new CountingOutputStream();
+		res.write(out);
+		assertEquals(1, out.flushes);
+		assertTrue(out.toString("UTF-8").endsWith("\r\n\r\n" + new String(chunked, "UTF-8")));
+	}
 }
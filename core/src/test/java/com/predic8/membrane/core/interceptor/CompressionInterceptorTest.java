@@ -0,0 +1,128 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Body;
+import com.predic8.membrane.core.http.Header;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.util.ByteUtil;
+
+public class CompressionInterceptorTest {
+
+	private static final String BODY;
+
+	static {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++)
+			sb.append("{\"id\":").append(i).append(",\"name\":\"item ").append(i).append("\"},");
+		BODY = sb.toString();
+	}
+
+	private Exchange call(String acceptEncoding, Response response) throws Exception {
+		Request.Builder builder = new Request.Builder().get("/");
+		if (acceptEncoding != null)
+			builder.header(Header.ACCEPT_ENCODING, acceptEncoding);
+		Exchange exc = builder.buildExchange();
+		exc.setResponse(response);
+		new CompressionInterceptor().handleResponse(exc);
+		return exc;
+	}
+
+	private static Response json(String body) throws Exception {
+		return Response.ok().contentType("application/json; charset=UTF-8").body(body).build();
+	}
+
+	@Test
+	public void negotiate() {
+		assertEquals("gzip", CompressionInterceptor.negotiate("gzip, deflate, br"));
+		assertEquals("deflate", CompressionInterceptor.negotiate("deflate"));
+		assertEquals("deflate", CompressionInterceptor.negotiate("gzip;q=0.5, deflate"));
+		assertEquals("gzip", CompressionInterceptor.negotiate("*"));
+		assertEquals("deflate", CompressionInterceptor.negotiate("gzip;q=0, *"));
+		assertNull(CompressionInterceptor.negotiate("br"));
+		assertNull(CompressionInterceptor.negotiate("identity, *;q=0"));
+		assertNull(CompressionInterceptor.negotiate(null));
+	}
+
+	@Test
+	public void gzip() throws Exception {
+		Response response = call("gzip, deflate", json(BODY)).getResponse();
+		assertEquals("gzip", response.getHeader().getContentEncoding());
+		assertEquals(Header.ACCEPT_ENCODING, response.getHeader().getFirstValue(Header.VARY));
+		assertEquals(-1, response.getHeader().getContentLength());
+		byte[] compressed = response.getBody().getContent();
+		assertEquals(BODY, new String(ByteUtil.getByteArrayData(new GZIPInputStream(new ByteArrayInputStream(compressed))), "UTF-8"));
+		assertEquals(BODY, response.getBodyAsStringDecoded());
+	}
+
+	@Test
+	public void deflate() throws Exception {
+		Response response = call("deflate", json(BODY)).getResponse();
+		assertEquals("deflate", response.getHeader().getContentEncoding());
+		byte[] compressed = response.getBody().getContent();
+		assertEquals(BODY, new String(ByteUtil.getByteArrayData(new InflaterInputStream(new ByteArrayInputStream(compressed))), "UTF-8"));
+		assertEquals(BODY, response.getBodyAsStringDecoded());
+	}
+
+	@Test
+	public void notCompressed() throws Exception {
+		// not accepted
+		Response response = call(null, json(BODY)).getResponse();
+		assertNull(response.getHeader().getContentEncoding());
+		assertEquals(Header.ACCEPT_ENCODING, response.getHeader().getFirstValue(Header.VARY));
+		// too small
+		response = call("gzip", json("{}")).getResponse();
+		assertNull(response.getHeader().getContentEncoding());
+		// not in the MIME allowlist
+		response = call("gzip", Response.ok().contentType("image/png").body(BODY).build()).getResponse();
+		assertNull(response.getHeader().getContentEncoding());
+		// already encoded
+		response = call("gzip", json(BODY)).getResponse();
+		response = call("gzip", response).getResponse();
+		assertEquals(BODY, response.getBodyAsStringDecoded());
+	}
+
+	@Test
+	public void decodedBodyCache() throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(baos);
+		gzip.write(BODY.getBytes("UTF-8"));
+		gzip.close();
+		Response response = json("");
+		response.getHeader().setValue(Header.CONTENT_ENCODING, "gzip");
+		response.setBody(new Body(baos.toByteArray()));
+
+		assertEquals(BODY, response.getBodyAsStringDecoded());
+		assertEquals(BODY, new String(ByteUtil.getByteArrayData(response.getBodyAsStreamDecoded()), "UTF-8"));
+		assertEquals(BODY, response.getBodyAsStringDecoded());
+
+		// changing the body invalidates the cache
+		response.setBodyContent("changed".getBytes("UTF-8"));
+		assertEquals("changed", response.getBodyAsStringDecoded());
+	}
+
+}
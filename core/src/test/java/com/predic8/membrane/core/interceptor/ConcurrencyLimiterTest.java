@@ -0,0 +1,179 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import com.predic8.membrane.core.interceptor.ConcurrencyLimiter.Algorithm;
+
+public class ConcurrencyLimiterTest {
+
+	private static ConcurrencyLimiter create(Algorithm algorithm, int limit, int maxQueueSize) {
+		return new ConcurrencyLimiter("test", algorithm, limit, 1, 100, maxQueueSize, 100, 0.5);
+	}
+
+	@Test
+	public void testFixedLimit() {
+		ConcurrencyLimiter limiter = create(Algorithm.FIXED, 2, 10);
+		assertTrue(limiter.acquire(0));
+		assertTrue(limiter.acquire(0));
+		assertFalse(limiter.acquire(0));
+		assertEquals(2, limiter.getInFlight());
+		assertEquals(1, limiter.getRejectedQueueFull());
+
+		limiter.release(0, false);
+		assertTrue(limiter.acquire(0));
+		assertEquals(3, limiter.getAdmitted());
+	}
+
+	@Test
+	public void testWaitingRequestIsAdmittedOnRelease() throws Exception {
+		final ConcurrencyLimiter limiter = create(Algorithm.FIXED, 1, 10);
+		assertTrue(limiter.acquire(0));
+
+		final AtomicBoolean admitted = new AtomicBoolean();
+		Thread waiting = new Thread() {
+			@Override
+			public void run() {
+				admitted.set(limiter.acquire(10000));
+			}
+		};
+		waiting.start();
+		while (limiter.getQueueLength() == 0)
+			Thread.sleep(10);
+
+		long start = System.nanoTime();
+		limiter.release(0, false);
+		waiting.join();
+		assertTrue(admitted.get());
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		assertEquals(0, limiter.getQueueLength());
+	}
+
+	@Test
+	public void testDeadline() {
+		ConcurrencyLimiter limiter = create(Algorithm.FIXED, 1, 10);
+		assertTrue(limiter.acquire(0));
+
+		long start = System.nanoTime();
+		assertFalse(limiter.acquire(200));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+		assertEquals(1, limiter.getRejectedTimeout());
+		assertEquals(0, limiter.getQueueLength());
+	}
+
+	/**
+	 * Starts a thread calling {@link ConcurrencyLimiter#acquire(long)} and waits until it is waiting or done.
+	 */
+	private static Thread startAcquiring(final ConcurrencyLimiter limiter, final long timeoutMillis, final AtomicBoolean admitted) {
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				admitted.set(limiter.acquire(timeoutMillis));
+			}
+		};
+		thread.start();
+		while (thread.isAlive() && thread.getState() != Thread.State.TIMED_WAITING)
+			Thread.yield();
+		return thread;
+	}
+
+	/**
+	 * The first waiting request times out just when a request completes: the wake-up must be passed on to the
+	 * next waiting request, even if it has been delivered to the one timing out.
+	 */
+	@Test
+	public void testHeadTimesOutWhileReleased() throws Exception {
+		final ConcurrencyLimiter limiter = create(Algorithm.FIXED, 1, 10);
+		for (int i = 0; i < 200; i++) {
+			assertTrue(limiter.acquire(0));
+			AtomicBoolean headAdmitted = new AtomicBoolean(), nextAdmitted = new AtomicBoolean();
+			Thread head = startAcquiring(limiter, 5, headAdmitted);
+			long queued = System.nanoTime();
+			Thread next = startAcquiring(limiter, 10000, nextAdmitted);
+
+			// release around the deadline of the first waiting request
+			long releaseAt = queued + TimeUnit.MICROSECONDS.toNanos(4000 + 50 * (i % 40));
+			while (System.nanoTime() < releaseAt)
+				;
+			limiter.release(0, false);
+			head.join();
+			if (headAdmitted.get())
+				limiter.release(0, false);
+			next.join(1000);
+			assertTrue("iteration " + i, nextAdmitted.get());
+			limiter.release(0, false);
+		}
+		assertEquals(0, limiter.getInFlight());
+		assertEquals(0, limiter.getQueueLength());
+	}
+
+	@Test
+	public void testQueueIsBounded() {
+		ConcurrencyLimiter limiter = create(Algorithm.FIXED, 1, 0);
+		assertTrue(limiter.acquire(0));
+
+		long start = System.nanoTime();
+		assertFalse(limiter.acquire(10000));
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+		assertEquals(1, limiter.getRejectedQueueFull());
+	}
+
+	@Test
+	public void testAIMD() {
+		ConcurrencyLimiter limiter = create(Algorithm.AIMD, 10, 10);
+		for (int i = 0; i < 10; i++)
+			assertTrue(limiter.acquire(0));
+
+		// fast responses while the limit is used raise the limit
+		limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+		assertEquals(11, limiter.getLimit());
+
+		// slow and failed responses lower it
+		limiter.release(TimeUnit.MILLISECONDS.toNanos(1000), false);
+		assertEquals(5, limiter.getLimit());
+		limiter.release(TimeUnit.MILLISECONDS.toNanos(10), true);
+		assertEquals(2, limiter.getLimit());
+
+		for (int i = 0; i < 5; i++)
+			limiter.release(TimeUnit.MILLISECONDS.toNanos(1000), true);
+		assertEquals(1, limiter.getLimit());
+	}
+
+	@Test
+	public void testGradient() {
+		ConcurrencyLimiter limiter = create(Algorithm.GRADIENT, 20, 10);
+		for (int i = 0; i < 100; i++) {
+			limiter.acquire(0);
+			limiter.release(TimeUnit.MILLISECONDS.toNanos(10), false);
+		}
+		int unloaded = limiter.getLimit();
+		assertTrue(unloaded > 20);
+
+		// the latency rises far above the minimum
+		for (int i = 0; i < 100; i++) {
+			limiter.acquire(0);
+			limiter.release(TimeUnit.MILLISECONDS.toNanos(200), false);
+		}
+		assertTrue(limiter.getLimit() < unloaded);
+	}
+
+}
@@ -0,0 +1,93 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.interceptor.flow.RequestInterceptor;
+import com.predic8.membrane.core.interceptor.flow.ResponseInterceptor;
+
+public class InterceptorChainTest {
+
+	@Before
+	public void setUp() {
+		MockInterceptor.clear();
+	}
+
+	private static List<Interceptor> list(Interceptor... interceptors) {
+		return new ArrayList<Interceptor>(Arrays.asList(interceptors));
+	}
+
+	@Test
+	public void testFlattening() {
+		RequestInterceptor req = new RequestInterceptor();
+		req.setInterceptors(list(new MockInterceptor("r1")));
+		ResponseInterceptor resp = new ResponseInterceptor();
+		resp.setInterceptors(list(new MockInterceptor("s1")));
+
+		InterceptorChain chain = InterceptorChain.compile(list(new MockInterceptor("m1"), req, resp));
+
+		assertEquals(3, chain.size());
+		assertEquals(InterceptorChain.REQUEST | InterceptorChain.RESPONSE, chain.getFlags(0));
+		assertEquals(InterceptorChain.REQUEST, chain.getFlags(1));
+		assertEquals(InterceptorChain.RESPONSE, chain.getFlags(2));
+		assertEquals(0, chain.getPreviousResponseHandler(2));
+		assertEquals(-1, chain.getPreviousResponseHandler(0));
+	}
+
+	@Test
+	public void testIsCompiledFrom() {
+		List<Interceptor> interceptors = list(new MockInterceptor("m1"), new MockInterceptor("m2"));
+		InterceptorChain chain = InterceptorChain.compile(interceptors);
+		assertTrue(chain.isCompiledFrom(interceptors));
+
+		InterceptorStatistics stats = chain.getStatistics(0);
+		interceptors.add(new MockInterceptor("m3"));
+		assertFalse(chain.isCompiledFrom(interceptors));
+		assertTrue(stats == InterceptorChain.compile(interceptors, chain).getStatistics(0));
+	}
+
+	@Test
+	public void testInvocationOrder() throws Exception {
+		ResponseInterceptor resp = new ResponseInterceptor();
+		resp.setInterceptors(list(new MockInterceptor("s1")));
+		RequestInterceptor req = new RequestInterceptor();
+		req.setInterceptors(list(new MockInterceptor("r1")));
+		InterceptorChain inner = InterceptorChain.compile(list(new MockInterceptor("i1"), resp, req, new MockInterceptor("i2", new String[] { "request" })));
+		InterceptorChain outer = InterceptorChain.compile(list(new MockInterceptor("o1"), new MockInterceptor("o2")));
+
+		Exchange exc = new Exchange(null);
+		InterceptorFlowController ifc = new InterceptorFlowController();
+		assertEquals(Outcome.CONTINUE, ifc.invokeRequestHandlers(exc, outer));
+		assertEquals(Outcome.ABORT, ifc.invokeRequestHandlers(exc, inner));
+		ifc.invokeResponseHandlers(exc);
+
+		MockInterceptor.assertContent(
+				new String[] { "o1", "o2", "i1", "r1", "i2" },
+				new String[] { "s1", "i1", "o2", "o1" },
+				new String[0]);
+		assertTrue(exc.getInterceptorStack().isEmpty());
+	}
+
+}
@@ -0,0 +1,152 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.predic8.membrane.core.Constants;
+import com.predic8.membrane.core.exchange.Exchange;
+import com.predic8.membrane.core.http.Body;
+import com.predic8.membrane.core.http.Header;
+import com.predic8.membrane.core.http.PlainBodyTransferrer;
+import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.interceptor.LogInterceptor.Format;
+import com.predic8.membrane.core.interceptor.LogInterceptor.Level;
+
+public class LogInterceptorTest {
+
+	private final BlockingQueue<String> lines = new LinkedBlockingQueue<String>();
+	private LogInterceptor interceptor;
+
+	@Before
+	public void setUp() throws Exception {
+		interceptor = new LogInterceptor() {
+			@Override
+			void log(String msg) {
+				lines.add(msg);
+			}
+		};
+		// records are only collected if the level is enabled (src/test/resources/simplelogger.properties)
+		interceptor.setLevel(Level.WARN);
+		interceptor.setFormat(Format.JSON);
+		interceptor.setHeaderOnly(false);
+		interceptor.setMaxBodySize(10);
+		interceptor.init();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		interceptor.destroy();
+	}
+
+	/**
+	 * Passes the exchange through the interceptor, streams the response body and returns the logged line.
+	 */
+	private JsonNode log(Exchange exc, Response response) throws Exception {
+		assertEquals(Outcome.CONTINUE, interceptor.handleRequest(exc));
+		exc.setResponse(response);
+		assertEquals(Outcome.CONTINUE, interceptor.handleResponse(exc));
+		response.getBody().write(new PlainBodyTransferrer(new ByteArrayOutputStream()));
+		exc.setCompleted();
+
+		String line = lines.poll(10, TimeUnit.SECONDS);
+		assertNotNull("No line has been logged.", line);
+		assertFalse(line.contains("\n"));
+		return new ObjectMapper().readTree(line);
+	}
+
+	private static Response streamedResponse(Header header, byte[] content) throws IOException {
+		Response response = Response.ok().header(header).build();
+		response.getHeader().setContentLength(content.length);
+		response.setBody(new Body(new ByteArrayInputStream(content), content.length));
+		return response;
+	}
+
+	@Test
+	public void testJSON() throws Exception {
+		Exchange exc = new Request.Builder().post("http://localhost/orders?id=7")
+				.header("X-Forwarded-For", "10.0.0.1")
+				.header("X-Forwarded-For", "10.0.0.2")
+				.contentType("text/plain; charset=UTF-8")
+				.body("short").buildExchange();
+		Header header = new Header();
+		header.setContentType("text/plain; charset=UTF-8");
+		Response response = streamedResponse(header, "0123456789abcdefghijklmnopqrstuvwxyz".getBytes(Constants.UTF_8_CHARSET));
+
+		JsonNode json = log(exc, response);
+
+		Instant.parse(json.get("time").asText());
+		assertEquals(exc.getId(), json.get("id").asLong());
+		assertEquals("POST", json.get("method").asText());
+		assertEquals("/orders?id=7", json.get("uri").asText());
+		assertEquals(200, json.get("status").asInt());
+		assertTrue(json.get("durationMs").asLong() >= 0);
+		assertFalse(json.has("error"));
+
+		JsonNode request = json.get("request");
+		assertEquals("10.0.0.1, 10.0.0.2", request.get("headers").get("X-Forwarded-For").asText());
+		assertEquals("text/plain; charset=UTF-8", request.get("headers").get("Content-Type").asText());
+		assertEquals("short", request.get("body").asText());
+		assertEquals(5, request.get("bodyLength").asLong());
+		assertFalse(request.has("bodyTruncated"));
+
+		JsonNode resp = json.get("response");
+		assertEquals("0123456789", resp.get("body").asText());
+		assertEquals(36, resp.get("bodyLength").asLong());
+		assertTrue(resp.get("bodyTruncated").asBoolean());
+	}
+
+	@Test
+	public void testEncodedBody() throws Exception {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (GZIPOutputStream gz = new GZIPOutputStream(baos)) {
+			gz.write("0123456789abcdefghijklmnopqrstuvwxyz".getBytes(Constants.UTF_8_CHARSET));
+		}
+		byte[] compressed = baos.toByteArray();
+		Header header = new Header();
+		header.setContentType("text/plain");
+		header.add(Header.CONTENT_ENCODING, "gzip");
+
+		JsonNode json = log(new Request.Builder().get("http://localhost/").buildExchange(),
+				streamedResponse(header, compressed));
+
+		// the compressed data is not logged, only its encoding
+		JsonNode resp = json.get("response");
+		assertEquals("gzip", resp.get("headers").get("Content-Encoding").asText());
+		assertEquals("gzip", resp.get("bodyEncoding").asText());
+		assertFalse(resp.has("body"));
+		assertEquals(compressed.length, resp.get("bodyLength").asLong());
+		assertTrue(resp.get("bodyTruncated").asBoolean());
+	}
+
+}
@@ -14,8 +14,12 @@
 package com.predic8.membrane.core.interceptor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPOutputStream;
+
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.Request;
 import org.apache.commons.httpclient.HttpClient;
@@ -74,4 +78,26 @@ public class RegExReplaceInterceptorTest {
 		regexp.handleRequest(exc);
 		assertTrue(exc.getRequest().getBodyAsStringDecoded().equals(example));
 	}
+
+	@Test
+	public void testReplaceStreamed() throws Exception {
+		RegExReplaceInterceptor regexp = new RegExReplaceInterceptor();
+		regexp.setRegex("Hallo");
+		regexp.setReplace("Hello");
+
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		GZIPOutputStream gzip = new GZIPOutputStream(baos);
+		gzip.write("Hallo World".getBytes("UTF-8"));
+		gzip.close();
+
+		Exchange exc = new Request.Builder().body(baos.toByteArray()).header("Content-Type", "text/plain")
+				.header("Content-Encoding", "gzip").buildExchange();
+		regexp.handleRequest(exc);
+
+		Header header = exc.getRequest().getHeader();
+		assertTrue(header.isChunked());
+		assertFalse(header.hasContentLength());
+		assertEquals(null, header.getFirstValue("Content-Encoding"));
+		assertEquals("Hello World", exc.getRequest().getBodyAsStringDecoded());
+	}
 }
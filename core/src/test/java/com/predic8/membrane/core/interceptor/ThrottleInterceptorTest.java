@@ -43,6 +43,7 @@ public class ThrottleInterceptorTest {
 
 		assertEquals(Outcome.ABORT, i.handleRequest(exc));
 		assertEquals(503, exc.getResponse().getStatusCode());
+		assertEquals("1", exc.getResponse().getHeader().getFirstValue("Retry-After"));
 
 		i.handleResponse(exc);
 		assertEquals(Outcome.CONTINUE, i.handleRequest(exc));
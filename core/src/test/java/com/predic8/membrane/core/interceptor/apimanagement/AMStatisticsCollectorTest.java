@@ -13,15 +13,23 @@
 
 package com.predic8.membrane.core.interceptor.apimanagement;
 
+import com.predic8.membrane.core.HttpRouter;
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.Request;
 import com.predic8.membrane.core.http.Response;
+import com.predic8.membrane.core.interceptor.AbstractInterceptor;
 import com.predic8.membrane.core.interceptor.Outcome;
 import com.predic8.membrane.core.interceptor.apimanagement.statistics.AMStatisticsCollector;
 import com.predic8.membrane.core.rules.ServiceProxy;
+import com.predic8.membrane.core.rules.ServiceProxyKey;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class AMStatisticsCollectorTest {
 
@@ -66,5 +74,58 @@ public class AMStatisticsCollectorTest {
 
     }
 
+    @Test
+    public void testBulkShipping() throws Exception {
+        // stands in for Elasticsearch
+        final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+        ServiceProxy sp = new ServiceProxy(new ServiceProxyKey("localhost", "*", ".*", 3056), null, 0);
+        sp.getInterceptors().add(new AbstractInterceptor() {
+            @Override
+            public Outcome handleRequest(Exchange exc) throws Exception {
+                requests.add(exc.getRequest().getUri() + "\n" + exc.getRequest().getBodyAsStringDecoded());
+                exc.setResponse(Response.ok("{\"errors\":false}").build());
+                return Outcome.RETURN;
+            }
+        });
+        HttpRouter elasticSearch = new HttpRouter();
+        elasticSearch.getRuleManager().addProxyAndOpenPortIfNew(sp);
+        elasticSearch.init();
+        try {
+            AMStatisticsCollector amSc = new AMStatisticsCollector();
+            amSc.setHost("http://localhost:3056");
+            amSc.setBulkSize(3);
+            amSc.setMaxRecords(4);
+            for (int i = 0; i < 5; i++) {
+                Exchange exc = new Exchange(null);
+                exc.setRequest(new Request.Builder().get("/foo").header("Test", "Test").body("Hello").build());
+                exc.setResponse(Response.ok("Hello back").build());
+                exc.setProperty(Exchange.API_KEY, "junit");
+                exc.setRule(new ServiceProxy());
+                exc.getRule().setName("junit API");
+                amSc.addExchangeToQueue(exc);
+            }
+            amSc.shutdown();
+
+            String all = String.join("\n", requests);
+            for (String request : requests)
+                assertTrue(request.startsWith("/_bulk\n"));
+            // 4 statistics and 4 exchanges (the fifth exchange was only counted) in bulks of 3
+            assertEquals(3, requests.size());
+            assertEquals(4, count(all, "\"excStatus\""));
+            assertEquals(4, count(all, "\"Request\""));
+            assertTrue(all.contains("\"_type\":\"aggregates\""));
+            assertTrue(all.contains("\"count\":5,\"dropped\":1"));
+            assertTrue(all.contains("\"2xx\":5"));
+        } finally {
+            elasticSearch.shutdown();
+        }
+    }
+
+    private static int count(String s, String part) {
+        int n = 0;
+        for (int i = s.indexOf(part); i != -1; i = s.indexOf(part, i + 1))
+            n++;
+        return n;
+    }
 
 }
@@ -14,9 +14,11 @@
 package com.predic8.membrane.core.interceptor.rewrite;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -29,6 +31,7 @@ import com.predic8.membrane.core.interceptor.rewrite.RewriteInterceptor.Mapping;
 import com.predic8.membrane.core.rules.ServiceProxy;
 import com.predic8.membrane.core.rules.ServiceProxyKey;
 import com.predic8.membrane.core.util.MessageUtil;
+import com.predic8.membrane.core.util.RegExIndex;
 public class RewriteInterceptorTest {
 
 	private RewriteInterceptor rewriter;
@@ -72,4 +75,58 @@ public class RewriteInterceptorTest {
 		assertEquals("http://www.predic8.de:80/buy?item=banana&amount=3", exc.getDestinations().get(0));
 	}
 
+	private static RegExIndex<String> index(boolean wholeInput, String... regexes) {
+		List<Pattern> patterns = new ArrayList<Pattern>();
+		List<String> values = new ArrayList<String>();
+		for (int i = 0; i < regexes.length; i++) {
+			patterns.add(Pattern.compile(regexes[i]));
+			values.add("" + (i + 1));
+		}
+		return new RegExIndex<String>(patterns, values, wholeInput);
+	}
+
+	@Test
+	public void testGetLiteral() {
+		assertEquals("/bank/", RegExIndex.getLiteral("^/bank/(.*)", 1));
+		assertEquals("/buy/", RegExIndex.getLiteral("/buy/(.*)/(.*)", 0));
+		assertEquals("/blz-service?wsdl", RegExIndex.getLiteral("/blz-service\\?wsdl", 0));
+		assertEquals("/a.b", RegExIndex.getLiteral("\\Q/a.b\\E", 0));
+		assertEquals("/ab", RegExIndex.getLiteral("/abc?", 0));
+		assertEquals("/abc", RegExIndex.getLiteral("/abc+", 0));
+		assertEquals("/", RegExIndex.getLiteral("/\\d+", 0));
+		assertEquals("", RegExIndex.getLiteral("/a|/b", 0));
+		assertEquals("", RegExIndex.getLiteral("(?i)/a", 0));
+	}
+
+	@Test
+	public void testMappingIndex() {
+		RegExIndex<String> index = index(false, "^/a/b", "/b/", "^/a/", "[0-9]+$", "^/a");
+
+		assertEquals("1", index.findFirstMatching("/a/b/c"));
+		assertEquals("2", index.findFirstMatching("/x/b/c"));
+		assertEquals("3", index.findFirstMatching("/a/c"));
+		assertEquals("4", index.findFirstMatching("/x/a/1"));
+		assertEquals("5", index.findFirstMatching("/ab"));
+		assertNull(index.findFirstMatching("/x/a/b"));
+
+		// literals occurring several times, expressions with and without literals in between
+		index = index(false, "\\d", "/b/c", "/b/", "[a-z]");
+		assertEquals("3", index.findFirstMatching("/b/b/"));
+		assertEquals("2", index.findFirstMatching("/b/b/c"));
+		assertEquals("1", index.findFirstMatching("/b/c/1"));
+		assertEquals("4", index.findFirstMatching("x"));
+	}
+
+	@Test
+	public void testMappingIndexWholeInput() {
+		RegExIndex<String> index = index(true, "/bank/.*", "/shop/(\\w+)", "/b.*", ".*/items");
+
+		assertEquals("1", index.findFirstMatching("/bank/37050198"));
+		assertEquals("2", index.findFirstMatching("/shop/fruit"));
+		assertNull(index.findFirstMatching("/shop/fruit/3"));
+		assertEquals("3", index.findFirstMatching("/blz"));
+		assertEquals("4", index.findFirstMatching("/x/items"));
+		assertNull(index.findFirstMatching("/x/bank/1"));
+	}
+
 }
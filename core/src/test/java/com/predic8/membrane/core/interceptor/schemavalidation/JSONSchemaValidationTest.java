@@ -14,6 +14,7 @@
 package com.predic8.membrane.core.interceptor.schemavalidation;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
@@ -21,12 +22,18 @@ import org.junit.Test;
 
 import com.predic8.membrane.core.exchange.Exchange;
 import com.predic8.membrane.core.http.Request;
+import com.predic8.membrane.core.interceptor.Outcome;
+import com.predic8.membrane.core.interceptor.schemavalidation.JSONValidator.Mode;
 import com.predic8.membrane.core.interceptor.schemavalidation.ValidatorInterceptor.FailureHandler;
 import com.predic8.membrane.core.resolver.ResolverMap;
 
 public class JSONSchemaValidationTest {
 
 	private void validate(String schema, String json, boolean success) throws IOException, Exception {
+		validate(schema, json, success, Mode.TREE);
+	}
+
+	private void validate(String schema, String json, boolean success, Mode mode) throws IOException, Exception {
 		final StringBuffer sb = new StringBuffer();
 		FailureHandler fh = new FailureHandler() {
 			@Override
@@ -35,7 +42,7 @@ public class JSONSchemaValidationTest {
 				sb.append("\n");
 			}
 		};
-		JSONValidator jsonValidator = new JSONValidator(new ResolverMap(), schema, fh);
+		JSONValidator jsonValidator = new JSONValidator(new ResolverMap(), schema, fh, mode);
 		Request request = new Request.Builder().body(IOUtils.toByteArray(getClass().getResourceAsStream(json))).build();
 		Exchange exchange = new Exchange(null);
 		jsonValidator.validateMessage(exchange, request, "request");
@@ -65,5 +72,35 @@ public class JSONSchemaValidationTest {
 		validate("classpath:/validation/jsonschema/schema2001.json", "/validation/jsonschema/bad2001.json", false);
 	}
 
+	@Test
+	public void streaming() throws Exception {
+		validate("classpath:/validation/jsonschema/schema2001.json", "/validation/jsonschema/good2001.json", true, Mode.STREAMING);
+		validate("classpath:/validation/jsonschema/schema2001.json", "/validation/jsonschema/bad2001.json", false, Mode.STREAMING);
+		// "format" is not supported by the streaming validator: falls back to the tree
+		validate("classpath:/validation/jsonschema/schema2000.json", "/validation/jsonschema/good2000.json", true, Mode.STREAMING);
+		validate("classpath:/validation/jsonschema/schema2000.json", "/validation/jsonschema/bad2000.json", false, Mode.STREAMING);
+	}
+
+	@Test
+	public void forwarding() throws Exception {
+		JSONValidator jsonValidator = new JSONValidator(new ResolverMap(), "classpath:/validation/jsonschema/schema2001.json", null, Mode.FORWARDING);
+
+		byte[] good = IOUtils.toByteArray(getClass().getResourceAsStream("/validation/jsonschema/good2001.json"));
+		Request request = new Request.Builder().body(good).build();
+		Assert.assertEquals(Outcome.CONTINUE, jsonValidator.validateMessage(new Exchange(null), request, "request"));
+		Assert.assertTrue(Arrays.equals(good, IOUtils.toByteArray(request.getBodyAsStream())));
+		Assert.assertEquals(1, jsonValidator.getValid());
+
+		byte[] bad = IOUtils.toByteArray(getClass().getResourceAsStream("/validation/jsonschema/bad2001.json"));
+		request = new Request.Builder().body(bad).build();
+		Assert.assertEquals(Outcome.CONTINUE, jsonValidator.validateMessage(new Exchange(null), request, "request"));
+		try {
+			IOUtils.toByteArray(request.getBodyAsStream());
+			Assert.fail("The invalid body was forwarded completely.");
+		} catch (RuntimeException e) {
+			// expected: the IOException, wrapped by Message.getBodyAsStream()
+		}
+		Assert.assertEquals(1, jsonValidator.getInvalid());
+	}
 
 }
@@ -0,0 +1,169 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor.schemavalidation;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import com.predic8.membrane.core.interceptor.schemavalidation.StreamingJSONSchema.ValidationException;
+
+/**
+ * Checks for each keyword supported by {@link StreamingJSONSchema} that it comes to the same verdict
+ * as the tree-based validator.
+ */
+public class StreamingJSONSchemaTest {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	/**
+	 * Single quotes in the arguments are replaced by double quotes, to keep the tests readable.
+	 */
+	private static void assertVerdict(String schema, String json, boolean valid) throws Exception {
+		JsonNode schemaNode = JsonLoader.fromString(schema.replace('\'', '"'));
+		json = json.replace('\'', '"');
+
+		boolean treeValid = JsonSchemaFactory.byDefault().getJsonSchema(schemaNode)
+				.validate(JsonLoader.fromString(json)).isSuccess();
+		assertEquals("tree: " + json, valid, treeValid);
+
+		String error = null;
+		try {
+			new StreamingJSONSchema(schemaNode).validate(JSON_FACTORY.createParser(json));
+		} catch (ValidationException e) {
+			error = e.getMessage();
+		}
+		assertEquals("streaming: " + json + (error == null ? "" : " (" + error + ")"), valid, error == null);
+	}
+
+	private static void assertValid(String schema, String... jsons) throws Exception {
+		for (String json : jsons)
+			assertVerdict(schema, json, true);
+	}
+
+	private static void assertInvalid(String schema, String... jsons) throws Exception {
+		for (String json : jsons)
+			assertVerdict(schema, json, false);
+	}
+
+	@Test
+	public void testPattern() throws Exception {
+		String schema = "{'type':'string','pattern':'^[a-z]+$'}";
+		assertValid(schema, "'abc'");
+		assertInvalid(schema, "'abC'", "''");
+		// the pattern is not anchored implicitly
+		assertValid("{'pattern':'b+'}", "'abbc'", "42");
+		assertInvalid("{'pattern':'b+'}", "'ac'");
+	}
+
+	@Test
+	public void testMultipleOf() throws Exception {
+		assertValid("{'multipleOf':3}", "0", "9", "-3", "9.0");
+		assertInvalid("{'multipleOf':3}", "10", "9.5");
+		assertValid("{'multipleOf':0.01}", "1.23", "5", "0.1");
+		assertInvalid("{'multipleOf':0.01}", "1.234");
+	}
+
+	@Test
+	public void testRef() throws Exception {
+		String schema = "{'definitions':{'positive':{'type':'integer','minimum':1}},"
+				+ "'properties':{'a':{'$ref':'#/definitions/positive'},'b':{'type':'array','items':{'$ref':'#/definitions/positive'}}}}";
+		assertValid(schema, "{'a':1}", "{'b':[1,2,3]}", "{}");
+		assertInvalid(schema, "{'a':0}", "{'a':'1'}", "{'b':[1,0]}");
+	}
+
+	@Test
+	public void testRecursiveRef() throws Exception {
+		String schema = "{'type':'object','properties':{'child':{'$ref':'#'}},'additionalProperties':false}";
+		assertValid(schema, "{}", "{'child':{'child':{}}}");
+		assertInvalid(schema, "{'child':{'child':{'x':1}}}", "{'child':[]}");
+	}
+
+	@Test
+	public void testAdditionalProperties() throws Exception {
+		String schema = "{'properties':{'a':{}},'additionalProperties':false}";
+		assertValid(schema, "{}", "{'a':{'b':1}}");
+		assertInvalid(schema, "{'a':1,'b':2}", "{'b':null}");
+
+		schema = "{'properties':{'a':{}},'additionalProperties':{'type':'string'}}";
+		assertValid(schema, "{'a':1,'b':'x','c':'y'}");
+		assertInvalid(schema, "{'a':1,'b':2}");
+	}
+
+	@Test
+	public void testMinAndMaxLength() throws Exception {
+		String schema = "{'minLength':2,'maxLength':3}";
+		assertValid(schema, "'ab'", "'abc'", "1");
+		assertInvalid(schema, "'a'", "''", "'abcd'");
+		// the length is counted in code points, not in UTF-16 chars
+		assertValid(schema, "'\ud83d\ude00\ud83d\ude00\ud83d\ude00'");
+		assertInvalid(schema, "'\ud83d\ude00'");
+	}
+
+	@Test
+	public void testMinAndMaxItems() throws Exception {
+		String schema = "{'minItems':1,'maxItems':2}";
+		assertValid(schema, "[1]", "[[],{}]", "'not an array'");
+		assertInvalid(schema, "[]", "[1,2,3]");
+	}
+
+	@Test
+	public void testBounds() throws Exception {
+		String schema = "{'minimum':1,'maximum':3}";
+		assertValid(schema, "1", "1.0", "2.5", "3", "'not a number'");
+		assertInvalid(schema, "0.99", "3.01", "-1");
+
+		schema = "{'minimum':1,'exclusiveMinimum':true,'maximum':3,'exclusiveMaximum':true}";
+		assertValid(schema, "1.01", "2", "2.99");
+		assertInvalid(schema, "1", "1.0", "3", "3.00", "0");
+	}
+
+	@Test
+	public void testTypeArrays() throws Exception {
+		String schema = "{'type':['string','null']}";
+		assertValid(schema, "'x'", "null");
+		assertInvalid(schema, "1", "false", "{}", "[]");
+
+		schema = "{'type':['integer','boolean']}";
+		assertValid(schema, "1", "-7", "true");
+		assertInvalid(schema, "1.5", "'1'", "null");
+
+		// an integer is a number
+		assertValid("{'type':'number'}", "1", "1.5");
+		assertInvalid("{'type':'number'}", "'1'");
+	}
+
+	@Test
+	public void testNestedArraysAndObjects() throws Exception {
+		String schema = "{'type':'array','items':{'type':'array','items':{'type':'object','required':['id'],"
+				+ "'properties':{'id':{'type':'integer'},'tags':{'type':'array','items':{'type':'string'},'maxItems':2}}}}}";
+		assertValid(schema, "[]", "[[],[{'id':1}]]", "[[{'id':1,'tags':['a','b']},{'id':2,'other':{'tags':[1,2,3]}}]]");
+		assertInvalid(schema,
+				"[[{'id':1}],[{'tags':[]}]]",
+				"[[{'id':1,'tags':['a','b','c']}]]",
+				"[[{'id':1,'tags':['a',2]}]]",
+				"[[{'id':'1'}]]",
+				"[{'id':1}]");
+
+		// values nested in unconstrained containers are not validated
+		schema = "{'properties':{'a':{'type':'integer'}}}";
+		assertValid(schema, "{'x':[{'a':'s'},[{'a':[]}]],'a':1}");
+		assertInvalid(schema, "{'x':[{'a':'s'}],'a':'s'}");
+	}
+
+}
@@ -0,0 +1,156 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor.statistics.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import com.predic8.membrane.core.interceptor.statistics.util.AsyncBatchWriter.OverflowPolicy;
+
+public class AsyncBatchWriterTest {
+
+	private static class RecordingSink implements AsyncBatchWriter.Sink<Integer> {
+		final List<Integer> records = Collections.synchronizedList(new ArrayList<Integer>());
+		final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+		final CountDownLatch release;
+
+		RecordingSink(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void write(List<Integer> batch) throws Exception {
+			if (release != null)
+				release.await();
+			records.addAll(batch);
+			batchSizes.add(batch.size());
+		}
+	}
+
+	private static final AsyncBatchWriter.Codec<Integer> CODEC = new AsyncBatchWriter.Codec<Integer>() {
+		@Override
+		public void write(Integer record, DataOutput out) throws IOException {
+			out.writeInt(record);
+		}
+
+		@Override
+		public Integer read(DataInput in) throws IOException {
+			return in.readInt();
+		}
+	};
+
+	@Test
+	public void testBatchSize() throws Exception {
+		RecordingSink sink = new RecordingSink(null);
+		AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<Integer>("test", sink, 1000, 10, 60000,
+				OverflowPolicy.BLOCK, null, null);
+		for (int i = 0; i < 100; i++)
+			writer.offer(i);
+		writer.close(10000);
+		assertEquals(100, sink.records.size());
+		for (int i = 0; i < 100; i++)
+			assertEquals(i, (int) sink.records.get(i));
+		for (int size : sink.batchSizes)
+			assertTrue(size <= 10);
+		assertEquals(100, writer.getWritten());
+		assertEquals(0, writer.getQueueDepth());
+	}
+
+	@Test
+	public void testFlushInterval() throws Exception {
+		RecordingSink sink = new RecordingSink(null);
+		AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<Integer>("test", sink, 1000, 100, 50,
+				OverflowPolicy.BLOCK, null, null);
+		writer.offer(1);
+		writer.offer(2);
+		long deadline = System.currentTimeMillis() + 5000;
+		while (sink.records.size() < 2 && System.currentTimeMillis() < deadline)
+			Thread.sleep(10);
+		assertEquals(2, sink.records.size());
+		writer.close(10000);
+	}
+
+	@Test
+	public void testDrop() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingSink sink = new RecordingSink(release);
+		AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<Integer>("test", sink, 5, 1, 60000,
+				OverflowPolicy.DROP, null, null);
+		int accepted = 0;
+		for (int i = 0; i < 20; i++)
+			if (writer.offer(i))
+				accepted++;
+		// at most one record is being written, the others wait in the queue
+		assertTrue(accepted <= 6);
+		assertFalse(writer.getDropped() == 0);
+		release.countDown();
+		writer.close(10000);
+		assertEquals(accepted, sink.records.size());
+		assertEquals(20, accepted + writer.getDropped());
+	}
+
+	@Test
+	public void testSinkError() throws Exception {
+		final List<Integer> records = Collections.synchronizedList(new ArrayList<Integer>());
+		AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<Integer>("test", new AsyncBatchWriter.Sink<Integer>() {
+			@Override
+			public void write(List<Integer> batch) throws Exception {
+				if (batch.contains(0))
+					throw new NoClassDefFoundError();
+				records.addAll(batch);
+			}
+		}, 2, 1, 60000, OverflowPolicy.BLOCK, null, null);
+		// the writer survives the error, so that enqueueing does not block forever
+		for (int i = 0; i < 10; i++)
+			assertTrue(writer.offer(i));
+		assertTrue(writer.close(10000));
+		assertEquals(1, writer.getFailed());
+		assertEquals(9, records.size());
+		assertFalse(writer.offer(10));
+	}
+
+	@Test
+	public void testSpill() throws Exception {
+		File spillFile = File.createTempFile("membrane", ".spill");
+		spillFile.delete();
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingSink sink = new RecordingSink(release);
+		AsyncBatchWriter<Integer> writer = new AsyncBatchWriter<Integer>("test", sink, 5, 1, 60000,
+				OverflowPolicy.SPILL, CODEC, spillFile);
+		for (int i = 0; i < 20; i++)
+			assertTrue(writer.offer(i));
+		assertTrue(writer.getSpilled() > 0);
+		release.countDown();
+		writer.close(10000);
+		assertEquals(20, sink.records.size());
+		List<Integer> sorted = new ArrayList<Integer>(sink.records);
+		Collections.sort(sorted);
+		for (int i = 0; i < 20; i++)
+			assertEquals(i, (int) sorted.get(i));
+		assertFalse(spillFile.exists());
+	}
+
+}
@@ -0,0 +1,145 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.interceptor.statistics.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.predic8.membrane.core.interceptor.statistics.util.RotatingFileSink.FsyncPolicy;
+
+public class RotatingFileSinkTest {
+
+	private File dir;
+
+	@Before
+	public void createDir() throws IOException {
+		dir = File.createTempFile("membrane", "csv");
+		dir.delete();
+		dir.mkdirs();
+	}
+
+	@After
+	public void deleteDir() {
+		for (File f : dir.listFiles())
+			f.delete();
+		dir.delete();
+	}
+
+	private static List<String> readLines(File f) throws IOException {
+		InputStream in = new FileInputStream(f);
+		if (f.getName().endsWith(".gz"))
+			in = new GZIPInputStream(in);
+		List<String> lines = new ArrayList<String>();
+		try (BufferedReader r = new BufferedReader(new InputStreamReader(in, "UTF-8"))) {
+			String line;
+			while ((line = r.readLine()) != null)
+				lines.add(line);
+		}
+		return lines;
+	}
+
+	@Test
+	public void testAppend() throws Exception {
+		File file = new File(dir, "stat.csv");
+		RotatingFileSink sink = new RotatingFileSink(file, "h", 0, 0, false, FsyncPolicy.BATCH, 16);
+		sink.write(Arrays.asList("a", "b"));
+		sink.write(Arrays.asList("a very long line exceeding the buffer"));
+		sink.close();
+		sink = new RotatingFileSink(file, "h", 0, 0, false, FsyncPolicy.NEVER, 16);
+		sink.write(Arrays.asList("c"));
+		sink.close();
+		assertEquals(Arrays.asList("h", "a", "b", "a very long line exceeding the buffer", "c"), readLines(file));
+	}
+
+	@Test
+	public void testSizeRotation() throws Exception {
+		File file = new File(dir, "stat.csv");
+		RotatingFileSink sink = new RotatingFileSink(file, "h", 20, 0, false, FsyncPolicy.ROTATION, 1024);
+		List<String> lines = new ArrayList<String>();
+		for (int i = 0; i < 20; i++)
+			lines.add("line" + i);
+		sink.write(lines);
+		sink.close();
+
+		File[] files = dir.listFiles();
+		assertTrue(files.length > 1);
+		int count = 0;
+		for (File f : files) {
+			assertTrue(f.length() <= 20);
+			List<String> content = readLines(f);
+			assertEquals("h", content.get(0));
+			count += content.size() - 1;
+		}
+		assertEquals(20, count);
+	}
+
+	@Test
+	public void testCompressRotated() throws Exception {
+		File file = new File(dir, "stat.csv");
+		RotatingFileSink sink = new RotatingFileSink(file, null, 0, 1, true, FsyncPolicy.NEVER, 1024);
+		sink.write(Arrays.asList("a"));
+		Thread.sleep(10);
+		sink.write(Arrays.asList("b"));
+		sink.close();
+
+		// close() waits for the compression
+		File[] files = dir.listFiles();
+		assertEquals(2, files.length);
+		File gz = files[0].getName().endsWith(".gz") ? files[0] : files[1];
+		assertTrue(gz.getName().endsWith(".gz"));
+		assertEquals(Arrays.asList("a"), readLines(gz));
+		assertEquals(Arrays.asList("b"), readLines(file));
+	}
+
+	@Test
+	public void testFailedRename() throws Exception {
+		File file = new File(dir, "stat.csv");
+		final int[] renames = new int[1];
+		RotatingFileSink sink = new RotatingFileSink(file, "h", 20, 0, false, FsyncPolicy.NEVER, 1024) {
+			@Override
+			boolean rename(File rotated) {
+				renames[0]++;
+				return false;
+			}
+		};
+		List<String> lines = new ArrayList<String>();
+		for (int i = 0; i < 20; i++)
+			lines.add("line" + i);
+		sink.write(lines);
+		sink.close();
+
+		// the rename is only retried after another 20 bytes
+		assertEquals(7, renames[0]);
+		List<String> expected = new ArrayList<String>(lines);
+		expected.add(0, "h");
+		assertEquals(expected, readLines(file));
+		assertEquals(1, dir.listFiles().length);
+	}
+
+}
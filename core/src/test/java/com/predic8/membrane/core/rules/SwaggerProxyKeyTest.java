@@ -14,6 +14,9 @@
 package com.predic8.membrane.core.rules;
 
 import static org.junit.Assert.*;
+import io.swagger.models.Operation;
+import io.swagger.models.Path;
+import io.swagger.models.Swagger;
 import io.swagger.parser.SwaggerParser;
 
 import org.junit.BeforeClass;
@@ -72,4 +75,32 @@ public class SwaggerProxyKeyTest {
 		assertTrue(key.complexMatch("", "POST", "/v2/pet/bello/uploadImage", "", 0, ""));
 	}
 
+	@Test
+	public void testPathTemplates() throws Exception {
+		SwaggerProxyKey key = new SwaggerProxyKey(3000);
+		key.setSwagger(new Swagger().basePath("/api/")
+				.path("/pet/{petId}", new Path().get(new Operation()))
+				.path("/pet/findByStatus", new Path().post(new Operation()))
+				.path("/files/{name}.json", new Path().get(new Operation()))
+				.path("/a.b", new Path().get(new Operation())));
+
+		assertTrue(key.complexMatch("", "GET", "/api/pet/123", "", 0, ""));
+		assertTrue(key.complexMatch("", "get", "/api/pet/123?details=true", "", 0, ""));
+		assertFalse(key.complexMatch("", "GET", "/api/pet/1.2", "", 0, ""));
+		assertFalse(key.complexMatch("", "GET", "/api/pet/", "", 0, ""));
+		assertFalse(key.complexMatch("", "GET", "/api/pet/123/x", "", 0, ""));
+		assertFalse(key.complexMatch("", "GET", "/pet/123", "", 0, ""));
+
+		// literal and parameter segments both match "findByStatus"
+		assertTrue(key.complexMatch("", "POST", "/api/pet/findByStatus", "", 0, ""));
+		assertTrue(key.complexMatch("", "GET", "/api/pet/findByStatus", "", 0, ""));
+		assertFalse(key.complexMatch("", "POST", "/api/pet/123", "", 0, ""));
+
+		assertTrue(key.complexMatch("", "GET", "/api/files/report.json", "", 0, ""));
+		assertFalse(key.complexMatch("", "GET", "/api/files/report.xml", "", 0, ""));
+
+		assertTrue(key.complexMatch("", "GET", "/api/a.b", "", 0, ""));
+		assertFalse(key.complexMatch("", "GET", "/api/axb", "", 0, ""));
+	}
+
 }
@@ -0,0 +1,132 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.transport.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.predic8.membrane.core.transport.http.CircuitBreaker.State;
+import com.predic8.membrane.core.transport.http.client.CircuitBreakerConfiguration;
+
+public class CircuitBreakerTest {
+
+	private long now;
+	private CircuitBreakerConfiguration config;
+
+	@Before
+	public void setUp() {
+		now = 1000;
+		config = new CircuitBreakerConfiguration();
+		config.setConsecutiveErrors(3);
+		config.setErrorRateThreshold(50);
+		config.setErrorRateWindow(10);
+		config.setBaseEjectionTime(100);
+		config.setMaxEjectionTime(350);
+	}
+
+	private CircuitBreaker create() {
+		return new CircuitBreaker("localhost:3000", config) {
+			@Override
+			protected long now() {
+				return now;
+			}
+		};
+	}
+
+	@Test
+	public void testConsecutiveErrorsOpen() {
+		CircuitBreaker cb = create();
+		cb.recordFailure();
+		cb.recordFailure();
+		assertEquals(State.CLOSED, cb.getState());
+		cb.recordFailure();
+		assertEquals(State.OPEN, cb.getState());
+		assertFalse(cb.allowRequest());
+		assertFalse(cb.isAvailable());
+		assertEquals(1, cb.getRejectedCount());
+	}
+
+	@Test
+	public void testSuccessResetsConsecutiveErrors() {
+		CircuitBreaker cb = create();
+		for (int i = 0; i < 5; i++) {
+			cb.recordFailure();
+			cb.recordFailure();
+			cb.recordSuccess();
+			cb.recordSuccess();
+			cb.recordSuccess();
+		}
+		assertEquals(State.CLOSED, cb.getState());
+	}
+
+	@Test
+	public void testErrorRateOpens() {
+		config.setConsecutiveErrors(0);
+		CircuitBreaker cb = create();
+		for (int i = 0; i < 4; i++) {
+			cb.recordFailure();
+			cb.recordSuccess();
+		}
+		cb.recordFailure();
+		assertEquals(State.CLOSED, cb.getState()); // window not filled yet
+		cb.recordFailure();
+		assertEquals(State.OPEN, cb.getState());
+	}
+
+	@Test
+	public void testHalfOpenProbe() {
+		CircuitBreaker cb = create();
+		for (int i = 0; i < 3; i++)
+			cb.recordFailure();
+		now += 100;
+		assertTrue(cb.isAvailable());
+		assertTrue(cb.allowRequest());
+		assertEquals(State.HALF_OPEN, cb.getState());
+		assertFalse(cb.allowRequest()); // only one probe at a time
+		cb.recordSuccess();
+		assertEquals(State.CLOSED, cb.getState());
+		assertTrue(cb.allowRequest());
+		assertEquals(1, cb.getOpenedCount());
+		assertEquals(1, cb.getHalfOpenedCount());
+		assertEquals(1, cb.getClosedCount());
+	}
+
+	@Test
+	public void testExponentialBackoff() {
+		CircuitBreaker cb = create();
+		for (int i = 0; i < 3; i++)
+			cb.recordFailure();
+
+		now += 100;
+		assertTrue(cb.allowRequest());
+		cb.recordFailure();
+		assertEquals(State.OPEN, cb.getState());
+
+		now += 199;
+		assertFalse(cb.allowRequest());
+		now += 1;
+		assertTrue(cb.allowRequest());
+		cb.recordFailure();
+
+		now += 349;
+		assertFalse(cb.allowRequest()); // capped at maxEjectionTime
+		now += 1;
+		assertTrue(cb.allowRequest());
+	}
+
+}
@@ -123,9 +123,25 @@ public class SSLContextTest {
 		testCombination(server, client);
 	}
 
+	@Test
+	public void sessionResumption() throws Exception {
+		SSLContext server = cb().withKeyStore("classpath:/ssl-rsa.keystore").build();
+		SSLContext client = cb().withTrustStore("classpath:/ssl-rsa-pub.keystore").build();
+		testCombination(server, client, 2);
+
+		Assert.assertEquals(2, client.getHandshakeStatistics().getHandshakes());
+		Assert.assertEquals(1, client.getHandshakeStatistics().getResumedHandshakes());
+		Assert.assertEquals(2, server.getHandshakeStatistics().getHandshakes());
+		Assert.assertEquals(1, server.getHandshakeStatistics().getResumedHandshakes());
+	}
 
 	private void testCombination(SSLContext server, final SSLContext client)
 			throws IOException, InterruptedException, Exception {
+		testCombination(server, client, 1);
+	}
+
+	private void testCombination(SSLContext server, final SSLContext client, final int connections)
+			throws IOException, InterruptedException, Exception {
 		ServerSocket ss = server.createServerSocket(3020, 50, null);
 
 		final Exception ex[] = new Exception[1];
@@ -134,12 +150,14 @@ public class SSLContextTest {
 			@Override
 			public void run() {
 				try {
-					Socket s = client.createSocket("localhost", 3020, 30000,null);
-					try {
-						BufferedReader br = new BufferedReader(new InputStreamReader(s.getInputStream()));
-						Assert.assertEquals("Hi", br.readLine());
-					} finally {
-						s.close();
+					for (int i = 0; i < connections; i++) {
+						Socket s = client.createSocket("localhost", 3020, 30000,null);
+						try {
+							BufferedReader br = new BufferedReader(new InputStreamReader(s.getInputStream()));
+							Assert.assertEquals("Hi", br.readLine());
+						} finally {
+							s.close();
+						}
 					}
 				} catch (Exception e) {
 					ex[0] = e;
@@ -148,9 +166,11 @@ public class SSLContextTest {
 		t.start();
 
 		try {
-			Socket s = ss.accept();
-			s.getOutputStream().write("Hi\n".getBytes());
-			s.getOutputStream().flush();
+			for (int i = 0; i < connections; i++) {
+				Socket s = server.wrapAcceptedSocket(ss.accept());
+				s.getOutputStream().write("Hi\n".getBytes());
+				s.getOutputStream().flush();
+			}
 		} finally {
 			ss.close();
 		}
@@ -0,0 +1,64 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+
+package com.predic8.membrane.core.transport.ws;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class WebSocketFrameTest {
+
+    private static final byte[] MASK_KEY = { 1, 2, 3, 4 };
+
+    private static byte[] payload(int length) {
+        byte[] payload = new byte[length];
+        for (int i = 0; i < length; i++)
+            payload[i] = (byte) ('a' + i % 26);
+        return payload;
+    }
+
+    private static void assertRoundTrip(boolean masked, byte[] payload) throws Exception {
+        WebSocketFrame frame = new WebSocketFrame(true, false, false, false, 2, masked, MASK_KEY, payload);
+        assertEquals(payload.length, frame.getPayloadLength());
+        assertArrayEquals(MASK_KEY, frame.getMaskKey());
+
+        byte[] bytes = frame.toBytes();
+        WebSocketFrame read = new WebSocketFrame();
+        assertEquals(bytes.length, read.tryRead(bytes, 0, bytes.length));
+        assertEquals(2, read.getOpcode());
+        assertEquals(masked, read.isMasked());
+        assertEquals(payload.length, read.getPayloadLength());
+        assertTrue(read.getPayload().length >= payload.length);
+        for (int i = 0; i < payload.length; i++)
+            assertEquals(payload[i], read.getPayload()[i]);
+        if (masked)
+            assertArrayEquals(MASK_KEY, read.getMaskKey());
+    }
+
+    @Test
+    public void testSmallPayload() throws Exception {
+        assertRoundTrip(false, payload(100));
+        assertRoundTrip(true, payload(100));
+    }
+
+    @Test
+    public void testPayloadLargerThanInitialBuffer() throws Exception {
+        assertRoundTrip(true, payload(20000));
+        assertRoundTrip(false, payload(100000));
+    }
+
+}
@@ -0,0 +1,100 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class ContentHandlerXMLStreamWriterTest {
+
+	/**
+	 * Records the start tags as "{uri}qName", followed by the attributes in the same form.
+	 */
+	private static class Recorder extends DefaultHandler {
+		final List<String> events = new ArrayList<String>();
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			StringBuilder sb = new StringBuilder("{" + uri + "}" + qName);
+			for (int i = 0; i < attributes.getLength(); i++)
+				sb.append(" {").append(attributes.getURI(i)).append("}").append(attributes.getQName(i));
+			events.add(sb.toString());
+		}
+	}
+
+	private static final NamespaceContext ROOT_CONTEXT = new NamespaceContext() {
+		@Override
+		public String getNamespaceURI(String prefix) {
+			return "a".equals(prefix) ? "urn:a" : XMLConstants.NULL_NS_URI;
+		}
+
+		@Override
+		public String getPrefix(String namespaceURI) {
+			return "urn:a".equals(namespaceURI) ? "a" : null;
+		}
+
+		@Override
+		public Iterator<String> getPrefixes(String namespaceURI) {
+			return "urn:a".equals(namespaceURI) ? Collections.singletonList("a").iterator()
+					: Collections.<String>emptyList().iterator();
+		}
+	};
+
+	@Test
+	public void testNamespaceContext() throws Exception {
+		Recorder recorder = new Recorder();
+		ContentHandlerXMLStreamWriter writer = new ContentHandlerXMLStreamWriter(recorder, null);
+		writer.setNamespaceContext(ROOT_CONTEXT);
+		assertEquals("a", writer.getPrefix("urn:a"));
+		assertEquals("urn:a", writer.getNamespaceContext().getNamespaceURI("a"));
+
+		writer.writeStartElement("urn:a", "root");
+		writer.writeAttribute("urn:a", "attr", "1");
+		// the prefix is rebound within the document
+		writer.writeStartElement("a", "child", "urn:b");
+		writer.writeNamespace("a", "urn:b");
+		assertEquals(null, writer.getPrefix("urn:a"));
+		writer.writeEndElement();
+		writer.writeEmptyElement("urn:a", "child");
+		writer.writeEndDocument();
+
+		assertEquals("[{urn:a}a:root {urn:a}a:attr, {urn:b}a:child, {urn:a}a:child]", recorder.events.toString());
+	}
+
+	@Test
+	public void testNamespaceContextWithinDocument() throws Exception {
+		ContentHandlerXMLStreamWriter writer = new ContentHandlerXMLStreamWriter(new DefaultHandler(), null);
+		writer.writeStartElement("root");
+		try {
+			writer.setNamespaceContext(ROOT_CONTEXT);
+			fail();
+		} catch (XMLStreamException e) {
+			// expected
+		}
+	}
+
+}
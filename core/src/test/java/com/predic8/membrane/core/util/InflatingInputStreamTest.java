@@ -0,0 +1,114 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+import org.junit.Test;
+
+public class InflatingInputStreamTest {
+
+	private static byte[] data(int length) {
+		byte[] data = new byte[length];
+		Random random = new Random(length);
+		for (int i = 0; i < length; i++)
+			data[i] = (byte) ('a' + random.nextInt(8));
+		return data;
+	}
+
+	private static byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		GZIPOutputStream out = new GZIPOutputStream(baos);
+		out.write(data);
+		out.close();
+		return baos.toByteArray();
+	}
+
+	private static byte[] deflate(byte[] data, boolean nowrap) throws IOException {
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		DeflaterOutputStream out = new DeflaterOutputStream(baos, new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap));
+		out.write(data);
+		out.close();
+		return baos.toByteArray();
+	}
+
+	private static byte[] inflate(byte[] compressed, boolean gzip) throws IOException {
+		return ByteUtil.getByteArrayData(new InflatingInputStream(new ByteArrayInputStream(compressed), gzip));
+	}
+
+	@Test
+	public void gzip() throws IOException {
+		for (int length : new int[] { 0, 1, 100, 100000 }) {
+			byte[] data = data(length);
+			assertArrayEquals(data, inflate(gzip(data), true));
+		}
+	}
+
+	@Test
+	public void gzipMultipleMembers() throws IOException {
+		byte[] a = data(20000), b = data(30000);
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		baos.write(gzip(a));
+		baos.write(gzip(b));
+		ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		expected.write(a);
+		expected.write(b);
+		assertArrayEquals(expected.toByteArray(), inflate(baos.toByteArray(), true));
+	}
+
+	@Test
+	public void deflate() throws IOException {
+		byte[] data = data(50000);
+		assertArrayEquals(data, inflate(deflate(data, false), false));
+		assertArrayEquals(data, inflate(deflate(data, true), false));
+	}
+
+	@Test
+	public void empty() throws IOException {
+		assertEquals(0, inflate(new byte[0], true).length);
+		assertEquals(0, inflate(new byte[0], false).length);
+	}
+
+	@Test(expected = ZipException.class)
+	public void corruptTrailer() throws IOException {
+		byte[] compressed = gzip(data(1000));
+		compressed[compressed.length - 5]++;
+		inflate(compressed, true);
+	}
+
+	@Test
+	public void deflatingInputStream() throws IOException {
+		byte[] data = data(100000);
+		for (boolean gzip : new boolean[] { true, false }) {
+			byte[] compressed = ByteUtil.getByteArrayData(new DeflatingInputStream(new ByteArrayInputStream(data), gzip, Deflater.DEFAULT_COMPRESSION));
+			InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(compressed)) : new InflaterInputStream(new ByteArrayInputStream(compressed));
+			assertArrayEquals(data, ByteUtil.getByteArrayData(in));
+			assertArrayEquals(data, inflate(compressed, gzip));
+		}
+	}
+
+}
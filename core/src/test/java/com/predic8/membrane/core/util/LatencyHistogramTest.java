@@ -0,0 +1,55 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBuckets() {
+		for (long value : new long[] { 0, 1, 15, 16, 17, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE }) {
+			int bucket = LatencyHistogram.getBucket(value);
+			assertTrue(value <= LatencyHistogram.getUpperBound(bucket));
+			assertTrue(bucket == 0 || value > LatencyHistogram.getUpperBound(bucket - 1));
+		}
+		assertEquals(LatencyHistogram.getBucket(32), LatencyHistogram.getBucket(33));
+	}
+
+	@Test
+	public void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getPercentile(99));
+		for (int i = 1; i <= 1000; i++)
+			histogram.record(i);
+		assertEquals(1000, histogram.getCount());
+		assertEquals(1000, histogram.getMax());
+		assertAbout(500, histogram.getPercentile(50));
+		assertAbout(990, histogram.getPercentile(99));
+		assertEquals(1000, histogram.getPercentile(100));
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		histogram.record(5);
+		assertEquals(5, histogram.getPercentile(50));
+	}
+
+	private static void assertAbout(long expected, long actual) {
+		assertTrue("expected about " + expected + ", got " + actual, Math.abs(expected - actual) <= expected / 16);
+	}
+
+}
@@ -0,0 +1,84 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class RegExReplaceInputStreamTest {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * Returns the data in pieces of at most 3 bytes, so that matches straddle the reads.
+	 */
+	private static InputStream slowly(byte[] data) {
+		return new ByteArrayInputStream(data) {
+			@Override
+			public synchronized int read(byte[] b, int off, int len) {
+				return super.read(b, off, Math.min(len, 3));
+			}
+		};
+	}
+
+	private static String replace(String input, String regex, String replacement, int maxMatchLength) throws IOException {
+		InputStream in = new RegExReplaceInputStream(slowly(input.getBytes(UTF_8)), UTF_8, Pattern.compile(regex), replacement, maxMatchLength);
+		return new String(ByteUtil.getByteArrayData(in), UTF_8);
+	}
+
+	@Test
+	public void testReplace() throws IOException {
+		assertEquals("Hello World, Hello", replace("Hallo World, Hallo", "Hallo", "Hello", 16));
+		assertEquals("", replace("", "Hallo", "Hello", 16));
+		assertEquals("<b>a</b>-<b>b</b>", replace("<a>a</a>-<a>b</a>", "<a>([^<]*)</a>", "<b>$1</b>", 16));
+		assertEquals("x$y\\", replace("abc", "(?<first>a)b(c)", "x\\$y\\\\", 16));
+		assertEquals("c-a", replace("abc", "(?<first>a)b(c)", "$2-${first}", 16));
+		assertEquals("äöü", replace("aöü", "a", "ä", 1));
+	}
+
+	@Test
+	public void testLongMatchIsCutOff() throws IOException {
+		assertEquals("<>bbbb", replace("aaaabbbb", "a+", "<>", 8));
+		assertTrue(replace("aaaabbbb", "a+", "<>", 2).matches("(<>)+bbbb"));
+	}
+
+	@Test
+	public void testSameAsReplaceAll() throws IOException {
+		String[] tokens = { "Hallo", "a", "b", "x", " ", "\n", "ä", "http://localhost:8080/swagger.json" };
+		String[][] expressions = {
+				{ "Hallo", "Hello" },
+				{ "(http(s)?://)localhost:8080(/[^ \n]*\\.js(on)?)", "$1example.com$3" },
+				{ "\\bab", "[$0]" },
+				{ "(?<=x)a", "y" },
+				{ "x*", "-" },
+		};
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			StringBuilder sb = new StringBuilder();
+			for (int j = random.nextInt(20000); j > 0; j--)
+				sb.append(tokens[random.nextInt(tokens.length)]);
+			String[] e = expressions[i % expressions.length];
+			assertEquals(sb.toString().replaceAll(e[0], e[1]), replace(sb.toString(), e[0], e[1], 512));
+		}
+	}
+}
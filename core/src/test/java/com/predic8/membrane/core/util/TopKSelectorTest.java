@@ -0,0 +1,61 @@
+/* Copyright 2026 predic8 GmbH, www.predic8.com
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+   http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License. */
+package com.predic8.membrane.core.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TopKSelectorTest {
+
+	@Test
+	public void testSelectsSmallest() {
+		List<Integer> values = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++)
+			values.add(i);
+		Collections.shuffle(values, new Random(42));
+
+		TopKSelector<Integer> selector = new TopKSelector<Integer>(Collections.<Integer>reverseOrder(), 5);
+		for (Integer i : values)
+			selector.offer(i);
+
+		assertEquals(Arrays.asList(999, 998, 997, 996, 995), selector.getSorted());
+		assertEquals(Arrays.asList(997, 996, 995), selector.getSorted(2));
+		assertEquals(Collections.emptyList(), selector.getSorted(10));
+	}
+
+	@Test
+	public void testFewerThanK() {
+		TopKSelector<String> selector = new TopKSelector<String>(Comparator.<String>naturalOrder(), 10);
+		selector.offer("c");
+		selector.offer("a");
+		selector.offer("b");
+		assertEquals(Arrays.asList("a", "b", "c"), selector.getSorted());
+	}
+
+	@Test
+	public void testZero() {
+		TopKSelector<String> selector = new TopKSelector<String>(Comparator.<String>naturalOrder(), 0);
+		selector.offer("a");
+		assertEquals(Collections.emptyList(), selector.getSorted());
+	}
+
+}
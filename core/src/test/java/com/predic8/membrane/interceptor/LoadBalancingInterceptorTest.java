@@ -49,6 +49,7 @@ import com.predic8.membrane.core.interceptor.balancer.RoundRobinStrategy;
 import com.predic8.membrane.core.rules.ServiceProxy;
 import com.predic8.membrane.core.rules.ServiceProxyKey;
 import com.predic8.membrane.core.services.DummyWebServiceInterceptor;
+import com.predic8.membrane.core.transport.http.client.CircuitBreakerConfiguration;
 import com.predic8.membrane.integration.Http11Test;
 
 public class LoadBalancingInterceptorTest {
@@ -275,6 +276,24 @@ public class LoadBalancingInterceptorTest {
 
 	}
 
+	@Test
+	public void testAllNodesEjected() throws Exception {
+		balancingInterceptor.setDispatchingStrategy(roundRobinStrategy);
+		CircuitBreakerConfiguration circuitBreaker = new CircuitBreakerConfiguration();
+		circuitBreaker.setConsecutiveErrors(1);
+		balancingInterceptor.setCircuitBreaker(circuitBreaker);
+		for (Node node : balancingInterceptor.getEndpoints())
+			balancingInterceptor.getCircuitBreaker(node).recordFailure();
+
+		HttpClient client = new HttpClient();
+		client.getParams().setParameter(HttpProtocolParams.PROTOCOL_VERSION,
+				HttpVersion.HTTP_1_1);
+
+		assertEquals(503, client.executeMethod(getPostMethod()));
+		assertEquals(0, mockInterceptor1.getCount());
+		assertEquals(0, mockInterceptor2.getCount());
+	}
+
 	@Test
 	public void testByThreadStrategy() throws Exception {
 		balancingInterceptor.setDispatchingStrategy(byThreadStrategy);